@@ -0,0 +1,126 @@
+// Carga mixta de cobro y reportes para comparar el modo de hilos del servidor.
+//
+// Ejecutar una vez con LBF_HILOS_VIRTUALES=false y otra con LBF_HILOS_VIRTUALES=true,
+// con el mismo DB_POOL_SIZE y la misma base de datos:
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e USUARIO_ID=1 -e PRODUCTO_ID=1 \
+//          -e MODO=plataforma bench/carga-mixta.js
+//
+// Al terminar se imprime, por escenario, el throughput y las latencias p50/p95/p99.
+
+import http from 'k6/http';
+import { check } from 'k6';
+import { Trend, Counter } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const USUARIO_ID = Number(__ENV.USUARIO_ID || 1);
+const PRODUCTO_ID = Number(__ENV.PRODUCTO_ID || 1);
+const PRECIO = Number(__ENV.PRECIO || 10);
+const MODO = __ENV.MODO || 'sin-nombre';
+const DURACION = __ENV.DURACION || '2m';
+
+// Rango amplio para que los reportes bloqueen en consultas largas
+const FECHA_INICIO = __ENV.FECHA_INICIO || '2024-01-01';
+const FECHA_FIN = __ENV.FECHA_FIN || '2025-12-31';
+
+const latenciaCobro = new Trend('latencia_cobro', true);
+const latenciaConsulta = new Trend('latencia_consulta', true);
+const latenciaReporte = new Trend('latencia_reporte', true);
+const errores = new Counter('errores');
+
+export const options = {
+  scenarios: {
+    // Cobros a ritmo constante: lo que importa es que no esperen detrás de los reportes
+    cobro: {
+      executor: 'constant-arrival-rate',
+      exec: 'cobro',
+      rate: Number(__ENV.COBROS_POR_SEGUNDO || 40),
+      timeUnit: '1s',
+      duration: DURACION,
+      preAllocatedVUs: 50,
+      maxVUs: 400,
+    },
+    // Consultas rápidas de producto, como el lector de código de barras
+    consulta: {
+      executor: 'constant-arrival-rate',
+      exec: 'consulta',
+      rate: Number(__ENV.CONSULTAS_POR_SEGUNDO || 80),
+      timeUnit: '1s',
+      duration: DURACION,
+      preAllocatedVUs: 50,
+      maxVUs: 400,
+    },
+    // Reportes pesados en paralelo, con pocos usuarios
+    reporte: {
+      executor: 'constant-vus',
+      exec: 'reporte',
+      vus: Number(__ENV.REPORTES_CONCURRENTES || 8),
+      duration: DURACION,
+    },
+  },
+};
+
+export function cobro() {
+  const venta = {
+    usuarioId: USUARIO_ID,
+    conIva: false,
+    sucursal: 'bench',
+    productos: [
+      { cantidad: 1, descuento: 0, producto: { productoId: PRODUCTO_ID, precio: PRECIO } },
+      { cantidad: 2, descuento: 0, producto: { productoId: PRODUCTO_ID, precio: PRECIO } },
+    ],
+  };
+  const res = http.post(`${BASE_URL}/lbf/ventas`, JSON.stringify(venta), {
+    headers: { 'Content-Type': 'application/json' },
+    tags: { escenario: 'cobro' },
+  });
+  latenciaCobro.add(res.timings.duration);
+  if (!check(res, { 'cobro 201': (r) => r.status === 201 })) errores.add(1, { escenario: 'cobro' });
+}
+
+export function consulta() {
+  const res = http.get(`${BASE_URL}/lbf/productos/${PRODUCTO_ID}`, { tags: { escenario: 'consulta' } });
+  latenciaConsulta.add(res.timings.duration);
+  if (!check(res, { 'consulta 200': (r) => r.status === 200 })) errores.add(1, { escenario: 'consulta' });
+}
+
+export function reporte() {
+  const params = `fechaInicio=${FECHA_INICIO}&fechaFin=${FECHA_FIN}`;
+  const urls = [
+    `${BASE_URL}/lbf/reportes/productos-mas-vendidos?${params}&limite=20`,
+    `${BASE_URL}/lbf/reportes/ventas-por-categoria?${params}`,
+    `${BASE_URL}/lbf/ventas/rango?${params}&limite=500`,
+  ];
+  const res = http.get(urls[Math.floor(Math.random() * urls.length)], {
+    tags: { escenario: 'reporte' },
+    timeout: '120s',
+  });
+  latenciaReporte.add(res.timings.duration);
+  if (!check(res, { 'reporte 200': (r) => r.status === 200 })) errores.add(1, { escenario: 'reporte' });
+}
+
+function fila(nombre, trend, segundos) {
+  const v = trend ? trend.values : null;
+  if (!v) return `${nombre.padEnd(10)} sin datos`;
+  const porSegundo = (v.count / segundos).toFixed(1);
+  return `${nombre.padEnd(10)} ${String(porSegundo).padStart(8)} req/s` +
+    `  p50 ${v.med.toFixed(0).padStart(6)} ms` +
+    `  p95 ${v['p(95)'].toFixed(0).padStart(6)} ms` +
+    `  p99 ${v['p(99)'].toFixed(0).padStart(6)} ms`;
+}
+
+export function handleSummary(data) {
+  const segundos = data.state.testRunDurationMs / 1000;
+  const texto = [
+    `Modo: ${MODO}  (duración ${segundos.toFixed(0)} s)`,
+    fila('cobro', data.metrics.latencia_cobro, segundos),
+    fila('consulta', data.metrics.latencia_consulta, segundos),
+    fila('reporte', data.metrics.latencia_reporte, segundos),
+    `errores: ${data.metrics.errores ? data.metrics.errores.values.count : 0}`,
+    '',
+  ].join('\n');
+  return {
+    stdout: texto,
+    [`bench/resultado-${MODO}.json`]: JSON.stringify(data, null, 2),
+  };
+}
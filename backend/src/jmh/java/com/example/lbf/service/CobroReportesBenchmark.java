@@ -0,0 +1,151 @@
+package com.example.lbf.service;
+
+import com.example.lbf.dto.request.LineaVentaRequest;
+import com.example.lbf.dto.request.VentaRequest;
+import com.example.lbf.dto.response.CotizacionResponse;
+import com.example.lbf.dto.response.ProductoCatalogoDTO;
+import com.example.lbf.dto.response.VentaMensualDTO;
+import com.example.lbf.dto.response.VentaPorCategoriaDTO;
+import com.example.lbf.entities.Producto;
+import com.example.lbf.entities.ProductoVendido;
+import com.example.lbf.repository.ProductoVendidoRepository;
+import com.example.lbf.repository.VentaResumenDiarioRepository;
+import com.example.lbf.service.catalogo.TablaPreciosServiceImpl;
+import com.example.lbf.service.reportes.ReporteServiceImpl;
+import com.example.lbf.util.Dinero;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide los caminos reales del cobro y de los reportes: TablaPreciosServiceImpl.cotizar con
+ * un carrito de 40 líneas en los dos formatos, y ReporteServiceImpl con las filas que
+ * devolverían sus consultas. Los repositorios se sustituyen por proxies que devuelven filas
+ * ya armadas, así solo se mide lo que hace el servicio y no la base. Con -prof gc,
+ * gc.alloc.rate.norm da los bytes por cotización o por reporte.
+ *
+ * mvn -Pbenchmark test-compile exec:exec
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CobroReportesBenchmark {
+
+    private static final int PRODUCTOS = 500;
+    private static final int LINEAS = 40;
+    private static final int CATEGORIAS = 30;
+
+    private TablaPreciosServiceImpl tablaPrecios;
+    private ReporteServiceImpl reportes;
+
+    private VentaRequest carrito;
+    private VentaRequest carritoAnterior;
+
+    @Setup
+    public void preparar() {
+        Random random = new Random(42);
+
+        // Catálogo en memoria, como lo deja CatalogoSincronizador
+        List<ProductoCatalogoDTO> catalogo = new ArrayList<>();
+        for (long id = 1; id <= PRODUCTOS; id++) {
+            ProductoCatalogoDTO producto = new ProductoCatalogoDTO();
+            producto.setProductoId(id);
+            producto.setNombre("Producto " + id);
+            producto.setPrecio(random.nextInt(50_000) / 100f);
+            producto.setDescuentos(List.of(5f, 10f, 15f));
+            catalogo.add(producto);
+        }
+        tablaPrecios = new TablaPreciosServiceImpl();
+        tablaPrecios.reemplazar(catalogo);
+
+        // El mismo carrito en el formato compacto y en el anterior
+        List<LineaVentaRequest> lineas = new ArrayList<>();
+        List<ProductoVendido> productos = new ArrayList<>();
+        for (int i = 0; i < LINEAS; i++) {
+            long productoId = 1 + random.nextInt(PRODUCTOS);
+            float cantidad = i % 5 == 0 ? random.nextInt(2_000) / 1000f + 0.001f : 1 + random.nextInt(6);
+            Integer descuento = i % 3 == 0 ? random.nextInt(3) : null;
+            lineas.add(new LineaVentaRequest(productoId, cantidad, descuento));
+
+            ProductoVendido pv = new ProductoVendido();
+            Producto producto = new Producto();
+            producto.setProductoId(productoId);
+            pv.setProducto(producto);
+            pv.setCantidad(cantidad);
+            pv.setDescuento(descuento != null ? 5f * (descuento + 1) : null);
+            productos.add(pv);
+        }
+        carrito = new VentaRequest();
+        carrito.setLineas(lineas);
+        carrito.setConIva(true);
+        carritoAnterior = new VentaRequest();
+        carritoAnterior.setProductos(productos);
+        carritoAnterior.setConIva(true);
+
+        // Filas de las consultas agregadas: doce meses y una fila por categoría
+        List<Object[]> porMes = new ArrayList<>();
+        for (int mes = 1; mes <= 12; mes++) {
+            porMes.add(new Object[] { mes, Dinero.decimal(random.nextInt(500_000_000)) });
+        }
+        List<Object[]> porCategoria = new ArrayList<>();
+        for (int categoria = 0; categoria < CATEGORIAS; categoria++) {
+            porCategoria.add(new Object[] { "Categoría " + categoria, Dinero.decimal(random.nextInt(50_000_000)) });
+        }
+        reportes = new ReporteServiceImpl();
+        ReflectionTestUtils.setField(reportes, "ventaResumenDiarioRepository",
+                repositorio(VentaResumenDiarioRepository.class, "sumarPorMes", porMes));
+        ReflectionTestUtils.setField(reportes, "productoVendidoRepository",
+                repositorio(ProductoVendidoRepository.class, "findVentasPorCategoria", porCategoria));
+    }
+
+    @Benchmark
+    public CotizacionResponse cotizarCarrito() {
+        return tablaPrecios.cotizar(carrito);
+    }
+
+    @Benchmark
+    public CotizacionResponse cotizarCarritoFormatoAnterior() {
+        return tablaPrecios.cotizar(carritoAnterior);
+    }
+
+    @Benchmark
+    public List<VentaMensualDTO> ventasMensuales() {
+        return reportes.getVentasMensuales(2024);
+    }
+
+    @Benchmark
+    public List<VentaPorCategoriaDTO> ventasPorCategoria() {
+        return reportes.getVentasPorCategoria(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31));
+    }
+
+    // Repositorio que solo responde la consulta indicada con las filas dadas
+    private static <T> T repositorio(Class<T> tipo, String consulta, List<Object[]> filas) {
+        return tipo.cast(Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[] { tipo },
+                (proxy, metodo, argumentos) -> {
+                    if (metodo.getName().equals(consulta)) {
+                        return filas;
+                    }
+                    throw new UnsupportedOperationException(metodo.getName());
+                }));
+    }
+}
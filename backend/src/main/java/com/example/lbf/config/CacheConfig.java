@@ -0,0 +1,35 @@
+package com.example.lbf.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Habilita @Cacheable con cachés Caffeine acotadas por tamaño y tiempo de vida.
+ * Cada caché registra aciertos, fallos y desalojos (/lbf/cache/estadisticas).
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUCTOS = "productos";
+    public static final String PRODUCTOS_POR_CATEGORIA = "productosPorCategoria";
+
+    @Bean
+    CacheManager cacheManager(
+            @Value("${lbf.cache.productos.spec:maximumSize=10000,expireAfterWrite=2m,recordStats}") String productos,
+            @Value("${lbf.cache.productos-por-categoria.spec:maximumSize=500,expireAfterWrite=2m,recordStats}")
+            String productosPorCategoria) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Un producto inexistente no se guarda, así no queda oculto cuando se cree
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(PRODUCTOS, Caffeine.from(productos).build());
+        cacheManager.registerCustomCache(PRODUCTOS_POR_CATEGORIA, Caffeine.from(productosPorCategoria).build());
+        return cacheManager;
+    }
+}
@@ -21,6 +21,7 @@ public class CorsConfig implements WebMvcConfigurer {
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH")); // Métodos
                                                                                                             // permitidos
         configuration.setAllowedHeaders(Arrays.asList("*")); // Encabezados permitidos
+        configuration.setExposedHeaders(List.of("X-Siguiente-Cursor")); // Cursor de paginación de ventas
         configuration.setAllowCredentials(true); // Permitir credenciales
         configuration.setMaxAge(3600L); // Tiempo de caché
 
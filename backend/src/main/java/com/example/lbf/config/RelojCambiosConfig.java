@@ -0,0 +1,37 @@
+package com.example.lbf.config;
+
+import com.example.lbf.entities.RelojCambios;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Conecta RelojCambios con la secuencia cambio_catalogo_seq. La sintaxis del siguiente valor
+ * la da el dialecto de Hibernate (nextval en PostgreSQL, NEXT VALUE FOR en H2). La lectura
+ * usa la conexión de la transacción en curso, como las demás consultas del cambio.
+ *
+ * En PostgreSQL la secuencia la crea V14; en las pruebas, la URL de H2.
+ */
+@Configuration
+public class RelojCambiosConfig {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void conectar() {
+        Dialect dialecto = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        String consulta = dialecto.getSequenceSupport().getSequenceNextValString(RelojCambios.SECUENCIA);
+        String expresion = dialecto.getSequenceSupport().getSelectSequenceNextValString(RelojCambios.SECUENCIA);
+        RelojCambios.usar(() -> jdbcTemplate.queryForObject(consulta, Long.class), expresion);
+    }
+}
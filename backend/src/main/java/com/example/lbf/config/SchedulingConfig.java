@@ -0,0 +1,13 @@
+package com.example.lbf.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas (@Scheduled), como la creación anticipada de
+ * particiones mensuales.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,35 @@
+package com.example.lbf.config;
+
+import com.example.lbf.service.sync.CatalogoSnapshotServiceImpl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * Sirve los archivos del catálogo publicados por CatalogoSnapshotService. Su nombre
+ * cambia con el contenido, así que se marcan inmutables por un año; si el cliente acepta
+ * gzip se envía el .gz ya comprimido sin trabajo por petición. En producción nginx los
+ * sirve directo desde el mismo directorio y estas peticiones no llegan a la aplicación.
+ */
+@Configuration
+public class SnapshotConfig implements WebMvcConfigurer {
+
+    @Value("${lbf.sync.snapshot.directorio:snapshots}")
+    private String directorio;
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler(CatalogoSnapshotServiceImpl.RUTA_ARCHIVOS + "**")
+                .addResourceLocations(Paths.get(directorio).toAbsolutePath().toUri().toString())
+                .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+    }
+}
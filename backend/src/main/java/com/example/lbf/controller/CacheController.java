@@ -0,0 +1,35 @@
+package com.example.lbf.controller;
+
+import com.example.lbf.dto.response.EstadisticasCacheDTO;
+import com.example.lbf.service.mantenimiento.CacheService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador REST para consultar el estado de las cachés de la aplicación.
+ */
+@RestController
+@RequestMapping("/lbf/cache")
+@CrossOrigin(origins = "*")
+@Tag(name = "Caché", description = "API para consultar las estadísticas de las cachés")
+public class CacheController {
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Operation(summary = "Obtener estadísticas de las cachés",
+               description = "Retorna entradas, aciertos, fallos, tasa de aciertos y desalojos de cada caché")
+    @ApiResponse(responseCode = "200", description = "Estadísticas obtenidas correctamente")
+    @GetMapping("/estadisticas")
+    public ResponseEntity<List<EstadisticasCacheDTO>> getEstadisticas() {
+        return ResponseEntity.ok(cacheService.getEstadisticas());
+    }
+}
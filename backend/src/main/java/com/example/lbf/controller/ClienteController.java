@@ -1,7 +1,10 @@
 package com.example.lbf.controller;
 
+import com.example.lbf.dto.response.ClienteResumenDTO;
 import com.example.lbf.entities.Cliente;
+import com.example.lbf.entities.Venta;
 import com.example.lbf.service.ClienteService;
+import com.example.lbf.service.venta.VentaService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -19,16 +22,26 @@ import java.util.HashMap;
 @CrossOrigin(origins = "*")
 public class ClienteController {
 
+    // Tamaño de página del historial de ventas
+    private static final int LIMITE_HISTORIAL = 50;
+
+    private static final int LIMITE_MAXIMO = 500;
+
     @Autowired
     private ClienteService clienteService;
+
+    @Autowired
+    private VentaService ventaService;
     
     /**
-     * Obtiene todos los clientes
+     * Obtiene todos los clientes sin sus ventas
+     * @param resumen Si es true, incluye tickets y fecha de la última compra
      * @return Lista de clientes
      */
     @GetMapping
-    public ResponseEntity<List<Cliente>> getAllClientes() {
-        List<Cliente> clientes = clienteService.getAllClientes();
+    public ResponseEntity<List<ClienteResumenDTO>> getAllClientes(
+            @RequestParam(defaultValue = "false") boolean resumen) {
+        List<ClienteResumenDTO> clientes = clienteService.getResumenesClientes(null, resumen);
         return new ResponseEntity<>(clientes, HttpStatus.OK);
     }
     
@@ -49,15 +62,39 @@ public class ClienteController {
     }
     
     /**
-     * Busca clientes por nombre
+     * Busca clientes por nombre, sin sus ventas
      * @param nombre Nombre o parte del nombre a buscar
+     * @param resumen Si es true, incluye tickets y fecha de la última compra
      * @return Lista de clientes que coinciden con el criterio
      */
     @GetMapping("/buscar")
-    public ResponseEntity<List<Cliente>> buscarClientesPorNombre(@RequestParam String nombre) {
-        List<Cliente> clientes = clienteService.buscarClientesPorNombre(nombre);
+    public ResponseEntity<List<ClienteResumenDTO>> buscarClientesPorNombre(@RequestParam String nombre,
+            @RequestParam(defaultValue = "false") boolean resumen) {
+        List<ClienteResumenDTO> clientes = clienteService.getResumenesClientes(nombre, resumen);
         return new ResponseEntity<>(clientes, HttpStatus.OK);
     }
+
+    /**
+     * Obtiene el historial de ventas de un cliente, de la más reciente a la más antigua.
+     * El encabezado X-Siguiente-Cursor trae el cursor de la siguiente página.
+     * @param id ID del cliente
+     * @param cursor ventaId de la última venta de la página anterior
+     * @param limite Cantidad máxima de ventas por página (hasta 500)
+     * @return Página de ventas del cliente
+     */
+    @GetMapping("/{id}/ventas")
+    public ResponseEntity<List<Venta>> getHistorialVentas(@PathVariable Long id,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "" + LIMITE_HISTORIAL) int limite) {
+        int tamano = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        List<Venta> ventas = ventaService.getVentasByCliente(id, cursor, tamano);
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (ventas.size() >= tamano) {
+            respuesta.header(VentaController.ENCABEZADO_SIGUIENTE_CURSOR,
+                    String.valueOf(ventas.get(ventas.size() - 1).getVentaId()));
+        }
+        return respuesta.body(ventas);
+    }
     
     /**
      * Crea un nuevo cliente
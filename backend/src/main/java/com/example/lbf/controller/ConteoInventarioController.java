@@ -0,0 +1,150 @@
+package com.example.lbf.controller;
+
+import com.example.lbf.dto.request.LecturasConteoRequest;
+import com.example.lbf.dto.response.ConciliacionInventarioResumen;
+import com.example.lbf.dto.response.LecturasConteoResultado;
+import com.example.lbf.dto.response.SesionConteoResponse;
+import com.example.lbf.service.inventario.SesionConteoService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador REST para las sesiones de conteo físico con escáneres.
+ * Los escáneres envían sus lecturas en lotes pequeños mientras recorren la tienda y la
+ * sesión se concilia con el stock al cerrarla.
+ */
+@RestController
+@RequestMapping("/api/inventario/conteos")
+@CrossOrigin(origins = "*")
+@Tag(name = "Conteo de inventario", description = "API para contar el inventario físico con varios escáneres")
+public class ConteoInventarioController {
+
+    @Autowired
+    private SesionConteoService sesionConteoService;
+
+    @Operation(summary = "Abrir una sesión de conteo",
+               description = "Crea una sesión a la que los escáneres envían sus lecturas")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Sesión abierta",
+                     content = { @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = SesionConteoResponse.class)) })
+    })
+    @PostMapping
+    public ResponseEntity<SesionConteoResponse> abrirSesion(
+            @Parameter(description = "Descripción del conteo, por ejemplo el pasillo o la fecha")
+            @RequestParam(required = false) String descripcion,
+            @Parameter(description = "Usuario que abre la sesión")
+            @RequestParam(required = false) String usuario) {
+        return new ResponseEntity<>(sesionConteoService.abrirSesion(descripcion, usuario), HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "Obtener las sesiones de conteo abiertas",
+               description = "Devuelve las sesiones abiertas con su avance")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lista de sesiones abiertas",
+                     content = { @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = SesionConteoResponse.class)) })
+    })
+    @GetMapping
+    public ResponseEntity<List<SesionConteoResponse>> getSesionesAbiertas() {
+        return ResponseEntity.ok(sesionConteoService.getSesionesAbiertas());
+    }
+
+    @Operation(summary = "Obtener una sesión de conteo",
+               description = "Devuelve el avance de la sesión y la última secuencia aplicada de cada escáner; "
+                           + "un escáner que perdió la conexión reenvía sus lotes a partir de la suya")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Sesión encontrada",
+                     content = { @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = SesionConteoResponse.class)) }),
+        @ApiResponse(responseCode = "404", description = "Sesión no encontrada")
+    })
+    @GetMapping("/{sesionId}")
+    public ResponseEntity<SesionConteoResponse> getSesion(
+            @Parameter(description = "ID de la sesión", required = true)
+            @PathVariable Long sesionId) {
+        SesionConteoResponse sesion = sesionConteoService.getSesion(sesionId);
+        return sesion != null ? ResponseEntity.ok(sesion) : ResponseEntity.notFound().build();
+    }
+
+    @Operation(summary = "Registrar lecturas de un escáner",
+               description = "Suma un lote de lecturas al conteo. Cada escáner numera sus lotes de uno en uno; "
+                           + "un lote con una secuencia ya aplicada se reporta como duplicado y no se vuelve a sumar")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lote aplicado o duplicado",
+                     content = { @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = LecturasConteoResultado.class)) }),
+        @ApiResponse(responseCode = "400", description = "Escáner, secuencia o lecturas inválidos"),
+        @ApiResponse(responseCode = "409", description = "Faltan lotes anteriores; el escáner reenvía desde ultimaSecuencia + 1",
+                     content = { @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = LecturasConteoResultado.class)) }),
+        @ApiResponse(responseCode = "404", description = "La sesión no existe o ya no está abierta")
+    })
+    @PostMapping("/{sesionId}/lecturas")
+    public ResponseEntity<LecturasConteoResultado> registrarLecturas(
+            @Parameter(description = "ID de la sesión", required = true)
+            @PathVariable Long sesionId,
+            @Parameter(description = "Lote de lecturas del escáner", required = true)
+            @RequestBody LecturasConteoRequest lecturas) {
+        try {
+            LecturasConteoResultado resultado = sesionConteoService.registrarLecturas(sesionId, lecturas);
+            if (resultado == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return resultado.isFueraDeSecuencia()
+                    ? ResponseEntity.status(HttpStatus.CONFLICT).body(resultado)
+                    : ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Operation(summary = "Cerrar una sesión de conteo",
+               description = "Concilia el conteo neto de la sesión con el stock; solo se ajustan los productos leídos")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Inventario conciliado con el resumen de diferencias",
+                     content = { @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = ConciliacionInventarioResumen.class)) }),
+        @ApiResponse(responseCode = "400", description = "Algún producto quedó con conteo negativo; la sesión sigue abierta"),
+        @ApiResponse(responseCode = "404", description = "La sesión no existe o ya no está abierta")
+    })
+    @PostMapping("/{sesionId}/cerrar")
+    public ResponseEntity<ConciliacionInventarioResumen> cerrarSesion(
+            @Parameter(description = "ID de la sesión", required = true)
+            @PathVariable Long sesionId) {
+        try {
+            ConciliacionInventarioResumen resumen = sesionConteoService.cerrarSesion(sesionId);
+            return resumen != null ? ResponseEntity.ok(resumen) : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Operation(summary = "Cancelar una sesión de conteo",
+               description = "Descarta el conteo sin tocar el stock")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Sesión cancelada"),
+        @ApiResponse(responseCode = "404", description = "La sesión no existe o ya no está abierta")
+    })
+    @DeleteMapping("/{sesionId}")
+    public ResponseEntity<Void> cancelarSesion(
+            @Parameter(description = "ID de la sesión", required = true)
+            @PathVariable Long sesionId) {
+        return sesionConteoService.cancelarSesion(sesionId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.lbf.controller;
 
+import com.example.lbf.dto.response.ConciliacionInventarioResumen;
+import com.example.lbf.dto.response.LibroInventarioMetricas;
 import com.example.lbf.entities.Producto;
 import com.example.lbf.service.inventario.InventarioService;
+import com.example.lbf.service.inventario.LibroInventarioService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,9 +15,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -29,8 +37,16 @@ import java.util.Map;
 @Tag(name = "Inventario", description = "API para la gestión del inventario de productos")
 public class InventarioController {
 
+    // Productos máximos por consulta de stock en lote
+    private static final int MAX_PRODUCTOS_LOTE = 500;
+
+    @Autowired
+    private InventarioService inventarioService;
+
     @Autowired
-    private InventarioService inventarioService;    @Operation(summary = "Actualizar stock de un producto", 
+    private LibroInventarioService libroInventarioService;
+
+    @Operation(summary = "Actualizar stock de un producto", 
                description = "Actualiza el stock de un producto mediante un incremento o decremento")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Stock actualizado correctamente", 
@@ -65,6 +81,23 @@ public class InventarioController {
             @PathVariable Long productoId) {
         Float stock = inventarioService.getStockActual(productoId);
         return ResponseEntity.ok(stock);
+    }
+
+    @Operation(summary = "Obtener el stock actual de varios productos",
+               description = "Devuelve el stock de cada producto indicado en una sola petición; "
+                           + "los productos inexistentes se informan con stock 0")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stock por ID de producto"),
+        @ApiResponse(responseCode = "400", description = "Se pidieron más de " + MAX_PRODUCTOS_LOTE + " productos")
+    })
+    @PostMapping("/stock/lote")
+    public ResponseEntity<Map<Long, Float>> getStockActualLote(
+            @Parameter(description = "IDs de los productos", required = true)
+            @RequestBody List<Long> productoIds) {
+        if (productoIds.size() > MAX_PRODUCTOS_LOTE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(inventarioService.getStockActualLote(productoIds));
     }    @Operation(summary = "Obtener productos con bajo stock", 
                description = "Devuelve una lista de productos cuyo stock está por debajo del umbral especificado")
     @ApiResponses(value = {
@@ -128,14 +161,52 @@ public class InventarioController {
     }    @Operation(summary = "Realizar inventario físico", 
                description = "Ajusta el inventario según el conteo físico realizado")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Inventario físico registrado correctamente"),
+        @ApiResponse(responseCode = "200", description = "Inventario conciliado con el resumen de diferencias",
+                     content = { @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = ConciliacionInventarioResumen.class)) }),
         @ApiResponse(responseCode = "400", description = "Datos de inventario inválidos")
     })
     @PostMapping("/inventario-fisico")
-    public ResponseEntity<Void> realizarInventarioFisico(
+    public ResponseEntity<ConciliacionInventarioResumen> realizarInventarioFisico(
             @Parameter(description = "Mapa de productos con sus cantidades contadas (ID producto -> cantidad)", required = true)
             @RequestBody Map<Long, Float> conteoProductos) {
-        inventarioService.realizarInventarioFisico(conteoProductos);
-        return ResponseEntity.ok().build();
+        try {
+            return ResponseEntity.ok(inventarioService.realizarInventarioFisico(conteoProductos));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Operation(summary = "Realizar inventario físico desde un archivo del escáner",
+               description = "Recibe el conteo como CSV, una línea por lectura con \"codigo\" o \"codigo,cantidad\" "
+                           + "(también separado por punto y coma o tabulador). Un código repetido suma sus cantidades "
+                           + "y uno sin cantidad cuenta como una pieza. El archivo se lee conforme llega")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Inventario conciliado; incluye los códigos desconocidos",
+                     content = { @Content(mediaType = "application/json",
+                     schema = @Schema(implementation = ConciliacionInventarioResumen.class)) }),
+        @ApiResponse(responseCode = "400", description = "Cantidades inválidas")
+    })
+    @PostMapping(value = "/inventario-fisico/csv", consumes = { "text/csv", MediaType.TEXT_PLAIN_VALUE })
+    public ResponseEntity<ConciliacionInventarioResumen> realizarInventarioFisicoCsv(
+            @Parameter(description = "Contenido CSV del conteo", required = true)
+            InputStream csv) throws IOException {
+        try {
+            return ResponseEntity.ok(inventarioService.realizarInventarioFisicoCsv(
+                    new InputStreamReader(csv, StandardCharsets.UTF_8)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Operation(summary = "Métricas del libro de inventario",
+               description = "Devuelve la ocupación de la cola del kardex, los movimientos que aún esperan "
+                           + "en la base y el retraso entre el cambio de stock y su registro")
+    @ApiResponse(responseCode = "200", description = "Métricas actuales",
+                 content = { @Content(mediaType = "application/json",
+                 schema = @Schema(implementation = LibroInventarioMetricas.class)) })
+    @GetMapping("/libro/metricas")
+    public ResponseEntity<LibroInventarioMetricas> getMetricasLibro() {
+        return ResponseEntity.ok(libroInventarioService.getMetricas());
     }
 }
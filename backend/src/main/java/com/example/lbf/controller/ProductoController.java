@@ -1,6 +1,7 @@
 package com.example.lbf.controller;
 
 import com.example.lbf.dto.request.NuevoProductoRequest;
+import com.example.lbf.dto.response.ProductoCatalogoDTO;
 import com.example.lbf.entities.Producto;
 import com.example.lbf.service.producto.ProductoService;
 
@@ -13,11 +14,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controlador REST para la gestión de productos.
@@ -30,6 +33,12 @@ import java.util.List;
 @Tag(name = "Productos", description = "API para la gestión de productos del sistema")
 public class ProductoController {
 
+    // Resultados máximos del buscador de la caja
+    private static final int MAX_SUGERENCIAS = 50;
+
+    // Productos máximos por verificación de carrito
+    private static final int MAX_PRODUCTOS_LOTE = 500;
+
     @Autowired
     private ProductoService productoService;
 
@@ -38,22 +47,31 @@ public class ProductoController {
         @ApiResponse(responseCode = "201", description = "Producto creado correctamente", 
                      content = { @Content(mediaType = "application/json", 
                      schema = @Schema(implementation = Producto.class)) }),
-        @ApiResponse(responseCode = "400", description = "Datos de producto inválidos")
+        @ApiResponse(responseCode = "400", description = "Datos de producto inválidos o código de barras ya asignado"),
+        @ApiResponse(responseCode = "409", description = "Otro producto tomó el mismo código de barras al mismo tiempo")
     })
     @PostMapping
     public ResponseEntity<Producto> crearProducto(
             @Parameter(description = "Datos del producto a crear", required = true)
             @RequestBody NuevoProductoRequest producto) {
-        Producto nuevoProducto = productoService.crearProducto(producto);
-        return new ResponseEntity<>(nuevoProducto, HttpStatus.CREATED);
+        try {
+            Producto nuevoProducto = productoService.crearProducto(producto);
+            return new ResponseEntity<>(nuevoProducto, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (DataIntegrityViolationException e) {
+            // La revisión del servicio no ve una alta concurrente; el índice único sí
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @Operation(summary = "Actualizar un producto existente", 
                description = "Actualiza los datos de un producto identificado por su ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Producto actualizado correctamente"),
-        @ApiResponse(responseCode = "400", description = "Datos de producto inválidos"),
-        @ApiResponse(responseCode = "404", description = "Producto no encontrado")
+        @ApiResponse(responseCode = "400", description = "Datos de producto inválidos o código de barras ya asignado"),
+        @ApiResponse(responseCode = "404", description = "Producto no encontrado"),
+        @ApiResponse(responseCode = "409", description = "Otro producto tomó el mismo código de barras al mismo tiempo")
     })
     @PutMapping("/{id}")
     public ResponseEntity<Producto> actualizarProducto(
@@ -62,8 +80,14 @@ public class ProductoController {
             @Parameter(description = "Datos actualizados del producto", required = true)
             @RequestBody Producto producto) {
         producto.setProductoId(id);
-        Producto productoActualizado = productoService.actualizarProducto(producto);
-        return ResponseEntity.ok(productoActualizado);
+        try {
+            Producto productoActualizado = productoService.actualizarProducto(producto);
+            return ResponseEntity.ok(productoActualizado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @Operation(summary = "Eliminar un producto", 
@@ -87,31 +111,48 @@ public class ProductoController {
         @ApiResponse(responseCode = "404", description = "Producto no encontrado")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<Producto> getProductoById(
+    public ResponseEntity<ProductoCatalogoDTO> getProductoById(
             @Parameter(description = "ID del producto a buscar", required = true)
             @PathVariable Long id) {
-        Producto producto = productoService.getProductoById(id);
+        ProductoCatalogoDTO producto = productoService.getProductoById(id);
         if (producto != null) {
             return ResponseEntity.ok(producto);
         }
         return ResponseEntity.notFound().build();
     }
 
-    @Operation(summary = "Obtener todos los productos", 
+    @Operation(summary = "Obtener un producto por su código de barras",
+               description = "Búsqueda para el escáner de caja; se resuelve desde memoria sin consultar la base")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Producto encontrado"),
+        @ApiResponse(responseCode = "404", description = "Ningún producto tiene ese código")
+    })
+    @GetMapping("/codigo/{codigoBarras}")
+    public ResponseEntity<ProductoCatalogoDTO> getProductoByCodigoBarras(
+            @Parameter(description = "Código de barras escaneado", required = true)
+            @PathVariable String codigoBarras) {
+        ProductoCatalogoDTO producto = productoService.getProductoByCodigoBarras(codigoBarras);
+        if (producto != null) {
+            return ResponseEntity.ok(producto);
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    @Operation(summary = "Obtener todos los productos",
                description = "Retorna una lista con todos los productos del sistema")
     @ApiResponse(responseCode = "200", description = "Lista de productos obtenida correctamente")
     @GetMapping
-    public ResponseEntity<List<Producto>> getAllProductos() {
-        List<Producto> productos = productoService.getAllProductos();
+    public ResponseEntity<List<ProductoCatalogoDTO>> getAllProductos() {
+        List<ProductoCatalogoDTO> productos = productoService.getAllProductos();
         return ResponseEntity.ok(productos);
     }    @Operation(summary = "Obtener productos por categoría", 
                description = "Retorna todos los productos que pertenecen a una categoría específica")
     @ApiResponse(responseCode = "200", description = "Lista de productos obtenida correctamente")
     @GetMapping("/categoria/{categoriaId}")
-    public ResponseEntity<List<Producto>> getProductosByCategoria(
+    public ResponseEntity<List<ProductoCatalogoDTO>> getProductosByCategoria(
             @Parameter(description = "ID de la categoría", required = true)
             @PathVariable Long categoriaId) {
-        List<Producto> productos = productoService.getProductosByCategoria(categoriaId);
+        List<ProductoCatalogoDTO> productos = productoService.getProductosByCategoria(categoriaId);
         return ResponseEntity.ok(productos);
     }
 
@@ -139,21 +180,35 @@ public class ProductoController {
                description = "Busca productos que coincidan con el criterio especificado (nombre)")
     @ApiResponse(responseCode = "200", description = "Lista de productos encontrados")
     @GetMapping("/buscar")
-    public ResponseEntity<List<Producto>> buscarProductos(
+    public ResponseEntity<List<ProductoCatalogoDTO>> buscarProductos(
             @Parameter(description = "Criterio de búsqueda (texto en el nombre del producto)", required = true)
             @RequestParam String criterio) {
-        List<Producto> productos = productoService.buscarProductos(criterio);
+        List<ProductoCatalogoDTO> productos = productoService.buscarProductos(criterio);
         return ResponseEntity.ok(productos);
     }
 
+    @Operation(summary = "Sugerir productos mientras se escribe",
+               description = "Busca por prefijo o parte del nombre, código de barras o categoría, sin importar "
+                           + "acentos ni mayúsculas, y devuelve los mejores resultados desde memoria")
+    @ApiResponse(responseCode = "200", description = "Productos ordenados por relevancia")
+    @GetMapping("/sugerencias")
+    public ResponseEntity<List<ProductoCatalogoDTO>> sugerirProductos(
+            @Parameter(description = "Texto escrito en el buscador", required = true)
+            @RequestParam String q,
+            @Parameter(description = "Cantidad máxima de resultados (máximo " + MAX_SUGERENCIAS + ")")
+            @RequestParam(defaultValue = "10") int limit) {
+        int limite = Math.max(1, Math.min(limit, MAX_SUGERENCIAS));
+        return ResponseEntity.ok(productoService.sugerirProductos(q, limite));
+    }
+
     @Operation(summary = "Obtener productos con stock bajo", 
                description = "Retorna productos cuyo stock es menor al umbral especificado")
     @ApiResponse(responseCode = "200", description = "Lista de productos con stock bajo")
     @GetMapping("/bajo-stock")
-    public ResponseEntity<List<Producto>> getProductosBajoStock(
+    public ResponseEntity<List<ProductoCatalogoDTO>> getProductosBajoStock(
             @Parameter(description = "Umbral de stock mínimo", required = true)
             @RequestParam Float stockMinimo) {
-        List<Producto> productos = productoService.getProductosBajoStock(stockMinimo);
+        List<ProductoCatalogoDTO> productos = productoService.getProductosBajoStock(stockMinimo);
         return ResponseEntity.ok(productos);
     }
 
@@ -172,4 +227,21 @@ public class ProductoController {
         boolean disponible = productoService.verificarDisponibilidad(id, cantidad);
         return ResponseEntity.ok(disponible);
     }
+
+    @Operation(summary = "Verificar disponibilidad de un carrito completo",
+               description = "Verifica en una sola petición si hay stock suficiente para cada producto; "
+                           + "se responde desde la caché de productos y una sola consulta para el resto")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Disponibilidad por ID de producto"),
+        @ApiResponse(responseCode = "400", description = "Se enviaron más de " + MAX_PRODUCTOS_LOTE + " productos")
+    })
+    @PostMapping("/disponibilidad")
+    public ResponseEntity<Map<Long, Boolean>> verificarDisponibilidadLote(
+            @Parameter(description = "Cantidad solicitada por ID de producto", required = true)
+            @RequestBody Map<Long, Float> cantidades) {
+        if (cantidades.size() > MAX_PRODUCTOS_LOTE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productoService.verificarDisponibilidadLote(cantidades));
+    }
 }
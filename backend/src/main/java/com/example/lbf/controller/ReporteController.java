@@ -2,6 +2,7 @@ package com.example.lbf.controller;
 
 import com.example.lbf.dto.response.*;
 import com.example.lbf.service.reportes.ReporteService;
+import com.example.lbf.service.reportes.ResumenVentasService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -35,6 +36,9 @@ public class ReporteController {
         @Autowired
         private ReporteService reporteService;
 
+        @Autowired
+        private ResumenVentasService resumenVentasService;
+
         @Operation(summary = "Obtener productos más vendidos", description = "Devuelve un listado de productos ordenados por cantidad vendida en un período")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Reporte generado correctamente", content = {
@@ -102,6 +106,20 @@ public class ReporteController {
                 return ResponseEntity.ok(ventas);
         }
 
+        @Operation(summary = "Obtener mapa de calor de ventas por hora", description = "Devuelve tickets y total por sucursal, día de la semana (1 = domingo ... 7 = sábado) y hora del día en un período")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Reporte generado correctamente", content = {
+                                        @Content(mediaType = "application/json", schema = @Schema(implementation = VentaPorHoraDTO.class)) })
+        })
+        @GetMapping("/ventas-por-hora")
+        public ResponseEntity<List<VentaPorHoraDTO>> getVentasPorHora(
+                        @Parameter(description = "Fecha de inicio en formato ISO (YYYY-MM-DD)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+                        @Parameter(description = "Fecha de fin en formato ISO (YYYY-MM-DD)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+                        @Parameter(description = "Sucursal a consultar; si se omite se incluyen todas", required = false) @RequestParam(required = false) String sucursal) {
+                List<VentaPorHoraDTO> ventas = reporteService.getVentasPorHora(fechaInicio, fechaFin, sucursal);
+                return ResponseEntity.ok(ventas);
+        }
+
         @Operation(summary = "Calcular ingreso total", description = "Calcula el ingreso total por ventas en un período específico")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Cálculo realizado correctamente", content = {
@@ -155,4 +173,17 @@ public class ReporteController {
                  * .body(reporteBytes);
                  */
         }
+
+        @Operation(summary = "Reconstruir el resumen diario de ventas", description = "Recalcula desde las ventas el resumen por día, sucursal y usuario que alimenta los reportes. Pensado para cargar el histórico o corregir días ya cerrados")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Resumen reconstruido; devuelve la cantidad de renglones generados", content = {
+                                        @Content(mediaType = "application/json", schema = @Schema(implementation = Integer.class)) })
+        })
+        @PostMapping("/resumen/reconstruir")
+        public ResponseEntity<Integer> reconstruirResumen(
+                        @Parameter(description = "Fecha de inicio en formato ISO (YYYY-MM-DD)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+                        @Parameter(description = "Fecha de fin en formato ISO (YYYY-MM-DD)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
+                int renglones = resumenVentasService.reconstruir(fechaInicio, fechaFin);
+                return ResponseEntity.ok(renglones);
+        }
 }
@@ -0,0 +1,66 @@
+package com.example.lbf.controller;
+
+import com.example.lbf.dto.response.CambiosCatalogoResponse;
+import com.example.lbf.dto.response.ManifiestoCatalogoDTO;
+import com.example.lbf.service.sync.CatalogoSnapshotService;
+import com.example.lbf.service.sync.SincronizacionService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST para la sincronización incremental del catálogo en las terminales.
+ * Las terminales guardan la posición "hasta" de cada respuesta y la envían como "desde"
+ * en la siguiente, así solo descargan lo que cambió.
+ */
+@RestController
+@RequestMapping("/lbf/sync")
+@CrossOrigin(origins = "*")
+@Tag(name = "Sincronización", description = "API para la sincronización incremental de las terminales")
+public class SincronizacionController {
+
+    @Autowired
+    private SincronizacionService sincronizacionService;
+
+    @Autowired
+    private CatalogoSnapshotService catalogoSnapshotService;
+
+    @Operation(summary = "Obtener los cambios del catálogo",
+               description = "Retorna productos, categorías y clientes creados o modificados y los eliminados "
+                           + "después de la posición indicada; con desde=0 retorna el catálogo completo")
+    @ApiResponse(responseCode = "200", description = "Cambios obtenidos correctamente")
+    @GetMapping("/cambios")
+    public ResponseEntity<CambiosCatalogoResponse> getCambios(
+            @Parameter(description = "Posición \"hasta\" de la sincronización anterior, 0 la primera vez")
+            @RequestParam(defaultValue = "0") Long desde) {
+        return ResponseEntity.ok(sincronizacionService.getCambios(desde));
+    }
+
+    @Operation(summary = "Obtener el manifiesto del catálogo publicado",
+               description = "Indica la URL del archivo inmutable con el catálogo completo y la posición "
+                           + "desde la cual continuar con /cambios después de cargarlo")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Manifiesto del archivo vigente"),
+        @ApiResponse(responseCode = "404", description = "Todavía no se publica ningún archivo")
+    })
+    @GetMapping("/snapshot")
+    public ResponseEntity<ManifiestoCatalogoDTO> getManifiesto() {
+        ManifiestoCatalogoDTO manifiesto = catalogoSnapshotService.getManifiesto();
+        if (manifiesto == null) {
+            return ResponseEntity.notFound().build();
+        }
+        // El manifiesto sí cambia; se revalida con el ETag en cada consulta
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(manifiesto.getVersion())
+                .body(manifiesto);
+    }
+}
@@ -1,9 +1,11 @@
 package com.example.lbf.controller;
 
 import com.example.lbf.dto.response.LoginResponse;
+import com.example.lbf.dto.response.UsuarioResumenDTO;
 import com.example.lbf.entities.Usuario;
 import com.example.lbf.entities.Venta;
 import com.example.lbf.service.usuario.UsuarioService;
+import com.example.lbf.service.venta.VentaService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -32,9 +34,17 @@ import java.util.List;
 @Tag(name = "Usuarios", description = "API para la gestión de usuarios del sistema")
 public class UsuarioController {
 
+    // Tamaño de página del historial de ventas
+    private static final int LIMITE_HISTORIAL = 50;
+
+    private static final int LIMITE_MAXIMO = 500;
+
     @Autowired
     private UsuarioService usuarioService;
 
+    @Autowired
+    private VentaService ventaService;
+
     @Operation(summary = "Crear un nuevo usuario", description = "Crea un nuevo usuario en el sistema")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Usuario creado correctamente", 
@@ -116,11 +126,11 @@ public class UsuarioController {
     }
 
     @Operation(summary = "Obtener todos los usuarios", 
-               description = "Retorna una lista con todos los usuarios del sistema")
+               description = "Retorna una lista con todos los usuarios del sistema, con su cantidad de tickets y la fecha de su última venta, sin contraseña ni ventas")
     @ApiResponse(responseCode = "200", description = "Lista de usuarios obtenida correctamente")
     @GetMapping
-    public ResponseEntity<List<Usuario>> getAllUsuarios() {
-        List<Usuario> usuarios = usuarioService.getAllUsuarios();
+    public ResponseEntity<List<UsuarioResumenDTO>> getAllUsuarios() {
+        List<UsuarioResumenDTO> usuarios = usuarioService.getAllUsuarios();
         return ResponseEntity.ok(usuarios);
     }
 
@@ -148,27 +158,36 @@ public class UsuarioController {
     }
 
     @Operation(summary = "Obtener historial de ventas de un usuario", 
-               description = "Retorna todas las ventas realizadas por un usuario específico")
+               description = "Retorna las ventas de un usuario de la más reciente a la más antigua, por páginas. El encabezado X-Siguiente-Cursor trae el cursor de la siguiente página")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Historial de ventas obtenido correctamente"),
-        @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
+        @ApiResponse(responseCode = "200", description = "Historial de ventas obtenido correctamente")
     })
     @GetMapping("/{id}/ventas")
     public ResponseEntity<List<Venta>> getHistorialVentas(
             @Parameter(description = "ID del usuario", required = true)
-            @PathVariable Long id) {
-        List<Venta> ventas = usuarioService.getHistorialVentas(id);
-        return ResponseEntity.ok(ventas);
+            @PathVariable Long id,
+            @Parameter(description = "Cursor devuelto por la página anterior (ventaId de la última venta recibida)")
+            @RequestParam(required = false) Long cursor,
+            @Parameter(description = "Cantidad máxima de ventas por página (hasta 500)")
+            @RequestParam(defaultValue = "" + LIMITE_HISTORIAL) int limite) {
+        int tamano = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        List<Venta> ventas = ventaService.getVentasByUsuario(id, cursor, tamano);
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (ventas.size() >= tamano) {
+            respuesta.header(VentaController.ENCABEZADO_SIGUIENTE_CURSOR,
+                    String.valueOf(ventas.get(ventas.size() - 1).getVentaId()));
+        }
+        return respuesta.body(ventas);
     }
 
     @Operation(summary = "Obtener usuarios por rol", 
                description = "Retorna todos los usuarios que tienen un rol específico")
     @ApiResponse(responseCode = "200", description = "Lista de usuarios obtenida correctamente")
     @GetMapping("/rol/{rol}")
-    public ResponseEntity<List<Usuario>> getUsuariosByRol(
+    public ResponseEntity<List<UsuarioResumenDTO>> getUsuariosByRol(
             @Parameter(description = "Rol de los usuarios a buscar (ADMIN, VENDEDOR, etc.)", required = true)
             @PathVariable String rol) {
-        List<Usuario> usuarios = usuarioService.getUsuariosByRol(rol);
+        List<UsuarioResumenDTO> usuarios = usuarioService.getUsuariosByRol(rol);
         return ResponseEntity.ok(usuarios);
     }
       /**
@@ -2,10 +2,17 @@ package com.example.lbf.controller;
 
 import com.example.lbf.entities.Venta;
 import com.example.lbf.service.usuario.UsuarioService;
+import com.example.lbf.service.venta.VentaExportacionService;
+import com.example.lbf.service.venta.VentaLoteService;
+import com.example.lbf.service.venta.VentaRapidaService;
 import com.example.lbf.service.venta.VentaService;
 import com.example.lbf.entities.Usuario;
 import com.example.lbf.dto.request.VentaRequest;
+import com.example.lbf.dto.response.CotizacionResponse;
+import com.example.lbf.dto.response.LineaVentaResponse;
+import com.example.lbf.dto.response.VentaLoteResultado;
 import com.example.lbf.dto.response.VentaMonitoreoResponse;
+import com.example.lbf.dto.response.VentaRapidaMetricas;
 import com.example.lbf.entities.Producto;
 import com.example.lbf.entities.ProductoVendido;
 
@@ -19,11 +26,15 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -39,12 +50,27 @@ import java.util.List;
 @Tag(name = "Ventas", description = "API para la gestión de ventas del sistema")
 public class VentaController {
 
+        // Encabezado con el cursor de la siguiente página en las consultas por rango
+        public static final String ENCABEZADO_SIGUIENTE_CURSOR = "X-Siguiente-Cursor";
+
+        private static final int LIMITE_MAXIMO = 500;
+
         @Autowired
         private VentaService ventaService;
 
         @Autowired
         private UsuarioService usuarioService;
 
+        @Autowired
+        private VentaLoteService ventaLoteService;
+
+        @Autowired
+        private VentaExportacionService ventaExportacionService;
+
+        // Solo existe si lbf.ventas.modo-rapido.habilitado=true
+        @Autowired(required = false)
+        private VentaRapidaService ventaRapidaService;
+
         @Operation(summary = "Crear una nueva venta", description = "Registra una nueva venta en el sistema")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "201", description = "Venta creada correctamente", content = {
@@ -59,8 +85,100 @@ public class VentaController {
                         return ResponseEntity.badRequest().build();
                 }
 
-                Venta venta = ventaService.crearVenta(usuario, ventaRequest);
-                return new ResponseEntity<>(venta, HttpStatus.CREATED);
+                try {
+                        Venta venta = ventaService.crearVenta(usuario, ventaRequest);
+                        return new ResponseEntity<>(venta, HttpStatus.CREATED);
+                } catch (IllegalArgumentException e) {
+                        return ResponseEntity.badRequest().build();
+                }
+        }
+
+        @Operation(summary = "Cotizar un carrito", description = "Calcula precios, descuentos, IVA y total con la tabla de precios en memoria, sin registrar la venta. Acepta el formato compacto (lineas) y el completo (productos); el total es el mismo que se cobraría")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Cotización calculada", content = {
+                                        @Content(mediaType = "application/json", schema = @Schema(implementation = CotizacionResponse.class)) }),
+                        @ApiResponse(responseCode = "400", description = "Producto inexistente o sin precio, cantidad o descuento inválidos")
+        })
+        @PostMapping("/cotizar")
+        public ResponseEntity<CotizacionResponse> cotizarVenta(
+                        @Parameter(description = "Líneas del carrito e indicador de IVA", required = true) @RequestBody VentaRequest ventaRequest) {
+                try {
+                        return ResponseEntity.ok(ventaService.cotizarVenta(ventaRequest));
+                } catch (IllegalArgumentException e) {
+                        return ResponseEntity.badRequest().build();
+                }
+        }
+
+        @Operation(summary = "Registrar un lote de ventas", description = "Registra varias ventas en una sola petición. Las ventas cuya clave de idempotencia ya fue registrada se reportan como duplicadas y no se vuelven a crear")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Lote procesado, con el resultado de cada venta", content = {
+                                        @Content(mediaType = "application/json", schema = @Schema(implementation = VentaLoteResultado.class)) })
+        })
+        @PostMapping("/lote")
+        public ResponseEntity<List<VentaLoteResultado>> crearVentasLote(
+                        @Parameter(description = "Ventas a registrar, cada una con su clave de idempotencia", required = true) @RequestBody List<VentaRequest> ventas) {
+                List<VentaLoteResultado> resultados = ventaLoteService.crearVentasLote(ventas);
+                return ResponseEntity.ok(resultados);
+        }
+
+        @Operation(summary = "Registrar una venta en modo rápido", description = "Encola la venta y responde de inmediato con un folio provisional (su clave de idempotencia); la venta se confirma en segundo plano junto con otras. Solo disponible si el modo rápido está habilitado")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "202", description = "Venta encolada", content = {
+                                        @Content(mediaType = "application/json", schema = @Schema(implementation = VentaLoteResultado.class)) }),
+                        @ApiResponse(responseCode = "400", description = "Datos de venta inválidos o usuario no encontrado"),
+                        @ApiResponse(responseCode = "404", description = "El modo rápido no está habilitado"),
+                        @ApiResponse(responseCode = "503", description = "La cola está llena, reintentar más tarde o usar el registro normal")
+        })
+        @PostMapping("/rapida")
+        public ResponseEntity<VentaLoteResultado> crearVentaRapida(
+                        @Parameter(description = "Datos de la venta a crear", required = true) @RequestBody VentaRequest ventaRequest) {
+                if (ventaRapidaService == null) {
+                        return ResponseEntity.notFound().build();
+                }
+                String folio;
+                try {
+                        folio = ventaRapidaService.encolarVenta(ventaRequest);
+                } catch (IllegalArgumentException e) {
+                        return ResponseEntity.badRequest().body(new VentaLoteResultado(
+                                        ventaRequest.getClaveIdempotencia(), null, VentaLoteResultado.ERROR, e.getMessage()));
+                }
+                if (folio == null) {
+                        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                        .header(HttpHeaders.RETRY_AFTER, "1")
+                                        .build();
+                }
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                                .body(new VentaLoteResultado(folio, null, VentaLoteResultado.PENDIENTE, null));
+        }
+
+        @Operation(summary = "Métricas del modo rápido", description = "Devuelve la ocupación de la cola y la latencia de confirmación de los lotes")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Métricas actuales", content = {
+                                        @Content(mediaType = "application/json", schema = @Schema(implementation = VentaRapidaMetricas.class)) }),
+                        @ApiResponse(responseCode = "404", description = "El modo rápido no está habilitado")
+        })
+        @GetMapping("/rapida/metricas")
+        public ResponseEntity<VentaRapidaMetricas> getMetricasVentaRapida() {
+                if (ventaRapidaService == null) {
+                        return ResponseEntity.notFound().build();
+                }
+                return ResponseEntity.ok(ventaRapidaService.getMetricas());
+        }
+
+        @Operation(summary = "Consultar una venta del modo rápido", description = "Devuelve el estado de una venta encolada a partir de su folio provisional: PENDIENTE, CREADA, DUPLICADA o ERROR")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Estado de la venta", content = {
+                                        @Content(mediaType = "application/json", schema = @Schema(implementation = VentaLoteResultado.class)) }),
+                        @ApiResponse(responseCode = "404", description = "Folio desconocido o modo rápido no habilitado")
+        })
+        @GetMapping("/rapida/{folio}")
+        public ResponseEntity<VentaLoteResultado> getVentaRapida(
+                        @Parameter(description = "Folio provisional devuelto al encolar la venta", required = true) @PathVariable String folio) {
+                VentaLoteResultado resultado = ventaRapidaService != null ? ventaRapidaService.getResultado(folio) : null;
+                if (resultado == null) {
+                        return ResponseEntity.notFound().build();
+                }
+                return ResponseEntity.ok(resultado);
         }
 
         @Operation(summary = "Obtener una venta por ID", description = "Devuelve una venta específica basada en su ID")
@@ -103,7 +221,7 @@ public class VentaController {
                 return ResponseEntity.ok(ventas);
         }
 
-        @Operation(summary = "Obtener ventas por rango de fechas", description = "Devuelve todas las ventas realizadas entre un rango de fechas")
+        @Operation(summary = "Obtener ventas por rango de fechas", description = "Devuelve las ventas realizadas entre un rango de fechas, de la más reciente a la más antigua. La respuesta siempre se pagina (500 ventas si no se indica un límite) y el encabezado X-Siguiente-Cursor trae el cursor de la siguiente página")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Ventas encontradas", content = {
                                         @Content(mediaType = "application/json", schema = @Schema(implementation = Venta.class)) })
@@ -111,22 +229,26 @@ public class VentaController {
         @GetMapping("/rango")
         public ResponseEntity<List<Venta>> getVentasByRangoDeFechas(
                         @Parameter(description = "Fecha de inicio en formato ISO (YYYY-MM-DD)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
-                        @Parameter(description = "Fecha de fin en formato ISO (YYYY-MM-DD)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
-                List<Venta> ventas = ventaService.getVentasByRangoDeFechas(fechaInicio, fechaFin);
-                return ResponseEntity.ok(ventas);
+                        @Parameter(description = "Fecha de fin en formato ISO (YYYY-MM-DD)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+                        @Parameter(description = "Cursor devuelto por la página anterior (ventaId de la última venta recibida)") @RequestParam(required = false) Long cursor,
+                        @Parameter(description = "Cantidad máxima de ventas por página (hasta 500, que es también el valor por omisión)") @RequestParam(required = false) Integer limite) {
+                List<Venta> ventas = getPagina(fechaInicio, fechaFin, cursor, limite);
+                return conSiguienteCursor(ventas, limite).body(ventas);
         }
 
-        @Operation(summary = "Obtener ventas por rango de fechas para monitoreo", description = "Devuelve todas las ventas realizadas entre un rango de fechas para monitoreo")
+        @Operation(summary = "Obtener ventas por rango de fechas para monitoreo", description = "Devuelve las ventas realizadas entre un rango de fechas para monitoreo, de la más reciente a la más antigua. La respuesta siempre se pagina (500 ventas si no se indica un límite) y el encabezado X-Siguiente-Cursor trae el cursor de la siguiente página")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Ventas encontradas", content = {
-                                        @Content(mediaType = "application/json", schema = @Schema(implementation = Venta.class)) })
+                                        @Content(mediaType = "application/json", schema = @Schema(implementation = VentaMonitoreoResponse.class)) })
         })
         @GetMapping("/rango-monitoreo")
         public ResponseEntity<List<VentaMonitoreoResponse>> getVentasByRangoDeFechasParaMonitoreo(
                         @Parameter(description = "Fecha de inicio en formato ISO (YYYY-MM-DD)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
-                        @Parameter(description = "Fecha de fin en formato ISO (YYYY-MM-DD)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin) {
+                        @Parameter(description = "Fecha de fin en formato ISO (YYYY-MM-DD)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+                        @Parameter(description = "Cursor devuelto por la página anterior (ventaId de la última venta recibida)") @RequestParam(required = false) Long cursor,
+                        @Parameter(description = "Cantidad máxima de ventas por página (hasta 500, que es también el valor por omisión)") @RequestParam(required = false) Integer limite) {
 
-                List<Venta> ventas = ventaService.getVentasByRangoDeFechas(fechaInicio, fechaFin);
+                List<Venta> ventas = getPagina(fechaInicio, fechaFin, cursor, limite);
 
                 List<VentaMonitoreoResponse> ventasMonitoreo = new ArrayList<>();
 
@@ -139,16 +261,48 @@ public class VentaController {
                         List<ProductoVendido> productosVendidos = venta.getProductosVendidos();
 
                         List<Producto> productos = new ArrayList<>();
+                        List<LineaVentaResponse> lineas = new ArrayList<>();
                         for (ProductoVendido pv : productosVendidos) {
                                 productos.add(pv.getProducto());
+                                lineas.add(new LineaVentaResponse(pv.getProductoVendidoId(),
+                                                pv.getProducto().getProductoId(), pv.getProducto().getNombre()));
                         }
 
                         response.setProductosVendidos(productos);
+                        response.setLineas(lineas);
 
                         ventasMonitoreo.add(response);
                 }
 
-                return ResponseEntity.ok(ventasMonitoreo);
+                return conSiguienteCursor(ventas, limite).body(ventasMonitoreo);
+        }
+
+        @Operation(summary = "Exportar ventas por rango de fechas", description = "Descarga las ventas de un rango de fechas con sus líneas, en NDJSON (una venta por línea) o CSV (una fila por línea de producto). La respuesta se escribe a medida que se leen las ventas, sin cargar el rango completo en memoria")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Exportación generada correctamente"),
+                        @ApiResponse(responseCode = "400", description = "Formato no soportado")
+        })
+        @GetMapping("/exportar")
+        public ResponseEntity<StreamingResponseBody> exportarVentas(
+                        @Parameter(description = "Fecha de inicio en formato ISO (YYYY-MM-DD)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaInicio,
+                        @Parameter(description = "Fecha de fin en formato ISO (YYYY-MM-DD)", required = true) @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fechaFin,
+                        @Parameter(description = "Formato de salida: ndjson o csv") @RequestParam(defaultValue = VentaExportacionService.FORMATO_NDJSON) String formato) {
+                MediaType tipo;
+                if (VentaExportacionService.FORMATO_NDJSON.equals(formato)) {
+                        tipo = MediaType.APPLICATION_NDJSON;
+                } else if (VentaExportacionService.FORMATO_CSV.equals(formato)) {
+                        tipo = new MediaType("text", "csv", StandardCharsets.UTF_8);
+                } else {
+                        return ResponseEntity.badRequest().build();
+                }
+
+                StreamingResponseBody cuerpo = salida -> ventaExportacionService.exportarVentas(fechaInicio, fechaFin,
+                                formato, salida);
+                String archivo = "ventas_" + fechaInicio + "_" + fechaFin + "." + formato;
+                return ResponseEntity.ok()
+                                .contentType(tipo)
+                                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + archivo + "\"")
+                                .body(cuerpo);
         }
 
         @Operation(summary = "Calcular total de ventas", description = "Calcula el monto total de ventas realizadas en un rango de fechas")
@@ -188,4 +342,24 @@ public class VentaController {
                 return ResponseEntity.ok(ventas);
         }
 
+        // Obtiene una página del rango después de la venta indicada por el cursor; sin límite, la página es la máxima
+        private List<Venta> getPagina(LocalDate fechaInicio, LocalDate fechaFin, Long cursor, Integer limite) {
+                int tamano = tamanoPagina(limite);
+                return ventaService.getVentasByRangoDeFechas(fechaInicio, fechaFin, cursor, tamano);
+        }
+
+        // Una página llena indica que puede haber más ventas; el cursor apunta a la última devuelta
+        private ResponseEntity.BodyBuilder conSiguienteCursor(List<Venta> ventas, Integer limite) {
+                ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+                if (!ventas.isEmpty() && ventas.size() >= tamanoPagina(limite)) {
+                        Venta ultima = ventas.get(ventas.size() - 1);
+                        respuesta.header(ENCABEZADO_SIGUIENTE_CURSOR, String.valueOf(ultima.getVentaId()));
+                }
+                return respuesta;
+        }
+
+        private int tamanoPagina(Integer limite) {
+                return limite == null ? LIMITE_MAXIMO : Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        }
+
 }
@@ -0,0 +1,46 @@
+package com.example.lbf.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Lote de lecturas de un escáner. Cada escáner numera sus lotes de uno en uno y envía el
+ * siguiente cuando recibe la respuesta del anterior; un lote con una secuencia ya aplicada se
+ * ignora, así que reenviarlo tras perder la conexión es seguro.
+ */
+@Schema(description = "Lote de lecturas de un escáner dentro de una sesión de conteo")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LecturasConteoRequest {
+    @Schema(description = "Identificador del escáner (letras, números, punto, guion o guion bajo)", required = true)
+    private String dispositivo;
+
+    @Schema(description = "Número del lote: 1 para el primero de cada escáner y uno más en cada lote siguiente", required = true)
+    private Long secuencia;
+
+    @Schema(description = "Lecturas del lote", required = true)
+    private List<Lectura> lecturas;
+
+    @Schema(description = "Lectura de un producto por ID o por código de barras")
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Lectura {
+        @Schema(description = "ID del producto; si falta se usa el código de barras")
+        private Long productoId;
+
+        @Schema(description = "Código de barras leído")
+        private String codigoBarras;
+
+        @Schema(description = "Cantidad a sumar al conteo; vacía cuenta una pieza y negativa corrige una lectura")
+        private Float cantidad;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.lbf.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Línea compacta del carrito: el precio y el porcentaje de descuento los resuelve el servidor
+ * con el catálogo en memoria.
+ */
+@Schema(description = "Línea del carrito con solo el producto, la cantidad y el descuento elegido")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LineaVentaRequest {
+    @Schema(description = "ID del producto", required = true)
+    private Long productoId;
+
+    @Schema(description = "Cantidad vendida", required = true)
+    private Float cantidad;
+
+    @Schema(description = "Posición del descuento en Producto.descuentos; vacío si no hay descuento")
+    private Integer descuentoIndice;
+}
@@ -18,8 +18,11 @@ import lombok.Setter;
         @Schema(description = "ID del usuario que realiza la venta")
         private Long usuarioId;
         
-        @Schema(description = "Lista de productos vendidos con sus cantidades y precios", required = true)
+        @Schema(description = "Lista de productos vendidos con sus cantidades y precios; el precio se toma del catálogo")
         private List<ProductoVendido> productos;
+
+        @Schema(description = "Formato compacto: solo producto, cantidad y descuento; si viene, reemplaza a productos")
+        private List<LineaVentaRequest> lineas;
         
         @Schema(description = "Indica si la venta incluye IVA", defaultValue = "true")
         private Boolean conIva;
@@ -29,4 +32,7 @@ import lombok.Setter;
         private Long clienteId;
 
         private String sucursal;
+
+        @Schema(description = "Identificador único generado por la terminal, ordenado por tiempo, para evitar ventas duplicadas al reintentar")
+        private String claveIdempotencia;
     }
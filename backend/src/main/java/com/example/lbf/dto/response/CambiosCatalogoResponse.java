@@ -0,0 +1,37 @@
+package com.example.lbf.dto.response;
+
+import com.example.lbf.entities.Categoria;
+import com.example.lbf.entities.Cliente;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Cambios del catálogo posteriores a la posición que ya tiene la terminal.
+ * La terminal aplica primero los productos, categorías y clientes (altas y cambios),
+ * luego los eliminados, y guarda "hasta" para la siguiente consulta. Si "completo" es
+ * true la respuesta trae todo el catálogo y la copia local se reemplaza.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CambiosCatalogoResponse {
+    private Long desde;
+    private Long hasta;
+    private Boolean completo;
+    private List<ProductoCatalogoDTO> productos;
+    private List<Categoria> categorias;
+    private List<Cliente> clientes;
+    private List<Eliminado> eliminados;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Eliminado {
+        private String entidad;
+        private Long id;
+    }
+}
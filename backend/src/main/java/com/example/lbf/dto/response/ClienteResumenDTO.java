@@ -0,0 +1,25 @@
+package com.example.lbf.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Cliente para el selector y los listados, sin sus ventas. Los tickets y la fecha
+ * de la última compra solo se llenan cuando se piden.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClienteResumenDTO {
+    private Long idCliente;
+    private String nombre;
+    private Long tickets;
+    private LocalDate ultimaCompra;
+
+    public ClienteResumenDTO(Long idCliente, String nombre) {
+        this(idCliente, nombre, null, null);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.lbf.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de un inventario físico: cuántos productos se ajustaron, las unidades que
+ * faltaron o sobraron y las diferencias más grandes. Las listas se recortan para que la
+ * respuesta de un conteo de toda la tienda siga siendo pequeña.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConciliacionInventarioResumen {
+    private int productosContados;
+    private int productosAjustados;
+    private int productosSinCambio;
+    private int productosNoEncontrados;
+    private double unidadesFaltantes;
+    private double unidadesSobrantes;
+    private int bloques;
+    private long duracionMs;
+    // Solo en cargas CSV: líneas que no se pudieron leer y códigos sin producto
+    private int lineasInvalidas;
+    private List<String> codigosDesconocidos = new ArrayList<>();
+    private List<Long> idsNoEncontrados = new ArrayList<>();
+    // Ordenadas de mayor a menor diferencia absoluta
+    private List<Diferencia> diferencias = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Diferencia {
+        private Long productoId;
+        private Float stockSistema;
+        private Float stockContado;
+        private Float diferencia;
+    }
+}
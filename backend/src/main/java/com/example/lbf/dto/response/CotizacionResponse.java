@@ -0,0 +1,34 @@
+package com.example.lbf.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Precio de un carrito calculado con el catálogo en memoria. Es el mismo cálculo con el
+ * que se registra la venta, así el total cotizado y el cobrado coinciden.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CotizacionResponse {
+    private List<LineaCotizacion> lineas;
+    private BigDecimal subtotal;
+    private BigDecimal iva;
+    private BigDecimal total;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LineaCotizacion {
+        private Long productoId;
+        private String nombre;
+        private Float cantidad;
+        private BigDecimal precioUnitario;
+        private Float descuento;
+        private BigDecimal subtotal;
+    }
+}
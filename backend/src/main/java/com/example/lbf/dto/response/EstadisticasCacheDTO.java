@@ -0,0 +1,27 @@
+package com.example.lbf.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Aciertos, fallos y desalojos acumulados de una caché desde que arrancó la aplicación.
+ * El tipo es APLICACION para las cachés de Spring o HIBERNATE para las regiones de la caché
+ * de segundo nivel; en estas últimas se informan las escrituras y no los desalojos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasCacheDTO {
+    public static final String APLICACION = "APLICACION";
+    public static final String HIBERNATE = "HIBERNATE";
+
+    private String nombre;
+    private String tipo;
+    private Long entradas;
+    private Long aciertos;
+    private Long fallos;
+    private Double tasaAciertos;
+    private Long desalojos;
+    private Long escrituras;
+}
@@ -0,0 +1,24 @@
+package com.example.lbf.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Respuesta a un lote de lecturas. Un lote duplicado no se vuelve a sumar y uno fuera de
+ * secuencia (posterior al siguiente esperado) se rechaza; en los dos casos la última
+ * secuencia indica al escáner desde dónde continuar.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LecturasConteoResultado {
+    private boolean duplicado;
+    private boolean fueraDeSecuencia;
+    private int lecturasAplicadas;
+    private long ultimaSecuencia;
+    private List<String> codigosDesconocidos = new ArrayList<>();
+}
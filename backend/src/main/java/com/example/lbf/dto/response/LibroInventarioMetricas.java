@@ -0,0 +1,28 @@
+package com.example.lbf.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estado del libro de inventario: ocupación de la cola, movimientos que aún esperan en la
+ * base y retraso entre el cambio de stock y su registro en el kardex. lineasDescartadas
+ * cuenta las líneas de productos eliminados antes de llegar al kardex.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LibroInventarioMetricas {
+    private int capacidad;
+    private int enCola;
+    private long pendientesEnBase;
+    private long desbordadas;
+    private long registrados;
+    private long movimientosEscritos;
+    private long lotes;
+    private long errores;
+    private long lineasDescartadas;
+    private long retrasoUltimoMs;
+    private long retrasoMaximoMs;
+    private long antiguedadPendienteMs;
+}
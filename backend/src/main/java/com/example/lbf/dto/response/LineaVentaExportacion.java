@@ -0,0 +1,34 @@
+package com.example.lbf.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Fila de la exportación de ventas: los datos de la venta junto con una de sus líneas.
+ * Las ventas sin líneas llegan con los campos de la línea en null.
+ */
+@Getter
+@AllArgsConstructor
+public class LineaVentaExportacion {
+    private Long ventaId;
+    private LocalDate fecha;
+    private String hora;
+    private BigDecimal total;
+    private Boolean conIva;
+    private Boolean anulada;
+    private String sucursal;
+    private Long usuarioId;
+    private String usuario;
+    private Long clienteId;
+    private String cliente;
+    private Long productoVendidoId;
+    private Long productoId;
+    private String producto;
+    private Float cantidad;
+    private BigDecimal precioUnitario;
+    private Float descuento;
+    private BigDecimal subtotal;
+}
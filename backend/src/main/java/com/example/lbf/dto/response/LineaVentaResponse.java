@@ -0,0 +1,18 @@
+package com.example.lbf.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Línea de una venta con el nombre del producto, para mostrar el detalle
+ * sin enviar el producto completo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LineaVentaResponse {
+    private Long productoVendidoId;
+    private Long productoId;
+    private String nombre;
+}
@@ -1,7 +1,5 @@
 package com.example.lbf.dto.response;
 
-import com.example.lbf.entities.Usuario;
-
 import lombok.Builder;
 import lombok.Getter;
 
@@ -9,6 +7,6 @@ import lombok.Getter;
 @Getter
 public class LoginResponse {
     private String token;
-    private Usuario usuario;
+    private UsuarioResumenDTO usuario;
     private Boolean succes;
 }
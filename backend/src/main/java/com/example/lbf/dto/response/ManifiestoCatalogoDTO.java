@@ -0,0 +1,26 @@
+package com.example.lbf.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Describe la copia vigente del catálogo completo. El archivo se nombra con el hash de su
+ * contenido y nunca cambia, así puede guardarse en caché sin revalidar; al cambiar el
+ * catálogo se publica otro archivo y este manifiesto apunta al nuevo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ManifiestoCatalogoDTO {
+    private String version;
+    private String url;
+    // Posición para continuar con /lbf/sync/cambios después de cargar el archivo
+    private Long hasta;
+    private LocalDateTime generado;
+    private Integer productos;
+    private Long bytes;
+    private Long bytesGzip;
+}
@@ -1,6 +1,5 @@
 package com.example.lbf.dto.response;
 
-import com.example.lbf.entities.Producto;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -10,7 +9,7 @@ import lombok.Setter;
 @Setter
 @AllArgsConstructor
 public class ProductoBajoStockDTO {
-    private Producto producto;
+    private ProductoCatalogoDTO producto;
     private Float diferencia;
 
     // Constructor, getters y setters
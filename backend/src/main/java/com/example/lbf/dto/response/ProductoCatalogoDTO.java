@@ -0,0 +1,48 @@
+package com.example.lbf.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Producto tal como lo muestra el catálogo: solo columnas propias y su categoría.
+ * Se arma directamente en la consulta, sin cargar el historial de ventas del producto,
+ * y conserva la forma del JSON de la entidad para el frontend.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductoCatalogoDTO {
+    private Long productoId;
+    private String nombre;
+    private Float precio;
+    private Float precioCompra;
+    private Float stock;
+    private Float stockMinimo;
+    private String codigoBarras;
+    private String tipo;
+    private Boolean activo;
+    private String sucursal;
+    private List<Float> descuentos;
+    private CategoriaResumen categoria;
+
+    // Constructor usado por las consultas JPQL, que no pueden anidar objetos
+    public ProductoCatalogoDTO(Long productoId, String nombre, Float precio, Float precioCompra, Float stock,
+            Float stockMinimo, String codigoBarras, String tipo, Boolean activo, String sucursal,
+            List<Float> descuentos, Long categoriaId, String categoriaNombre, String categoriaColor) {
+        this(productoId, nombre, precio, precioCompra, stock, stockMinimo, codigoBarras, tipo, activo, sucursal,
+                descuentos, categoriaId != null ? new CategoriaResumen(categoriaId, categoriaNombre, categoriaColor)
+                        : null);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoriaResumen {
+        private Long categoriaId;
+        private String nombre;
+        private String color;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.lbf.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Estado de una sesión de conteo. Las secuencias son las que guardó el último punto de
+ * control si la sesión se recuperó tras un reinicio; cada escáner reenvía sus lotes a partir
+ * de la suya.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SesionConteoResponse {
+    private Long id;
+    private String descripcion;
+    private String usuario;
+    private String estado;
+    private LocalDateTime fechaApertura;
+    private LocalDateTime fechaCheckpoint;
+    private LocalDateTime fechaCierre;
+    private int productosContados;
+    private double unidadesContadas;
+    private Map<String, Long> secuencias = new HashMap<>();
+}
@@ -0,0 +1,35 @@
+package com.example.lbf.dto.response;
+
+import com.example.lbf.entities.Usuario;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Datos de un usuario para listados y para la respuesta del login, sin contraseña
+ * ni ventas. Los tickets y la fecha de la última venta salen del resumen diario y
+ * solo se llenan en el listado de usuarios.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsuarioResumenDTO {
+    private Long id;
+    private String username;
+    private String nombre;
+    private String rol;
+    private String sucursal;
+    private Boolean activo;
+    private LocalDateTime ultimoAcceso;
+    private Long tickets;
+    private LocalDate ultimaVenta;
+
+    public UsuarioResumenDTO(Usuario usuario) {
+        this(usuario.getId(), usuario.getUsername(), usuario.getNombre(), usuario.getRol(), usuario.getSucursal(),
+                usuario.getActivo(), usuario.getUltimoAcceso(), null, null);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.lbf.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado individual de una venta enviada dentro de un lote.
+ * El estado puede ser CREADA, DUPLICADA o ERROR; en el modo rápido también
+ * PENDIENTE mientras la venta espera en la cola.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentaLoteResultado {
+    public static final String CREADA = "CREADA";
+    public static final String DUPLICADA = "DUPLICADA";
+    public static final String ERROR = "ERROR";
+    public static final String PENDIENTE = "PENDIENTE";
+
+    private String claveIdempotencia;
+    private Long ventaId;
+    private String estado;
+    private String mensaje;
+}
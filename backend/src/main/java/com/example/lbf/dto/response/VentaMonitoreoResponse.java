@@ -6,6 +6,7 @@ import com.example.lbf.entities.Cliente;
 import com.example.lbf.entities.Producto;
 import com.example.lbf.entities.Usuario;
 import com.example.lbf.entities.Venta;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -14,7 +15,12 @@ import lombok.Setter;
 @Setter
 public class VentaMonitoreoResponse {
     private Venta venta;
+    // Las colecciones históricas no se envían: cargarlas dispararía una consulta por usuario, cliente y producto
+    @JsonIgnoreProperties("ventas")
     private Usuario usuario;
+    @JsonIgnoreProperties("productoVentas")
     private List<Producto> productosVendidos;
+    @JsonIgnoreProperties("ventas")
     private Cliente cliente;
+    private List<LineaVentaResponse> lineas;
 }
@@ -0,0 +1,22 @@
+package com.example.lbf.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Celda del mapa de calor de ventas: sucursal, día de la semana (1 = domingo ... 7 = sábado)
+ * y hora del día (0-23).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentaPorHoraDTO {
+    private String sucursal;
+    private Integer diaSemana;
+    private Integer hora;
+    private Long tickets;
+    private BigDecimal total;
+}
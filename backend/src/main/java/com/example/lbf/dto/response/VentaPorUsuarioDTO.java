@@ -1,6 +1,5 @@
 package com.example.lbf.dto.response;
 
-import com.example.lbf.entities.Usuario;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,6 +10,6 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 @AllArgsConstructor
 public class VentaPorUsuarioDTO {
-    private Usuario usuario;
+    private UsuarioResumenDTO usuario;
     private BigDecimal total;
 }
\ No newline at end of file
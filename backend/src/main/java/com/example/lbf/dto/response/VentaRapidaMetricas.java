@@ -0,0 +1,24 @@
+package com.example.lbf.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estado de la cola del modo rápido de ventas y tiempos de confirmación de los lotes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentaRapidaMetricas {
+    private int capacidad;
+    private int enCola;
+    private long encoladas;
+    private long rechazadas;
+    private long confirmadas;
+    private long errores;
+    private long lotes;
+    private long latenciaUltimoLoteMs;
+    private long latenciaPromedioLoteMs;
+    private long latenciaMaximaLoteMs;
+}
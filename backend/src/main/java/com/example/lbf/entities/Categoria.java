@@ -1,17 +1,29 @@
 package com.example.lbf.entities;
 
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
 import jakarta.persistence.OneToMany;
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "categoria")
+@Table(indexes = @Index(name = "idx_categoria_cambio_seq", columnList = "cambio_seq"))
 @Getter
 @Setter
 public class Categoria {
@@ -29,4 +41,14 @@ public class Categoria {
     @JsonIgnore
     private List<Producto> productos;
 
+    // Posición del último cambio en la sincronización de terminales (RelojCambios)
+    @Column(name = "cambio_seq")
+    @JsonIgnore
+    private Long cambioSeq;
+
+    @PrePersist
+    @PreUpdate
+    void marcarCambio() {
+        cambioSeq = RelojCambios.siguiente();
+    }
 }
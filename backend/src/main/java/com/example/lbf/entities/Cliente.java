@@ -2,18 +2,30 @@ package com.example.lbf.entities;
 
 import java.util.List;
 
-import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cliente")
+@Table(indexes = @Index(name = "idx_cliente_cambio_seq", columnList = "cambio_seq"))
 @Getter
 @Setter
 public class Cliente {
@@ -24,8 +36,19 @@ public class Cliente {
 
     private String nombre;
 
+    // El historial se consulta paginado en /lbf/clientes/{id}/ventas
     @OneToMany(mappedBy = "cliente", cascade = CascadeType.ALL)
-    @JsonManagedReference("cliente-venta")
+    @JsonIgnore
     private List<Venta> ventas;
 
+    // Posición del último cambio en la sincronización de terminales (RelojCambios)
+    @Column(name = "cambio_seq")
+    @JsonIgnore
+    private Long cambioSeq;
+
+    @PrePersist
+    @PreUpdate
+    void marcarCambio() {
+        cambioSeq = RelojCambios.siguiente();
+    }
 }
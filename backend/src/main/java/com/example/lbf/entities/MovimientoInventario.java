@@ -4,8 +4,10 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.PrePersist;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -17,7 +19,8 @@ import java.time.LocalDateTime;
 public class MovimientoInventario {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movimiento_inventario_seq")
+    @SequenceGenerator(name = "movimiento_inventario_seq", sequenceName = "movimiento_inventario_seq", allocationSize = 50)
     private Long movimientoId;
     
     @ManyToOne
@@ -30,6 +33,7 @@ public class MovimientoInventario {
     
     private String motivo;
     
+    // Columna de partición de la tabla; no puede quedar vacía
     private LocalDateTime fecha;
     
     private Float stockAnterior;
@@ -37,4 +41,11 @@ public class MovimientoInventario {
     private Float stockNuevo;
     
     private String usuario; // Podría ser una relación con la entidad Usuario
+
+    @PrePersist
+    private void asignarFecha() {
+        if (fecha == null) {
+            fecha = LocalDateTime.now();
+        }
+    }
 }
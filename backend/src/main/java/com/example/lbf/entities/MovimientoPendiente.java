@@ -0,0 +1,79 @@
+package com.example.lbf.entities;
+
+import com.example.lbf.entities.converters.LineasMovimientoConverter;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bandeja de salida del kardex. Cada venta, anulación o movimiento manual guarda aquí una
+ * sola fila con todos sus cambios de stock, en la misma transacción que el stock; el libro
+ * de inventario la convierte después en filas de MovimientoInventario y la borra.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_movimiento_pendiente_fecha", columnList = "fecha_registro"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class MovimientoPendiente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Momento del cambio de stock; es la fecha que llevan los movimientos
+    @Column(name = "fecha_registro", nullable = false)
+    private LocalDateTime fechaRegistro;
+
+    private String motivo;
+
+    private String usuario;
+
+    @Convert(converter = LineasMovimientoConverter.class)
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private List<Linea> lineas;
+
+    public MovimientoPendiente(String motivo, String usuario, List<Linea> lineas) {
+        this.fechaRegistro = LocalDateTime.now();
+        this.motivo = motivo;
+        this.usuario = usuario;
+        this.lineas = lineas;
+    }
+
+    /**
+     * Un cambio de stock de un producto. El stock anterior y el nuevo solo se conocen en
+     * los movimientos manuales; en las ventas el stock se descuenta en lote sin leerlo.
+     */
+    public record Linea(Long productoId, String tipoMovimiento, Float cantidad, Float stockAnterior,
+            Float stockNuevo) {
+    }
+
+    /**
+     * Líneas de ENTRADA o SALIDA según el signo de cada cantidad, para los productos cuyo
+     * stock sí se actualizó.
+     */
+    public static List<Linea> deCantidades(Map<Long, Float> cantidades, Map<Long, Boolean> aplicados) {
+        List<Linea> lineas = new ArrayList<>(cantidades.size());
+        for (Map.Entry<Long, Float> cantidad : cantidades.entrySet()) {
+            if (Boolean.TRUE.equals(aplicados.get(cantidad.getKey())) && cantidad.getValue() != 0f) {
+                lineas.add(new Linea(cantidad.getKey(), cantidad.getValue() > 0 ? "ENTRADA" : "SALIDA",
+                        Math.abs(cantidad.getValue()), null, null));
+            }
+        }
+        return lineas;
+    }
+}
@@ -3,21 +3,31 @@ package com.example.lbf.entities;
 import java.util.List;
 
 import com.example.lbf.entities.converters.DescuentosConverter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Convert;
 import jakarta.persistence.Column;
+import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
 import jakarta.persistence.JoinColumn;
 
 @Entity
+@Table(indexes = {
+    @Index(name = "uk_producto_codigo_barras", columnList = "codigo_barras", unique = true),
+    @Index(name = "idx_producto_cambio_seq", columnList = "cambio_seq"),
+    @Index(name = "idx_producto_catalogo_seq", columnList = "catalogo_seq")
+})
 @Getter
 @Setter
 public class Producto {
@@ -48,4 +58,22 @@ public class Producto {
     @OneToMany(mappedBy = "producto")
     @JsonManagedReference("vendido-producto")
     private List<ProductoVendido> productoVentas;
+
+    // Posición del último cambio en la sincronización de terminales (RelojCambios)
+    @Column(name = "cambio_seq")
+    @JsonIgnore
+    private Long cambioSeq;
+
+    // Posición del último cambio que no fue de stock; el stock se actualiza con UPDATE directos
+    // que solo mueven cambioSeq, así el archivo del catálogo no se vuelve a publicar por cada venta
+    @Column(name = "catalogo_seq")
+    @JsonIgnore
+    private Long catalogoSeq;
+
+    @PrePersist
+    @PreUpdate
+    void marcarCambio() {
+        cambioSeq = RelojCambios.siguiente();
+        catalogoSeq = cambioSeq;
+    }
 }
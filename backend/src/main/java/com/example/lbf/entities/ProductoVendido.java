@@ -2,25 +2,35 @@ package com.example.lbf.entities;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
+import jakarta.persistence.Column;
+import jakarta.persistence.ConstraintMode;
 import jakarta.persistence.Entity;
+import jakarta.persistence.ForeignKey;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import lombok.Getter;
 import lombok.Setter;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.PrePersist;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
 
 @Entity
 @Getter
 @Setter
 public class ProductoVendido {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "producto_vendido_seq")
+    @SequenceGenerator(name = "producto_vendido_seq", sequenceName = "producto_vendido_seq", allocationSize = 50)
     private Long productoVendidoId;
 
+    // La llave foránea real es (venta_id, fecha) y la crea la migración de particiones
     @ManyToOne
-    @JoinColumn(name = "venta_id")
+    @JoinColumn(name = "venta_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     @JsonBackReference("vendido-venta")
     private Venta venta;
 
@@ -30,7 +40,22 @@ public class ProductoVendido {
     private Producto producto;
 
     private Float cantidad;
-    private Float precioUnitario;
     private Float descuento;
-    private Float subtotal;
+
+    // Importes tal como los calculó la tabla de precios, sin pasar por float
+    @Column(precision = 12, scale = 2)
+    private BigDecimal precioUnitario;
+
+    @Column(precision = 12, scale = 2)
+    private BigDecimal subtotal;
+
+    // Copia de la fecha de la venta; es la columna por la que se particiona la tabla
+    private LocalDate fecha;
+
+    @PrePersist
+    private void asignarFecha() {
+        if (fecha == null) {
+            fecha = venta != null && venta.getFecha() != null ? venta.getFecha() : LocalDate.now();
+        }
+    }
 }
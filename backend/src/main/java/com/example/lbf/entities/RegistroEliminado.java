@@ -0,0 +1,59 @@
+package com.example.lbf.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marca de un producto, categoría o cliente eliminado, para que las terminales lo quiten
+ * de su copia local en la siguiente sincronización. Se purga pasado el periodo de retención.
+ *
+ * Cada purga deja una marca PURGA con la posición más alta que borró: una terminal que viene
+ * de antes de esa posición pudo perderse eliminados y recibe el catálogo completo.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_registro_eliminado_cambio_seq", columnList = "cambio_seq"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class RegistroEliminado {
+    public static final String PRODUCTO = "PRODUCTO";
+    public static final String CATEGORIA = "CATEGORIA";
+    public static final String CLIENTE = "CLIENTE";
+    public static final String PURGA = "PURGA";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String entidad;
+
+    private Long entidadId;
+
+    private Long cambioSeq;
+
+    private LocalDateTime fecha;
+
+    public RegistroEliminado(String entidad, Long entidadId) {
+        this.entidad = entidad;
+        this.entidadId = entidadId;
+        this.cambioSeq = RelojCambios.siguiente();
+        this.fecha = LocalDateTime.now();
+    }
+
+    public static RegistroEliminado purga(Long hasta) {
+        RegistroEliminado purga = new RegistroEliminado();
+        purga.entidad = PURGA;
+        purga.cambioSeq = hasta;
+        purga.fecha = LocalDateTime.now();
+        return purga;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.lbf.entities;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Numera los cambios del catálogo para la sincronización de las terminales con la secuencia
+ * cambio_catalogo_seq de la base, así la posición crece aunque la aplicación se reinicie, la
+ * hora del servidor se ajuste o haya varias instancias. RelojCambiosConfig la conecta al
+ * arrancar; las entidades la usan desde @PrePersist y @PreUpdate, donde no se inyectan beans.
+ *
+ * Una posición indica orden, no hora: se asigna al escribir y no al confirmar.
+ */
+public final class RelojCambios {
+
+    public static final String SECUENCIA = "cambio_catalogo_seq";
+
+    private static volatile LongSupplier secuencia;
+    private static volatile String expresionSiguiente;
+
+    private RelojCambios() {
+    }
+
+    /**
+     * @param siguiente  lee el siguiente valor de la secuencia
+     * @param expresion  el mismo valor como expresión SQL, para usarlo dentro de un UPDATE
+     */
+    public static void usar(LongSupplier siguiente, String expresion) {
+        secuencia = siguiente;
+        expresionSiguiente = expresion;
+    }
+
+    public static long siguiente() {
+        LongSupplier actual = secuencia;
+        if (actual == null) {
+            throw new IllegalStateException("La secuencia " + SECUENCIA + " todavía no está configurada");
+        }
+        return actual.getAsLong();
+    }
+
+    // Expresión SQL que toma el siguiente valor en la misma sentencia, sin otra ida a la base
+    public static String expresionSiguiente() {
+        String actual = expresionSiguiente;
+        if (actual == null) {
+            throw new IllegalStateException("La secuencia " + SECUENCIA + " todavía no está configurada");
+        }
+        return actual;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.lbf.entities;
+
+import com.example.lbf.entities.converters.ConteoProductosConverter;
+import com.example.lbf.entities.converters.SecuenciasDispositivoConverter;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sesión de conteo físico. Mientras está abierta el conteo vive en memoria y aquí se guarda
+ * el último punto de control: la cantidad acumulada por producto y la última secuencia
+ * aplicada de cada escáner. Al cerrarla queda el conteo final con el que se concilió.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_sesion_conteo_estado", columnList = "estado"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class SesionConteo {
+
+    public static final String ABIERTA = "ABIERTA";
+    public static final String CERRADA = "CERRADA";
+    public static final String CANCELADA = "CANCELADA";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String descripcion;
+
+    private String usuario;
+
+    @Column(nullable = false, length = 20)
+    private String estado;
+
+    @Column(name = "fecha_apertura", nullable = false)
+    private LocalDateTime fechaApertura;
+
+    @Column(name = "fecha_checkpoint")
+    private LocalDateTime fechaCheckpoint;
+
+    @Column(name = "fecha_cierre")
+    private LocalDateTime fechaCierre;
+
+    // Cantidad contada por producto, en milésimas
+    @Convert(converter = ConteoProductosConverter.class)
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private Map<Long, Long> conteo = new HashMap<>();
+
+    // Última secuencia aplicada de cada escáner
+    @Convert(converter = SecuenciasDispositivoConverter.class)
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private Map<String, Long> secuencias = new HashMap<>();
+
+    public SesionConteo(String descripcion, String usuario) {
+        this.descripcion = descripcion;
+        this.usuario = usuario;
+        this.estado = ABIERTA;
+        this.fechaApertura = LocalDateTime.now();
+    }
+}
@@ -1,19 +1,31 @@
 package com.example.lbf.entities;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
-import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuario")
+@NaturalIdCache(region = "usuario-username")
+@Table(indexes = @Index(name = "uk_usuario_username", columnList = "username", unique = true))
 @Getter
 @Setter
 public class Usuario {
@@ -21,6 +33,8 @@ public class Usuario {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Llave natural: el inicio de sesión la resuelve desde la caché de segundo nivel
+    @NaturalId(mutable = true)
     private String username;
 
     private String contrasena;
@@ -35,7 +49,8 @@ public class Usuario {
 
     private String sucursal;
 
+    // El historial se consulta paginado en /lbf/usuarios/{id}/ventas
     @OneToMany(mappedBy = "usuario")
-    @JsonManagedReference
+    @JsonIgnore
     private List<Venta> ventas;
 }
\ No newline at end of file
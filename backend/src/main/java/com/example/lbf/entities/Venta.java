@@ -6,18 +6,23 @@ import lombok.Setter;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_venta_fecha_id", columnList = "fecha, venta_id"),
+        @Index(name = "idx_venta_fecha_hora", columnList = "fecha_hora") })
 @Getter
 @Setter
 public class Venta {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "venta_seq")
+    @SequenceGenerator(name = "venta_seq", sequenceName = "venta_seq", allocationSize = 50)
     private Long ventaId;
 
     @ManyToOne
@@ -41,8 +46,13 @@ public class Venta {
 
     private Boolean conIva;
 
+    // Solo para mostrar en el ticket; los reportes por hora usan fechaHora
     private String hora;
 
+    // Momento de la venta en hora del centro de México
+    @Column(name = "fecha_hora")
+    private LocalDateTime fechaHora;
+
     private String sucursal;
 
     private Boolean anulada = false;
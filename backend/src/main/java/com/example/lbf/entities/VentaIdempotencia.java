@@ -0,0 +1,54 @@
+package com.example.lbf.entities;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Persistable;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Transient;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Registro de las claves de idempotencia enviadas por las terminales.
+ * Cada clave queda asociada a la venta que generó, de modo que un reintento
+ * con la misma clave devuelve la venta existente en lugar de duplicarla.
+ */
+@Entity
+@Getter
+@Setter
+public class VentaIdempotencia implements Persistable<String> {
+
+    @Id
+    private String clave;
+
+    private Long ventaId;
+
+    private LocalDateTime fechaRegistro;
+
+    // La clave la genera el cliente, así que se marca como nueva para evitar el SELECT previo del merge
+    @Transient
+    @JsonIgnore
+    private boolean nuevo = true;
+
+    @Override
+    public String getId() {
+        return clave;
+    }
+
+    @Override
+    public boolean isNew() {
+        return nuevo;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistido() {
+        this.nuevo = false;
+    }
+}
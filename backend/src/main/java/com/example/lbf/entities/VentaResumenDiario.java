@@ -0,0 +1,47 @@
+package com.example.lbf.entities;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Total vendido y cantidad de tickets por día, sucursal y usuario.
+ * Se actualiza en la misma transacción que crea o anula cada venta y
+ * es la fuente de los reportes diarios, mensuales y por usuario.
+ * Las ventas sin sucursal se acumulan con sucursal vacía.
+ */
+@Entity
+@Table(name = "venta_resumen_diario", uniqueConstraints = @UniqueConstraint(
+        name = "uk_resumen_fecha_sucursal_usuario", columnNames = { "fecha", "sucursal", "usuario_id" }))
+@Getter
+@Setter
+public class VentaResumenDiario {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long resumenId;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(nullable = false)
+    private String sucursal;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal total;
+
+    @Column(nullable = false)
+    private Long tickets;
+}
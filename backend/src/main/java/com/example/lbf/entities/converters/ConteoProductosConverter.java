@@ -0,0 +1,49 @@
+package com.example.lbf.entities.converters;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Guarda el conteo de una sesión en una sola columna de texto: producto=milésimas,
+ * separados por punto y coma.
+ */
+@Converter
+public class ConteoProductosConverter implements AttributeConverter<Map<Long, Long>, String> {
+
+    private static final String SEPARADOR_PRODUCTOS = ";";
+    private static final String SEPARADOR_CANTIDAD = "=";
+
+    @Override
+    public String convertToDatabaseColumn(Map<Long, Long> conteo) {
+        if (conteo == null) {
+            return "";
+        }
+
+        StringBuilder texto = new StringBuilder(conteo.size() * 16);
+        for (Map.Entry<Long, Long> producto : conteo.entrySet()) {
+            if (texto.length() > 0) {
+                texto.append(SEPARADOR_PRODUCTOS);
+            }
+            texto.append(producto.getKey()).append(SEPARADOR_CANTIDAD).append(producto.getValue());
+        }
+        return texto.toString();
+    }
+
+    @Override
+    public Map<Long, Long> convertToEntityAttribute(String dbData) {
+        Map<Long, Long> conteo = new HashMap<>();
+        if (dbData == null || dbData.isEmpty()) {
+            return conteo;
+        }
+
+        for (String producto : dbData.split(SEPARADOR_PRODUCTOS)) {
+            int separador = producto.indexOf(SEPARADOR_CANTIDAD);
+            conteo.put(Long.parseLong(producto.substring(0, separador)),
+                    Long.parseLong(producto.substring(separador + 1)));
+        }
+        return conteo;
+    }
+}
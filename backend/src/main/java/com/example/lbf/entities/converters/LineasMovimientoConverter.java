@@ -0,0 +1,64 @@
+package com.example.lbf.entities.converters;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.lbf.entities.MovimientoPendiente.Linea;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Guarda las líneas de un movimiento pendiente en una sola columna de texto:
+ * producto|tipo|cantidad|anterior|nuevo, separadas por punto y coma.
+ */
+@Converter
+public class LineasMovimientoConverter implements AttributeConverter<List<Linea>, String> {
+
+    private static final String SEPARADOR_LINEAS = ";";
+    private static final String SEPARADOR_CAMPOS = "|";
+
+    @Override
+    public String convertToDatabaseColumn(List<Linea> lineas) {
+        if (lineas == null) {
+            return "";
+        }
+
+        StringBuilder texto = new StringBuilder();
+        for (Linea linea : lineas) {
+            if (texto.length() > 0) {
+                texto.append(SEPARADOR_LINEAS);
+            }
+            texto.append(linea.productoId()).append(SEPARADOR_CAMPOS)
+                    .append(linea.tipoMovimiento()).append(SEPARADOR_CAMPOS)
+                    .append(texto(linea.cantidad())).append(SEPARADOR_CAMPOS)
+                    .append(texto(linea.stockAnterior())).append(SEPARADOR_CAMPOS)
+                    .append(texto(linea.stockNuevo()));
+        }
+        return texto.toString();
+    }
+
+    @Override
+    public List<Linea> convertToEntityAttribute(String dbData) {
+        List<Linea> lineas = new ArrayList<>();
+        if (dbData == null || dbData.isEmpty()) {
+            return lineas;
+        }
+
+        for (String linea : dbData.split(SEPARADOR_LINEAS)) {
+            // -1 conserva los campos vacíos del final
+            String[] campos = linea.split("\\" + SEPARADOR_CAMPOS, -1);
+            lineas.add(new Linea(Long.parseLong(campos[0]), campos[1], numero(campos[2]), numero(campos[3]),
+                    numero(campos[4])));
+        }
+        return lineas;
+    }
+
+    private static String texto(Float valor) {
+        return valor != null ? String.valueOf(valor) : "";
+    }
+
+    private static Float numero(String texto) {
+        return texto.isEmpty() ? null : Float.parseFloat(texto);
+    }
+}
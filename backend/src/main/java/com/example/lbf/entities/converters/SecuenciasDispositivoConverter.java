@@ -0,0 +1,49 @@
+package com.example.lbf.entities.converters;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Guarda la última secuencia de cada escáner en una sola columna de texto:
+ * dispositivo=secuencia, separados por punto y coma. Los nombres de dispositivo se validan
+ * al recibir las lecturas y no contienen los separadores.
+ */
+@Converter
+public class SecuenciasDispositivoConverter implements AttributeConverter<Map<String, Long>, String> {
+
+    private static final String SEPARADOR_DISPOSITIVOS = ";";
+    private static final String SEPARADOR_SECUENCIA = "=";
+
+    @Override
+    public String convertToDatabaseColumn(Map<String, Long> secuencias) {
+        if (secuencias == null) {
+            return "";
+        }
+
+        StringBuilder texto = new StringBuilder();
+        for (Map.Entry<String, Long> dispositivo : secuencias.entrySet()) {
+            if (texto.length() > 0) {
+                texto.append(SEPARADOR_DISPOSITIVOS);
+            }
+            texto.append(dispositivo.getKey()).append(SEPARADOR_SECUENCIA).append(dispositivo.getValue());
+        }
+        return texto.toString();
+    }
+
+    @Override
+    public Map<String, Long> convertToEntityAttribute(String dbData) {
+        Map<String, Long> secuencias = new HashMap<>();
+        if (dbData == null || dbData.isEmpty()) {
+            return secuencias;
+        }
+
+        for (String dispositivo : dbData.split(SEPARADOR_DISPOSITIVOS)) {
+            int separador = dispositivo.lastIndexOf(SEPARADOR_SECUENCIA);
+            secuencias.put(dispositivo.substring(0, separador), Long.parseLong(dispositivo.substring(separador + 1)));
+        }
+        return secuencias;
+    }
+}
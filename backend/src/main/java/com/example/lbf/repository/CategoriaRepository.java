@@ -1,12 +1,32 @@
 package com.example.lbf.repository;
 
 import com.example.lbf.entities.Categoria;
+
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface CategoriaRepository extends JpaRepository<Categoria, Long> {
+    // El listado completo se pide en cada pantalla; queda en la caché de consultas hasta
+    // que cambie alguna categoría
+    @Override
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "listado-categorias")
+    })
+    List<Categoria> findAll();
+
     List<Categoria> findByNombreContainingIgnoreCase(String nombre);
+
+    List<Categoria> findByCambioSeqGreaterThanOrderByCategoriaId(Long desde);
+
+    @Query("SELECT MAX(c.cambioSeq) FROM Categoria c")
+    Long findUltimoCambioSeq();
 }
@@ -1,7 +1,9 @@
 package com.example.lbf.repository;
 
+import com.example.lbf.dto.response.ClienteResumenDTO;
 import com.example.lbf.entities.Cliente;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -22,4 +24,39 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
      * @return true si existe, false en caso contrario
      */
     boolean existsByNombreIgnoreCase(String nombre);
+
+    /**
+     * Clientes creados o modificados después de una posición de sincronización
+     * @param desde Posición de RelojCambios ya recibida por la terminal
+     * @return Clientes con cambios posteriores, ordenados por id
+     */
+    List<Cliente> findByCambioSeqGreaterThanOrderByIdCliente(Long desde);
+
+    /**
+     * Posición del cambio más reciente en clientes
+     * @return La posición máxima, o null si no hay clientes
+     */
+    @Query("SELECT MAX(c.cambioSeq) FROM Cliente c")
+    Long findUltimoCambioSeq();
+
+    /**
+     * Lista clientes sin tocar sus ventas
+     * @param nombre Parte del nombre a buscar, o null para todos
+     * @return Resúmenes de los clientes ordenados por nombre
+     */
+    @Query("SELECT new com.example.lbf.dto.response.ClienteResumenDTO(c.idCliente, c.nombre) FROM Cliente c " +
+           "WHERE (:nombre IS NULL OR LOWER(c.nombre) LIKE LOWER(CONCAT('%', :nombre, '%'))) " +
+           "ORDER BY c.nombre")
+    List<ClienteResumenDTO> findResumenes(String nombre);
+
+    /**
+     * Lista clientes con la cantidad de tickets no anulados y la fecha de su última compra
+     * @param nombre Parte del nombre a buscar, o null para todos
+     * @return Resúmenes de los clientes ordenados por nombre
+     */
+    @Query("SELECT new com.example.lbf.dto.response.ClienteResumenDTO(c.idCliente, c.nombre, COUNT(v), MAX(v.fecha)) " +
+           "FROM Cliente c LEFT JOIN c.ventas v ON (v.anulada IS NULL OR v.anulada = false) " +
+           "WHERE (:nombre IS NULL OR LOWER(c.nombre) LIKE LOWER(CONCAT('%', :nombre, '%'))) " +
+           "GROUP BY c.idCliente, c.nombre ORDER BY c.nombre")
+    List<ClienteResumenDTO> findResumenesConVentas(String nombre);
 }
@@ -0,0 +1,30 @@
+package com.example.lbf.repository;
+
+import com.example.lbf.entities.MovimientoPendiente;
+
+import jakarta.persistence.LockModeType;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MovimientoPendienteRepository extends JpaRepository<MovimientoPendiente, Long> {
+
+    // Bloquea las filas hasta el commit: si otro escritor ya las tomó, espera y no las vuelve a ver
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM MovimientoPendiente m WHERE m.id IN :ids ORDER BY m.id")
+    List<MovimientoPendiente> bloquearPorIds(Collection<Long> ids);
+
+    @Query("SELECT m.id FROM MovimientoPendiente m WHERE m.fechaRegistro < :antesDe ORDER BY m.id")
+    List<Long> findIdsRegistradosAntesDe(LocalDateTime antesDe, Pageable pageable);
+
+    @Query("SELECT MIN(m.fechaRegistro) FROM MovimientoPendiente m")
+    LocalDateTime findFechaMasAntigua();
+}
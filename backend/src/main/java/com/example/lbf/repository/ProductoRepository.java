@@ -1,15 +1,27 @@
 package com.example.lbf.repository;
 
+import com.example.lbf.dto.response.ProductoCatalogoDTO;
 import com.example.lbf.entities.Producto;
 import com.example.lbf.entities.Categoria;
+import com.example.lbf.entities.RelojCambios;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ProductoRepository extends JpaRepository<Producto, Long> {
+public interface ProductoRepository extends JpaRepository<Producto, Long>, ProductoStockRepository {
+
+    // Proyección del catálogo: columnas del producto y de su categoría, sin tocar productoVentas
+    String SELECT_CATALOGO = "SELECT new com.example.lbf.dto.response.ProductoCatalogoDTO(" +
+            "p.productoId, p.nombre, p.precio, p.precioCompra, p.stock, p.stockMinimo, p.codigoBarras, " +
+            "p.tipo, p.activo, p.sucursal, p.descuentos, c.categoriaId, c.nombre, c.color) " +
+            "FROM Producto p LEFT JOIN p.categoria c ";
+
     List<Producto> findByCategoria(Categoria categoria);
     List<Producto> findByNombreContainingIgnoreCase(String nombre);
     List<Producto> findByStockLessThan(Float stockMinimo);
@@ -19,4 +31,72 @@ public interface ProductoRepository extends JpaRepository<Producto, Long> {
 
     @Query("SELECT p FROM Producto p WHERE p.stock <= p.stockMinimo")
     List<Producto> findProductosConBajoStock();
+
+    @Query(SELECT_CATALOGO + "ORDER BY p.productoId")
+    List<ProductoCatalogoDTO> findCatalogo();
+
+    @Query(SELECT_CATALOGO + "WHERE p.productoId = :productoId")
+    Optional<ProductoCatalogoDTO> findCatalogoById(Long productoId);
+
+    @Query(SELECT_CATALOGO + "WHERE p.codigoBarras = :codigoBarras")
+    Optional<ProductoCatalogoDTO> findCatalogoByCodigoBarras(String codigoBarras);
+
+    boolean existsByCodigoBarrasAndProductoIdNot(String codigoBarras, Long productoId);
+
+    boolean existsByCodigoBarras(String codigoBarras);
+
+    @Query(SELECT_CATALOGO + "WHERE p.productoId IN :productoIds")
+    List<ProductoCatalogoDTO> findCatalogoByProductoIdIn(Collection<Long> productoIds);
+
+    @Query(SELECT_CATALOGO + "WHERE p.cambioSeq > :desde ORDER BY p.productoId")
+    List<ProductoCatalogoDTO> findCatalogoCambiadoDesde(Long desde);
+
+    @Query(SELECT_CATALOGO + "WHERE p.catalogoSeq > :desde ORDER BY p.productoId")
+    List<ProductoCatalogoDTO> findCatalogoConCatalogoSeqMayorA(Long desde);
+
+    @Query("SELECT p.productoId FROM Producto p WHERE p.productoId IN :productoIds")
+    List<Long> findIdsExistentes(Collection<Long> productoIds);
+
+    @Query("SELECT MAX(p.cambioSeq) FROM Producto p")
+    Long findUltimoCambioSeq();
+
+    @Query("SELECT MAX(p.catalogoSeq) FROM Producto p")
+    Long findUltimoCambioCatalogoSeq();
+
+    @Query("SELECT p.productoId FROM Producto p WHERE p.categoria.categoriaId = :categoriaId")
+    List<Long> findIdsByCategoriaId(Long categoriaId);
+
+    @Query(SELECT_CATALOGO + "WHERE c.categoriaId = :categoriaId ORDER BY p.productoId")
+    List<ProductoCatalogoDTO> findCatalogoByCategoriaId(Long categoriaId);
+
+    @Query(SELECT_CATALOGO + "WHERE LOWER(p.nombre) LIKE LOWER(CONCAT('%', :criterio, '%')) ORDER BY p.productoId")
+    List<ProductoCatalogoDTO> buscarCatalogo(String criterio);
+
+    @Query(SELECT_CATALOGO + "WHERE p.stock < :stockMinimo ORDER BY p.productoId")
+    List<ProductoCatalogoDTO> findCatalogoByStockLessThan(Float stockMinimo);
+
+    @Query(SELECT_CATALOGO + "WHERE p.stock <= p.stockMinimo ORDER BY p.productoId")
+    List<ProductoCatalogoDTO> findCatalogoConBajoStock();
+
+    // Suma la cantidad (negativa para descontar) solo si el stock no queda negativo; devuelve las filas afectadas.
+    // Mueve cambioSeq para las terminales pero no catalogoSeq
+    default int ajustarStock(Long productoId, Float cantidad) {
+        return ajustarStock(productoId, cantidad, RelojCambios.siguiente());
+    }
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Producto p SET p.stock = p.stock + :cantidad, p.cambioSeq = :cambioSeq " +
+           "WHERE p.productoId = :productoId AND p.stock + :cantidad >= 0")
+    int ajustarStock(Long productoId, Float cantidad, Long cambioSeq);
+
+    default int establecerStock(Long productoId, Float stock) {
+        return establecerStock(productoId, stock, RelojCambios.siguiente());
+    }
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Producto p SET p.stock = :stock, p.cambioSeq = :cambioSeq WHERE p.productoId = :productoId")
+    int establecerStock(Long productoId, Float stock, Long cambioSeq);
+
+    @Query("SELECT p.stock FROM Producto p WHERE p.productoId = :productoId")
+    Float findStockByProductoId(Long productoId);
 }
@@ -0,0 +1,31 @@
+package com.example.lbf.repository;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Operaciones de stock que se ejecutan directamente en la base de datos,
+ * sin leer ni guardar la entidad Producto.
+ */
+public interface ProductoStockRepository {
+    /**
+     * Aplica varias cantidades (negativas para descontar) en un solo lote de UPDATE condicionales.
+     * Cada producto se actualiza solo si su stock no queda negativo.
+     *
+     * @return por producto, si la actualización se aplicó
+     */
+    Map<Long, Boolean> ajustarStockLote(Map<Long, Float> cantidades);
+
+    /**
+     * Lee el stock de varios productos en una sola consulta y bloquea sus filas hasta el
+     * commit, para que ninguna venta lo cambie entre la lectura y el ajuste.
+     *
+     * @return stock por producto; los que no existen no aparecen
+     */
+    Map<Long, Float> bloquearStock(Collection<Long> productoIds);
+
+    /**
+     * Fija el stock de varios productos en un solo lote de UPDATE.
+     */
+    void establecerStockLote(Map<Long, Float> stocks);
+}
@@ -0,0 +1,72 @@
+package com.example.lbf.repository;
+
+import com.example.lbf.entities.RelojCambios;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class ProductoStockRepositoryImpl implements ProductoStockRepository {
+
+    // La posición se toma de la secuencia en el mismo UPDATE, sin una consulta más por producto
+    private static final String AJUSTAR_STOCK_SQL =
+            "UPDATE producto SET stock = stock + ?, cambio_seq = %s WHERE producto_id = ? AND stock + ? >= 0";
+
+    private static final String ESTABLECER_STOCK_SQL =
+            "UPDATE producto SET stock = ?, cambio_seq = %s WHERE producto_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Map<Long, Boolean> ajustarStockLote(Map<Long, Float> cantidades) {
+        // Ordenados por id para que dos ventas concurrentes bloqueen las filas en el mismo orden
+        List<Long> productoIds = new ArrayList<>(new TreeMap<>(cantidades).keySet());
+        List<Object[]> parametros = new ArrayList<>(productoIds.size());
+        for (Long productoId : productoIds) {
+            Float cantidad = cantidades.get(productoId);
+            parametros.add(new Object[] { cantidad, productoId, cantidad });
+        }
+
+        int[] filas = jdbcTemplate.batchUpdate(AJUSTAR_STOCK_SQL.formatted(RelojCambios.expresionSiguiente()), parametros);
+
+        Map<Long, Boolean> resultado = new TreeMap<>();
+        for (int i = 0; i < productoIds.size(); i++) {
+            resultado.put(productoIds.get(i), filas[i] > 0);
+        }
+        return resultado;
+    }
+
+    @Override
+    public Map<Long, Float> bloquearStock(Collection<Long> productoIds) {
+        Map<Long, Float> stock = new TreeMap<>();
+        if (productoIds.isEmpty()) {
+            return stock;
+        }
+        // Ordenados por id, igual que las ventas, para bloquear las filas en el mismo orden
+        String marcadores = String.join(",", Collections.nCopies(productoIds.size(), "?"));
+        jdbcTemplate.query("SELECT producto_id, stock FROM producto WHERE producto_id IN (" + marcadores + ") "
+                + "ORDER BY producto_id FOR UPDATE",
+                fila -> {
+                    float valor = fila.getFloat("stock");
+                    stock.put(fila.getLong("producto_id"), fila.wasNull() ? null : valor);
+                },
+                productoIds.toArray());
+        return stock;
+    }
+
+    @Override
+    public void establecerStockLote(Map<Long, Float> stocks) {
+        List<Object[]> parametros = new ArrayList<>(stocks.size());
+        for (Long productoId : new TreeMap<>(stocks).keySet()) {
+            parametros.add(new Object[] { stocks.get(productoId), productoId });
+        }
+        jdbcTemplate.batchUpdate(ESTABLECER_STOCK_SQL.formatted(RelojCambios.expresionSiguiente()), parametros);
+    }
+}
@@ -2,6 +2,7 @@ package com.example.lbf.repository;
 
 import com.example.lbf.entities.ProductoVendido;
 import com.example.lbf.entities.Producto;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -13,13 +14,15 @@ import java.util.List;
 public interface ProductoVendidoRepository extends JpaRepository<ProductoVendido, Long> {
     List<ProductoVendido> findByProducto(Producto producto);
     
-    @Query("SELECT pv.producto, SUM(pv.cantidad) FROM ProductoVendido pv " +
-           "JOIN pv.venta v WHERE v.fecha BETWEEN :fechaInicio AND :fechaFin " +
-           "GROUP BY pv.producto ORDER BY SUM(pv.cantidad) DESC")
-    List<Object[]> findProductosMasVendidos(LocalDate fechaInicio, LocalDate fechaFin);
+    // Se filtra por pv.fecha para que Postgres solo lea las particiones del rango
+    // Solo ids y cantidades; el límite se aplica en la consulta
+    @Query("SELECT pv.producto.productoId, SUM(pv.cantidad) FROM ProductoVendido pv " +
+           "WHERE pv.fecha BETWEEN :fechaInicio AND :fechaFin " +
+           "GROUP BY pv.producto.productoId ORDER BY SUM(pv.cantidad) DESC")
+    List<Object[]> findProductosMasVendidos(LocalDate fechaInicio, LocalDate fechaFin, Pageable pagina);
     
     @Query("SELECT pv.producto.categoria.nombre, SUM(pv.subtotal) FROM ProductoVendido pv " +
-           "JOIN pv.venta v WHERE v.fecha BETWEEN :fechaInicio AND :fechaFin " +
+           "WHERE pv.fecha BETWEEN :fechaInicio AND :fechaFin " +
            "GROUP BY pv.producto.categoria.nombre")
     List<Object[]> findVentasPorCategoria(LocalDate fechaInicio, LocalDate fechaFin);
 }
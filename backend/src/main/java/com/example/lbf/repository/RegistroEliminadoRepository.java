@@ -0,0 +1,33 @@
+package com.example.lbf.repository;
+
+import com.example.lbf.entities.RegistroEliminado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RegistroEliminadoRepository extends JpaRepository<RegistroEliminado, Long> {
+    List<RegistroEliminado> findByCambioSeqGreaterThanOrderByCambioSeq(Long desde);
+
+    @Query("SELECT MAX(r.cambioSeq) FROM RegistroEliminado r")
+    Long findUltimoCambioSeq();
+
+    @Query("SELECT MAX(r.cambioSeq) FROM RegistroEliminado r WHERE r.fecha < :limite")
+    Long findUltimoCambioSeqAnteriorA(LocalDateTime limite);
+
+    // Posición más alta ya purgada; null si nunca se purgó
+    @Query("SELECT MAX(r.cambioSeq) FROM RegistroEliminado r WHERE r.entidad = 'PURGA'")
+    Long findUltimaPurga();
+
+    @Modifying
+    @Query("DELETE FROM RegistroEliminado r WHERE r.fecha < :limite")
+    int purgarAnteriores(LocalDateTime limite);
+
+    @Modifying
+    @Query("DELETE FROM RegistroEliminado r WHERE r.entidad = 'PURGA' AND r.cambioSeq < :hasta")
+    int eliminarPurgasAnteriores(Long hasta);
+}
@@ -0,0 +1,16 @@
+package com.example.lbf.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Suma una venta (o su anulación) al resumen diario con una sola sentencia, sin leer la fila
+ * antes y sin transacción aparte para crearla.
+ */
+public interface ResumenDiarioAcumuladoRepository {
+    /**
+     * Crea la fila del día, sucursal y usuario con el total y los tickets dados o, si ya existe,
+     * se los suma. Corre en la transacción de quien llama.
+     */
+    void acumular(LocalDate fecha, String sucursal, Long usuarioId, BigDecimal total, Long tickets);
+}
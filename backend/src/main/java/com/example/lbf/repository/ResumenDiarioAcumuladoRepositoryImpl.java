@@ -0,0 +1,48 @@
+package com.example.lbf.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+
+public class ResumenDiarioAcumuladoRepositoryImpl implements ResumenDiarioAcumuladoRepository {
+
+    // Dos ventas que crean la misma fila a la vez: la segunda espera a la primera y suma sobre ella
+    private static final String ACUMULAR_SQL =
+            "INSERT INTO venta_resumen_diario (fecha, sucursal, usuario_id, total, tickets) VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (fecha, sucursal, usuario_id) DO UPDATE SET " +
+            "total = venta_resumen_diario.total + EXCLUDED.total, " +
+            "tickets = venta_resumen_diario.tickets + EXCLUDED.tickets";
+
+    // H2 (pruebas) no tiene ON CONFLICT ... DO UPDATE; MERGE hace lo mismo en una sentencia
+    private static final String ACUMULAR_H2_SQL =
+            "MERGE INTO venta_resumen_diario r USING (SELECT CAST(? AS DATE) AS fecha, " +
+            "CAST(? AS VARCHAR(255)) AS sucursal, CAST(? AS BIGINT) AS usuario_id, " +
+            "CAST(? AS NUMERIC(14, 2)) AS total, CAST(? AS BIGINT) AS tickets) n " +
+            "ON r.fecha = n.fecha AND r.sucursal = n.sucursal AND r.usuario_id = n.usuario_id " +
+            "WHEN MATCHED THEN UPDATE SET total = r.total + n.total, tickets = r.tickets + n.tickets " +
+            "WHEN NOT MATCHED THEN INSERT (fecha, sucursal, usuario_id, total, tickets) " +
+            "VALUES (n.fecha, n.sucursal, n.usuario_id, n.total, n.tickets)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Boolean postgres;
+
+    @Override
+    public void acumular(LocalDate fecha, String sucursal, Long usuarioId, BigDecimal total, Long tickets) {
+        jdbcTemplate.update(esPostgres() ? ACUMULAR_SQL : ACUMULAR_H2_SQL,
+                Date.valueOf(fecha), sucursal, usuarioId, total, tickets);
+    }
+
+    private boolean esPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) conexion ->
+                    "PostgreSQL".equals(conexion.getMetaData().getDatabaseProductName()));
+        }
+        return Boolean.TRUE.equals(postgres);
+    }
+}
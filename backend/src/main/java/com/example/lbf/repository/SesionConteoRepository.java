@@ -0,0 +1,14 @@
+package com.example.lbf.repository;
+
+import com.example.lbf.entities.SesionConteo;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SesionConteoRepository extends JpaRepository<SesionConteo, Long> {
+
+    List<SesionConteo> findByEstadoOrderById(String estado);
+}
@@ -0,0 +1,13 @@
+package com.example.lbf.repository;
+
+import com.example.lbf.entities.Usuario;
+
+import java.util.Optional;
+
+/**
+ * Búsqueda de usuarios por su llave natural (username). Se resuelve desde la caché
+ * de segundo nivel y solo consulta la base la primera vez o tras un cambio.
+ */
+public interface UsuarioNaturalIdRepository {
+    Optional<Usuario> findByUsername(String username);
+}
@@ -0,0 +1,29 @@
+package com.example.lbf.repository;
+
+import com.example.lbf.entities.Usuario;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public class UsuarioNaturalIdRepositoryImpl implements UsuarioNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Sin transacción la sesión de unwrap se cerraría antes de la búsqueda
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Usuario> findByUsername(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Usuario.class)
+                .loadOptional(username);
+    }
+}
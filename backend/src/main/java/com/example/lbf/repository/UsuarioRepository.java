@@ -1,5 +1,6 @@
 package com.example.lbf.repository;
 
+import com.example.lbf.dto.response.UsuarioResumenDTO;
 import com.example.lbf.entities.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -7,11 +8,9 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
-import java.util.Optional;
 
 @Repository
-public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
-    Optional<Usuario> findByUsername(String username);
+public interface UsuarioRepository extends JpaRepository<Usuario, Long>, UsuarioNaturalIdRepository {
     List<Usuario> findByRol(String rol);
     List<Usuario> findByActivo(Boolean estado);
     @Query("SELECT COUNT(DISTINCT u.sucursal) FROM Usuario u")
@@ -19,4 +18,13 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
     @Query("SELECT COUNT(u) FROM Usuario u WHERE u.sucursal = :sucursal")
     int countBySucursal(@Param("sucursal") String sucursal);
+
+    // Listado con tickets y última venta agregados desde el resumen diario, en una sola consulta
+    @Query("SELECT new com.example.lbf.dto.response.UsuarioResumenDTO(u.id, u.username, u.nombre, u.rol, " +
+           "u.sucursal, u.activo, u.ultimoAcceso, COALESCE(SUM(r.tickets), 0), MAX(r.fecha)) " +
+           "FROM Usuario u LEFT JOIN VentaResumenDiario r ON r.usuarioId = u.id " +
+           "WHERE (:rol IS NULL OR u.rol = :rol) " +
+           "GROUP BY u.id, u.username, u.nombre, u.rol, u.sucursal, u.activo, u.ultimoAcceso " +
+           "ORDER BY u.id")
+    List<UsuarioResumenDTO> findResumenes(@Param("rol") String rol);
 }
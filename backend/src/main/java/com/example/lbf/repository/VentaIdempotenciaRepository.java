@@ -0,0 +1,9 @@
+package com.example.lbf.repository;
+
+import com.example.lbf.entities.VentaIdempotencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface VentaIdempotenciaRepository extends JpaRepository<VentaIdempotencia, String> {
+}
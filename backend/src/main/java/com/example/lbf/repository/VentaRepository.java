@@ -1,21 +1,87 @@
 package com.example.lbf.repository;
 
+import com.example.lbf.dto.response.LineaVentaExportacion;
+import com.example.lbf.dto.response.VentaPorHoraDTO;
 import com.example.lbf.entities.Venta;
 import com.example.lbf.entities.Usuario;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface VentaRepository extends JpaRepository<Venta, Long> {
     List<Venta> findByUsuario(Usuario usuario);
     List<Venta> findByFecha(LocalDate fecha);
     List<Venta> findByFechaBetween(LocalDate fechaInicio, LocalDate fechaFin);
+
+    // Paginación por cursor (fecha, ventaId), de la venta más reciente a la más antigua
+    @Query("SELECT v.ventaId FROM Venta v WHERE v.fecha BETWEEN :fechaInicio AND :fechaFin " +
+           "ORDER BY v.fecha DESC, v.ventaId DESC")
+    List<Long> findIdsByRango(LocalDate fechaInicio, LocalDate fechaFin, Pageable pagina);
+
+    // La fecha del cursor se toma de la propia venta, así el cliente solo envía el ventaId
+    @Query("SELECT v.ventaId FROM Venta v, Venta c WHERE c.ventaId = :cursorVentaId " +
+           "AND v.fecha BETWEEN :fechaInicio AND :fechaFin " +
+           "AND (v.fecha < c.fecha OR (v.fecha = c.fecha AND v.ventaId < c.ventaId)) " +
+           "ORDER BY v.fecha DESC, v.ventaId DESC")
+    List<Long> findIdsByRangoDespuesDeCursor(LocalDate fechaInicio, LocalDate fechaFin, Long cursorVentaId,
+            Pageable pagina);
+
+    // Historial paginado por cursor de un cliente y de un usuario
+    @Query("SELECT v.ventaId FROM Venta v WHERE v.cliente.idCliente = :clienteId " +
+           "ORDER BY v.fecha DESC, v.ventaId DESC")
+    List<Long> findIdsByCliente(Long clienteId, Pageable pagina);
+
+    @Query("SELECT v.ventaId FROM Venta v, Venta c WHERE c.ventaId = :cursorVentaId " +
+           "AND v.cliente.idCliente = :clienteId " +
+           "AND (v.fecha < c.fecha OR (v.fecha = c.fecha AND v.ventaId < c.ventaId)) " +
+           "ORDER BY v.fecha DESC, v.ventaId DESC")
+    List<Long> findIdsByClienteDespuesDeCursor(Long clienteId, Long cursorVentaId, Pageable pagina);
+
+    @Query("SELECT v.ventaId FROM Venta v WHERE v.usuario.id = :usuarioId " +
+           "ORDER BY v.fecha DESC, v.ventaId DESC")
+    List<Long> findIdsByUsuario(Long usuarioId, Pageable pagina);
+
+    @Query("SELECT v.ventaId FROM Venta v, Venta c WHERE c.ventaId = :cursorVentaId " +
+           "AND v.usuario.id = :usuarioId " +
+           "AND (v.fecha < c.fecha OR (v.fecha = c.fecha AND v.ventaId < c.ventaId)) " +
+           "ORDER BY v.fecha DESC, v.ventaId DESC")
+    List<Long> findIdsByUsuarioDespuesDeCursor(Long usuarioId, Long cursorVentaId, Pageable pagina);
+
+    // Carga una página completa (usuario, cliente, líneas y productos) en una sola consulta
+    @EntityGraph(attributePaths = { "usuario", "cliente", "productosVendidos",
+            "productosVendidos.producto", "productosVendidos.producto.categoria" })
+    @Query("SELECT v FROM Venta v WHERE v.ventaId IN :ids ORDER BY v.fecha DESC, v.ventaId DESC")
+    List<Venta> findConDetalleByVentaIdIn(Collection<Long> ids);
     
+    // Mapa de calor día de la semana × hora por sucursal, agrupado en la base de datos;
+    // el filtro por fecha limita la consulta a las particiones del rango
+    @Query("SELECT new com.example.lbf.dto.response.VentaPorHoraDTO(" +
+           "COALESCE(v.sucursal, ''), EXTRACT(DAY OF WEEK FROM v.fechaHora), EXTRACT(HOUR FROM v.fechaHora), " +
+           "COUNT(v), COALESCE(SUM(v.total), 0)) " +
+           "FROM Venta v WHERE v.fecha BETWEEN :fechaInicio AND :fechaFin " +
+           "AND v.fechaHora >= :desde AND v.fechaHora < :hasta " +
+           "AND (v.anulada IS NULL OR v.anulada = false) " +
+           "AND (:sucursal IS NULL OR v.sucursal = :sucursal) " +
+           "GROUP BY COALESCE(v.sucursal, ''), EXTRACT(DAY OF WEEK FROM v.fechaHora), EXTRACT(HOUR FROM v.fechaHora) " +
+           "ORDER BY COALESCE(v.sucursal, ''), EXTRACT(DAY OF WEEK FROM v.fechaHora), EXTRACT(HOUR FROM v.fechaHora)")
+    List<VentaPorHoraDTO> sumarPorDiaSemanaYHora(LocalDate fechaInicio, LocalDate fechaFin, LocalDateTime desde,
+            LocalDateTime hasta, String sucursal);
+
     @Query("SELECT SUM(v.total) FROM Venta v WHERE v.fecha BETWEEN :fechaInicio AND :fechaFin AND v.anulada = false")
     BigDecimal calcularTotalVentasPorRango(LocalDate fechaInicio, LocalDate fechaFin);
     
@@ -23,4 +89,18 @@ public interface VentaRepository extends JpaRepository<Venta, Long> {
            "LOWER(u.nombre) LIKE LOWER(CONCAT('%', :criterio, '%')) OR " +
            "CAST(v.ventaId AS string) LIKE CONCAT('%', :criterio, '%')")
     List<Venta> buscarVentas(String criterio);
+
+    // Recorre el rango con un cursor de solo avance; se proyectan columnas para no cargar entidades
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT new com.example.lbf.dto.response.LineaVentaExportacion(" +
+           "v.ventaId, v.fecha, v.hora, v.total, v.conIva, v.anulada, v.sucursal, u.id, u.nombre, " +
+           "c.idCliente, c.nombre, pv.productoVendidoId, p.productoId, p.nombre, " +
+           "pv.cantidad, pv.precioUnitario, pv.descuento, pv.subtotal) " +
+           "FROM Venta v LEFT JOIN v.usuario u LEFT JOIN v.cliente c " +
+           "LEFT JOIN v.productosVendidos pv LEFT JOIN pv.producto p " +
+           "WHERE v.fecha BETWEEN :fechaInicio AND :fechaFin " +
+           "ORDER BY v.fecha, v.ventaId, pv.productoVendidoId")
+    Stream<LineaVentaExportacion> streamLineasParaExportacion(LocalDate fechaInicio, LocalDate fechaFin);
 }
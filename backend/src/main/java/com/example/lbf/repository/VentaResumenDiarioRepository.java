@@ -0,0 +1,46 @@
+package com.example.lbf.repository;
+
+import com.example.lbf.entities.VentaResumenDiario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface VentaResumenDiarioRepository extends JpaRepository<VentaResumenDiario, Long>,
+        ResumenDiarioAcumuladoRepository {
+
+    @Modifying
+    @Query("DELETE FROM VentaResumenDiario r WHERE r.fecha BETWEEN :fechaInicio AND :fechaFin")
+    int eliminarPorRango(LocalDate fechaInicio, LocalDate fechaFin);
+
+    // Recalcula el resumen desde las ventas no anuladas del rango
+    @Modifying
+    @Query("INSERT INTO VentaResumenDiario (fecha, sucursal, usuarioId, total, tickets) " +
+           "SELECT v.fecha, COALESCE(v.sucursal, ''), COALESCE(v.usuario.id, 0), COALESCE(SUM(v.total), 0), COUNT(v) " +
+           "FROM Venta v WHERE v.fecha BETWEEN :fechaInicio AND :fechaFin " +
+           "AND (v.anulada IS NULL OR v.anulada = false) " +
+           "GROUP BY v.fecha, COALESCE(v.sucursal, ''), COALESCE(v.usuario.id, 0)")
+    int reconstruirPorRango(LocalDate fechaInicio, LocalDate fechaFin);
+
+    @Query("SELECT r.fecha, SUM(r.total) FROM VentaResumenDiario r " +
+           "WHERE r.fecha BETWEEN :fechaInicio AND :fechaFin GROUP BY r.fecha ORDER BY r.fecha")
+    List<Object[]> sumarPorFecha(LocalDate fechaInicio, LocalDate fechaFin);
+
+    // A lo sumo doce renglones: el total de cada mes se suma en la base y no día por día
+    @Query("SELECT EXTRACT(MONTH FROM r.fecha), SUM(r.total) FROM VentaResumenDiario r " +
+           "WHERE r.fecha BETWEEN :fechaInicio AND :fechaFin " +
+           "GROUP BY EXTRACT(MONTH FROM r.fecha) ORDER BY EXTRACT(MONTH FROM r.fecha)")
+    List<Object[]> sumarPorMes(LocalDate fechaInicio, LocalDate fechaFin);
+
+    @Query("SELECT r.usuarioId, SUM(r.total) FROM VentaResumenDiario r " +
+           "WHERE r.fecha BETWEEN :fechaInicio AND :fechaFin GROUP BY r.usuarioId")
+    List<Object[]> sumarPorUsuario(LocalDate fechaInicio, LocalDate fechaFin);
+
+    @Query("SELECT SUM(r.total) FROM VentaResumenDiario r WHERE r.fecha BETWEEN :fechaInicio AND :fechaFin")
+    BigDecimal sumarTotal(LocalDate fechaInicio, LocalDate fechaFin);
+}
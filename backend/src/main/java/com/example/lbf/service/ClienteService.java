@@ -1,5 +1,6 @@
 package com.example.lbf.service;
 
+import com.example.lbf.dto.response.ClienteResumenDTO;
 import com.example.lbf.entities.Cliente;
 import java.util.List;
 
@@ -28,6 +29,14 @@ public interface ClienteService {
      */
     List<Cliente> buscarClientesPorNombre(String nombre);
     
+    /**
+     * Lista clientes sin cargar sus ventas
+     * @param nombre Parte del nombre a buscar, o null para todos
+     * @param conVentas Si es true, agrega tickets y fecha de la última compra
+     * @return Resúmenes de los clientes
+     */
+    List<ClienteResumenDTO> getResumenesClientes(String nombre, boolean conVentas);
+    
     /**
      * Crea un nuevo cliente
      * @param cliente Datos del cliente a crear
@@ -0,0 +1,9 @@
+package com.example.lbf.service.catalogo;
+
+import com.example.lbf.dto.response.ProductoCatalogoDTO;
+
+import java.util.List;
+
+public interface BusquedaProductosService {
+    List<ProductoCatalogoDTO> sugerir(String texto, int limite);
+}
@@ -0,0 +1,310 @@
+package com.example.lbf.service.catalogo;
+
+import com.example.lbf.dto.response.ProductoCatalogoDTO;
+
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice en memoria para el buscador de la caja. Indexa nombre, código de barras y
+ * categoría sin acentos ni mayúsculas, por prefijo de cada palabra y por trigramas
+ * para encontrar texto dentro de la palabra o con errores de dedo. Lo mantiene
+ * CatalogoSincronizador, así cada tecla se responde sin consultar la base.
+ */
+@Service
+public class BusquedaProductosServiceImpl implements BusquedaProductosService, IndiceCatalogo {
+
+    // Los prefijos más largos se resuelven con el prefijo máximo y se verifican contra la palabra
+    private static final int LONGITUD_PREFIJO_MAX = 12;
+    private static final int N = 3;
+    // Fracción de trigramas que debe compartir un término sin coincidencia exacta
+    private static final double SIMILITUD_MINIMA = 0.5;
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+
+    private final Map<Long, Entrada> entradas = new HashMap<>();
+    private final Map<String, Set<Long>> porPrefijo = new HashMap<>();
+    private final Map<String, Set<Long>> porTrigrama = new HashMap<>();
+    private final ReadWriteLock candado = new ReentrantReadWriteLock();
+
+    @Override
+    public List<ProductoCatalogoDTO> sugerir(String texto, int limite) {
+        List<String> terminos = palabras(texto);
+        if (terminos.isEmpty() || limite <= 0) {
+            return Collections.emptyList();
+        }
+
+        List<Resultado> resultados = new ArrayList<>();
+        candado.readLock().lock();
+        try {
+            Map<Long, Double> puntajes = null;
+            // Todos los términos deben coincidir; el puntaje es la suma de cada uno
+            for (String termino : terminos) {
+                Map<Long, Double> delTermino = puntuar(termino, puntajes != null ? puntajes.keySet() : null);
+                if (puntajes == null) {
+                    puntajes = delTermino;
+                } else {
+                    puntajes.keySet().retainAll(delTermino.keySet());
+                    puntajes.replaceAll((id, puntaje) -> puntaje + delTermino.get(id));
+                }
+                if (puntajes.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+            for (Map.Entry<Long, Double> puntaje : puntajes.entrySet()) {
+                Entrada entrada = entradas.get(puntaje.getKey());
+                if (!Boolean.FALSE.equals(entrada.producto.getActivo())) {
+                    resultados.add(new Resultado(entrada, puntaje.getValue()));
+                }
+            }
+        } finally {
+            candado.readLock().unlock();
+        }
+
+        resultados.sort(Comparator.comparingDouble((Resultado r) -> -r.puntaje)
+                .thenComparingInt(r -> r.entrada.nombre.length())
+                .thenComparing(r -> r.entrada.nombre));
+        List<ProductoCatalogoDTO> productos = new ArrayList<>(Math.min(limite, resultados.size()));
+        for (int i = 0; i < resultados.size() && i < limite; i++) {
+            productos.add(resultados.get(i).entrada.producto);
+        }
+        return productos;
+    }
+
+    @Override
+    public void reemplazar(List<ProductoCatalogoDTO> productos) {
+        candado.writeLock().lock();
+        try {
+            entradas.clear();
+            porPrefijo.clear();
+            porTrigrama.clear();
+            productos.forEach(this::indexar);
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void actualizar(ProductoCatalogoDTO producto) {
+        candado.writeLock().lock();
+        try {
+            Entrada anterior = entradas.get(producto.getProductoId());
+            Entrada nueva = new Entrada(producto);
+            if (anterior != null && anterior.mismoTexto(nueva)) {
+                // Un cambio de stock o precio no cambia los términos indexados
+                entradas.put(producto.getProductoId(), nueva);
+                return;
+            }
+            desindexar(producto.getProductoId());
+            indexar(producto);
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void quitar(Long productoId) {
+        candado.writeLock().lock();
+        try {
+            desindexar(productoId);
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> puntuar(String termino, Set<Long> restringirA) {
+        Map<Long, Double> puntajes = new HashMap<>();
+        String prefijo = termino.length() > LONGITUD_PREFIJO_MAX
+                ? termino.substring(0, LONGITUD_PREFIJO_MAX)
+                : termino;
+        for (Long id : porPrefijo.getOrDefault(prefijo, Collections.emptySet())) {
+            if (restringirA == null || restringirA.contains(id)) {
+                double puntaje = entradas.get(id).puntajePrefijo(termino);
+                if (puntaje > 0) {
+                    puntajes.put(id, puntaje);
+                }
+            }
+        }
+
+        List<String> trigramas = trigramas(termino);
+        if (trigramas.isEmpty()) {
+            return puntajes;
+        }
+        // Cuenta cuántos trigramas del término tiene cada producto
+        Map<Long, Integer> coincidencias = new HashMap<>();
+        for (String trigrama : trigramas) {
+            for (Long id : porTrigrama.getOrDefault(trigrama, Collections.emptySet())) {
+                if (restringirA == null || restringirA.contains(id)) {
+                    coincidencias.merge(id, 1, Integer::sum);
+                }
+            }
+        }
+        for (Map.Entry<Long, Integer> coincidencia : coincidencias.entrySet()) {
+            Long id = coincidencia.getKey();
+            if (puntajes.containsKey(id)) {
+                continue;
+            }
+            double similitud = (double) coincidencia.getValue() / trigramas.size();
+            if (similitud == 1.0 && entradas.get(id).contiene(termino)) {
+                puntajes.put(id, 2.0);
+            } else if (similitud >= SIMILITUD_MINIMA) {
+                puntajes.put(id, similitud);
+            }
+        }
+        return puntajes;
+    }
+
+    private void indexar(ProductoCatalogoDTO producto) {
+        Entrada entrada = new Entrada(producto);
+        entradas.put(producto.getProductoId(), entrada);
+        for (String palabra : entrada.terminos()) {
+            prefijos(palabra).forEach(prefijo -> agregar(porPrefijo, prefijo, producto.getProductoId()));
+            trigramas(palabra).forEach(trigrama -> agregar(porTrigrama, trigrama, producto.getProductoId()));
+        }
+    }
+
+    private void desindexar(Long productoId) {
+        Entrada entrada = entradas.remove(productoId);
+        if (entrada == null) {
+            return;
+        }
+        for (String palabra : entrada.terminos()) {
+            prefijos(palabra).forEach(prefijo -> retirar(porPrefijo, prefijo, productoId));
+            trigramas(palabra).forEach(trigrama -> retirar(porTrigrama, trigrama, productoId));
+        }
+    }
+
+    private static void agregar(Map<String, Set<Long>> indice, String clave, Long productoId) {
+        indice.computeIfAbsent(clave, k -> new HashSet<>()).add(productoId);
+    }
+
+    private static void retirar(Map<String, Set<Long>> indice, String clave, Long productoId) {
+        Set<Long> ids = indice.get(clave);
+        if (ids != null && ids.remove(productoId) && ids.isEmpty()) {
+            indice.remove(clave);
+        }
+    }
+
+    private static List<String> prefijos(String palabra) {
+        List<String> prefijos = new ArrayList<>();
+        for (int i = 1; i <= Math.min(palabra.length(), LONGITUD_PREFIJO_MAX); i++) {
+            prefijos.add(palabra.substring(0, i));
+        }
+        return prefijos;
+    }
+
+    private static List<String> trigramas(String palabra) {
+        List<String> trigramas = new ArrayList<>();
+        for (int i = 0; i + N <= palabra.length(); i++) {
+            trigramas.add(palabra.substring(i, i + N));
+        }
+        return trigramas;
+    }
+
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinAcentos = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARADORES.matcher(sinAcentos.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    static List<String> palabras(String texto) {
+        String normalizado = normalizar(texto);
+        if (normalizado.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> palabras = new ArrayList<>();
+        Collections.addAll(palabras, normalizado.split(" "));
+        return palabras;
+    }
+
+    private static class Entrada {
+        final ProductoCatalogoDTO producto;
+        final String nombre;
+        final List<String> palabrasNombre;
+        final String codigo;
+        final List<String> palabrasCategoria;
+
+        Entrada(ProductoCatalogoDTO producto) {
+            this.producto = producto;
+            this.nombre = normalizar(producto.getNombre());
+            this.palabrasNombre = palabras(producto.getNombre());
+            this.codigo = normalizar(producto.getCodigoBarras()).replace(" ", "");
+            this.palabrasCategoria = producto.getCategoria() != null
+                    ? palabras(producto.getCategoria().getNombre())
+                    : Collections.emptyList();
+        }
+
+        Set<String> terminos() {
+            Set<String> terminos = new HashSet<>(palabrasNombre);
+            terminos.addAll(palabrasCategoria);
+            if (!codigo.isEmpty()) {
+                terminos.add(codigo);
+            }
+            return terminos;
+        }
+
+        boolean mismoTexto(Entrada otra) {
+            return nombre.equals(otra.nombre) && codigo.equals(otra.codigo)
+                    && palabrasCategoria.equals(otra.palabrasCategoria);
+        }
+
+        // El nombre pesa más que el código y el código más que la categoría
+        double puntajePrefijo(String termino) {
+            if (nombre.startsWith(termino)) {
+                return 10;
+            }
+            if (!codigo.isEmpty() && codigo.startsWith(termino)) {
+                return 8;
+            }
+            for (String palabra : palabrasNombre) {
+                if (palabra.startsWith(termino)) {
+                    return 6;
+                }
+            }
+            for (String palabra : palabrasCategoria) {
+                if (palabra.startsWith(termino)) {
+                    return 3;
+                }
+            }
+            return 0;
+        }
+
+        boolean contiene(String termino) {
+            if (nombre.contains(termino) || codigo.contains(termino)) {
+                return true;
+            }
+            for (String palabra : palabrasCategoria) {
+                if (palabra.contains(termino)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class Resultado {
+        final Entrada entrada;
+        final double puntaje;
+
+        Resultado(Entrada entrada, double puntaje) {
+            this.entrada = entrada;
+            this.puntaje = puntaje;
+        }
+    }
+}
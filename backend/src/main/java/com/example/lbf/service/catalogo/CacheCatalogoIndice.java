@@ -0,0 +1,88 @@
+package com.example.lbf.service.catalogo;
+
+import com.example.lbf.config.CacheConfig;
+import com.example.lbf.dto.response.ProductoCatalogoDTO;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mantiene al día las cachés de productos con los cambios que entrega CatalogoSincronizador
+ * después de cada commit: el producto se reemplaza por su versión recién leída y se
+ * invalidan las listas de su categoría actual y de la anterior si cambió de categoría.
+ * Al confirmar, la entrada se descarta de inmediato: la siguiente lectura va a la base en
+ * lugar de devolver la versión anterior mientras llega la nueva.
+ */
+@Component
+public class CacheCatalogoIndice implements IndiceCatalogo {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    // Categoría conocida de cada producto, para invalidar la lista correcta al moverlo o eliminarlo
+    private final Map<Long, Long> categoriaPorProducto = new ConcurrentHashMap<>();
+
+    @Override
+    public void reemplazar(List<ProductoCatalogoDTO> productos) {
+        categoriaPorProducto.clear();
+        productos.forEach(producto -> {
+            Long categoriaId = categoriaId(producto);
+            if (categoriaId != null) {
+                categoriaPorProducto.put(producto.getProductoId(), categoriaId);
+            }
+        });
+        productos().clear();
+        productosPorCategoria().clear();
+    }
+
+    @Override
+    public void actualizar(ProductoCatalogoDTO producto) {
+        productos().put(producto.getProductoId(), producto);
+        Long categoriaId = categoriaId(producto);
+        Long anterior = categoriaId != null
+                ? categoriaPorProducto.put(producto.getProductoId(), categoriaId)
+                : categoriaPorProducto.remove(producto.getProductoId());
+        if (categoriaId != null) {
+            productosPorCategoria().evict(categoriaId);
+        }
+        if (anterior != null && !anterior.equals(categoriaId)) {
+            productosPorCategoria().evict(anterior);
+        }
+    }
+
+    @Override
+    public void quitar(Long productoId) {
+        productos().evict(productoId);
+        Long anterior = categoriaPorProducto.remove(productoId);
+        if (anterior != null) {
+            productosPorCategoria().evict(anterior);
+        }
+    }
+
+    @Override
+    public void invalidar(Long productoId) {
+        productos().evict(productoId);
+        Long categoriaId = categoriaPorProducto.get(productoId);
+        if (categoriaId != null) {
+            productosPorCategoria().evict(categoriaId);
+        }
+    }
+
+    private Cache productos() {
+        return cacheManager.getCache(CacheConfig.PRODUCTOS);
+    }
+
+    private Cache productosPorCategoria() {
+        return cacheManager.getCache(CacheConfig.PRODUCTOS_POR_CATEGORIA);
+    }
+
+    private static Long categoriaId(ProductoCatalogoDTO producto) {
+        return producto.getCategoria() != null ? producto.getCategoria().getCategoriaId() : null;
+    }
+}
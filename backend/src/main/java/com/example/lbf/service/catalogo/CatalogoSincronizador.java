@@ -0,0 +1,156 @@
+package com.example.lbf.service.catalogo;
+
+import com.example.lbf.dto.response.ProductoCatalogoDTO;
+import com.example.lbf.repository.ProductoRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Carga los índices en memoria del catálogo al arrancar y los mantiene al día con los
+ * productos que cambia cada commit. Al confirmar, el listener solo anota los ids; un único
+ * hilo los vuelve a leer, juntos, con su propia conexión. Así el commit de una venta no pide
+ * una segunda conexión al pool mientras todavía tiene la suya, y los cambios de muchas
+ * ventas seguidas se leen en una sola consulta. Lo que no puede quedar viejo ni un momento,
+ * como la caché de productos, se descarta en memoria al confirmar (IndiceCatalogo.invalidar).
+ *
+ * Si la lectura falla, los ids vuelven a quedar pendientes y se reintentan; los índices no
+ * se quedan atrasados en silencio.
+ */
+@Component
+public class CatalogoSincronizador {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogoSincronizador.class);
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private List<IndiceCatalogo> indices;
+
+    // Espera antes de reintentar una lectura fallida
+    @Value("${lbf.catalogo.reintento-ms:1000}")
+    private long reintentoMs;
+
+    // Productos cambiados que todavía no se leen; un id repetido se lee una sola vez
+    private final Set<Long> pendientes = ConcurrentHashMap.newKeySet();
+
+    // Aviso al hilo de que hay pendientes; basta con uno aunque lleguen muchos commits
+    private final BlockingQueue<Boolean> aviso = new ArrayBlockingQueue<>(1);
+
+    private final AtomicLong errores = new AtomicLong();
+    private Thread lector;
+    private volatile boolean activo;
+
+    @PostConstruct
+    void iniciar() {
+        activo = true;
+        lector = new Thread(this::leer, "catalogo-sincronizador");
+        lector.setDaemon(true);
+        lector.start();
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        activo = false;
+        lector.interrupt();
+        lector.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public int recargar() {
+        List<ProductoCatalogoDTO> productos = productoRepository.findCatalogo();
+        indices.forEach(indice -> indice.reemplazar(productos));
+        return productos.size();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void alModificarProductos(ProductosModificadosEvent evento) {
+        evento.getProductoIds().forEach(productoId -> {
+            if (productoId != null) {
+                indices.forEach(indice -> indice.invalidar(productoId));
+                pendientes.add(productoId);
+            }
+        });
+        aviso.offer(Boolean.TRUE);
+    }
+
+    /**
+     * Lee en el hilo actual lo que esté pendiente, sin esperar al hilo de fondo. Las pruebas
+     * lo usan para ver los índices al día justo después de un commit.
+     */
+    public void sincronizar() {
+        sincronizarPendientes();
+    }
+
+    public long getErrores() {
+        return errores.get();
+    }
+
+    private void leer() {
+        while (activo) {
+            try {
+                aviso.poll(reintentoMs, TimeUnit.MILLISECONDS);
+                if (!pendientes.isEmpty()) {
+                    sincronizarPendientes();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Los ids ya volvieron a pendientes; se reintentan en la siguiente vuelta
+                errores.incrementAndGet();
+                log.warn("No se pudo actualizar el catálogo en memoria, se reintenta: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Un solo lector a la vez, para que un producto no se aplique fuera de orden
+    private synchronized void sincronizarPendientes() {
+        Set<Long> productoIds = new HashSet<>();
+        for (Long productoId : pendientes) {
+            if (pendientes.remove(productoId)) {
+                productoIds.add(productoId);
+            }
+        }
+        if (productoIds.isEmpty()) {
+            return;
+        }
+        List<ProductoCatalogoDTO> productos;
+        try {
+            productos = productoRepository.findCatalogoByProductoIdIn(productoIds);
+        } catch (RuntimeException e) {
+            pendientes.addAll(productoIds);
+            throw e;
+        }
+        for (ProductoCatalogoDTO producto : productos) {
+            indices.forEach(indice -> indice.actualizar(producto));
+            productoIds.remove(producto.getProductoId());
+        }
+        // Los que ya no existen se eliminaron
+        for (Long productoId : productoIds) {
+            indices.forEach(indice -> indice.quitar(productoId));
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.lbf.service.catalogo;
+
+import com.example.lbf.dto.response.ProductoCatalogoDTO;
+
+public interface CodigoBarrasService {
+    ProductoCatalogoDTO buscarPorCodigo(String codigoBarras);
+}
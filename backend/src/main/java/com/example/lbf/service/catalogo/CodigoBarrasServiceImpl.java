@@ -0,0 +1,76 @@
+package com.example.lbf.service.catalogo;
+
+import com.example.lbf.dto.response.ProductoCatalogoDTO;
+import com.example.lbf.repository.ProductoRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mapa en memoria código de barras → producto para el escaneo en caja. Lo mantiene
+ * CatalogoSincronizador, así las lecturas no bloquean ni consultan la base.
+ * El stock del mapa es informativo: el cobro lo valida con el UPDATE condicional.
+ */
+@Service
+public class CodigoBarrasServiceImpl implements CodigoBarrasService, IndiceCatalogo {
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    private final Map<String, ProductoCatalogoDTO> productosPorCodigo = new ConcurrentHashMap<>();
+
+    // Código vigente de cada producto, para quitar el anterior cuando cambia
+    private final Map<Long, String> codigoPorProducto = new ConcurrentHashMap<>();
+
+    @Override
+    public ProductoCatalogoDTO buscarPorCodigo(String codigoBarras) {
+        ProductoCatalogoDTO producto = productosPorCodigo.get(codigoBarras);
+        if (producto != null) {
+            return producto;
+        }
+        // Un código que no está en el mapa se busca en la base por el índice único
+        return productoRepository.findCatalogoByCodigoBarras(codigoBarras)
+                .map(encontrado -> {
+                    guardar(encontrado);
+                    return encontrado;
+                })
+                .orElse(null);
+    }
+
+    @Override
+    public synchronized void reemplazar(List<ProductoCatalogoDTO> productos) {
+        productosPorCodigo.clear();
+        codigoPorProducto.clear();
+        productos.forEach(this::guardar);
+    }
+
+    @Override
+    public void actualizar(ProductoCatalogoDTO producto) {
+        guardar(producto);
+    }
+
+    private synchronized void guardar(ProductoCatalogoDTO producto) {
+        String codigo = producto.getCodigoBarras();
+        String anterior = codigo != null
+                ? codigoPorProducto.put(producto.getProductoId(), codigo)
+                : codigoPorProducto.remove(producto.getProductoId());
+        if (anterior != null && !anterior.equals(codigo)) {
+            productosPorCodigo.remove(anterior);
+        }
+        if (codigo != null) {
+            productosPorCodigo.put(codigo, producto);
+        }
+    }
+
+    @Override
+    public synchronized void quitar(Long productoId) {
+        String codigo = codigoPorProducto.remove(productoId);
+        if (codigo != null) {
+            productosPorCodigo.remove(codigo);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.lbf.service.catalogo;
+
+import com.example.lbf.dto.response.ProductoCatalogoDTO;
+
+import java.util.List;
+
+/**
+ * Copia en memoria del catálogo que CatalogoSincronizador mantiene al día.
+ */
+public interface IndiceCatalogo {
+    void reemplazar(List<ProductoCatalogoDTO> productos);
+    void actualizar(ProductoCatalogoDTO producto);
+    void quitar(Long productoId);
+
+    /**
+     * Se llama al confirmar, antes de que el hilo de CatalogoSincronizador lea la versión nueva.
+     * Solo trabajo en memoria; un índice que no puede servir datos viejos mientras tanto los
+     * descarta aquí.
+     */
+    default void invalidar(Long productoId) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.lbf.service.catalogo;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+
+/**
+ * Se publica cuando se crean, modifican, eliminan o cambian de stock productos,
+ * para que las copias en memoria del catálogo se actualicen al confirmar la transacción.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductosModificadosEvent {
+    private final Collection<Long> productoIds;
+}
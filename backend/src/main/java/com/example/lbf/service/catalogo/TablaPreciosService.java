@@ -0,0 +1,15 @@
+package com.example.lbf.service.catalogo;
+
+import com.example.lbf.dto.request.VentaRequest;
+import com.example.lbf.dto.response.CotizacionResponse;
+
+public interface TablaPreciosService {
+    /**
+     * Calcula precios, descuentos e IVA de las líneas de la venta (compactas o completas)
+     * con la tabla de precios en memoria. Solo consulta la base para productos que aún no
+     * estén en la tabla.
+     *
+     * @throws IllegalArgumentException si un producto no existe, no tiene precio o el descuento no es válido
+     */
+    CotizacionResponse cotizar(VentaRequest ventaRequest);
+}
@@ -0,0 +1,238 @@
+package com.example.lbf.service.catalogo;
+
+import com.example.lbf.dto.request.LineaVentaRequest;
+import com.example.lbf.dto.request.VentaRequest;
+import com.example.lbf.dto.response.CotizacionResponse;
+import com.example.lbf.dto.response.CotizacionResponse.LineaCotizacion;
+import com.example.lbf.dto.response.ProductoCatalogoDTO;
+import com.example.lbf.entities.ProductoVendido;
+import com.example.lbf.entities.RegistroEliminado;
+import com.example.lbf.repository.ProductoRepository;
+import com.example.lbf.repository.RegistroEliminadoRepository;
+import com.example.lbf.util.Dinero;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tabla en memoria producto → precio de lista en centavos y cada descuento en puntos base.
+ * La mantiene CatalogoSincronizador, así una cotización no consulta la base; los importes
+ * se calculan con Dinero y se pasan a decimal solo al armar la respuesta.
+ *
+ * Si algún aviso de cambio se pierde, revisar() lo repara: compara la última posición del
+ * catálogo (max de catalogo_seq y de los productos eliminados) con la ya revisada y, si
+ * avanzó, vuelve a leer solo esas filas. Cada revisión relee también lo que vio la anterior,
+ * porque la posición se asigna al escribir y una transacción lenta puede confirmar después
+ * con una posición menor.
+ */
+@Service
+public class TablaPreciosServiceImpl implements TablaPreciosService, IndiceCatalogo {
+
+    private static final Logger log = LoggerFactory.getLogger(TablaPreciosServiceImpl.class);
+
+    // 16% en puntos base
+    private static final int TASA_IVA = 1600;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private RegistroEliminadoRepository registroEliminadoRepository;
+
+    private final Map<Long, PrecioProducto> precios = new ConcurrentHashMap<>();
+
+    // Posición ya releída dos veces y la que vio la última revisión; la primera revisión
+    // relee todo una vez
+    private long revisado;
+    private long visto;
+
+    @Override
+    public CotizacionResponse cotizar(VentaRequest ventaRequest) {
+        List<LineaVentaRequest> compactas = ventaRequest.getLineas();
+        List<ProductoVendido> completas = ventaRequest.getProductos();
+        boolean compacto = compactas != null && !compactas.isEmpty();
+        if (!compacto && (completas == null || completas.isEmpty())) {
+            throw new IllegalArgumentException("La venta no tiene productos");
+        }
+
+        Set<Long> productoIds = new HashSet<>();
+        if (compacto) {
+            compactas.forEach(linea -> productoIds.add(linea.getProductoId()));
+        } else {
+            completas.forEach(pv -> productoIds.add(pv.getProducto() != null ? pv.getProducto().getProductoId() : null));
+        }
+        if (productoIds.contains(null)) {
+            throw new IllegalArgumentException("Cada línea debe indicar el producto");
+        }
+        cargarFaltantes(productoIds);
+
+        List<LineaCotizacion> lineas = new ArrayList<>();
+        long subtotal = 0;
+        if (compacto) {
+            for (LineaVentaRequest linea : compactas) {
+                PrecioProducto precio = precio(linea.getProductoId());
+                Integer indice = precio.indiceDescuento(linea.getDescuentoIndice());
+                float descuento = indice != null ? precio.descuentos().get(indice) : 0f;
+                long importe = precio.importe(linea.getCantidad(), descuento);
+                subtotal += importe;
+                lineas.add(precio.linea(linea.getProductoId(), linea.getCantidad(), descuento, importe));
+            }
+        } else {
+            // Formato anterior: el precio enviado se ignora y el porcentaje de descuento solo se
+            // acepta si es uno de los descuentos del producto
+            for (ProductoVendido pv : completas) {
+                Long productoId = pv.getProducto().getProductoId();
+                PrecioProducto precio = precio(productoId);
+                Integer indice = precio.indiceDescuento(precio.indiceDePorcentaje(pv.getDescuento()));
+                float descuento = indice != null ? precio.descuentos().get(indice) : 0f;
+                long importe = precio.importe(pv.getCantidad(), descuento);
+                subtotal += importe;
+                lineas.add(precio.linea(productoId, pv.getCantidad(), descuento, importe));
+            }
+        }
+
+        long iva = Boolean.TRUE.equals(ventaRequest.getConIva()) ? Dinero.porcentaje(subtotal, TASA_IVA) : 0;
+        return new CotizacionResponse(lineas, Dinero.decimal(subtotal), Dinero.decimal(iva),
+                Dinero.decimal(subtotal + iva));
+    }
+
+    @Override
+    public void reemplazar(List<ProductoCatalogoDTO> productos) {
+        Map<Long, PrecioProducto> nuevos = new ConcurrentHashMap<>();
+        productos.forEach(producto -> nuevos.put(producto.getProductoId(), PrecioProducto.de(producto)));
+        precios.keySet().retainAll(nuevos.keySet());
+        precios.putAll(nuevos);
+    }
+
+    @Override
+    public void actualizar(ProductoCatalogoDTO producto) {
+        precios.put(producto.getProductoId(), PrecioProducto.de(producto));
+    }
+
+    @Override
+    public void quitar(Long productoId) {
+        precios.remove(productoId);
+    }
+
+    /**
+     * Relee los productos cuyo catálogo cambió desde la penúltima revisión y quita los
+     * eliminados. Cuando nada cambió es una sola consulta por índice.
+     */
+    @Scheduled(fixedDelayString = "${lbf.catalogo.precios.revision-ms:60000}",
+            initialDelayString = "${lbf.catalogo.precios.revision-ms:60000}")
+    public synchronized int revisar() {
+        long ultimo = Math.max(valor(productoRepository.findUltimoCambioCatalogoSeq()),
+                valor(registroEliminadoRepository.findUltimoCambioSeq()));
+        long desde = revisado;
+        revisado = visto;
+        visto = ultimo;
+        if (ultimo <= desde) {
+            return 0;
+        }
+
+        List<ProductoCatalogoDTO> cambiados = productoRepository.findCatalogoConCatalogoSeqMayorA(desde);
+        cambiados.forEach(this::actualizar);
+        int quitados = 0;
+        for (RegistroEliminado registro : registroEliminadoRepository.findByCambioSeqGreaterThanOrderByCambioSeq(desde)) {
+            if (RegistroEliminado.PRODUCTO.equals(registro.getEntidad()) && precios.remove(registro.getEntidadId()) != null) {
+                quitados++;
+            }
+        }
+        if (!cambiados.isEmpty() || quitados > 0) {
+            log.debug("Tabla de precios revisada: {} releídos, {} quitados", cambiados.size(), quitados);
+        }
+        return cambiados.size() + quitados;
+    }
+
+    private static long valor(Long posicion) {
+        return posicion != null ? posicion : 0;
+    }
+
+    // Un producto que no está en la tabla se lee junto con los demás faltantes en una sola consulta
+    private void cargarFaltantes(Set<Long> productoIds) {
+        List<Long> faltantes = null;
+        for (Long productoId : productoIds) {
+            if (!precios.containsKey(productoId)) {
+                if (faltantes == null) {
+                    faltantes = new ArrayList<>();
+                }
+                faltantes.add(productoId);
+            }
+        }
+        if (faltantes != null) {
+            productoRepository.findCatalogoByProductoIdIn(faltantes).forEach(this::actualizar);
+        }
+    }
+
+    private PrecioProducto precio(Long productoId) {
+        PrecioProducto precio = precios.get(productoId);
+        if (precio == null) {
+            throw new IllegalArgumentException("Producto no encontrado: " + productoId);
+        }
+        if (precio.precio() == null) {
+            throw new IllegalArgumentException("El producto " + precio.nombre() + " no tiene precio");
+        }
+        return precio;
+    }
+
+    /**
+     * Precio de lista en centavos y los descuentos de Producto.descuentos; precio es null
+     * si el producto no tiene precio capturado.
+     */
+    private record PrecioProducto(String nombre, Long precio, List<Float> descuentos) {
+
+        static PrecioProducto de(ProductoCatalogoDTO producto) {
+            Long precio = producto.getPrecio() != null ? Dinero.centavos(producto.getPrecio()) : null;
+            List<Float> descuentos = producto.getDescuentos() != null ? List.copyOf(producto.getDescuentos()) : List.of();
+            return new PrecioProducto(producto.getNombre(), precio, descuentos);
+        }
+
+        // Índice del descuento elegido; null significa sin descuento
+        Integer indiceDescuento(Integer indice) {
+            if (indice != null && (indice < 0 || indice >= descuentos.size())) {
+                throw new IllegalArgumentException("El producto " + nombre + " no tiene el descuento " + indice);
+            }
+            return indice;
+        }
+
+        // Posición del porcentaje en los descuentos del producto; sin descuento (vacío o 0) es null
+        Integer indiceDePorcentaje(Float porcentaje) {
+            if (porcentaje == null || porcentaje == 0f) {
+                return null;
+            }
+            int puntosBase = Dinero.puntosBase(porcentaje);
+            for (int i = 0; i < descuentos.size(); i++) {
+                if (descuentos.get(i) != null && Dinero.puntosBase(descuentos.get(i)) == puntosBase) {
+                    return i;
+                }
+            }
+            throw new IllegalArgumentException("El producto " + nombre + " no tiene un descuento de " + porcentaje + "%");
+        }
+
+        // Importe de la línea en centavos
+        long importe(Float cantidad, float descuento) {
+            if (cantidad == null || cantidad <= 0) {
+                throw new IllegalArgumentException("Las cantidades deben ser mayores a cero");
+            }
+            if (descuento < 0 || descuento > 100) {
+                throw new IllegalArgumentException("Los descuentos deben estar entre 0 y 100%");
+            }
+            return Dinero.importeLinea(precio, Dinero.puntosBase(descuento), Dinero.milesimas(cantidad));
+        }
+
+        LineaCotizacion linea(Long productoId, Float cantidad, float descuento, long importe) {
+            return new LineaCotizacion(productoId, nombre, cantidad, Dinero.decimal(precio), descuento,
+                    Dinero.decimal(importe));
+        }
+    }
+}
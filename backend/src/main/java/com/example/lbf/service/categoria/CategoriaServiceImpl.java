@@ -2,10 +2,14 @@ package com.example.lbf.service.categoria;
 
 import com.example.lbf.entities.Categoria;
 import com.example.lbf.entities.Producto;
+import com.example.lbf.entities.RegistroEliminado;
 import com.example.lbf.repository.CategoriaRepository;
 import com.example.lbf.repository.ProductoRepository;
+import com.example.lbf.service.catalogo.ProductosModificadosEvent;
+import com.example.lbf.service.sync.SincronizacionService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,6 +25,12 @@ public class CategoriaServiceImpl implements CategoriaService {
     @Autowired
     private ProductoRepository productoRepository;
 
+    @Autowired
+    private SincronizacionService sincronizacionService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     @Transactional
     public Categoria crearCategoria(Categoria categoria) {
@@ -30,13 +40,18 @@ public class CategoriaServiceImpl implements CategoriaService {
     @Override
     @Transactional
     public Categoria actualizarCategoria(Categoria categoria) {
-        return categoriaRepository.save(categoria);
+        Categoria guardada = categoriaRepository.save(categoria);
+        // Los productos en memoria llevan el nombre y color de su categoría
+        eventPublisher.publishEvent(new ProductosModificadosEvent(
+                productoRepository.findIdsByCategoriaId(guardada.getCategoriaId())));
+        return guardada;
     }
 
     @Override
     @Transactional
     public void eliminarCategoria(Long categoriaId) {
         categoriaRepository.deleteById(categoriaId);
+        sincronizacionService.registrarEliminado(RegistroEliminado.CATEGORIA, categoriaId);
     }
 
     @Override
@@ -1,10 +1,14 @@
 package com.example.lbf.service.impl;
 
+import com.example.lbf.dto.response.ClienteResumenDTO;
 import com.example.lbf.entities.Cliente;
+import com.example.lbf.entities.RegistroEliminado;
 import com.example.lbf.repository.ClienteRepository;
 import com.example.lbf.service.ClienteService;
+import com.example.lbf.service.sync.SincronizacionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -17,6 +21,9 @@ public class ClienteServiceImpl implements ClienteService {
     
     @Autowired
     private ClienteRepository clienteRepository;
+
+    @Autowired
+    private SincronizacionService sincronizacionService;
     
     @Override
     public List<Cliente> getAllClientes() {
@@ -34,6 +41,14 @@ public class ClienteServiceImpl implements ClienteService {
         return clienteRepository.findByNombreContainingIgnoreCase(nombre);
     }
     
+    @Override
+    public List<ClienteResumenDTO> getResumenesClientes(String nombre, boolean conVentas) {
+        String filtro = nombre == null || nombre.isBlank() ? null : nombre;
+        return conVentas
+                ? clienteRepository.findResumenesConVentas(filtro)
+                : clienteRepository.findResumenes(filtro);
+    }
+    
     @Override
     public Cliente crearCliente(Cliente cliente) {
         // Verificar que el cliente no tenga ID (es nuevo)
@@ -60,11 +75,13 @@ public class ClienteServiceImpl implements ClienteService {
     }
     
     @Override
+    @Transactional
     public boolean eliminarCliente(Long id) {
         Optional<Cliente> cliente = clienteRepository.findById(id);
         
         if (cliente.isPresent()) {
             clienteRepository.deleteById(id);
+            sincronizacionService.registrarEliminado(RegistroEliminado.CLIENTE, id);
             return true;
         }
         
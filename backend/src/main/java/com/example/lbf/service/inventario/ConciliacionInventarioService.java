@@ -0,0 +1,22 @@
+package com.example.lbf.service.inventario;
+
+import com.example.lbf.dto.response.ConciliacionInventarioResumen;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Map;
+
+public interface ConciliacionInventarioService {
+
+    /**
+     * Fija el stock de cada producto contado y registra en el kardex la diferencia con el
+     * stock del sistema.
+     */
+    ConciliacionInventarioResumen conciliar(Map<Long, Float> conteo);
+
+    /**
+     * Lee un conteo de escáner, una línea por lectura con "codigo" o "codigo,cantidad", y lo
+     * concilia. Un código repetido suma sus cantidades; sin cantidad cuenta como una pieza.
+     */
+    ConciliacionInventarioResumen conciliarCsv(Reader csv) throws IOException;
+}
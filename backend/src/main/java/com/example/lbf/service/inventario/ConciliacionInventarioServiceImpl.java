@@ -0,0 +1,202 @@
+package com.example.lbf.service.inventario;
+
+import com.example.lbf.dto.response.ConciliacionInventarioResumen;
+import com.example.lbf.dto.response.ConciliacionInventarioResumen.Diferencia;
+import com.example.lbf.dto.response.ProductoCatalogoDTO;
+import com.example.lbf.entities.MovimientoPendiente;
+import com.example.lbf.repository.ProductoRepository;
+import com.example.lbf.service.catalogo.ProductosModificadosEvent;
+import com.example.lbf.service.producto.ProductoService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conciliación de inventario físico por bloques. Cada bloque de ids lee el stock de todos
+ * sus productos con una consulta, calcula las diferencias en memoria y, en una transacción
+ * corta, fija los stocks con un lote de UPDATE y deja los movimientos al libro de inventario.
+ * Así un conteo de miles de productos no mantiene bloqueadas las filas de la caja durante
+ * minutos.
+ *
+ * Los bloques se confirman por separado: si uno falla, los anteriores ya quedaron. Como el
+ * conteo fija valores absolutos, volver a enviarlo completo es seguro.
+ */
+@Service
+public class ConciliacionInventarioServiceImpl implements ConciliacionInventarioService {
+
+    private static final String MOTIVO = "Ajuste por inventario físico";
+
+    // Elementos máximos de cada lista del resumen
+    private static final int MAX_DETALLE_RESUMEN = 100;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private LibroInventarioService libroInventarioService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${lbf.inventario.conciliacion.tamano-bloque:500}")
+    private int tamanoBloque;
+
+    @Override
+    public ConciliacionInventarioResumen conciliar(Map<Long, Float> conteo) {
+        return conciliar(conteo, new ConciliacionInventarioResumen());
+    }
+
+    @Override
+    public ConciliacionInventarioResumen conciliarCsv(Reader csv) throws IOException {
+        ConciliacionInventarioResumen resumen = new ConciliacionInventarioResumen();
+        Map<Long, Float> conteo = new HashMap<>();
+        Set<String> desconocidos = new LinkedHashSet<>();
+
+        // Se lee línea por línea; en memoria solo queda el conteo por producto
+        BufferedReader lector = new BufferedReader(csv);
+        String linea;
+        int numeroLinea = 0;
+        while ((linea = lector.readLine()) != null) {
+            numeroLinea++;
+            String[] campos = linea.split("[,;\t]");
+            String codigo = limpiar(campos[0]);
+            if (codigo.isEmpty()) {
+                continue;
+            }
+
+            float cantidad = 1f;
+            if (campos.length > 1 && !limpiar(campos[1]).isEmpty()) {
+                try {
+                    cantidad = Float.parseFloat(limpiar(campos[1]));
+                } catch (NumberFormatException e) {
+                    // Una primera línea sin número es el encabezado
+                    if (numeroLinea > 1) {
+                        resumen.setLineasInvalidas(resumen.getLineasInvalidas() + 1);
+                    }
+                    continue;
+                }
+            }
+            if (!(cantidad >= 0) || Float.isInfinite(cantidad)) {
+                resumen.setLineasInvalidas(resumen.getLineasInvalidas() + 1);
+                continue;
+            }
+
+            // Los códigos se resuelven con el índice en memoria; uno desconocido solo se busca
+            // en la base la primera vez que aparece
+            if (desconocidos.contains(codigo)) {
+                continue;
+            }
+            ProductoCatalogoDTO producto = productoService.getProductoByCodigoBarras(codigo);
+            if (producto == null) {
+                desconocidos.add(codigo);
+                continue;
+            }
+            conteo.merge(producto.getProductoId(), cantidad, Float::sum);
+        }
+
+        desconocidos.stream().limit(MAX_DETALLE_RESUMEN).forEach(resumen.getCodigosDesconocidos()::add);
+        return conciliar(conteo, resumen);
+    }
+
+    private ConciliacionInventarioResumen conciliar(Map<Long, Float> conteo, ConciliacionInventarioResumen resumen) {
+        long inicio = System.nanoTime();
+        for (Float cantidad : conteo.values()) {
+            if (cantidad == null || cantidad < 0) {
+                throw new IllegalArgumentException("Las cantidades contadas no pueden ser negativas");
+            }
+        }
+
+        List<Long> productoIds = new ArrayList<>(new TreeSet<>(conteo.keySet()));
+        List<Diferencia> diferencias = new ArrayList<>();
+        TransactionTemplate plantilla = new TransactionTemplate(transactionManager);
+        for (int desde = 0; desde < productoIds.size(); desde += tamanoBloque) {
+            List<Long> bloque = productoIds.subList(desde, Math.min(desde + tamanoBloque, productoIds.size()));
+            plantilla.executeWithoutResult(estado -> conciliarBloque(bloque, conteo, resumen, diferencias));
+            resumen.setBloques(resumen.getBloques() + 1);
+        }
+
+        // Solo las diferencias más grandes viajan en la respuesta
+        diferencias.sort(Comparator.comparingDouble((Diferencia d) -> Math.abs(d.getDiferencia())).reversed());
+        resumen.getDiferencias().addAll(diferencias.subList(0, Math.min(diferencias.size(), MAX_DETALLE_RESUMEN)));
+        resumen.setProductosContados(productoIds.size());
+        resumen.setDuracionMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+        return resumen;
+    }
+
+    private void conciliarBloque(List<Long> bloque, Map<Long, Float> conteo, ConciliacionInventarioResumen resumen,
+            List<Diferencia> diferencias) {
+        // Una consulta por bloque; las filas quedan bloqueadas hasta el commit del bloque
+        Map<Long, Float> stockSistema = productoRepository.bloquearStock(bloque);
+
+        Map<Long, Float> stockNuevo = new TreeMap<>();
+        List<MovimientoPendiente.Linea> lineas = new ArrayList<>();
+        for (Long productoId : bloque) {
+            if (!stockSistema.containsKey(productoId)) {
+                resumen.setProductosNoEncontrados(resumen.getProductosNoEncontrados() + 1);
+                if (resumen.getIdsNoEncontrados().size() < MAX_DETALLE_RESUMEN) {
+                    resumen.getIdsNoEncontrados().add(productoId);
+                }
+                continue;
+            }
+
+            Float anterior = stockSistema.get(productoId) != null ? stockSistema.get(productoId) : 0f;
+            Float contado = conteo.get(productoId);
+            float diferencia = contado - anterior;
+            if (diferencia == 0f) {
+                resumen.setProductosSinCambio(resumen.getProductosSinCambio() + 1);
+                continue;
+            }
+
+            stockNuevo.put(productoId, contado);
+            lineas.add(new MovimientoPendiente.Linea(productoId, diferencia > 0 ? "ENTRADA" : "SALIDA",
+                    Math.abs(diferencia), anterior, contado));
+            diferencias.add(new Diferencia(productoId, anterior, contado, diferencia));
+            if (diferencia > 0) {
+                resumen.setUnidadesSobrantes(resumen.getUnidadesSobrantes() + diferencia);
+            } else {
+                resumen.setUnidadesFaltantes(resumen.getUnidadesFaltantes() - diferencia);
+            }
+        }
+
+        if (stockNuevo.isEmpty()) {
+            return;
+        }
+        productoRepository.establecerStockLote(stockNuevo);
+        libroInventarioService.registrar(lineas, MOTIVO, null);
+        eventPublisher.publishEvent(new ProductosModificadosEvent(stockNuevo.keySet()));
+        resumen.setProductosAjustados(resumen.getProductosAjustados() + stockNuevo.size());
+    }
+
+    // Sin espacios ni comillas alrededor
+    private static String limpiar(String campo) {
+        String valor = campo.strip();
+        if (valor.length() >= 2 && valor.startsWith("\"") && valor.endsWith("\"")) {
+            valor = valor.substring(1, valor.length() - 1).strip();
+        }
+        return valor;
+    }
+}
@@ -1,16 +1,22 @@
 package com.example.lbf.service.inventario;
 
+import com.example.lbf.dto.response.ConciliacionInventarioResumen;
 import com.example.lbf.entities.Producto;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
 public interface InventarioService {
     boolean actualizarStock(Long productoId, Float cantidad, String tipoMovimiento);
     Float getStockActual(Long productoId);
+    Map<Long, Float> getStockActualLote(Collection<Long> productoIds);
     List<Producto> getProductosBajoStock(Float umbral);
     void registrarEntradaInventario(Long productoId, Float cantidad, String motivo);
     void registrarSalidaInventario(Long productoId, Float cantidad, String motivo);
     List<Object[]> getHistorialMovimientos(Long productoId);
-    void realizarInventarioFisico(Map<Long, Float> conteoProductos);
+    ConciliacionInventarioResumen realizarInventarioFisico(Map<Long, Float> conteoProductos);
+    ConciliacionInventarioResumen realizarInventarioFisicoCsv(Reader csv) throws IOException;
 }
@@ -2,18 +2,28 @@ package com.example.lbf.service.inventario;
 
 import com.example.lbf.entities.Producto;
 import com.example.lbf.entities.MovimientoInventario;
+import com.example.lbf.entities.MovimientoPendiente;
 import com.example.lbf.repository.ProductoRepository;
 import com.example.lbf.repository.MovimientoInventarioRepository;
+import com.example.lbf.dto.response.ConciliacionInventarioResumen;
+import com.example.lbf.dto.response.ProductoCatalogoDTO;
+import com.example.lbf.service.catalogo.ProductosModificadosEvent;
+import com.example.lbf.service.producto.ProductoService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 @Service
 public class InventarioServiceImpl implements InventarioService {
@@ -24,49 +34,47 @@ public class InventarioServiceImpl implements InventarioService {
     @Autowired
     private MovimientoInventarioRepository movimientoInventarioRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private LibroInventarioService libroInventarioService;
+
+    @Autowired
+    private ConciliacionInventarioService conciliacionInventarioService;
+
     @Override
     @Transactional
     public boolean actualizarStock(Long productoId, Float cantidad, String tipoMovimiento) {
-        Optional<Producto> productoOpt = productoRepository.findById(productoId);
-        if (productoOpt.isPresent()) {
-            Producto producto = productoOpt.get();
-            Float stockAnterior = producto.getStock();
-            Float stockNuevo;
-            
-            // Calcular nuevo stock según el tipo de movimiento
-            if ("ENTRADA".equals(tipoMovimiento)) {
-                stockNuevo = stockAnterior + Math.abs(cantidad);
-            } else if ("SALIDA".equals(tipoMovimiento)) {
-                stockNuevo = stockAnterior - Math.abs(cantidad);
-                // Verificar que no quede stock negativo
-                if (stockNuevo < 0) {
-                    return false;
-                }
-            } else if ("AJUSTE".equals(tipoMovimiento)) {
-                stockNuevo = cantidad; // En ajuste, se establece directamente el nuevo valor
-            } else {
+        Float stockAnterior;
+        Float stockNuevo;
+
+        // Calcular nuevo stock según el tipo de movimiento
+        if ("ENTRADA".equals(tipoMovimiento) || "SALIDA".equals(tipoMovimiento)) {
+            Float delta = "ENTRADA".equals(tipoMovimiento) ? Math.abs(cantidad) : -Math.abs(cantidad);
+            // En una salida el UPDATE no se aplica si el stock quedaría negativo
+            stockNuevo = aplicarCantidad(productoId, delta);
+            if (stockNuevo == null) {
+                return false;
+            }
+            stockAnterior = stockNuevo - delta;
+        } else if ("AJUSTE".equals(tipoMovimiento)) {
+            // En ajuste, se establece directamente el nuevo valor
+            stockAnterior = productoRepository.findStockByProductoId(productoId);
+            if (stockAnterior == null || productoRepository.establecerStock(productoId, cantidad) == 0) {
                 return false;
             }
-            
-            // Actualizar stock del producto
-            producto.setStock(stockNuevo);
-            productoRepository.save(producto);
-            
-            // Registrar movimiento
-            MovimientoInventario movimiento = new MovimientoInventario();
-            movimiento.setProducto(producto);
-            movimiento.setCantidad(cantidad);
-            movimiento.setTipoMovimiento(tipoMovimiento);
-            movimiento.setMotivo("Actualización de stock");
-            movimiento.setFecha(LocalDateTime.now());
-            movimiento.setStockAnterior(stockAnterior);
-            movimiento.setStockNuevo(stockNuevo);
-            
-            movimientoInventarioRepository.save(movimiento);
-            
-            return true;
+            stockNuevo = cantidad;
+            eventPublisher.publishEvent(new ProductosModificadosEvent(Collections.singleton(productoId)));
+        } else {
+            return false;
         }
-        return false;
+
+        registrarMovimiento(productoId, cantidad, tipoMovimiento, "Actualización de stock", stockAnterior, stockNuevo);
+        return true;
     }
 
     @Override
@@ -76,6 +84,21 @@ public class InventarioServiceImpl implements InventarioService {
         return productoOpt.map(Producto::getStock).orElse(0.0f);
     }
 
+    @Override
+    public Map<Long, Float> getStockActualLote(Collection<Long> productoIds) {
+        // Desde la caché de productos; los que falten se leen en una sola consulta
+        Map<Long, ProductoCatalogoDTO> productos = productoService.getProductosByIds(productoIds);
+        Map<Long, Float> stock = new TreeMap<>();
+        for (Long productoId : productoIds) {
+            if (productoId == null) {
+                continue;
+            }
+            ProductoCatalogoDTO producto = productos.get(productoId);
+            stock.put(productoId, producto != null && producto.getStock() != null ? producto.getStock() : 0.0f);
+        }
+        return stock;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Producto> getProductosBajoStock(Float umbral) {
@@ -85,59 +108,21 @@ public class InventarioServiceImpl implements InventarioService {
     @Override
     @Transactional
     public void registrarEntradaInventario(Long productoId, Float cantidad, String motivo) {
-        Optional<Producto> productoOpt = productoRepository.findById(productoId);
-        if (productoOpt.isPresent()) {
-            Producto producto = productoOpt.get();
-            Float stockAnterior = producto.getStock();
-            Float stockNuevo = stockAnterior + Math.abs(cantidad);
-            
-            // Actualizar stock
-            producto.setStock(stockNuevo);
-            productoRepository.save(producto);
-            
-            // Registrar movimiento
-            MovimientoInventario movimiento = new MovimientoInventario();
-            movimiento.setProducto(producto);
-            movimiento.setCantidad(Math.abs(cantidad));
-            movimiento.setTipoMovimiento("ENTRADA");
-            movimiento.setMotivo(motivo);
-            movimiento.setFecha(LocalDateTime.now());
-            movimiento.setStockAnterior(stockAnterior);
-            movimiento.setStockNuevo(stockNuevo);
-            
-            movimientoInventarioRepository.save(movimiento);
+        Float cantidadEntrada = Math.abs(cantidad);
+        Float stockNuevo = aplicarCantidad(productoId, cantidadEntrada);
+        if (stockNuevo != null) {
+            registrarMovimiento(productoId, cantidadEntrada, "ENTRADA", motivo, stockNuevo - cantidadEntrada, stockNuevo);
         }
     }
 
     @Override
     @Transactional
     public void registrarSalidaInventario(Long productoId, Float cantidad, String motivo) {
-        Optional<Producto> productoOpt = productoRepository.findById(productoId);
-        if (productoOpt.isPresent()) {
-            Producto producto = productoOpt.get();
-            Float stockAnterior = producto.getStock();
-            Float cantidadSalida = Math.abs(cantidad);
-            
-            // Verificar stock suficiente
-            if (stockAnterior >= cantidadSalida) {
-                Float stockNuevo = stockAnterior - cantidadSalida;
-                
-                // Actualizar stock
-                producto.setStock(stockNuevo);
-                productoRepository.save(producto);
-                
-                // Registrar movimiento
-                MovimientoInventario movimiento = new MovimientoInventario();
-                movimiento.setProducto(producto);
-                movimiento.setCantidad(cantidadSalida);
-                movimiento.setTipoMovimiento("SALIDA");
-                movimiento.setMotivo(motivo);
-                movimiento.setFecha(LocalDateTime.now());
-                movimiento.setStockAnterior(stockAnterior);
-                movimiento.setStockNuevo(stockNuevo);
-                
-                movimientoInventarioRepository.save(movimiento);
-            }
+        Float cantidadSalida = Math.abs(cantidad);
+        // Solo se descuenta si hay stock suficiente
+        Float stockNuevo = aplicarCantidad(productoId, -cantidadSalida);
+        if (stockNuevo != null) {
+            registrarMovimiento(productoId, cantidadSalida, "SALIDA", motivo, stockNuevo + cantidadSalida, stockNuevo);
         }
     }
 
@@ -163,40 +148,32 @@ public class InventarioServiceImpl implements InventarioService {
     }
 
     @Override
-    @Transactional
-    public void realizarInventarioFisico(Map<Long, Float> conteoProductos) {
-        for (Map.Entry<Long, Float> entry : conteoProductos.entrySet()) {
-            Long productoId = entry.getKey();
-            Float cantidadReal = entry.getValue();
-            
-            Optional<Producto> productoOpt = productoRepository.findById(productoId);
-            if (productoOpt.isPresent()) {
-                Producto producto = productoOpt.get();
-                Float stockActual = producto.getStock();
-                
-                // Si hay diferencia, hacer ajuste
-                if (!stockActual.equals(cantidadReal)) {
-                    Float diferencia = cantidadReal - stockActual;
-                    String tipoMovimiento = diferencia > 0 ? "ENTRADA" : "SALIDA";
-                    String motivo = "Ajuste por inventario físico";
-                    
-                    // Actualizar stock
-                    producto.setStock(cantidadReal);
-                    productoRepository.save(producto);
-                    
-                    // Registrar movimiento
-                    MovimientoInventario movimiento = new MovimientoInventario();
-                    movimiento.setProducto(producto);
-                    movimiento.setCantidad(Math.abs(diferencia));
-                    movimiento.setTipoMovimiento(tipoMovimiento);
-                    movimiento.setMotivo(motivo);
-                    movimiento.setFecha(LocalDateTime.now());
-                    movimiento.setStockAnterior(stockActual);
-                    movimiento.setStockNuevo(cantidadReal);
-                    
-                    movimientoInventarioRepository.save(movimiento);
-                }
-            }
+    public ConciliacionInventarioResumen realizarInventarioFisico(Map<Long, Float> conteoProductos) {
+        // Por bloques con transacciones cortas; ver ConciliacionInventarioServiceImpl
+        return conciliacionInventarioService.conciliar(conteoProductos);
+    }
+
+    @Override
+    public ConciliacionInventarioResumen realizarInventarioFisicoCsv(Reader csv) throws IOException {
+        return conciliacionInventarioService.conciliarCsv(csv);
+    }
+
+    /**
+     * Suma la cantidad al stock con un UPDATE condicional y devuelve el stock resultante.
+     * Devuelve null si el producto no existe o si el stock quedaría negativo.
+     */
+    private Float aplicarCantidad(Long productoId, Float cantidad) {
+        if (productoRepository.ajustarStock(productoId, cantidad) == 0) {
+            return null;
         }
+        eventPublisher.publishEvent(new ProductosModificadosEvent(Collections.singleton(productoId)));
+        // La fila queda bloqueada por este UPDATE hasta el commit, la lectura es consistente
+        return productoRepository.findStockByProductoId(productoId);
+    }
+
+    private void registrarMovimiento(Long productoId, Float cantidad, String tipoMovimiento, String motivo,
+            Float stockAnterior, Float stockNuevo) {
+        libroInventarioService.registrar(List.of(new MovimientoPendiente.Linea(productoId, tipoMovimiento, cantidad,
+                stockAnterior, stockNuevo)), motivo, null);
     }
 }
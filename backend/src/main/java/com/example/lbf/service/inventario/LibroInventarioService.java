@@ -0,0 +1,22 @@
+package com.example.lbf.service.inventario;
+
+import com.example.lbf.dto.response.LibroInventarioMetricas;
+import com.example.lbf.entities.MovimientoPendiente;
+
+import java.util.List;
+
+public interface LibroInventarioService {
+
+    /**
+     * Registra los cambios de stock de una operación en la transacción actual. Los
+     * movimientos del kardex se escriben después, en lote, si la transacción se confirma.
+     */
+    void registrar(List<MovimientoPendiente.Linea> lineas, String motivo, String usuario);
+
+    /**
+     * Escribe en el hilo actual todo lo pendiente en la base, sin esperar a la cola.
+     */
+    void vaciar();
+
+    LibroInventarioMetricas getMetricas();
+}
@@ -0,0 +1,274 @@
+package com.example.lbf.service.inventario;
+
+import com.example.lbf.dto.response.LibroInventarioMetricas;
+import com.example.lbf.entities.MovimientoInventario;
+import com.example.lbf.entities.MovimientoPendiente;
+import com.example.lbf.repository.MovimientoInventarioRepository;
+import com.example.lbf.repository.MovimientoPendienteRepository;
+import com.example.lbf.repository.ProductoRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Libro de inventario con bandeja de salida. Quien cambia el stock guarda una sola fila de
+ * MovimientoPendiente dentro de la misma transacción que cambia el stock (registrar se une a
+ * la del llamador): o se confirman los dos o ninguno, así el kardex no se pierde aunque el
+ * proceso caiga, y la venta no paga un INSERT por línea. Al confirmar, el id entra en una cola
+ * acotada; un único hilo escritor la vacía y, en una transacción por lote, convierte los
+ * pendientes en filas de MovimientoInventario (INSERT agrupados) y los borra.
+ *
+ * Si la cola está llena o el proceso se reinicia, la revisión periódica recoge lo que haya
+ * quedado en la bandeja. Las filas se bloquean al tomarlas, de modo que un pendiente que
+ * llegue dos veces al escritor solo se escribe una.
+ *
+ * Una línea cuyo producto se eliminó antes de escribirla no tiene a qué fila de producto
+ * apuntar: se descarta, se deja en el log y se cuenta en las métricas, y el resto del
+ * pendiente se escribe. Sin eso la llave foránea la rechazaría en cada revisión para siempre.
+ */
+@Service
+public class LibroInventarioServiceImpl implements LibroInventarioService {
+
+    private static final Logger log = LoggerFactory.getLogger(LibroInventarioServiceImpl.class);
+
+    @Autowired
+    private MovimientoPendienteRepository movimientoPendienteRepository;
+
+    @Autowired
+    private MovimientoInventarioRepository movimientoInventarioRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${lbf.inventario.libro.capacidad:10000}")
+    private int capacidad;
+
+    @Value("${lbf.inventario.libro.tamano-lote:200}")
+    private int tamanoLote;
+
+    // Antigüedad a partir de la cual la revisión periódica da un pendiente por no encolado
+    @Value("${lbf.inventario.libro.retraso-revision-ms:10000}")
+    private long retrasoRevisionMs;
+
+    private BlockingQueue<Long> cola;
+    private Thread escritor;
+    private volatile boolean activo;
+
+    // Ids en la cola, para que la revisión no los encole de nuevo
+    private final Set<Long> encolados = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong desbordadas = new AtomicLong();
+    private final AtomicLong registrados = new AtomicLong();
+    private final AtomicLong movimientosEscritos = new AtomicLong();
+    private final AtomicLong lotes = new AtomicLong();
+    private final AtomicLong errores = new AtomicLong();
+    private final AtomicLong lineasDescartadas = new AtomicLong();
+    private volatile long retrasoUltimoMs;
+    private volatile long retrasoMaximoMs;
+
+    @PostConstruct
+    void iniciar() {
+        cola = new ArrayBlockingQueue<>(capacidad);
+        activo = true;
+        escritor = new Thread(this::escribir, "libro-inventario");
+        escritor.start();
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        // El escritor termina de vaciar la cola; lo que no alcance sigue en la bandeja
+        activo = false;
+        escritor.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    @Override
+    @Transactional
+    public void registrar(List<MovimientoPendiente.Linea> lineas, String motivo, String usuario) {
+        if (lineas.isEmpty()) {
+            return;
+        }
+        MovimientoPendiente pendiente = movimientoPendienteRepository.save(
+                new MovimientoPendiente(motivo, usuario, lineas));
+        eventPublisher.publishEvent(new MovimientosPendientesEvent(pendiente.getId()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void alConfirmar(MovimientosPendientesEvent evento) {
+        encolar(evento.getMovimientoPendienteId());
+    }
+
+    @Override
+    public void vaciar() {
+        List<Long> ids;
+        do {
+            ids = movimientoPendienteRepository.findIdsRegistradosAntesDe(LocalDateTime.now().plusSeconds(1),
+                    PageRequest.of(0, tamanoLote));
+            if (!ids.isEmpty()) {
+                escribirLote(ids);
+            }
+        } while (ids.size() == tamanoLote);
+    }
+
+    /**
+     * Recoge los pendientes que no llegaron a la cola: desbordes, errores de escritura y
+     * lo que quedó de una ejecución anterior.
+     */
+    @Scheduled(initialDelayString = "${lbf.inventario.libro.revision-ms:30000}",
+            fixedDelayString = "${lbf.inventario.libro.revision-ms:30000}")
+    public void revisarPendientes() {
+        LocalDateTime limite = LocalDateTime.now().minus(Duration.ofMillis(retrasoRevisionMs));
+        List<Long> ids = movimientoPendienteRepository.findIdsRegistradosAntesDe(limite,
+                PageRequest.of(0, Math.max(cola.remainingCapacity(), 1)));
+        ids.forEach(this::encolar);
+    }
+
+    @Override
+    public LibroInventarioMetricas getMetricas() {
+        LocalDateTime masAntigua = movimientoPendienteRepository.findFechaMasAntigua();
+        return new LibroInventarioMetricas(
+                capacidad,
+                cola.size(),
+                movimientoPendienteRepository.count(),
+                desbordadas.get(),
+                registrados.get(),
+                movimientosEscritos.get(),
+                lotes.get(),
+                errores.get(),
+                lineasDescartadas.get(),
+                retrasoUltimoMs,
+                retrasoMaximoMs,
+                masAntigua != null ? Math.max(Duration.between(masAntigua, LocalDateTime.now()).toMillis(), 0) : 0);
+    }
+
+    private void encolar(Long id) {
+        if (!encolados.add(id)) {
+            return;
+        }
+        if (!cola.offer(id)) {
+            // Cola llena: el pendiente sigue en la base y lo recoge la revisión
+            encolados.remove(id);
+            desbordadas.incrementAndGet();
+        }
+    }
+
+    private void escribir() {
+        List<Long> lote = new ArrayList<>(tamanoLote);
+        while (activo || !cola.isEmpty()) {
+            try {
+                Long primero = cola.poll(200, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                // Todo lo que llegó mientras se escribía el lote anterior entra en el siguiente
+                lote.add(primero);
+                cola.drainTo(lote, tamanoLote - 1);
+                escribirLote(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Uno por uno, para que un pendiente que no se puede escribir no detenga a los demás
+                escribirUnoPorUno(lote);
+            } finally {
+                encolados.removeAll(lote);
+                lote.clear();
+            }
+        }
+    }
+
+    private void escribirUnoPorUno(List<Long> ids) {
+        for (Long id : ids) {
+            try {
+                escribirLote(List.of(id));
+            } catch (RuntimeException e) {
+                // Queda en la bandeja y se reintenta en la siguiente revisión
+                errores.incrementAndGet();
+            }
+        }
+    }
+
+    private void escribirLote(List<Long> ids) {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<MovimientoPendiente> escritos = new TransactionTemplate(transactionManager).execute(estado -> {
+            // Los que ya escribió otro hilo o instancia no vuelven en la consulta
+            List<MovimientoPendiente> pendientes = movimientoPendienteRepository.bloquearPorIds(ids);
+            Set<Long> productoIds = new HashSet<>();
+            pendientes.forEach(pendiente -> pendiente.getLineas().forEach(linea -> productoIds.add(linea.productoId())));
+            Set<Long> existentes = productoIds.isEmpty() ? Set.of()
+                    : new HashSet<>(productoRepository.findIdsExistentes(productoIds));
+
+            List<MovimientoInventario> movimientos = new ArrayList<>();
+            for (MovimientoPendiente pendiente : pendientes) {
+                for (MovimientoPendiente.Linea linea : pendiente.getLineas()) {
+                    if (existentes.contains(linea.productoId())) {
+                        movimientos.add(movimiento(pendiente, linea));
+                    } else {
+                        lineasDescartadas.incrementAndGet();
+                        log.warn("Movimiento de un producto eliminado descartado: pendiente {}, producto {}, {} {} ({}, {})",
+                                pendiente.getId(), linea.productoId(), linea.tipoMovimiento(), linea.cantidad(),
+                                pendiente.getMotivo(), pendiente.getFechaRegistro());
+                    }
+                }
+            }
+            movimientoInventarioRepository.saveAll(movimientos);
+            movimientoPendienteRepository.deleteAllInBatch(pendientes);
+            movimientosEscritos.addAndGet(movimientos.size());
+            return pendientes;
+        });
+
+        lotes.incrementAndGet();
+        registrados.addAndGet(escritos.size());
+        for (MovimientoPendiente pendiente : escritos) {
+            long retraso = Duration.between(pendiente.getFechaRegistro(), ahora).toMillis();
+            retrasoUltimoMs = retraso;
+            if (retraso > retrasoMaximoMs) {
+                retrasoMaximoMs = retraso;
+            }
+        }
+    }
+
+    private MovimientoInventario movimiento(MovimientoPendiente pendiente, MovimientoPendiente.Linea linea) {
+        MovimientoInventario movimiento = new MovimientoInventario();
+        movimiento.setProducto(productoRepository.getReferenceById(linea.productoId()));
+        movimiento.setCantidad(linea.cantidad());
+        movimiento.setTipoMovimiento(linea.tipoMovimiento());
+        movimiento.setMotivo(pendiente.getMotivo());
+        movimiento.setFecha(pendiente.getFechaRegistro());
+        movimiento.setStockAnterior(linea.stockAnterior());
+        movimiento.setStockNuevo(linea.stockNuevo());
+        movimiento.setUsuario(pendiente.getUsuario());
+        return movimiento;
+    }
+}
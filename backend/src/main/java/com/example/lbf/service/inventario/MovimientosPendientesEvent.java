@@ -0,0 +1,14 @@
+package com.example.lbf.service.inventario;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Se publica al guardar un movimiento pendiente, para que el libro de inventario lo
+ * encole solo si la transacción que cambió el stock se confirma.
+ */
+@Getter
+@AllArgsConstructor
+public class MovimientosPendientesEvent {
+    private final Long movimientoPendienteId;
+}
@@ -0,0 +1,42 @@
+package com.example.lbf.service.inventario;
+
+import com.example.lbf.dto.request.LecturasConteoRequest;
+import com.example.lbf.dto.response.ConciliacionInventarioResumen;
+import com.example.lbf.dto.response.LecturasConteoResultado;
+import com.example.lbf.dto.response.SesionConteoResponse;
+
+import java.util.List;
+
+public interface SesionConteoService {
+
+    SesionConteoResponse abrirSesion(String descripcion, String usuario);
+
+    /**
+     * Suma un lote de lecturas al conteo de la sesión. Varios escáneres pueden enviar al mismo
+     * tiempo. Solo se aplica el lote que sigue al último de ese escáner: uno ya aplicado se
+     * reporta como duplicado y uno adelantado como fuera de secuencia, sin sumar ninguno.
+     *
+     * @return null si la sesión no existe o ya no está abierta
+     */
+    LecturasConteoResultado registrarLecturas(Long sesionId, LecturasConteoRequest lecturas);
+
+    SesionConteoResponse getSesion(Long sesionId);
+
+    List<SesionConteoResponse> getSesionesAbiertas();
+
+    /**
+     * Cierra la sesión y concilia su conteo con el stock. Solo se ajustan los productos
+     * leídos durante la sesión.
+     *
+     * @return null si la sesión no existe o ya no está abierta
+     */
+    ConciliacionInventarioResumen cerrarSesion(Long sesionId);
+
+    boolean cancelarSesion(Long sesionId);
+
+    /**
+     * Guarda en la base el conteo de las sesiones abiertas que cambiaron desde el último
+     * punto de control.
+     */
+    void guardarCheckpoints();
+}
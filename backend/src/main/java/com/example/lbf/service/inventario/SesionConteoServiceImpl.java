@@ -0,0 +1,375 @@
+package com.example.lbf.service.inventario;
+
+import com.example.lbf.dto.request.LecturasConteoRequest;
+import com.example.lbf.dto.response.ConciliacionInventarioResumen;
+import com.example.lbf.dto.response.LecturasConteoResultado;
+import com.example.lbf.dto.response.ProductoCatalogoDTO;
+import com.example.lbf.dto.response.SesionConteoResponse;
+import com.example.lbf.entities.SesionConteo;
+import com.example.lbf.repository.SesionConteoRepository;
+import com.example.lbf.service.producto.ProductoService;
+import com.example.lbf.util.Dinero;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Sesiones de conteo físico con escáneres. Cada lote de lecturas se suma en memoria a un
+ * acumulador por producto (LongAdder en milésimas), de modo que varios escáneres cuentan a
+ * la vez sin bloquearse entre sí ni tocar la tabla de productos. Una tarea periódica guarda
+ * el conteo y la última secuencia de cada escáner en la sesión; si la aplicación se
+ * reinicia, la sesión se retoma desde ese punto: el primer lote posterior de cada escáner
+ * se rechaza como fuera de secuencia y el escáner reenvía desde la secuencia guardada.
+ *
+ * Al cerrar la sesión el conteo neto se concilia con el stock en una sola pasada por
+ * bloques, igual que un inventario físico enviado completo. La sesión se marca cerrada bajo
+ * su candado y la conciliación corre fuera de él, así el punto de control de las demás
+ * sesiones (un solo hilo programado) no espera a que termine.
+ */
+@Service
+public class SesionConteoServiceImpl implements SesionConteoService {
+
+    private static final Pattern DISPOSITIVO = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    // Lecturas máximas por lote; un escáner con más las divide en varios lotes
+    private static final int MAX_LECTURAS_LOTE = 1000;
+
+    @Autowired
+    private SesionConteoRepository sesionConteoRepository;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private ConciliacionInventarioService conciliacionInventarioService;
+
+    private final Map<Long, SesionActiva> sesiones = new ConcurrentHashMap<>();
+
+    @Override
+    public SesionConteoResponse abrirSesion(String descripcion, String usuario) {
+        SesionConteo sesion = sesionConteoRepository.save(new SesionConteo(descripcion, usuario));
+        sesiones.put(sesion.getId(), new SesionActiva(sesion));
+        return respuesta(sesion, sesiones.get(sesion.getId()));
+    }
+
+    @Override
+    public LecturasConteoResultado registrarLecturas(Long sesionId, LecturasConteoRequest lote) {
+        if (lote.getDispositivo() == null || !DISPOSITIVO.matcher(lote.getDispositivo()).matches()) {
+            throw new IllegalArgumentException("Identificador de escáner inválido");
+        }
+        if (lote.getSecuencia() == null || lote.getSecuencia() < 1) {
+            throw new IllegalArgumentException("La secuencia del lote debe ser mayor que cero");
+        }
+        if (lote.getLecturas() == null || lote.getLecturas().size() > MAX_LECTURAS_LOTE) {
+            throw new IllegalArgumentException("El lote debe tener entre 0 y " + MAX_LECTURAS_LOTE + " lecturas");
+        }
+
+        // Los códigos se resuelven antes de tocar la sesión, con el índice en memoria
+        Map<Long, Long> incrementos = new HashMap<>();
+        List<String> desconocidos = new ArrayList<>();
+        int aplicadas = 0;
+        for (LecturasConteoRequest.Lectura lectura : lote.getLecturas()) {
+            float cantidad = lectura.getCantidad() != null ? lectura.getCantidad() : 1f;
+            if (!Float.isFinite(cantidad)) {
+                throw new IllegalArgumentException("Cantidad inválida en la lectura");
+            }
+
+            Long productoId = lectura.getProductoId();
+            if (productoId == null) {
+                if (lectura.getCodigoBarras() == null || lectura.getCodigoBarras().isBlank()) {
+                    throw new IllegalArgumentException("Cada lectura necesita un producto o un código de barras");
+                }
+                ProductoCatalogoDTO producto = productoService.getProductoByCodigoBarras(lectura.getCodigoBarras());
+                if (producto == null) {
+                    desconocidos.add(lectura.getCodigoBarras());
+                    continue;
+                }
+                productoId = producto.getProductoId();
+            }
+            incrementos.merge(productoId, Dinero.milesimas(cantidad), Long::sum);
+            aplicadas++;
+        }
+
+        SesionActiva sesion = sesionActiva(sesionId);
+        return sesion != null
+                ? sesion.aplicar(lote.getDispositivo(), lote.getSecuencia(), incrementos, aplicadas, desconocidos)
+                : null;
+    }
+
+    @Override
+    public SesionConteoResponse getSesion(Long sesionId) {
+        SesionConteo sesion = sesionConteoRepository.findById(sesionId).orElse(null);
+        return sesion != null ? respuesta(sesion, sesiones.get(sesionId)) : null;
+    }
+
+    @Override
+    public List<SesionConteoResponse> getSesionesAbiertas() {
+        List<SesionConteoResponse> abiertas = new ArrayList<>();
+        for (SesionConteo sesion : sesionConteoRepository.findByEstadoOrderById(SesionConteo.ABIERTA)) {
+            abiertas.add(respuesta(sesion, sesiones.get(sesion.getId())));
+        }
+        return abiertas;
+    }
+
+    @Override
+    public ConciliacionInventarioResumen cerrarSesion(Long sesionId) {
+        SesionActiva sesion = sesionActiva(sesionId);
+        if (sesion == null) {
+            return null;
+        }
+
+        Map<Long, Long> conteo;
+        Map<String, Long> secuencias;
+        sesion.escritura.lock();
+        try {
+            sesion.candado.writeLock().lock();
+            try {
+                if (sesion.cerrada) {
+                    return null;
+                }
+                conteo = sesion.conteoActual();
+                for (Map.Entry<Long, Long> producto : conteo.entrySet()) {
+                    // La sesión sigue abierta para que el escáner corrija la lectura
+                    if (producto.getValue() < 0) {
+                        throw new IllegalArgumentException("El conteo del producto " + producto.getKey()
+                                + " quedó negativo");
+                    }
+                }
+                secuencias = new HashMap<>(sesion.secuencias);
+                sesion.cerrada = true;
+            } finally {
+                sesion.candado.writeLock().unlock();
+            }
+        } finally {
+            sesion.escritura.unlock();
+        }
+
+        // Fuera del candado: ya cerrada, ni los lotes ni el punto de control la tocan
+        Map<Long, Float> cantidades = new HashMap<>(conteo.size());
+        conteo.forEach((productoId, milesimas) ->
+                cantidades.put(productoId, (float) ((double) milesimas / Dinero.MILESIMAS_POR_UNIDAD)));
+
+        ConciliacionInventarioResumen resumen;
+        try {
+            resumen = conciliacionInventarioService.conciliar(cantidades);
+        } catch (RuntimeException e) {
+            // Los bloques ya conciliados fijaron valores absolutos; cerrar de nuevo es seguro
+            sesion.cerrada = false;
+            throw e;
+        }
+
+        sesion.escritura.lock();
+        try {
+            finalizar(sesion, SesionConteo.CERRADA, conteo, secuencias);
+        } finally {
+            sesion.escritura.unlock();
+        }
+        return resumen;
+    }
+
+    @Override
+    public boolean cancelarSesion(Long sesionId) {
+        SesionActiva sesion = sesionActiva(sesionId);
+        if (sesion == null) {
+            return false;
+        }
+
+        sesion.escritura.lock();
+        try {
+            Map<Long, Long> conteo;
+            Map<String, Long> secuencias;
+            sesion.candado.writeLock().lock();
+            try {
+                if (sesion.cerrada) {
+                    return false;
+                }
+                conteo = sesion.conteoActual();
+                secuencias = new HashMap<>(sesion.secuencias);
+                sesion.cerrada = true;
+            } finally {
+                sesion.candado.writeLock().unlock();
+            }
+            finalizar(sesion, SesionConteo.CANCELADA, conteo, secuencias);
+            return true;
+        } finally {
+            sesion.escritura.unlock();
+        }
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${lbf.inventario.conteo.checkpoint-ms:5000}",
+            fixedDelayString = "${lbf.inventario.conteo.checkpoint-ms:5000}")
+    public void guardarCheckpoints() {
+        for (SesionActiva sesion : sesiones.values()) {
+            try {
+                guardarCheckpoint(sesion);
+            } catch (RuntimeException e) {
+                // El conteo sigue en memoria; se guarda en el siguiente punto de control
+            }
+        }
+    }
+
+    private void guardarCheckpoint(SesionActiva sesion) {
+        // Si la sesión se está cerrando o ya guarda otro, se salta: el siguiente punto de control la toma
+        if (!sesion.escritura.tryLock()) {
+            return;
+        }
+        try {
+            if (sesion.cambios.get() == sesion.cambiosGuardados) {
+                return;
+            }
+
+            // La escritura espera a los lotes en curso, así el conteo y las secuencias coinciden
+            long cambios;
+            Map<Long, Long> conteo;
+            Map<String, Long> secuencias;
+            sesion.candado.writeLock().lock();
+            try {
+                if (sesion.cerrada) {
+                    return;
+                }
+                cambios = sesion.cambios.get();
+                conteo = sesion.conteoActual();
+                secuencias = new HashMap<>(sesion.secuencias);
+            } finally {
+                sesion.candado.writeLock().unlock();
+            }
+
+            SesionConteo registro = sesionConteoRepository.findById(sesion.id).orElse(null);
+            if (registro == null || !SesionConteo.ABIERTA.equals(registro.getEstado())) {
+                return;
+            }
+            registro.setConteo(conteo);
+            registro.setSecuencias(secuencias);
+            registro.setFechaCheckpoint(LocalDateTime.now());
+            sesionConteoRepository.save(registro);
+            sesion.cambiosGuardados = cambios;
+        } finally {
+            sesion.escritura.unlock();
+        }
+    }
+
+    private void finalizar(SesionActiva sesion, String estado, Map<Long, Long> conteo, Map<String, Long> secuencias) {
+        SesionConteo registro = sesionConteoRepository.findById(sesion.id).orElseThrow();
+        registro.setEstado(estado);
+        registro.setConteo(conteo);
+        registro.setSecuencias(secuencias);
+        registro.setFechaCierre(LocalDateTime.now());
+        sesionConteoRepository.save(registro);
+
+        // Ya guardada como cerrada, sesionActiva no la vuelve a cargar
+        sesiones.remove(sesion.id);
+    }
+
+    /**
+     * Sesión abierta en memoria. Tras un reinicio se retoma desde su último punto de control
+     * la primera vez que se usa. La lectura de la base va dentro de computeIfAbsent para que
+     * una sesión que se está cerrando no se cargue de nuevo después de quitarla del mapa.
+     */
+    private SesionActiva sesionActiva(Long sesionId) {
+        return sesiones.computeIfAbsent(sesionId, id -> sesionConteoRepository.findById(id)
+                .filter(registro -> SesionConteo.ABIERTA.equals(registro.getEstado()))
+                .map(SesionActiva::new)
+                .orElse(null));
+    }
+
+    private SesionConteoResponse respuesta(SesionConteo sesion, SesionActiva activa) {
+        // Las sesiones abiertas muestran el conteo en memoria; las demás, el guardado
+        Map<Long, Long> conteo = sesion.getConteo();
+        Map<String, Long> secuencias = sesion.getSecuencias();
+        if (activa != null && !activa.cerrada) {
+            conteo = activa.conteoActual();
+            secuencias = new HashMap<>(activa.secuencias);
+        }
+
+        long totalMilesimas = 0;
+        for (Long milesimas : conteo.values()) {
+            totalMilesimas += milesimas;
+        }
+        return new SesionConteoResponse(sesion.getId(), sesion.getDescripcion(), sesion.getUsuario(),
+                sesion.getEstado(), sesion.getFechaApertura(), sesion.getFechaCheckpoint(), sesion.getFechaCierre(),
+                conteo.size(), (double) totalMilesimas / Dinero.MILESIMAS_POR_UNIDAD, secuencias);
+    }
+
+    private static final class SesionActiva {
+
+        private final Long id;
+        private final Map<Long, LongAdder> conteo = new ConcurrentHashMap<>();
+        private final Map<String, Long> secuencias = new ConcurrentHashMap<>();
+
+        // Los lotes toman el candado de lectura y no se estorban; el punto de control y el
+        // cierre toman el de escritura para leer un conteo consistente con las secuencias
+        private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+        private volatile boolean cerrada;
+
+        // Una sola escritura de la sesión en la base a la vez (punto de control o cierre); la
+        // conciliación del cierre no lo retiene
+        private final ReentrantLock escritura = new ReentrantLock();
+
+        // Lotes aplicados y los que ya están guardados en la base
+        private final AtomicLong cambios = new AtomicLong();
+        private long cambiosGuardados;
+
+        private SesionActiva(SesionConteo registro) {
+            this.id = registro.getId();
+            registro.getConteo().forEach((productoId, milesimas) -> {
+                LongAdder acumulador = new LongAdder();
+                acumulador.add(milesimas);
+                conteo.put(productoId, acumulador);
+            });
+            secuencias.putAll(registro.getSecuencias());
+        }
+
+        private LecturasConteoResultado aplicar(String dispositivo, long secuencia, Map<Long, Long> incrementos,
+                int lecturas, List<String> desconocidos) {
+            candado.readLock().lock();
+            try {
+                if (cerrada) {
+                    return null;
+                }
+                boolean[] aplicado = { false };
+                // Solo se acepta el lote siguiente al último aplicado: la secuencia y la suma
+                // avanzan juntas y un hueco nunca se salta
+                Long aplicada = secuencias.compute(dispositivo, (clave, anterior) -> {
+                    long esperada = anterior != null ? anterior + 1 : 1;
+                    if (secuencia != esperada) {
+                        return anterior;
+                    }
+                    incrementos.forEach((productoId, milesimas) ->
+                            conteo.computeIfAbsent(productoId, p -> new LongAdder()).add(milesimas));
+                    aplicado[0] = true;
+                    return secuencia;
+                });
+                long ultima = aplicada != null ? aplicada : 0;
+                if (!aplicado[0]) {
+                    // Ya aplicado: se ignora. Adelantado: el escáner reenvía desde la última secuencia
+                    boolean duplicado = secuencia <= ultima;
+                    return new LecturasConteoResultado(duplicado, !duplicado, 0, ultima, new ArrayList<>());
+                }
+                cambios.incrementAndGet();
+                return new LecturasConteoResultado(false, false, lecturas, ultima, desconocidos);
+            } finally {
+                candado.readLock().unlock();
+            }
+        }
+
+        private Map<Long, Long> conteoActual() {
+            Map<Long, Long> actual = new HashMap<>(conteo.size());
+            conteo.forEach((productoId, acumulador) -> actual.put(productoId, acumulador.sum()));
+            return actual;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.lbf.service.mantenimiento;
+
+import com.example.lbf.dto.response.EstadisticasCacheDTO;
+
+import java.util.List;
+
+public interface CacheService {
+    List<EstadisticasCacheDTO> getEstadisticas();
+}
@@ -0,0 +1,72 @@
+package com.example.lbf.service.mantenimiento;
+
+import com.example.lbf.dto.response.EstadisticasCacheDTO;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Service
+public class CacheServiceImpl implements CacheService {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public List<EstadisticasCacheDTO> getEstadisticas() {
+        List<EstadisticasCacheDTO> estadisticas = new ArrayList<>();
+        for (String nombre : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(nombre);
+            if (cache instanceof CaffeineCache caffeine) {
+                CacheStats stats = caffeine.getNativeCache().stats();
+                estadisticas.add(new EstadisticasCacheDTO(nombre, EstadisticasCacheDTO.APLICACION,
+                        caffeine.getNativeCache().estimatedSize(), stats.hitCount(), stats.missCount(),
+                        stats.hitRate(), stats.evictionCount(), null));
+            }
+        }
+        estadisticas.addAll(getEstadisticasHibernate());
+        return estadisticas;
+    }
+
+    // Una entrada por región de la caché de segundo nivel (entidades, llaves naturales y consultas)
+    private List<EstadisticasCacheDTO> getEstadisticasHibernate() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<EstadisticasCacheDTO> estadisticas = new ArrayList<>();
+        if (!statistics.isStatisticsEnabled()) {
+            return estadisticas;
+        }
+
+        String[] regiones = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regiones);
+        for (String region : regiones) {
+            CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+            if (stats == null) {
+                continue;
+            }
+            long aciertos = stats.getHitCount();
+            long fallos = stats.getMissCount();
+            long total = aciertos + fallos;
+            // JCache no informa el tamaño de la región
+            long entradas = stats.getElementCountInMemory();
+            estadisticas.add(new EstadisticasCacheDTO(region, EstadisticasCacheDTO.HIBERNATE,
+                    entradas >= 0 ? entradas : null, aciertos, fallos,
+                    total > 0 ? (double) aciertos / total : 1.0, null, stats.getPutCount()));
+        }
+        return estadisticas;
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.lbf.service.mantenimiento;
+
+public interface ParticionService {
+    int crearParticionesFuturas();
+}
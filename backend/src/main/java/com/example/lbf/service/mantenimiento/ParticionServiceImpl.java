@@ -0,0 +1,55 @@
+package com.example.lbf.service.mantenimiento;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Mantiene creadas las particiones mensuales de venta, producto_vendido y
+ * movimiento_inventario para los próximos meses, de modo que las ventas nuevas
+ * nunca terminen en la partición por defecto. Solo aplica en Postgres; las
+ * funciones SQL las crean las migraciones V4 y V10.
+ */
+@Service
+public class ParticionServiceImpl implements ParticionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ParticionServiceImpl.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${lbf.particiones.meses-adelante:3}")
+    private int mesesAdelante;
+
+    private Boolean postgres;
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${lbf.particiones.cron:0 0 3 * * *}", zone = "America/Mexico_City")
+    public int crearParticionesFuturas() {
+        if (!esPostgres()) {
+            return 0;
+        }
+        Integer creadas = jdbcTemplate.queryForObject("SELECT crear_particiones_futuras(?)", Integer.class,
+                mesesAdelante);
+        if (creadas != null && creadas > 0) {
+            log.info("Particiones mensuales creadas: {}", creadas);
+        }
+        return creadas != null ? creadas : 0;
+    }
+
+    private boolean esPostgres() {
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) conexion ->
+                    "PostgreSQL".equals(conexion.getMetaData().getDatabaseProductName()));
+        }
+        return Boolean.TRUE.equals(postgres);
+    }
+}
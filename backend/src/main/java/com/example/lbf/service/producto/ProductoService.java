@@ -2,18 +2,26 @@ package com.example.lbf.service.producto;
 
 import com.example.lbf.entities.Producto;
 import com.example.lbf.dto.request.NuevoProductoRequest;
+import com.example.lbf.dto.response.ProductoCatalogoDTO;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface ProductoService {
     Producto crearProducto(NuevoProductoRequest producto);
     Producto actualizarProducto(Producto producto);
     void eliminarProducto(Long productoId);
-    Producto getProductoById(Long productoId);
-    List<Producto> getAllProductos();
-    List<Producto> getProductosByCategoria(Long categoriaId);
+    ProductoCatalogoDTO getProductoById(Long productoId);
+    Map<Long, ProductoCatalogoDTO> getProductosByIds(Collection<Long> productoIds);
+    ProductoCatalogoDTO getProductoByCodigoBarras(String codigoBarras);
+    List<ProductoCatalogoDTO> getAllProductos();
+    List<ProductoCatalogoDTO> getProductosByCategoria(Long categoriaId);
     boolean actualizarStock(Long productoId, Float cantidad);
-    List<Producto> buscarProductos(String criterio);
-    List<Producto> getProductosBajoStock(Float stockMinimo);
+    Map<Long, Boolean> actualizarStockLote(Map<Long, Float> cantidades);
+    List<ProductoCatalogoDTO> buscarProductos(String criterio);
+    List<ProductoCatalogoDTO> sugerirProductos(String texto, int limite);
+    List<ProductoCatalogoDTO> getProductosBajoStock(Float stockMinimo);
     boolean verificarDisponibilidad(Long productoId, Float cantidad);
+    Map<Long, Boolean> verificarDisponibilidadLote(Map<Long, Float> cantidades);
 }
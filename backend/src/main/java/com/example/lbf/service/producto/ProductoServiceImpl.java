@@ -1,17 +1,40 @@
 package com.example.lbf.service.producto;
 
+import com.example.lbf.config.CacheConfig;
 import com.example.lbf.entities.Producto;
 import com.example.lbf.dto.request.NuevoProductoRequest;
+import com.example.lbf.dto.response.ProductoCatalogoDTO;
 import com.example.lbf.entities.Categoria;
+import com.example.lbf.entities.MovimientoPendiente;
+import com.example.lbf.entities.RegistroEliminado;
 import com.example.lbf.repository.ProductoRepository;
 import com.example.lbf.repository.CategoriaRepository;
+import com.example.lbf.service.catalogo.BusquedaProductosService;
+import com.example.lbf.service.catalogo.CodigoBarrasService;
+import com.example.lbf.service.catalogo.ProductosModificadosEvent;
+import com.example.lbf.service.inventario.LibroInventarioService;
+import com.example.lbf.service.sync.SincronizacionService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Service
 public class ProductoServiceImpl implements ProductoService {
@@ -22,6 +45,29 @@ public class ProductoServiceImpl implements ProductoService {
     @Autowired
     private CategoriaRepository categoriaRepository;
 
+    @Autowired
+    private CodigoBarrasService codigoBarrasService;
+
+    @Autowired
+    private BusquedaProductosService busquedaProductosService;
+
+    @Autowired
+    private SincronizacionService sincronizacionService;
+
+    @Autowired
+    private LibroInventarioService libroInventarioService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    // Referencia al proxy para que las llamadas internas también pasen por la caché
+    @Autowired
+    @Lazy
+    private ProductoService self;
+
     @Override
     @Transactional
     public Producto crearProducto(NuevoProductoRequest producto) {
@@ -36,7 +82,11 @@ public class ProductoServiceImpl implements ProductoService {
         nuevoProducto.setNombre(producto.getNombre());
         nuevoProducto.setPrecio(producto.getPrecioVenta());
         nuevoProducto.setStock(producto.getStock());
-        nuevoProducto.setCodigoBarras(producto.getCodigoBarras());
+        nuevoProducto.setCodigoBarras(normalizarCodigoBarras(producto.getCodigoBarras()));
+        if (nuevoProducto.getCodigoBarras() != null
+                && productoRepository.existsByCodigoBarras(nuevoProducto.getCodigoBarras())) {
+            throw new IllegalArgumentException("El código de barras ya está asignado a otro producto");
+        }
         nuevoProducto.setPrecioCompra(producto.getPrecioCosto());
         nuevoProducto.setStockMinimo(producto.getStockMinimo());
         nuevoProducto.setActivo(producto.getActivo());
@@ -59,80 +109,156 @@ public class ProductoServiceImpl implements ProductoService {
         nuevoProducto.setTipo(producto.getTipo());
         System.out.println(nuevoProducto.getDescuentos());
         // Guardar el producto en la base de datos
-        return productoRepository.save(nuevoProducto);
+        Producto guardado = productoRepository.save(nuevoProducto);
+        publicarCambio(guardado.getProductoId());
+        return guardado;
     }
 
     @Override
     @Transactional
     public Producto actualizarProducto(Producto producto) {
-        return productoRepository.save(producto);
+        producto.setCodigoBarras(normalizarCodigoBarras(producto.getCodigoBarras()));
+        if (producto.getCodigoBarras() != null && producto.getProductoId() != null
+                && productoRepository.existsByCodigoBarrasAndProductoIdNot(producto.getCodigoBarras(),
+                        producto.getProductoId())) {
+            throw new IllegalArgumentException("El código de barras ya está asignado a otro producto");
+        }
+        Producto guardado = productoRepository.save(producto);
+        publicarCambio(guardado.getProductoId());
+        return guardado;
     }
 
     @Override
     @Transactional
     public void eliminarProducto(Long productoId) {
         productoRepository.deleteById(productoId);
+        sincronizacionService.registrarEliminado(RegistroEliminado.PRODUCTO, productoId);
+        publicarCambio(productoId);
+    }
+
+    @Override
+    public ProductoCatalogoDTO getProductoByCodigoBarras(String codigoBarras) {
+        String codigo = normalizarCodigoBarras(codigoBarras);
+        return codigo != null ? codigoBarrasService.buscarPorCodigo(codigo) : null;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Producto getProductoById(Long productoId) {
-        return productoRepository.findById(productoId).orElse(null);
+    @Cacheable(cacheNames = CacheConfig.PRODUCTOS, unless = "#result == null")
+    public ProductoCatalogoDTO getProductoById(Long productoId) {
+        return productoRepository.findCatalogoById(productoId).orElse(null);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Producto> getAllProductos() {
-        return productoRepository.findAll();
+    public List<ProductoCatalogoDTO> getAllProductos() {
+        return productoRepository.findCatalogo();
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Producto> getProductosByCategoria(Long categoriaId) {
-        Optional<Categoria> categoriaOpt = categoriaRepository.findById(categoriaId);
-        if (categoriaOpt.isPresent()) {
-            Categoria categoria = categoriaOpt.get();
-            return productoRepository.findByCategoria(categoria);
-        }
-        return List.of();
+    @Cacheable(cacheNames = CacheConfig.PRODUCTOS_POR_CATEGORIA)
+    public List<ProductoCatalogoDTO> getProductosByCategoria(Long categoriaId) {
+        return productoRepository.findCatalogoByCategoriaId(categoriaId);
     }
 
     @Override
     @Transactional
     public boolean actualizarStock(Long productoId, Float cantidad) {
-        Optional<Producto> productoOpt = productoRepository.findById(productoId);
-        if (productoOpt.isPresent()) {
-            Producto producto = productoOpt.get();
-            Float nuevoStock = producto.getStock() + cantidad;
-            if (nuevoStock >= 0) {
-                producto.setStock(nuevoStock);
-                productoRepository.save(producto);
-                return true;
-            }
+        // UPDATE condicional en la base de datos, sin leer el producto ni bloquear la fila de antemano
+        boolean actualizado = productoRepository.ajustarStock(productoId, cantidad) > 0;
+        if (actualizado) {
+            publicarCambio(productoId);
+            libroInventarioService.registrar(MovimientoPendiente.deCantidades(Map.of(productoId, cantidad),
+                    Map.of(productoId, true)), "Actualización de stock", null);
         }
-        return false;
+        return actualizado;
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public List<Producto> buscarProductos(String criterio) {
-        return productoRepository.buscarProductos(criterio);
+    @Transactional
+    public Map<Long, Boolean> actualizarStockLote(Map<Long, Float> cantidades) {
+        Map<Long, Boolean> resultados = productoRepository.ajustarStockLote(cantidades);
+        eventPublisher.publishEvent(new ProductosModificadosEvent(cantidades.keySet()));
+        return resultados;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Producto> getProductosBajoStock(Float stockMinimo) {
-        return productoRepository.findByStockLessThan(stockMinimo);
+    public List<ProductoCatalogoDTO> buscarProductos(String criterio) {
+        return productoRepository.buscarCatalogo(criterio);
+    }
+
+    @Override
+    public List<ProductoCatalogoDTO> sugerirProductos(String texto, int limite) {
+        return busquedaProductosService.sugerir(texto, limite);
     }
 
     @Override
     @Transactional(readOnly = true)
+    public List<ProductoCatalogoDTO> getProductosBajoStock(Float stockMinimo) {
+        return productoRepository.findCatalogoByStockLessThan(stockMinimo);
+    }
+
+    @Override
     public boolean verificarDisponibilidad(Long productoId, Float cantidad) {
-        Optional<Producto> productoOpt = productoRepository.findById(productoId);
-        if (productoOpt.isPresent()) {
-            Producto producto = productoOpt.get();
-            return producto.getStock() >= cantidad;
+        // Consulta previa a la venta; el cobro vuelve a validar el stock con el UPDATE condicional
+        ProductoCatalogoDTO producto = self.getProductoById(productoId);
+        return producto != null && producto.getStock() != null && producto.getStock() >= cantidad;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, ProductoCatalogoDTO> getProductosByIds(Collection<Long> productoIds) {
+        Set<Long> ids = new LinkedHashSet<>(productoIds);
+        ids.remove(null);
+
+        // Lo que ya está en la caché de productos no se vuelve a consultar
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTOS);
+        Map<Long, ProductoCatalogoDTO> productos = new HashMap<>();
+        List<Long> faltantes = new ArrayList<>();
+        for (Long productoId : ids) {
+            ProductoCatalogoDTO producto = cache != null ? cache.get(productoId, ProductoCatalogoDTO.class) : null;
+            if (producto != null) {
+                productos.put(productoId, producto);
+            } else {
+                faltantes.add(productoId);
+            }
+        }
+
+        // El resto sale de una sola consulta IN y queda en la caché para la siguiente lectura
+        if (!faltantes.isEmpty()) {
+            for (ProductoCatalogoDTO producto : productoRepository.findCatalogoByProductoIdIn(faltantes)) {
+                productos.put(producto.getProductoId(), producto);
+                if (cache != null) {
+                    cache.put(producto.getProductoId(), producto);
+                }
+            }
+        }
+        return productos;
+    }
+
+    @Override
+    public Map<Long, Boolean> verificarDisponibilidadLote(Map<Long, Float> cantidades) {
+        Map<Long, ProductoCatalogoDTO> productos = self.getProductosByIds(cantidades.keySet());
+        Map<Long, Boolean> resultado = new TreeMap<>();
+        cantidades.forEach((productoId, cantidad) -> {
+            ProductoCatalogoDTO producto = productos.get(productoId);
+            resultado.put(productoId, producto != null && producto.getStock() != null
+                    && Objects.requireNonNullElse(cantidad, 0f) <= producto.getStock());
+        });
+        return resultado;
+    }
+
+    private void publicarCambio(Long productoId) {
+        eventPublisher.publishEvent(new ProductosModificadosEvent(Collections.singleton(productoId)));
+    }
+
+    // Un código vacío se guarda como null para no chocar con el índice único
+    private String normalizarCodigoBarras(String codigoBarras) {
+        if (codigoBarras == null || codigoBarras.isBlank()) {
+            return null;
         }
-        return false;
+        return codigoBarras.trim();
     }
 }
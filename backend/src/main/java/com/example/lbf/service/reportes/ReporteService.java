@@ -18,6 +18,8 @@ public interface ReporteService {
     
     List<VentaMensualDTO> getVentasMensuales(int año);
     
+    List<VentaPorHoraDTO> getVentasPorHora(LocalDate fechaInicio, LocalDate fechaFin, String sucursal);
+    
     BigDecimal calcularIngresoTotal(LocalDate fechaInicio, LocalDate fechaFin);
     
     List<ProductoBajoStockDTO> getProductosBajoStock();
@@ -1,14 +1,15 @@
 package com.example.lbf.service.reportes;
 
 import com.example.lbf.dto.response.*;
-import com.example.lbf.entities.Producto;
 import com.example.lbf.entities.Usuario;
-import com.example.lbf.entities.Venta;
 import com.example.lbf.repository.ProductoVendidoRepository;
+import com.example.lbf.repository.UsuarioRepository;
 import com.example.lbf.repository.VentaRepository;
+import com.example.lbf.repository.VentaResumenDiarioRepository;
 import com.example.lbf.repository.ProductoRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,9 +27,15 @@ public class ReporteServiceImpl implements ReporteService {
     @Autowired
     private ProductoVendidoRepository productoVendidoRepository;
 
+    @Autowired
+    private VentaResumenDiarioRepository ventaResumenDiarioRepository;
+
     @Autowired
     private VentaRepository ventaRepository;
 
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
     @Autowired
     private ProductoRepository productoRepository;
 
@@ -36,21 +43,24 @@ public class ReporteServiceImpl implements ReporteService {
     @Transactional(readOnly = true)
     public List<ProductosMasVendidosResponse> getProductosMasVendidos(LocalDate fechaInicio, LocalDate fechaFin,
             int limite) {
-        List<Object[]> resultados = productoVendidoRepository.findProductosMasVendidos(fechaInicio, fechaFin);
-
-        List<ProductosMasVendidosResponse> productosVendidos = new ArrayList<>();
-        int count = 0;
+        List<Object[]> resultados = productoVendidoRepository.findProductosMasVendidos(fechaInicio, fechaFin,
+                PageRequest.of(0, Math.max(limite, 1)));
 
+        // Los productos del ranking se cargan en una sola consulta, sin su historial de ventas
+        List<Long> productoIds = new ArrayList<>();
         for (Object[] resultado : resultados) {
-            if (count >= limite)
-                break;
+            productoIds.add((Long) resultado[0]);
+        }
+        Map<Long, ProductoCatalogoDTO> productos = new HashMap<>();
+        for (ProductoCatalogoDTO producto : productoRepository.findCatalogoByProductoIdIn(productoIds)) {
+            productos.put(producto.getProductoId(), producto);
+        }
 
-            Producto producto = (Producto) resultado[0];
+        List<ProductosMasVendidosResponse> productosVendidos = new ArrayList<>();
+        for (Object[] resultado : resultados) {
             Number cantidad = (Number) resultado[1];
-
-            productosVendidos.add(new ProductosMasVendidosResponse(producto, cantidad.intValue()));
-
-            count++;
+            productosVendidos.add(new ProductosMasVendidosResponse(productos.get((Long) resultado[0]),
+                    cantidad.intValue()));
         }
 
         return productosVendidos;
@@ -59,23 +69,17 @@ public class ReporteServiceImpl implements ReporteService {
     @Override
     @Transactional(readOnly = true)
     public List<VentaPorUsuarioDTO> getVentasPorUsuario(LocalDate fechaInicio, LocalDate fechaFin) {
-        List<Venta> ventas = ventaRepository.findByFechaBetween(fechaInicio, fechaFin);
-
-        Map<Usuario, BigDecimal> ventasPorUsuarioMap = new HashMap<>();
-
-        for (Venta venta : ventas) {
-            Usuario usuario = venta.getUsuario();
-            BigDecimal total = venta.getTotal();
-
-            ventasPorUsuarioMap.put(usuario,
-                    ventasPorUsuarioMap.getOrDefault(usuario, BigDecimal.ZERO).add(total));
+        // Un renglón por usuario desde el resumen diario
+        Map<Long, BigDecimal> ventasPorUsuarioMap = new HashMap<>();
+        for (Object[] resultado : ventaResumenDiarioRepository.sumarPorUsuario(fechaInicio, fechaFin)) {
+            ventasPorUsuarioMap.put((Long) resultado[0], (BigDecimal) resultado[1]);
         }
 
         // Convertir el Map a una lista de DTOs
         List<VentaPorUsuarioDTO> ventasPorUsuario = new ArrayList<>();
 
-        for (Map.Entry<Usuario, BigDecimal> entry : ventasPorUsuarioMap.entrySet()) {
-            ventasPorUsuario.add(new VentaPorUsuarioDTO(entry.getKey(), entry.getValue()));
+        for (Usuario usuario : usuarioRepository.findAllById(ventasPorUsuarioMap.keySet())) {
+            ventasPorUsuario.add(new VentaPorUsuarioDTO(new UsuarioResumenDTO(usuario), ventasPorUsuarioMap.get(usuario.getId())));
         }
 
         return ventasPorUsuario;
@@ -89,12 +93,8 @@ public class ReporteServiceImpl implements ReporteService {
         List<VentaPorCategoriaDTO> ventasPorCategoria = new ArrayList<>();
 
         for (Object[] resultado : resultados) {
-            String categoria = (String) resultado[0];
-            Number total = (Number) resultado[1];
-
-            ventasPorCategoria.add(new VentaPorCategoriaDTO(
-                    categoria,
-                    BigDecimal.valueOf(total.doubleValue())));
+            // Los subtotales son NUMERIC(12, 2); la suma ya llega al centavo
+            ventasPorCategoria.add(new VentaPorCategoriaDTO((String) resultado[0], (BigDecimal) resultado[1]));
         }
 
         return ventasPorCategoria;
@@ -103,16 +103,11 @@ public class ReporteServiceImpl implements ReporteService {
     @Override
     @Transactional(readOnly = true)
     public List<VentaDiariaDTO> getVentasDiarias(LocalDate fechaInicio, LocalDate fechaFin) {
-         
-        List<VentaDiariaDTO> ventas = ventaRepository.findByFechaBetween(fechaInicio, fechaFin).stream()
-            .filter(venta -> venta != null && (venta.getAnulada() == null || !venta.getAnulada())) // Ignorar ventas anuladas y null
-            .collect(Collectors.groupingBy(
-                Venta::getFecha,
-                Collectors.mapping(Venta::getTotal, Collectors.reducing(BigDecimal.ZERO, BigDecimal::add))))
-            .entrySet().stream()
-            .map(entry -> new VentaDiariaDTO(entry.getKey(), entry.getValue()))
-            .sorted((a, b) -> a.getFecha().compareTo(b.getFecha()))
-            .collect(Collectors.toList());
+        // El resumen ya excluye las ventas anuladas
+        List<VentaDiariaDTO> ventas = new ArrayList<>();
+        for (Object[] resultado : ventaResumenDiarioRepository.sumarPorFecha(fechaInicio, fechaFin)) {
+            ventas.add(new VentaDiariaDTO((LocalDate) resultado[0], (BigDecimal) resultado[1]));
+        }
         return ventas;
     }
 
@@ -122,31 +117,23 @@ public class ReporteServiceImpl implements ReporteService {
         LocalDate inicioAño = LocalDate.of(año, 1, 1);
         LocalDate finAño = LocalDate.of(año, 12, 31);
 
-        List<Venta> ventas = ventaRepository.findByFechaBetween(inicioAño, finAño);
-
-        Map<Integer, BigDecimal> ventasMensualesMap = new HashMap<>();
-
-        for (Venta venta : ventas) {
-            int mes = venta.getFecha().getMonthValue();
-            BigDecimal total = venta.getTotal();
-
-            ventasMensualesMap.put(mes,
-                    ventasMensualesMap.getOrDefault(mes, BigDecimal.ZERO).add(total));
-        }
-
-        // Convertir el Map a una lista de DTOs
+        // La base suma por mes; solo llegan los meses con ventas, ya en orden
         List<VentaMensualDTO> ventasMensuales = new ArrayList<>();
-
-        for (Map.Entry<Integer, BigDecimal> entry : ventasMensualesMap.entrySet()) {
-            ventasMensuales.add(new VentaMensualDTO(entry.getKey(), entry.getValue()));
+        for (Object[] resultado : ventaResumenDiarioRepository.sumarPorMes(inicioAño, finAño)) {
+            ventasMensuales.add(new VentaMensualDTO(((Number) resultado[0]).intValue(), (BigDecimal) resultado[1]));
         }
-
-        // Ordenar por mes
-        ventasMensuales.sort((a, b) -> Integer.compare(a.getMes(), b.getMes()));
-
         return ventasMensuales;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<VentaPorHoraDTO> getVentasPorHora(LocalDate fechaInicio, LocalDate fechaFin, String sucursal) {
+        // Rango semiabierto sobre la marca de tiempo para aprovechar el índice
+        String filtroSucursal = sucursal == null || sucursal.isBlank() ? null : sucursal;
+        return ventaRepository.sumarPorDiaSemanaYHora(fechaInicio, fechaFin, fechaInicio.atStartOfDay(),
+                fechaFin.plusDays(1).atStartOfDay(), filtroSucursal);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public BigDecimal calcularIngresoTotal(LocalDate fechaInicio, LocalDate fechaFin) {
@@ -156,16 +143,15 @@ public class ReporteServiceImpl implements ReporteService {
         }
         System.out.println("Fecha actual: " + currentDate);
         System.out.println("Calculando ingreso total desde: " + fechaInicio + " hasta: " + fechaFin);
-        return ventaRepository.calcularTotalVentasPorRango(fechaInicio, fechaFin);
+        return ventaResumenDiarioRepository.sumarTotal(fechaInicio, fechaFin);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ProductoBajoStockDTO> getProductosBajoStock() {
-        List<Producto> productos = productoRepository.findProductosConBajoStock();
+        List<ProductoCatalogoDTO> productos = productoRepository.findCatalogoConBajoStock();
 
         return productos.stream()
-                .filter(producto -> producto.getStock() <= producto.getStockMinimo())
                 .map(producto -> {
                     float porcentaje = producto.getStockMinimo() > 0
                             ? producto.getStock() / producto.getStockMinimo()
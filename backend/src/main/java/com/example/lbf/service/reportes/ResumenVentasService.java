@@ -0,0 +1,11 @@
+package com.example.lbf.service.reportes;
+
+import com.example.lbf.entities.Venta;
+
+import java.time.LocalDate;
+
+public interface ResumenVentasService {
+    void registrarVenta(Venta venta);
+    void revertirVenta(Venta venta);
+    int reconstruir(LocalDate fechaInicio, LocalDate fechaFin);
+}
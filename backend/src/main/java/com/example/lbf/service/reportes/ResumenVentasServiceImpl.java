@@ -0,0 +1,55 @@
+package com.example.lbf.service.reportes;
+
+import com.example.lbf.entities.Venta;
+import com.example.lbf.repository.VentaResumenDiarioRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Mantiene el resumen diario de ventas (VentaResumenDiario) a medida que se crean
+ * y anulan ventas, de modo que los reportes lean un renglón por día en lugar de
+ * recorrer todos los tickets.
+ */
+@Service
+public class ResumenVentasServiceImpl implements ResumenVentasService {
+
+    @Autowired
+    private VentaResumenDiarioRepository ventaResumenDiarioRepository;
+
+    @Override
+    @Transactional
+    public void registrarVenta(Venta venta) {
+        if (Boolean.TRUE.equals(venta.getAnulada())) {
+            return;
+        }
+        acumular(venta, total(venta), 1L);
+    }
+
+    @Override
+    @Transactional
+    public void revertirVenta(Venta venta) {
+        acumular(venta, total(venta).negate(), -1L);
+    }
+
+    @Override
+    @Transactional
+    public int reconstruir(LocalDate fechaInicio, LocalDate fechaFin) {
+        ventaResumenDiarioRepository.eliminarPorRango(fechaInicio, fechaFin);
+        return ventaResumenDiarioRepository.reconstruirPorRango(fechaInicio, fechaFin);
+    }
+
+    private void acumular(Venta venta, BigDecimal total, Long tickets) {
+        String sucursal = venta.getSucursal() != null ? venta.getSucursal() : "";
+        Long usuarioId = venta.getUsuario() != null ? venta.getUsuario().getId() : 0L;
+        ventaResumenDiarioRepository.acumular(venta.getFecha(), sucursal, usuarioId, total, tickets);
+    }
+
+    private BigDecimal total(Venta venta) {
+        return venta.getTotal() != null ? venta.getTotal() : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.lbf.service.sync;
+
+import com.example.lbf.dto.response.ManifiestoCatalogoDTO;
+
+public interface CatalogoSnapshotService {
+    ManifiestoCatalogoDTO getManifiesto();
+    boolean publicarSiCambio();
+}
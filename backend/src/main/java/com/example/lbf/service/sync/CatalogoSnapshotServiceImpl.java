@@ -0,0 +1,158 @@
+package com.example.lbf.service.sync;
+
+import com.example.lbf.dto.response.CambiosCatalogoResponse;
+import com.example.lbf.dto.response.ManifiestoCatalogoDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Publica el catálogo completo (la misma respuesta de /lbf/sync/cambios?desde=0) como un
+ * archivo JSON inmutable, ya comprimido con gzip, para que las terminales lo descarguen
+ * como archivo estático al abrir la caja. Se revisa periódicamente si hubo cambios y solo
+ * entonces se genera un archivo nuevo; se conservan los últimos para las descargas en curso.
+ *
+ * Los cambios de stock no generan un archivo nuevo: la terminal los recibe al seguir con
+ * /lbf/sync/cambios desde la posición "hasta" del archivo.
+ */
+@Service
+public class CatalogoSnapshotServiceImpl implements CatalogoSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogoSnapshotServiceImpl.class);
+
+    public static final String RUTA_ARCHIVOS = "/lbf/sync/snapshot/archivos/";
+
+    private static final String PREFIJO = "catalogo-";
+    private static final int ARCHIVOS_CONSERVADOS = 3;
+
+    @Autowired
+    private SincronizacionService sincronizacionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${lbf.sync.snapshot.directorio:snapshots}")
+    private String directorio;
+
+    private volatile ManifiestoCatalogoDTO manifiesto;
+
+    // Posición del último cambio incluido en el archivo vigente
+    private volatile long ultimoCambioPublicado = -1;
+
+    @Override
+    public ManifiestoCatalogoDTO getManifiesto() {
+        return manifiesto;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${lbf.sync.snapshot.intervalo-ms:60000}",
+               initialDelayString = "${lbf.sync.snapshot.intervalo-ms:60000}")
+    public void revisarCambios() {
+        publicarSiCambio();
+    }
+
+    @Override
+    public synchronized boolean publicarSiCambio() {
+        long ultimoCambio = sincronizacionService.getUltimoCambioCatalogo();
+        // Un archivo publicado al arrancar, sin posición confirmada todavía, se vuelve a publicar
+        if (manifiesto != null && ultimoCambio == ultimoCambioPublicado && manifiesto.getHasta() > 0) {
+            return false;
+        }
+
+        try {
+            CambiosCatalogoResponse catalogo = sincronizacionService.getCambios(0L);
+            byte[] json = objectMapper.writeValueAsBytes(catalogo);
+            byte[] gzip = comprimir(json);
+            String version = HexFormat.of().formatHex(sha256(json), 0, 8);
+
+            Path carpeta = Paths.get(directorio);
+            Files.createDirectories(carpeta);
+            String nombre = PREFIJO + version + ".json";
+            // Primero el .gz: nginx (gzip_static) y Spring lo sirven cuando el cliente acepta gzip
+            escribir(carpeta.resolve(nombre + ".gz"), gzip);
+            escribir(carpeta.resolve(nombre), json);
+
+            manifiesto = new ManifiestoCatalogoDTO(version, RUTA_ARCHIVOS + nombre, catalogo.getHasta(),
+                    LocalDateTime.now(), catalogo.getProductos().size(), (long) json.length, (long) gzip.length);
+            ultimoCambioPublicado = ultimoCambio;
+            borrarAnteriores(carpeta);
+            log.info("Catálogo publicado: {} ({} bytes, {} comprimido)", nombre, json.length, gzip.length);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo publicar el catálogo", e);
+        }
+    }
+
+    private static byte[] comprimir(byte[] datos) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(datos.length / 4);
+        // Se comprime una vez y se sirve muchas veces, conviene el nivel máximo
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(datos);
+        }
+        return salida.toByteArray();
+    }
+
+    private static byte[] sha256(byte[] datos) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(datos);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Se escribe en un temporal y se renombra, nunca se ve un archivo a medias
+    private static void escribir(Path destino, byte[] datos) throws IOException {
+        Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+        Files.write(temporal, datos);
+        Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void borrarAnteriores(Path carpeta) throws IOException {
+        List<Path> archivos = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(carpeta, PREFIJO + "*.json")) {
+            stream.forEach(archivos::add);
+        }
+        archivos.sort(Comparator.comparing(CatalogoSnapshotServiceImpl::modificado).reversed());
+        for (Path anterior : archivos.subList(Math.min(ARCHIVOS_CONSERVADOS, archivos.size()), archivos.size())) {
+            Files.deleteIfExists(anterior);
+            Files.deleteIfExists(anterior.resolveSibling(anterior.getFileName() + ".gz"));
+        }
+    }
+
+    private static long modificado(Path archivo) {
+        try {
+            return Files.getLastModifiedTime(archivo).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
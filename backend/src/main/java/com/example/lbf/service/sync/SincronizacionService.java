@@ -0,0 +1,13 @@
+package com.example.lbf.service.sync;
+
+import com.example.lbf.dto.response.CambiosCatalogoResponse;
+
+public interface SincronizacionService {
+    CambiosCatalogoResponse getCambios(Long desde);
+    // Último cambio del catálogo sin contar los de stock
+    long getUltimoCambioCatalogo();
+    void registrarEliminado(String entidad, Long entidadId);
+    int purgarEliminados();
+    // Anota la posición actual de la secuencia; "hasta" usa las anotadas hace más de la ventana
+    void muestrearPosicion();
+}
@@ -0,0 +1,162 @@
+package com.example.lbf.service.sync;
+
+import com.example.lbf.dto.response.CambiosCatalogoResponse;
+import com.example.lbf.entities.RegistroEliminado;
+import com.example.lbf.entities.RelojCambios;
+import com.example.lbf.repository.CategoriaRepository;
+import com.example.lbf.repository.ClienteRepository;
+import com.example.lbf.repository.ProductoRepository;
+import com.example.lbf.repository.RegistroEliminadoRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entrega a las terminales solo lo que cambió en productos, categorías y clientes desde
+ * su última sincronización, usando la posición que RelojCambios asigna a cada cambio.
+ *
+ * La posición se asigna al escribir y no al confirmar, así que una transacción en curso
+ * puede confirmar un cambio con una posición menor a otra ya visible. Por eso "hasta" es una
+ * posición tomada de la secuencia hace al menos la ventana: cada pocos segundos se anota la
+ * posición actual y se entrega la más nueva que ya cumplió la ventana. Lo más reciente se
+ * vuelve a enviar en la siguiente consulta (aplicarlo dos veces no tiene efecto) y no se
+ * pierde nada mientras las transacciones duren menos que la ventana. La edad de cada muestra
+ * se mide con System.nanoTime, que no salta si se ajusta la hora; justo después de arrancar,
+ * mientras ninguna muestra cumple la ventana, "hasta" no avanza.
+ */
+@Service
+public class SincronizacionServiceImpl implements SincronizacionService {
+
+    private static final Logger log = LoggerFactory.getLogger(SincronizacionServiceImpl.class);
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private RegistroEliminadoRepository registroEliminadoRepository;
+
+    @Value("${lbf.sync.ventana-ms:30000}")
+    private long ventanaMs;
+
+    @Value("${lbf.sync.retencion-dias:30}")
+    private int retencionDias;
+
+    // Muestras {nanoTime, posición} de la secuencia, de la más vieja a la más nueva
+    private final Deque<long[]> muestras = new ArrayDeque<>();
+
+    @Override
+    @Transactional(readOnly = true)
+    public CambiosCatalogoResponse getCambios(Long desde) {
+        long confirmada = posicionConfirmada();
+        // Sin posición, o con una anterior a eliminados ya purgados, se envía todo
+        Long purga = registroEliminadoRepository.findUltimaPurga();
+        boolean completo = desde == null || desde <= 0 || (purga != null && desde < purga);
+        long base = completo ? 0 : desde;
+
+        CambiosCatalogoResponse respuesta = new CambiosCatalogoResponse();
+        respuesta.setDesde(base);
+        respuesta.setHasta(Math.max(base, confirmada));
+        respuesta.setCompleto(completo);
+
+        if (completo) {
+            respuesta.setProductos(productoRepository.findCatalogo());
+            respuesta.setCategorias(categoriaRepository.findAll());
+            respuesta.setClientes(clienteRepository.findAll());
+            respuesta.setEliminados(Collections.emptyList());
+            return respuesta;
+        }
+
+        respuesta.setProductos(productoRepository.findCatalogoCambiadoDesde(base));
+        respuesta.setCategorias(categoriaRepository.findByCambioSeqGreaterThanOrderByCategoriaId(base));
+        respuesta.setClientes(clienteRepository.findByCambioSeqGreaterThanOrderByIdCliente(base));
+        List<CambiosCatalogoResponse.Eliminado> eliminados = new ArrayList<>();
+        for (RegistroEliminado registro : registroEliminadoRepository.findByCambioSeqGreaterThanOrderByCambioSeq(base)) {
+            eliminados.add(new CambiosCatalogoResponse.Eliminado(registro.getEntidad(), registro.getEntidadId()));
+        }
+        respuesta.setEliminados(eliminados);
+        return respuesta;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getUltimoCambioCatalogo() {
+        long ultimo = 0;
+        for (Long posicion : new Long[] {
+                productoRepository.findUltimoCambioCatalogoSeq(),
+                categoriaRepository.findUltimoCambioSeq(),
+                clienteRepository.findUltimoCambioSeq(),
+                registroEliminadoRepository.findUltimoCambioSeq() }) {
+            if (posicion != null) {
+                ultimo = Math.max(ultimo, posicion);
+            }
+        }
+        return ultimo;
+    }
+
+    @Override
+    @Transactional
+    public void registrarEliminado(String entidad, Long entidadId) {
+        registroEliminadoRepository.save(new RegistroEliminado(entidad, entidadId));
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(cron = "${lbf.sync.purga-cron:0 30 3 * * *}")
+    public int purgarEliminados() {
+        LocalDateTime limite = LocalDateTime.now().minusDays(retencionDias);
+        Long hasta = registroEliminadoRepository.findUltimoCambioSeqAnteriorA(limite);
+        if (hasta == null) {
+            return 0;
+        }
+        int purgados = registroEliminadoRepository.purgarAnteriores(limite);
+        registroEliminadoRepository.eliminarPurgasAnteriores(hasta);
+        registroEliminadoRepository.save(RegistroEliminado.purga(hasta));
+        log.info("Registros de eliminación purgados: {}", purgados);
+        return purgados;
+    }
+
+    @Override
+    @Scheduled(fixedRateString = "${lbf.sync.muestra-ms:5000}")
+    public void muestrearPosicion() {
+        long posicion = RelojCambios.siguiente();
+        synchronized (muestras) {
+            muestras.addLast(new long[] { System.nanoTime(), posicion });
+        }
+    }
+
+    // La posición más nueva anotada hace al menos la ventana; 0 si todavía no hay ninguna
+    private long posicionConfirmada() {
+        long limite = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(ventanaMs);
+        synchronized (muestras) {
+            long[] confirmada = null;
+            while (!muestras.isEmpty() && muestras.peekFirst()[0] - limite <= 0) {
+                confirmada = muestras.pollFirst();
+            }
+            if (confirmada == null) {
+                return 0;
+            }
+            // Se conserva para las consultas siguientes hasta que otra la reemplace
+            muestras.addFirst(confirmada);
+            return confirmada[1];
+        }
+    }
+}
@@ -1,8 +1,8 @@
 package com.example.lbf.service.usuario;
 
 import com.example.lbf.dto.response.LoginResponse;
+import com.example.lbf.dto.response.UsuarioResumenDTO;
 import com.example.lbf.entities.Usuario;
-import com.example.lbf.entities.Venta;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -13,9 +13,8 @@ public interface UsuarioService {
     void desactivarUsuario(Long usuarioId);
     Usuario getUsuarioById(Long usuarioId);
     Usuario getUsuarioByUsername(String username);
-    List<Usuario> getAllUsuarios();
+    List<UsuarioResumenDTO> getAllUsuarios();
     LoginResponse validarCredenciales(String username, String contrasena);
     void actualizarUltimoAcceso(Long usuarioId, LocalDateTime fechaAcceso);
-    List<Venta> getHistorialVentas(Long usuarioId);
-    List<Usuario> getUsuariosByRol(String rol);
+    List<UsuarioResumenDTO> getUsuariosByRol(String rol);
 }
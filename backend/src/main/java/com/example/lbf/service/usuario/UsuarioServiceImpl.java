@@ -2,10 +2,9 @@ package com.example.lbf.service.usuario;
 
 import com.example.lbf.auth.AuthService;
 import com.example.lbf.dto.response.LoginResponse;
+import com.example.lbf.dto.response.UsuarioResumenDTO;
 import com.example.lbf.entities.Usuario;
-import com.example.lbf.entities.Venta;
 import com.example.lbf.repository.UsuarioRepository;
-import com.example.lbf.repository.VentaRepository;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -21,9 +20,6 @@ public class UsuarioServiceImpl implements UsuarioService {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
-    @Autowired
-    private VentaRepository ventaRepository;
-
     @Autowired
     private AuthService authService;
 
@@ -50,6 +46,11 @@ public class UsuarioServiceImpl implements UsuarioService {
     @Override
     @Transactional
     public Usuario actualizarUsuario(Usuario usuario) {
+        // Los listados ya no envían la contraseña; si llega vacía se conserva la actual
+        if (usuario.getContrasena() == null || usuario.getContrasena().isBlank()) {
+            usuarioRepository.findById(usuario.getId())
+                    .ifPresent(actual -> usuario.setContrasena(actual.getContrasena()));
+        }
         return usuarioRepository.save(usuario);
     }
 
@@ -78,8 +79,8 @@ public class UsuarioServiceImpl implements UsuarioService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<Usuario> getAllUsuarios() {
-        return usuarioRepository.findAll();
+    public List<UsuarioResumenDTO> getAllUsuarios() {
+        return usuarioRepository.findResumenes(null);
     }
 
     @Override
@@ -94,7 +95,7 @@ public class UsuarioServiceImpl implements UsuarioService {
 
             LoginResponse loginResponse = LoginResponse.builder()
                     .token(token)
-                    .usuario(usuarioOpt.get())
+                    .usuario(new UsuarioResumenDTO(usuario))
                     .succes(true)
                     .build();
 
@@ -120,18 +121,7 @@ public class UsuarioServiceImpl implements UsuarioService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<Venta> getHistorialVentas(Long usuarioId) {
-        Optional<Usuario> usuarioOpt = usuarioRepository.findById(usuarioId);
-        if (usuarioOpt.isPresent()) {
-            Usuario usuario = usuarioOpt.get();
-            return ventaRepository.findByUsuario(usuario);
-        }
-        return List.of();
-    }
-
-    @Override
-    @Transactional(readOnly = true)
-    public List<Usuario> getUsuariosByRol(String rol) {
-        return usuarioRepository.findByRol(rol);
+    public List<UsuarioResumenDTO> getUsuariosByRol(String rol) {
+        return usuarioRepository.findResumenes(rol);
     }
 }
@@ -0,0 +1,13 @@
+package com.example.lbf.service.venta;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+public interface VentaExportacionService {
+    String FORMATO_NDJSON = "ndjson";
+    String FORMATO_CSV = "csv";
+
+    void exportarVentas(LocalDate fechaInicio, LocalDate fechaFin, String formato, OutputStream salida)
+            throws IOException;
+}
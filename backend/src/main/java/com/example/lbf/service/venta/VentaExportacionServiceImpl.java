@@ -0,0 +1,175 @@
+package com.example.lbf.service.venta;
+
+import com.example.lbf.dto.response.LineaVentaExportacion;
+import com.example.lbf.repository.VentaRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exporta las ventas de un rango de fechas escribiendo cada venta a medida que se lee.
+ * La consulta se recorre con un cursor y solo se mantiene en memoria la venta actual,
+ * así el consumo no depende del tamaño del rango.
+ */
+@Service
+public class VentaExportacionServiceImpl implements VentaExportacionService {
+
+    // Cada cuántas ventas se envía al cliente lo que ya se escribió
+    private static final int VENTAS_POR_ENVIO = 200;
+
+    private static final String ENCABEZADO_CSV = "ventaId,fecha,hora,total,conIva,anulada,sucursal,usuarioId,usuario,"
+            + "clienteId,cliente,productoVendidoId,productoId,producto,cantidad,precioUnitario,descuento,subtotal";
+
+    @Autowired
+    private VentaRepository ventaRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Override
+    public void exportarVentas(LocalDate fechaInicio, LocalDate fechaFin, String formato, OutputStream salida)
+            throws IOException {
+        if (!FORMATO_NDJSON.equals(formato) && !FORMATO_CSV.equals(formato)) {
+            throw new IllegalArgumentException("Formato de exportación no soportado: " + formato);
+        }
+
+        // El cursor solo existe dentro de una transacción; se abre aquí porque se ejecuta fuera del hilo de la petición
+        TransactionTemplate plantilla = new TransactionTemplate(transactionManager);
+        plantilla.setReadOnly(true);
+        try {
+            plantilla.executeWithoutResult(status -> {
+                try (Stream<LineaVentaExportacion> lineas = ventaRepository.streamLineasParaExportacion(fechaInicio,
+                        fechaFin)) {
+                    if (FORMATO_NDJSON.equals(formato)) {
+                        escribirNdjson(lineas.iterator(), salida);
+                    } else {
+                        escribirCsv(lineas.iterator(), salida);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Una venta por línea, con sus líneas de producto anidadas
+    private void escribirNdjson(Iterator<LineaVentaExportacion> lineas, OutputStream salida) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(salida);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        Long ventaActual = null;
+        int ventasEscritas = 0;
+        while (lineas.hasNext()) {
+            LineaVentaExportacion linea = lineas.next();
+            if (!linea.getVentaId().equals(ventaActual)) {
+                if (ventaActual != null) {
+                    cerrarVentaJson(json);
+                    if (++ventasEscritas % VENTAS_POR_ENVIO == 0) {
+                        json.flush();
+                    }
+                }
+                ventaActual = linea.getVentaId();
+                json.writeStartObject();
+                json.writeNumberField("ventaId", linea.getVentaId());
+                json.writeStringField("fecha", linea.getFecha() != null ? linea.getFecha().toString() : null);
+                json.writeStringField("hora", linea.getHora());
+                json.writeObjectField("total", linea.getTotal());
+                json.writeObjectField("conIva", linea.getConIva());
+                json.writeObjectField("anulada", linea.getAnulada());
+                json.writeStringField("sucursal", linea.getSucursal());
+                json.writeObjectField("usuarioId", linea.getUsuarioId());
+                json.writeStringField("usuario", linea.getUsuario());
+                json.writeObjectField("clienteId", linea.getClienteId());
+                json.writeStringField("cliente", linea.getCliente());
+                json.writeArrayFieldStart("lineas");
+            }
+            if (linea.getProductoVendidoId() != null) {
+                json.writeStartObject();
+                json.writeNumberField("productoVendidoId", linea.getProductoVendidoId());
+                json.writeObjectField("productoId", linea.getProductoId());
+                json.writeStringField("producto", linea.getProducto());
+                json.writeObjectField("cantidad", linea.getCantidad());
+                json.writeObjectField("precioUnitario", linea.getPrecioUnitario());
+                json.writeObjectField("descuento", linea.getDescuento());
+                json.writeObjectField("subtotal", linea.getSubtotal());
+                json.writeEndObject();
+            }
+        }
+        if (ventaActual != null) {
+            cerrarVentaJson(json);
+        }
+        json.flush();
+    }
+
+    private void cerrarVentaJson(JsonGenerator json) throws IOException {
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    // Una fila por línea de producto, repitiendo los datos de la venta
+    private void escribirCsv(Iterator<LineaVentaExportacion> lineas, OutputStream salida) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        csv.write(ENCABEZADO_CSV);
+        csv.write('\n');
+
+        Long ventaActual = null;
+        int ventasEscritas = 0;
+        while (lineas.hasNext()) {
+            LineaVentaExportacion linea = lineas.next();
+            if (!linea.getVentaId().equals(ventaActual)) {
+                if (ventaActual != null && ++ventasEscritas % VENTAS_POR_ENVIO == 0) {
+                    csv.flush();
+                }
+                ventaActual = linea.getVentaId();
+            }
+            Object[] columnas = {
+                linea.getVentaId(), linea.getFecha(), linea.getHora(), linea.getTotal(), linea.getConIva(),
+                linea.getAnulada(), linea.getSucursal(), linea.getUsuarioId(), linea.getUsuario(),
+                linea.getClienteId(), linea.getCliente(), linea.getProductoVendidoId(), linea.getProductoId(),
+                linea.getProducto(), linea.getCantidad(), linea.getPrecioUnitario(), linea.getDescuento(),
+                linea.getSubtotal()
+            };
+            for (int i = 0; i < columnas.length; i++) {
+                if (i > 0) {
+                    csv.write(',');
+                }
+                csv.write(escaparCsv(columnas[i]));
+            }
+            csv.write('\n');
+        }
+        csv.flush();
+    }
+
+    private String escaparCsv(Object valor) {
+        if (valor == null) {
+            return "";
+        }
+        String texto = valor.toString();
+        if (texto.indexOf(',') >= 0 || texto.indexOf('"') >= 0 || texto.indexOf('\n') >= 0
+                || texto.indexOf('\r') >= 0) {
+            return '"' + texto.replace("\"", "\"\"") + '"';
+        }
+        return texto;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.lbf.service.venta;
+
+import com.example.lbf.dto.request.VentaRequest;
+import com.example.lbf.dto.response.VentaLoteResultado;
+
+import java.util.List;
+
+public interface VentaLoteService {
+    List<VentaLoteResultado> crearVentasLote(List<VentaRequest> ventas);
+}
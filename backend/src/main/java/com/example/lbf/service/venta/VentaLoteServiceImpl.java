@@ -0,0 +1,143 @@
+package com.example.lbf.service.venta;
+
+import com.example.lbf.dto.request.VentaRequest;
+import com.example.lbf.dto.response.VentaLoteResultado;
+import com.example.lbf.entities.Usuario;
+import com.example.lbf.entities.Venta;
+import com.example.lbf.entities.VentaIdempotencia;
+import com.example.lbf.repository.UsuarioRepository;
+import com.example.lbf.repository.VentaIdempotenciaRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registra lotes de ventas enviados por las terminales al recuperar la conexión.
+ * Las ventas se descartan si su clave de idempotencia ya fue registrada y el resto
+ * se confirma en bloques, una transacción por bloque en lugar de una por venta.
+ */
+@Service
+public class VentaLoteServiceImpl implements VentaLoteService {
+
+    // Cantidad de ventas que se confirman en una misma transacción
+    private static final int TAMANO_BLOQUE = 50;
+
+    @Autowired
+    private VentaService ventaService;
+
+    @Autowired
+    private VentaIdempotenciaRepository ventaIdempotenciaRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<VentaLoteResultado> crearVentasLote(List<VentaRequest> ventas) {
+        VentaLoteResultado[] resultados = new VentaLoteResultado[ventas.size()];
+        Map<String, Integer> primeraPorClave = new HashMap<>();
+        List<Integer> pendientes = new ArrayList<>();
+
+        for (int i = 0; i < ventas.size(); i++) {
+            String clave = ventas.get(i).getClaveIdempotencia();
+            if (clave == null || clave.isBlank()) {
+                resultados[i] = new VentaLoteResultado(clave, null, VentaLoteResultado.ERROR,
+                        "La clave de idempotencia es obligatoria");
+            } else if (primeraPorClave.putIfAbsent(clave, i) == null) {
+                pendientes.add(i);
+            }
+        }
+
+        // Una sola consulta para descartar las ventas que ya se habían registrado
+        for (VentaIdempotencia registro : ventaIdempotenciaRepository.findAllById(primeraPorClave.keySet())) {
+            int i = primeraPorClave.get(registro.getClave());
+            resultados[i] = new VentaLoteResultado(registro.getClave(), registro.getVentaId(),
+                    VentaLoteResultado.DUPLICADA, null);
+        }
+        pendientes.removeIf(i -> resultados[i] != null);
+
+        // Una sola consulta para los usuarios de todo el lote
+        Set<Long> usuarioIds = new HashSet<>();
+        pendientes.forEach(i -> usuarioIds.add(ventas.get(i).getUsuarioId()));
+        usuarioIds.remove(null);
+        Map<Long, Usuario> usuarios = new HashMap<>();
+        usuarioRepository.findAllById(usuarioIds).forEach(usuario -> usuarios.put(usuario.getId(), usuario));
+
+        for (Integer i : pendientes) {
+            if (!usuarios.containsKey(ventas.get(i).getUsuarioId())) {
+                resultados[i] = new VentaLoteResultado(ventas.get(i).getClaveIdempotencia(), null,
+                        VentaLoteResultado.ERROR, "Usuario no encontrado");
+            }
+        }
+        pendientes.removeIf(i -> resultados[i] != null);
+
+        // Las claves se generan ordenadas por tiempo, así se respeta el orden en que se vendió
+        pendientes.sort(Comparator.comparing(i -> ventas.get(i).getClaveIdempotencia()));
+
+        TransactionTemplate plantilla = new TransactionTemplate(transactionManager);
+        for (int inicio = 0; inicio < pendientes.size(); inicio += TAMANO_BLOQUE) {
+            List<Integer> bloque = pendientes.subList(inicio, Math.min(inicio + TAMANO_BLOQUE, pendientes.size()));
+            try {
+                plantilla.executeWithoutResult(status -> {
+                    for (Integer i : bloque) {
+                        resultados[i] = registrar(ventas.get(i), usuarios);
+                    }
+                });
+            } catch (RuntimeException e) {
+                // Una venta inválida revierte el bloque completo; se reintenta una por una para aislarla
+                entityManager.clear();
+                for (Integer i : bloque) {
+                    VentaRequest venta = ventas.get(i);
+                    try {
+                        resultados[i] = plantilla.execute(status -> registrar(venta, usuarios));
+                    } catch (RuntimeException ex) {
+                        resultados[i] = new VentaLoteResultado(venta.getClaveIdempotencia(), null,
+                                VentaLoteResultado.ERROR, ex.getMessage());
+                    }
+                    entityManager.clear();
+                }
+            }
+            // Evita que el contexto de persistencia crezca con cada bloque
+            entityManager.clear();
+        }
+
+        // Las claves repetidas dentro del mismo lote reciben el resultado de su primera aparición
+        for (int i = 0; i < resultados.length; i++) {
+            if (resultados[i] == null) {
+                String clave = ventas.get(i).getClaveIdempotencia();
+                VentaLoteResultado primera = resultados[primeraPorClave.get(clave)];
+                String estado = VentaLoteResultado.CREADA.equals(primera.getEstado())
+                        ? VentaLoteResultado.DUPLICADA
+                        : primera.getEstado();
+                resultados[i] = new VentaLoteResultado(clave, primera.getVentaId(), estado, primera.getMensaje());
+            }
+        }
+
+        return Arrays.asList(resultados);
+    }
+
+    private VentaLoteResultado registrar(VentaRequest ventaRequest, Map<Long, Usuario> usuarios) {
+        Venta venta = ventaService.crearVenta(usuarios.get(ventaRequest.getUsuarioId()), ventaRequest);
+        return new VentaLoteResultado(ventaRequest.getClaveIdempotencia(), venta.getVentaId(),
+                VentaLoteResultado.CREADA, null);
+    }
+}
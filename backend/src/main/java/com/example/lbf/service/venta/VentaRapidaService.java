@@ -0,0 +1,18 @@
+package com.example.lbf.service.venta;
+
+import com.example.lbf.dto.request.VentaRequest;
+import com.example.lbf.dto.response.VentaLoteResultado;
+import com.example.lbf.dto.response.VentaRapidaMetricas;
+
+public interface VentaRapidaService {
+    /**
+     * Encola la venta para registrarla en segundo plano.
+     *
+     * @return el folio provisional, o null si la cola está llena
+     */
+    String encolarVenta(VentaRequest ventaRequest);
+
+    VentaLoteResultado getResultado(String folio);
+
+    VentaRapidaMetricas getMetricas();
+}
@@ -0,0 +1,205 @@
+package com.example.lbf.service.venta;
+
+import com.example.lbf.dto.request.VentaRequest;
+import com.example.lbf.dto.response.VentaLoteResultado;
+import com.example.lbf.dto.response.VentaRapidaMetricas;
+import com.example.lbf.repository.UsuarioRepository;
+import com.example.lbf.service.catalogo.TablaPreciosService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Modo rápido de ventas para horas pico. Las ventas validadas se guardan en una cola
+ * acotada y se responden de inmediato con un folio provisional; un único hilo escritor
+ * vacía la cola y confirma las ventas en lotes a través de {@link VentaLoteService},
+ * de modo que cada commit agrupa varias ventas, sus líneas y el stock.
+ *
+ * La cola vive en memoria: lo que no se haya confirmado se pierde si el proceso cae.
+ * Por eso el folio es la clave de idempotencia y la terminal puede reenviar la venta.
+ */
+@Service
+@ConditionalOnProperty(prefix = "lbf.ventas.modo-rapido", name = "habilitado", havingValue = "true")
+public class VentaRapidaServiceImpl implements VentaRapidaService {
+
+    // Resultados recientes que se conservan para consultar el estado de un folio
+    private static final int RESULTADOS_RECIENTES = 10_000;
+
+    @Autowired
+    private VentaLoteService ventaLoteService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TablaPreciosService tablaPreciosService;
+
+    @Value("${lbf.ventas.modo-rapido.capacidad:1000}")
+    private int capacidad;
+
+    @Value("${lbf.ventas.modo-rapido.tamano-lote:50}")
+    private int tamanoLote;
+
+    private BlockingQueue<VentaRequest> cola;
+    private Thread escritor;
+    private volatile boolean activo;
+
+    private final Set<String> pendientes = ConcurrentHashMap.newKeySet();
+    private final Map<String, VentaLoteResultado> resultados = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, VentaLoteResultado> eldest) {
+                    return size() > RESULTADOS_RECIENTES;
+                }
+            });
+
+    private final AtomicLong encoladas = new AtomicLong();
+    private final AtomicLong rechazadas = new AtomicLong();
+    private final AtomicLong confirmadas = new AtomicLong();
+    private final AtomicLong errores = new AtomicLong();
+    private final AtomicLong lotes = new AtomicLong();
+    private final AtomicLong latenciaTotalNanos = new AtomicLong();
+    private volatile long latenciaUltimoLoteNanos;
+    private volatile long latenciaMaximaLoteNanos;
+
+    @PostConstruct
+    void iniciar() {
+        cola = new ArrayBlockingQueue<>(capacidad);
+        activo = true;
+        escritor = new Thread(this::escribir, "ventas-modo-rapido");
+        escritor.start();
+    }
+
+    @PreDestroy
+    void detener() throws InterruptedException {
+        // El escritor termina de vaciar la cola antes de salir
+        activo = false;
+        escritor.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    @Override
+    public String encolarVenta(VentaRequest ventaRequest) {
+        validar(ventaRequest);
+        if (ventaRequest.getClaveIdempotencia() == null || ventaRequest.getClaveIdempotencia().isBlank()) {
+            ventaRequest.setClaveIdempotencia("R-" + UUID.randomUUID());
+        }
+        String folio = ventaRequest.getClaveIdempotencia();
+
+        pendientes.add(folio);
+        if (!cola.offer(ventaRequest)) {
+            // Cola llena: se rechaza en lugar de bloquear el hilo de la petición
+            pendientes.remove(folio);
+            rechazadas.incrementAndGet();
+            return null;
+        }
+        encoladas.incrementAndGet();
+        return folio;
+    }
+
+    @Override
+    public VentaLoteResultado getResultado(String folio) {
+        VentaLoteResultado resultado = resultados.get(folio);
+        if (resultado == null && pendientes.contains(folio)) {
+            return new VentaLoteResultado(folio, null, VentaLoteResultado.PENDIENTE, null);
+        }
+        return resultado;
+    }
+
+    @Override
+    public VentaRapidaMetricas getMetricas() {
+        long cantidadLotes = lotes.get();
+        return new VentaRapidaMetricas(
+                capacidad,
+                cola.size(),
+                encoladas.get(),
+                rechazadas.get(),
+                confirmadas.get(),
+                errores.get(),
+                cantidadLotes,
+                TimeUnit.NANOSECONDS.toMillis(latenciaUltimoLoteNanos),
+                cantidadLotes > 0 ? TimeUnit.NANOSECONDS.toMillis(latenciaTotalNanos.get() / cantidadLotes) : 0,
+                TimeUnit.NANOSECONDS.toMillis(latenciaMaximaLoteNanos));
+    }
+
+    // Lo que se puede rechazar sin consultar la base de datos, más la existencia del usuario
+    private void validar(VentaRequest ventaRequest) {
+        // findById se resuelve desde la caché de segundo nivel; existsById siempre consulta la base
+        if (ventaRequest.getUsuarioId() == null || usuarioRepository.findById(ventaRequest.getUsuarioId()).isEmpty()) {
+            throw new IllegalArgumentException("Usuario no encontrado");
+        }
+        // Productos, cantidades y descuentos se validan contra la tabla de precios en memoria
+        tablaPreciosService.cotizar(ventaRequest);
+    }
+
+    private void escribir() {
+        List<VentaRequest> lote = new ArrayList<>(tamanoLote);
+        while (activo || !cola.isEmpty()) {
+            try {
+                VentaRequest primera = cola.poll(200, TimeUnit.MILLISECONDS);
+                if (primera == null) {
+                    continue;
+                }
+                // Todo lo que llegó mientras se confirmaba el lote anterior entra en el siguiente
+                lote.add(primera);
+                cola.drainTo(lote, tamanoLote - 1);
+                confirmar(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void confirmar(List<VentaRequest> lote) {
+        long inicio = System.nanoTime();
+        List<VentaLoteResultado> confirmados;
+        try {
+            confirmados = ventaLoteService.crearVentasLote(lote);
+        } catch (RuntimeException e) {
+            // Falla general (por ejemplo, sin conexión): el lote completo queda en error para que se reenvíe
+            confirmados = new ArrayList<>(lote.size());
+            for (VentaRequest venta : lote) {
+                confirmados.add(new VentaLoteResultado(venta.getClaveIdempotencia(), null,
+                        VentaLoteResultado.ERROR, e.getMessage()));
+            }
+        }
+
+        for (VentaLoteResultado resultado : confirmados) {
+            if (VentaLoteResultado.ERROR.equals(resultado.getEstado())) {
+                errores.incrementAndGet();
+            } else {
+                confirmadas.incrementAndGet();
+            }
+            resultados.put(resultado.getClaveIdempotencia(), resultado);
+            pendientes.remove(resultado.getClaveIdempotencia());
+        }
+
+        long latencia = System.nanoTime() - inicio;
+        lotes.incrementAndGet();
+        latenciaTotalNanos.addAndGet(latencia);
+        latenciaUltimoLoteNanos = latencia;
+        if (latencia > latenciaMaximaLoteNanos) {
+            latenciaMaximaLoteNanos = latencia;
+        }
+    }
+}
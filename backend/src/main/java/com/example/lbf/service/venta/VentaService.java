@@ -3,6 +3,7 @@ package com.example.lbf.service.venta;
 import com.example.lbf.entities.Usuario;
 import com.example.lbf.entities.Venta;
 import com.example.lbf.dto.request.VentaRequest;
+import com.example.lbf.dto.response.CotizacionResponse;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -10,10 +11,13 @@ import java.math.BigDecimal;
 
 public interface VentaService {
     Venta crearVenta(Usuario usuario,VentaRequest ventaRequest);
+    CotizacionResponse cotizarVenta(VentaRequest ventaRequest);
     Venta getVentaById(Long ventaId);
     List<Venta> getVentasByUsuario(Long usuarioId);
+    List<Venta> getVentasByUsuario(Long usuarioId, Long cursorVentaId, int limite);
+    List<Venta> getVentasByCliente(Long clienteId, Long cursorVentaId, int limite);
     List<Venta> getVentasByFecha(LocalDate fecha);
-    List<Venta> getVentasByRangoDeFechas(LocalDate fechaInicio, LocalDate fechaFin);
+    List<Venta> getVentasByRangoDeFechas(LocalDate fechaInicio, LocalDate fechaFin, Long cursorVentaId, int limite);
     BigDecimal calcularTotalVentas(LocalDate fechaInicio, LocalDate fechaFin);
     void anularVenta(Long ventaId);
     List<Venta> buscarVentas(String criterio);
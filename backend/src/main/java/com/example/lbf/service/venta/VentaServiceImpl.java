@@ -3,43 +3,91 @@ package com.example.lbf.service.venta;
 import com.example.lbf.entities.Venta;
 import com.example.lbf.entities.Usuario;
 import com.example.lbf.dto.request.VentaRequest;
+import com.example.lbf.dto.response.CotizacionResponse;
+import com.example.lbf.dto.response.CotizacionResponse.LineaCotizacion;
+import com.example.lbf.entities.MovimientoPendiente;
 import com.example.lbf.entities.ProductoVendido;
+import com.example.lbf.entities.VentaIdempotencia;
 import com.example.lbf.repository.ClienteRepository;
+import com.example.lbf.repository.ProductoRepository;
+import com.example.lbf.repository.VentaIdempotenciaRepository;
 import com.example.lbf.repository.VentaRepository;
+import com.example.lbf.repository.VentaResumenDiarioRepository;
+import com.example.lbf.service.catalogo.TablaPreciosService;
+import com.example.lbf.service.inventario.LibroInventarioService;
 import com.example.lbf.service.producto.ProductoService;
+import com.example.lbf.service.reportes.ResumenVentasService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 @Service
 public class VentaServiceImpl implements VentaService {
 
+    private static final ZoneOffset ZONA_CDMX = ZoneOffset.of("-06:00");
+
+    // Formato de la hora que se muestra en el ticket
+    private static final DateTimeFormatter FORMATO_HORA = DateTimeFormatter.ofPattern("hh:mm a");
+
     @Autowired
     private VentaRepository ventaRepository;
 
+    @Autowired
+    private VentaResumenDiarioRepository ventaResumenDiarioRepository;
+
     @Autowired
     private ProductoService productoService;
 
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private TablaPreciosService tablaPreciosService;
+
+    @Autowired
+    private LibroInventarioService libroInventarioService;
+
+    @Autowired
+    private ResumenVentasService resumenVentasService;
+
     @Autowired
     private ClienteRepository clienteRepository;
 
+    @Autowired
+    private VentaIdempotenciaRepository ventaIdempotenciaRepository;
+
     @Override
     @Transactional
     public Venta crearVenta(Usuario usuario, VentaRequest ventaRequest) {
 
+        // Si la terminal reintenta una venta ya registrada, se devuelve la original
+        String clave = ventaRequest.getClaveIdempotencia();
+        if (clave != null) {
+            Optional<VentaIdempotencia> registro = ventaIdempotenciaRepository.findById(clave);
+            if (registro.isPresent()) {
+                return ventaRepository.findById(registro.get().getVentaId()).orElse(null);
+            }
+        }
+
         Venta venta = new Venta();
         venta.setUsuario(usuario);
-        java.time.ZoneOffset zonaCDMX = java.time.ZoneOffset.of("-06:00");
-        java.time.LocalDate fechaCDMX = LocalDate.now(zonaCDMX);
-        venta.setFecha(fechaCDMX);
-        java.time.format.DateTimeFormatter formatter = java.time.format.DateTimeFormatter.ofPattern("hh:mm a");
-        String horaFormateada = java.time.ZonedDateTime.now(zonaCDMX).format(formatter);
-        venta.setHora(horaFormateada);
+        // Fecha, hora y marca de tiempo salen del mismo instante
+        LocalDateTime ahoraCDMX = LocalDateTime.now(ZONA_CDMX);
+        venta.setFecha(ahoraCDMX.toLocalDate());
+        venta.setFechaHora(ahoraCDMX);
+        venta.setHora(ahoraCDMX.format(FORMATO_HORA));
         venta.setConIva(ventaRequest.getConIva());
         venta.setSucursal(ventaRequest.getSucursal());
 
@@ -50,30 +98,64 @@ public class VentaServiceImpl implements VentaService {
                 });
         }
 
-        // Calcular total de la venta
-        BigDecimal total = BigDecimal.ZERO;
-        for (ProductoVendido pv : ventaRequest.getProductos()) {
-            Float subtotal = pv.getCantidad() * pv.getProducto().getPrecio() * (1 - pv.getDescuento() / 100);
-            pv.setSubtotal(subtotal);
-            total = total.add(BigDecimal.valueOf(subtotal));
+        // Precios, descuentos e IVA salen de la tabla de precios en memoria, no de lo que envía la terminal
+        CotizacionResponse cotizacion = tablaPreciosService.cotizar(ventaRequest);
 
-            // Asociar a la venta
+        List<ProductoVendido> productosVendidos = new ArrayList<>();
+        Map<Long, Float> cantidadesPorProducto = new TreeMap<>();
+        for (LineaCotizacion linea : cotizacion.getLineas()) {
+            ProductoVendido pv = new ProductoVendido();
             pv.setVenta(venta);
+            pv.setProducto(productoRepository.getReferenceById(linea.getProductoId()));
+            pv.setCantidad(linea.getCantidad());
+            pv.setPrecioUnitario(linea.getPrecioUnitario());
+            pv.setDescuento(linea.getDescuento());
+            pv.setSubtotal(linea.getSubtotal());
+            productosVendidos.add(pv);
+
+            // Acumular la cantidad por producto, una línea repetida descuenta una sola vez
+            cantidadesPorProducto.merge(linea.getProductoId(), -linea.getCantidad(), Float::sum);
+        }
 
-            // Actualizar stock
-            productoService.actualizarStock(pv.getProducto().getProductoId(), -pv.getCantidad());
+        // Actualizar el stock de toda la canasta en un solo lote
+        Map<Long, Boolean> aplicados = productoService.actualizarStockLote(cantidadesPorProducto);
+
+        // El UPDATE condicional no descuenta si el stock no alcanza; la venta completa se revierte
+        List<Long> sinStock = new ArrayList<>();
+        for (Long productoId : cantidadesPorProducto.keySet()) {
+            if (!Boolean.TRUE.equals(aplicados.get(productoId))) {
+                sinStock.add(productoId);
+            }
+        }
+        if (!sinStock.isEmpty()) {
+            throw new IllegalArgumentException("Stock insuficiente para los productos " + sinStock);
         }
 
-        // Si conIva es true, agregar el 16% al total
-        if (ventaRequest.getConIva() != null && ventaRequest.getConIva()) {
-            BigDecimal iva = total.multiply(BigDecimal.valueOf(0.16));
-            total = total.add(iva);
+        venta.setTotal(cotizacion.getTotal());
+        venta.setProductosVendidos(productosVendidos);
+
+        Venta ventaGuardada = ventaRepository.save(venta);
+        resumenVentasService.registrarVenta(ventaGuardada);
+
+        // Las salidas del kardex se escriben en lote después del commit
+        libroInventarioService.registrar(MovimientoPendiente.deCantidades(cantidadesPorProducto, aplicados),
+                "Venta " + ventaGuardada.getVentaId(), usuario != null ? usuario.getUsername() : null);
+
+        // La clave primaria de la tabla garantiza que dos reintentos concurrentes no generen dos ventas
+        if (clave != null) {
+            VentaIdempotencia registro = new VentaIdempotencia();
+            registro.setClave(clave);
+            registro.setVentaId(ventaGuardada.getVentaId());
+            registro.setFechaRegistro(LocalDateTime.now());
+            ventaIdempotenciaRepository.save(registro);
         }
 
-        venta.setTotal(total);
-        venta.setProductosVendidos(ventaRequest.getProductos());
+        return ventaGuardada;
+    }
 
-        return ventaRepository.save(venta);
+    @Override
+    public CotizacionResponse cotizarVenta(VentaRequest ventaRequest) {
+        return tablaPreciosService.cotizar(ventaRequest);
     }
 
     @Override
@@ -98,14 +180,41 @@ public class VentaServiceImpl implements VentaService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<Venta> getVentasByRangoDeFechas(LocalDate fechaInicio, LocalDate fechaFin) {
-        return ventaRepository.findByFechaBetween(fechaInicio, fechaFin);
+    public List<Venta> getVentasByRangoDeFechas(LocalDate fechaInicio, LocalDate fechaFin, Long cursorVentaId,
+            int limite) {
+        // Primero los ids de la página, luego el detalle con un solo join; así el límite aplica a ventas y no a filas
+        List<Long> ids = cursorVentaId == null
+                ? ventaRepository.findIdsByRango(fechaInicio, fechaFin, PageRequest.of(0, limite))
+                : ventaRepository.findIdsByRangoDespuesDeCursor(fechaInicio, fechaFin, cursorVentaId,
+                        PageRequest.of(0, limite));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return ventaRepository.findConDetalleByVentaIdIn(ids);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Venta> getVentasByUsuario(Long usuarioId, Long cursorVentaId, int limite) {
+        List<Long> ids = cursorVentaId == null
+                ? ventaRepository.findIdsByUsuario(usuarioId, PageRequest.of(0, limite))
+                : ventaRepository.findIdsByUsuarioDespuesDeCursor(usuarioId, cursorVentaId, PageRequest.of(0, limite));
+        return ids.isEmpty() ? List.of() : ventaRepository.findConDetalleByVentaIdIn(ids);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Venta> getVentasByCliente(Long clienteId, Long cursorVentaId, int limite) {
+        List<Long> ids = cursorVentaId == null
+                ? ventaRepository.findIdsByCliente(clienteId, PageRequest.of(0, limite))
+                : ventaRepository.findIdsByClienteDespuesDeCursor(clienteId, cursorVentaId, PageRequest.of(0, limite));
+        return ids.isEmpty() ? List.of() : ventaRepository.findConDetalleByVentaIdIn(ids);
     }
 
     @Override
     @Transactional(readOnly = true)
     public BigDecimal calcularTotalVentas(LocalDate fechaInicio, LocalDate fechaFin) {
-        BigDecimal total = ventaRepository.calcularTotalVentasPorRango(fechaInicio, fechaFin);
+        BigDecimal total = ventaResumenDiarioRepository.sumarTotal(fechaInicio, fechaFin);
         return total != null ? total : BigDecimal.ZERO;
     }    @Override
     @Transactional
@@ -113,14 +222,23 @@ public class VentaServiceImpl implements VentaService {
         Optional<Venta> ventaOpt = ventaRepository.findById(ventaId);
         if (ventaOpt.isPresent()) {
             Venta venta = ventaOpt.get();
+            // Una venta ya anulada no vuelve a devolver stock ni a descontarse del resumen
+            if (Boolean.TRUE.equals(venta.getAnulada())) {
+                return;
+            }
             
             // Marcar la venta como anulada
             venta.setAnulada(true);
+            resumenVentasService.revertirVenta(venta);
             
             // Devolver stock de productos
+            Map<Long, Float> cantidadesPorProducto = new TreeMap<>();
             for (ProductoVendido pv : venta.getProductosVendidos()) {
-                productoService.actualizarStock(pv.getProducto().getProductoId(), pv.getCantidad());
+                cantidadesPorProducto.merge(pv.getProducto().getProductoId(), pv.getCantidad(), Float::sum);
             }
+            Map<Long, Boolean> aplicados = productoService.actualizarStockLote(cantidadesPorProducto);
+            libroInventarioService.registrar(MovimientoPendiente.deCantidades(cantidadesPorProducto, aplicados),
+                    "Anulación de venta " + ventaId, null);
             
             // Guardar los cambios
             ventaRepository.save(venta);
@@ -0,0 +1,81 @@
+package com.example.lbf.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Aritmética de dinero en enteros: importes en centavos, cantidades en milésimas y
+ * porcentajes en puntos base (1% = 100). Los cálculos de la caja y las sumas de los
+ * reportes trabajan con long sin crear objetos; BigDecimal solo aparece al guardar o
+ * al responder. Cada operación redondea una sola vez, a la mitad alejándose de cero, y
+ * lanza ArithmeticException si el resultado no cabe en lugar de desbordarse.
+ */
+public final class Dinero {
+
+    public static final int CENTAVOS_POR_UNIDAD = 100;
+    public static final int MILESIMAS_POR_UNIDAD = 1000;
+    public static final int PUNTOS_BASE_CIEN_POR_CIENTO = 10_000;
+
+    private Dinero() {
+    }
+
+    /** Importe en centavos desde un precio en float o double. */
+    public static long centavos(double importe) {
+        return redondear(importe * CENTAVOS_POR_UNIDAD);
+    }
+
+    /** Importe en centavos desde un decimal; lo que pase de dos decimales se redondea. */
+    public static long centavos(BigDecimal importe) {
+        return importe.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /** Centavos como decimal de dos posiciones, para persistencia y JSON. */
+    public static BigDecimal decimal(long centavos) {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    /** Cantidad en milésimas; alcanza para productos que se venden a granel por gramo. */
+    public static long milesimas(double cantidad) {
+        return redondear(cantidad * MILESIMAS_POR_UNIDAD);
+    }
+
+    /** Porcentaje en puntos base (12.5% → 1250). */
+    public static int puntosBase(double porcentaje) {
+        return Math.toIntExact(redondear(porcentaje * 100));
+    }
+
+    /**
+     * Importe de una línea: precio unitario × cantidad con el descuento aplicado,
+     * redondeado al centavo al final y no en cada paso.
+     */
+    public static long importeLinea(long precioCentavos, int descuentoPuntosBase, long cantidadMilesimas) {
+        long bruto = Math.multiplyExact(
+                Math.multiplyExact(precioCentavos, PUNTOS_BASE_CIEN_POR_CIENTO - descuentoPuntosBase),
+                cantidadMilesimas);
+        return dividir(bruto, (long) PUNTOS_BASE_CIEN_POR_CIENTO * MILESIMAS_POR_UNIDAD);
+    }
+
+    /** Porcentaje de un importe (IVA, comisiones), redondeado al centavo. */
+    public static long porcentaje(long centavos, int puntosBase) {
+        return dividir(Math.multiplyExact(centavos, puntosBase), PUNTOS_BASE_CIEN_POR_CIENTO);
+    }
+
+    // División entera redondeando a la mitad alejándose de cero; el divisor es positivo
+    static long dividir(long dividendo, long divisor) {
+        long cociente = dividendo / divisor;
+        long resto = Math.abs(dividendo % divisor);
+        if (resto >= divisor - resto) {
+            cociente += Long.signum(dividendo);
+        }
+        return cociente;
+    }
+
+    // Math.round redondea -0.5 hacia arriba y satura en vez de fallar
+    private static long redondear(double valor) {
+        if (Double.isNaN(valor) || Math.abs(valor) >= 0x1p63) {
+            throw new ArithmeticException("Importe fuera de rango: " + valor);
+        }
+        long entero = Math.round(Math.abs(valor));
+        return valor < 0 ? -entero : entero;
+    }
+}
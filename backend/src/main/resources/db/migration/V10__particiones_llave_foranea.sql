@@ -0,0 +1,124 @@
+-- Corrige las funciones de particiones de V4 para la llave foránea de producto_vendido a
+-- venta. V4 no se modifica porque Flyway valida su checksum en las bases que ya la aplicaron.
+--
+-- Crear el mes de venta movía primero las ventas de la partición por defecto, y sus
+-- renglones en producto_vendido_default seguían apuntándoles: la llave foránea rechazaba
+-- el DELETE en cuanto las dos tablas tenían filas de ese mes. Separar un mes dejaba la
+-- llave heredada en producto_vendido_AAAA_MM, que impedía separar venta_AAAA_MM.
+
+-- Crea la tabla de un mes y le mueve las filas de ese mes que hayan caído en la partición
+-- por defecto, sin adjuntarla todavía. Devuelve su nombre, o NULL si el mes ya existe.
+CREATE OR REPLACE FUNCTION preparar_particion_mensual(tabla text, columna text, mes date)
+RETURNS text AS $$
+DECLARE
+    inicio date := date_trunc('month', mes)::date;
+    fin date := (date_trunc('month', mes) + interval '1 month')::date;
+    nombre text := tabla || '_' || to_char(date_trunc('month', mes), 'YYYY_MM');
+    defecto text := tabla || '_default';
+BEGIN
+    IF to_regclass(nombre) IS NOT NULL THEN
+        RETURN NULL;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS)', nombre, tabla);
+    IF to_regclass(defecto) IS NOT NULL THEN
+        EXECUTE format('WITH movidas AS (DELETE FROM %I WHERE %I >= %L AND %I < %L RETURNING *) '
+                       'INSERT INTO %I SELECT * FROM movidas',
+                       defecto, columna, inicio, columna, fin, nombre);
+    END IF;
+    RETURN nombre;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Adjunta la tabla de un mes preparada con preparar_particion_mensual. Al adjuntarla,
+-- Postgres le copia las llaves de la tabla padre y valida sus filas.
+CREATE OR REPLACE FUNCTION adjuntar_particion_mensual(tabla text, nombre text, mes date)
+RETURNS void AS $$
+BEGIN
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   tabla, nombre, date_trunc('month', mes)::date,
+                   (date_trunc('month', mes) + interval '1 month')::date);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Partición de un mes para una tabla que nadie referencia (movimiento_inventario, o una
+-- tabla recién particionada con la partición por defecto vacía)
+CREATE OR REPLACE FUNCTION crear_particion_mensual(tabla text, columna text, mes date)
+RETURNS boolean AS $$
+DECLARE
+    nombre text := preparar_particion_mensual(tabla, columna, mes);
+BEGIN
+    IF nombre IS NULL THEN
+        RETURN false;
+    END IF;
+    PERFORM adjuntar_particion_mensual(tabla, nombre, mes);
+    RETURN true;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Particiones de un mes para venta y producto_vendido. Los renglones salen primero de la
+-- partición por defecto, así ninguna fila que se queda en producto_vendido apunta a las
+-- ventas que se mueven; venta se adjunta antes para que los renglones encuentren su venta
+-- al validarse la llave. Devuelve cuántas particiones se crearon.
+CREATE OR REPLACE FUNCTION crear_particiones_venta_mes(mes date)
+RETURNS integer AS $$
+DECLARE
+    renglones text := preparar_particion_mensual('producto_vendido', 'fecha', mes);
+    ventas text := preparar_particion_mensual('venta', 'fecha', mes);
+    creadas integer := 0;
+BEGIN
+    IF ventas IS NOT NULL THEN
+        PERFORM adjuntar_particion_mensual('venta', ventas, mes);
+        creadas := creadas + 1;
+    END IF;
+    IF renglones IS NOT NULL THEN
+        PERFORM adjuntar_particion_mensual('producto_vendido', renglones, mes);
+        creadas := creadas + 1;
+    END IF;
+    RETURN creadas;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION crear_particiones_futuras(meses_adelante integer)
+RETURNS integer AS $$
+DECLARE
+    creadas integer := 0;
+    mes date;
+BEGIN
+    FOR i IN 0..meses_adelante LOOP
+        mes := (date_trunc('month', current_date) + make_interval(months => i))::date;
+        creadas := creadas + crear_particiones_venta_mes(mes);
+        IF crear_particion_mensual('movimiento_inventario', 'fecha', mes) THEN
+            creadas := creadas + 1;
+        END IF;
+    END LOOP;
+    RETURN creadas;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Separa un mes de las tres tablas sin mover datos. Las tablas separadas
+-- (venta_2023_01, ...) quedan como tablas normales para archivarlas o eliminarlas.
+-- producto_vendido va primero y pierde la llave heredada hacia venta; si la conservara,
+-- Postgres no dejaría separar el mes de venta al que apuntan sus filas.
+CREATE OR REPLACE FUNCTION separar_particiones_mes(mes date)
+RETURNS void AS $$
+DECLARE
+    sufijo text := to_char(date_trunc('month', mes), 'YYYY_MM');
+    tabla text;
+    llave text;
+BEGIN
+    FOREACH tabla IN ARRAY ARRAY['producto_vendido', 'venta', 'movimiento_inventario'] LOOP
+        IF to_regclass(tabla || '_' || sufijo) IS NOT NULL
+                AND EXISTS (SELECT 1 FROM pg_inherits WHERE inhrelid = to_regclass(tabla || '_' || sufijo)) THEN
+            EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', tabla, tabla || '_' || sufijo);
+        END IF;
+        IF to_regclass(tabla || '_' || sufijo) IS NOT NULL THEN
+            -- Solo las llaves de primer nivel; sus copias por partición de venta caen con ellas
+            FOR llave IN SELECT conname FROM pg_constraint
+                    WHERE conrelid = to_regclass(tabla || '_' || sufijo) AND contype = 'f' AND conparentid = 0 LOOP
+                EXECUTE format('ALTER TABLE %I DROP CONSTRAINT IF EXISTS %I', tabla || '_' || sufijo, llave);
+            END LOOP;
+        END IF;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,6 @@
+-- Precio unitario y subtotal de cada renglón como NUMERIC: la caja ya calcula los importes
+-- al centavo y guardarlos en REAL volvía a redondearlos en binario. Los valores existentes
+-- se redondean al centavo. En la tabla particionada el cambio baja a todas sus particiones.
+ALTER TABLE producto_vendido
+    ALTER COLUMN precio_unitario TYPE NUMERIC(12, 2) USING round(precio_unitario::numeric, 2),
+    ALTER COLUMN subtotal TYPE NUMERIC(12, 2) USING round(subtotal::numeric, 2);
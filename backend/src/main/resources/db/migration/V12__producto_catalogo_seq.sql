@@ -0,0 +1,13 @@
+-- Posición del último cambio de un producto sin contar el stock (catalogo_seq). Cada venta
+-- mueve cambio_seq y el catálogo publicado como archivo se regeneraba en cada revisión;
+-- ahora solo se regenera cuando cambia catalogo_seq. Las filas existentes parten de su
+-- cambio_seq. En una base nueva Hibernate crea la columna y el índice.
+
+DO $$
+BEGIN
+    IF to_regclass('producto') IS NOT NULL THEN
+        ALTER TABLE producto ADD COLUMN IF NOT EXISTS catalogo_seq BIGINT;
+        UPDATE producto SET catalogo_seq = cambio_seq WHERE catalogo_seq IS NULL;
+        CREATE INDEX IF NOT EXISTS idx_producto_catalogo_seq ON producto (catalogo_seq);
+    END IF;
+END $$;
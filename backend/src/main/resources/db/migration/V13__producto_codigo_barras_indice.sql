@@ -0,0 +1,22 @@
+-- V5 creaba un índice NO único llamado uk_producto_codigo_barras cuando ya había códigos
+-- repetidos, y el nombre hacía creer que la base los impedía. Si los repetidos ya se
+-- corrigieron, el índice se vuelve a crear como único. Si siguen ahí, se renombra a
+-- idx_producto_codigo_barras y se avisa: la aplicación rechaza los códigos nuevos repetidos,
+-- y Hibernate crea uk_producto_codigo_barras, ya único, al arrancar cuando no quede ninguno.
+
+DO $$
+BEGIN
+    IF to_regclass('uk_producto_codigo_barras') IS NULL
+            OR (SELECT indisunique FROM pg_index WHERE indexrelid = to_regclass('uk_producto_codigo_barras')) THEN
+        RETURN;
+    END IF;
+
+    IF EXISTS (SELECT codigo_barras FROM producto WHERE codigo_barras IS NOT NULL
+               GROUP BY codigo_barras HAVING count(*) > 1) THEN
+        RAISE WARNING 'Hay códigos de barras repetidos en producto; el índice no único queda como idx_producto_codigo_barras';
+        ALTER INDEX uk_producto_codigo_barras RENAME TO idx_producto_codigo_barras;
+    ELSE
+        DROP INDEX uk_producto_codigo_barras;
+        CREATE UNIQUE INDEX uk_producto_codigo_barras ON producto (codigo_barras);
+    END IF;
+END $$;
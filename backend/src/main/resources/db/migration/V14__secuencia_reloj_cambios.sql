@@ -0,0 +1,34 @@
+-- Las posiciones de sincronización (cambio_seq, catalogo_seq) salen de una secuencia y no
+-- del reloj de cada instancia. La secuencia arranca arriba de todas las posiciones ya
+-- guardadas y de la hora actual en milisegundos: las terminales conservan un "hasta" que el
+-- reloj anterior calculaba con la hora y las posiciones nuevas deben quedar por encima.
+--
+-- registro_eliminado guarda además la fecha de eliminación: la retención se medía con la
+-- posición, que ya no es una hora. Las filas existentes la toman de su cambio_seq.
+
+CREATE SEQUENCE IF NOT EXISTS cambio_catalogo_seq;
+
+DO $$
+DECLARE
+    maximo BIGINT := (extract(epoch FROM clock_timestamp()) * 1000)::BIGINT;
+BEGIN
+    IF to_regclass('producto') IS NOT NULL THEN
+        maximo := GREATEST(maximo, (SELECT MAX(GREATEST(cambio_seq, catalogo_seq)) FROM producto));
+    END IF;
+    IF to_regclass('categoria') IS NOT NULL THEN
+        maximo := GREATEST(maximo, (SELECT MAX(cambio_seq) FROM categoria));
+    END IF;
+    IF to_regclass('cliente') IS NOT NULL THEN
+        maximo := GREATEST(maximo, (SELECT MAX(cambio_seq) FROM cliente));
+    END IF;
+    IF to_regclass('registro_eliminado') IS NOT NULL THEN
+        maximo := GREATEST(maximo, (SELECT MAX(cambio_seq) FROM registro_eliminado));
+
+        ALTER TABLE registro_eliminado ADD COLUMN IF NOT EXISTS fecha TIMESTAMP;
+        UPDATE registro_eliminado SET fecha = to_timestamp(cambio_seq / 1000.0)::TIMESTAMP
+            WHERE fecha IS NULL AND cambio_seq > 0;
+        UPDATE registro_eliminado SET fecha = now()::TIMESTAMP WHERE fecha IS NULL;
+    END IF;
+
+    PERFORM setval('cambio_catalogo_seq', maximo);
+END $$;
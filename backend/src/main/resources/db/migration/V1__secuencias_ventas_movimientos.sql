@@ -0,0 +1,37 @@
+-- Reemplaza las columnas IDENTITY de venta, producto_vendido y movimiento_inventario
+-- por secuencias con incremento 50 (optimizador pooled de Hibernate), para que los
+-- INSERT puedan agruparse en lotes JDBC. Los ids existentes se conservan y cada
+-- secuencia continúa después del id máximo de su tabla.
+-- Las tablas pueden no existir todavía en una base nueva; en ese caso Hibernate
+-- las crea después (ddl-auto=update) y las secuencias ya quedan listas.
+
+CREATE SEQUENCE IF NOT EXISTS venta_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS producto_vendido_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS movimiento_inventario_seq START WITH 1 INCREMENT BY 50;
+
+DO $$
+DECLARE
+    maximo BIGINT;
+BEGIN
+    IF to_regclass('venta') IS NOT NULL THEN
+        ALTER TABLE venta ALTER COLUMN venta_id DROP IDENTITY IF EXISTS;
+        ALTER TABLE venta ALTER COLUMN venta_id DROP DEFAULT;
+        SELECT COALESCE(MAX(venta_id), 0) INTO maximo FROM venta;
+        -- Con pooled, el valor de la secuencia es el extremo superior del bloque asignado
+        PERFORM setval('venta_seq', maximo + 50, false);
+    END IF;
+
+    IF to_regclass('producto_vendido') IS NOT NULL THEN
+        ALTER TABLE producto_vendido ALTER COLUMN producto_vendido_id DROP IDENTITY IF EXISTS;
+        ALTER TABLE producto_vendido ALTER COLUMN producto_vendido_id DROP DEFAULT;
+        SELECT COALESCE(MAX(producto_vendido_id), 0) INTO maximo FROM producto_vendido;
+        PERFORM setval('producto_vendido_seq', maximo + 50, false);
+    END IF;
+
+    IF to_regclass('movimiento_inventario') IS NOT NULL THEN
+        ALTER TABLE movimiento_inventario ALTER COLUMN movimiento_id DROP IDENTITY IF EXISTS;
+        ALTER TABLE movimiento_inventario ALTER COLUMN movimiento_id DROP DEFAULT;
+        SELECT COALESCE(MAX(movimiento_id), 0) INTO maximo FROM movimiento_inventario;
+        PERFORM setval('movimiento_inventario_seq', maximo + 50, false);
+    END IF;
+END $$;
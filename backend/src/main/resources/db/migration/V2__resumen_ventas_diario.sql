@@ -0,0 +1,25 @@
+-- Resumen de ventas por día, sucursal y usuario que alimenta los reportes.
+-- La tabla se crea aquí (y no solo por Hibernate) para poder llenarla con el
+-- histórico en el mismo despliegue; las ventas anuladas no se incluyen.
+
+CREATE TABLE IF NOT EXISTS venta_resumen_diario (
+    resumen_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    fecha DATE NOT NULL,
+    sucursal VARCHAR(255) NOT NULL,
+    usuario_id BIGINT NOT NULL,
+    total NUMERIC(14, 2) NOT NULL,
+    tickets BIGINT NOT NULL,
+    CONSTRAINT uk_resumen_fecha_sucursal_usuario UNIQUE (fecha, sucursal, usuario_id)
+);
+
+DO $$
+BEGIN
+    IF to_regclass('venta') IS NOT NULL THEN
+        INSERT INTO venta_resumen_diario (fecha, sucursal, usuario_id, total, tickets)
+        SELECT fecha, COALESCE(sucursal, ''), COALESCE(usuario_id, 0), COALESCE(SUM(total), 0), COUNT(*)
+        FROM venta
+        WHERE fecha IS NOT NULL AND COALESCE(anulada, false) = false
+        GROUP BY fecha, COALESCE(sucursal, ''), COALESCE(usuario_id, 0)
+        ON CONFLICT ON CONSTRAINT uk_resumen_fecha_sucursal_usuario DO NOTHING;
+    END IF;
+END $$;
@@ -0,0 +1,20 @@
+-- Marca de tiempo real de cada venta para los reportes por hora.
+-- Las ventas existentes se completan a partir de fecha + hora ("03:15 PM" o "03:15 p. m.");
+-- si la hora no se puede interpretar se usa la medianoche de la fecha.
+
+DO $$
+BEGIN
+    IF to_regclass('venta') IS NOT NULL THEN
+        ALTER TABLE venta ADD COLUMN IF NOT EXISTS fecha_hora TIMESTAMP;
+
+        UPDATE venta
+        SET fecha_hora = CASE
+            WHEN upper(regexp_replace(hora, '[.\s]', '', 'g')) ~ '^[0-9]{1,2}:[0-9]{2}(AM|PM)$'
+                THEN fecha + to_timestamp(upper(regexp_replace(hora, '[.\s]', '', 'g')), 'HH12:MIAM')::time
+            ELSE fecha::timestamp
+        END
+        WHERE fecha_hora IS NULL AND fecha IS NOT NULL;
+
+        CREATE INDEX IF NOT EXISTS idx_venta_fecha_hora ON venta (fecha_hora);
+    END IF;
+END $$;
@@ -0,0 +1,196 @@
+-- Particiona por mes venta, producto_vendido y movimiento_inventario.
+-- Las consultas por rango de fechas solo recorren los meses que piden y un mes viejo
+-- se puede separar sin copiar datos (separar_particiones_mes).
+--
+-- Postgres exige que la llave primaria incluya la columna de partición, por eso las
+-- llaves pasan a ser (id, fecha). producto_vendido recibe la fecha de su venta para
+-- particionarse igual y apuntar a venta con la llave foránea (venta_id, fecha).
+--
+-- En una base existente cada tabla se copia una sola vez a la nueva tabla particionada;
+-- en una base nueva se crean aquí, ya particionadas, antes de que Hibernate las vea.
+
+-- Crea la partición de un mes si no existe. Las filas de ese mes que hayan caído en la
+-- partición por defecto se mueven a la nueva antes de adjuntarla.
+CREATE OR REPLACE FUNCTION crear_particion_mensual(tabla text, columna text, mes date)
+RETURNS boolean AS $$
+DECLARE
+    inicio date := date_trunc('month', mes)::date;
+    fin date := (date_trunc('month', mes) + interval '1 month')::date;
+    nombre text := tabla || '_' || to_char(date_trunc('month', mes), 'YYYY_MM');
+    defecto text := tabla || '_default';
+BEGIN
+    IF to_regclass(nombre) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS)', nombre, tabla);
+    IF to_regclass(defecto) IS NOT NULL THEN
+        EXECUTE format('WITH movidas AS (DELETE FROM %I WHERE %I >= %L AND %I < %L RETURNING *) '
+                       'INSERT INTO %I SELECT * FROM movidas',
+                       defecto, columna, inicio, columna, fin, nombre);
+    END IF;
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   tabla, nombre, inicio, fin);
+    RETURN true;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Convierte una tabla existente en una tabla particionada por mes con los mismos datos
+CREATE OR REPLACE FUNCTION particionar_por_mes(tabla text, columna text)
+RETURNS void AS $$
+DECLARE
+    anterior text := tabla || '_sin_particion';
+    mes date;
+BEGIN
+    IF to_regclass(tabla) IS NULL
+            OR EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(tabla)) THEN
+        RETURN;
+    END IF;
+
+    -- La columna de partición forma parte de la llave y no admite nulos
+    EXECUTE format('UPDATE %I SET %I = DATE ''1970-01-01'' WHERE %I IS NULL', tabla, columna, columna);
+
+    EXECUTE format('ALTER TABLE %I RENAME TO %I', tabla, anterior);
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS) PARTITION BY RANGE (%I)',
+                   tabla, anterior, columna);
+    EXECUTE format('CREATE TABLE %I PARTITION OF %I DEFAULT', tabla || '_default', tabla);
+
+    FOR mes IN EXECUTE format('SELECT DISTINCT date_trunc(''month'', %I)::date FROM %I', columna, anterior) LOOP
+        PERFORM crear_particion_mensual(tabla, columna, mes);
+    END LOOP;
+
+    EXECUTE format('INSERT INTO %I SELECT * FROM %I', tabla, anterior);
+    EXECUTE format('DROP TABLE %I CASCADE', anterior);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Crea las particiones del mes actual y de los siguientes; la aplicación la llama al
+-- arrancar y una vez al día. Devuelve cuántas particiones se crearon.
+CREATE OR REPLACE FUNCTION crear_particiones_futuras(meses_adelante integer)
+RETURNS integer AS $$
+DECLARE
+    creadas integer := 0;
+    mes date;
+BEGIN
+    FOR i IN 0..meses_adelante LOOP
+        mes := (date_trunc('month', current_date) + make_interval(months => i))::date;
+        -- venta primero: producto_vendido apunta a ella
+        IF crear_particion_mensual('venta', 'fecha', mes) THEN
+            creadas := creadas + 1;
+        END IF;
+        IF crear_particion_mensual('producto_vendido', 'fecha', mes) THEN
+            creadas := creadas + 1;
+        END IF;
+        IF crear_particion_mensual('movimiento_inventario', 'fecha', mes) THEN
+            creadas := creadas + 1;
+        END IF;
+    END LOOP;
+    RETURN creadas;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Separa un mes de las tres tablas sin mover datos. Las tablas separadas
+-- (venta_2023_01, ...) quedan como tablas normales para archivarlas o eliminarlas.
+-- producto_vendido va primero porque sus filas apuntan a las ventas del mismo mes.
+CREATE OR REPLACE FUNCTION separar_particiones_mes(mes date)
+RETURNS void AS $$
+DECLARE
+    sufijo text := to_char(date_trunc('month', mes), 'YYYY_MM');
+    tabla text;
+BEGIN
+    FOREACH tabla IN ARRAY ARRAY['producto_vendido', 'venta', 'movimiento_inventario'] LOOP
+        IF to_regclass(tabla || '_' || sufijo) IS NOT NULL THEN
+            EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', tabla, tabla || '_' || sufijo);
+        END IF;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+BEGIN
+    -- Base existente: producto_vendido toma la fecha de su venta
+    IF to_regclass('producto_vendido') IS NOT NULL
+            AND NOT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('producto_vendido')) THEN
+        ALTER TABLE producto_vendido ADD COLUMN IF NOT EXISTS fecha DATE;
+        IF to_regclass('venta') IS NOT NULL THEN
+            UPDATE producto_vendido pv SET fecha = v.fecha
+            FROM venta v
+            WHERE v.venta_id = pv.venta_id AND pv.fecha IS NULL;
+        END IF;
+    END IF;
+
+    -- venta se convierte antes para que el DROP ... CASCADE quite la llave foránea vieja
+    PERFORM particionar_por_mes('venta', 'fecha');
+    PERFORM particionar_por_mes('producto_vendido', 'fecha');
+    PERFORM particionar_por_mes('movimiento_inventario', 'fecha');
+
+    -- Base nueva: las tablas se crean ya particionadas con las columnas de las entidades
+    IF to_regclass('venta') IS NULL THEN
+        CREATE TABLE venta (
+            venta_id BIGINT NOT NULL,
+            usuario_id BIGINT,
+            cliente_id BIGINT,
+            total NUMERIC(38, 2),
+            fecha DATE NOT NULL,
+            con_iva BOOLEAN,
+            hora VARCHAR(255),
+            fecha_hora TIMESTAMP(6),
+            sucursal VARCHAR(255),
+            anulada BOOLEAN
+        ) PARTITION BY RANGE (fecha);
+        CREATE TABLE venta_default PARTITION OF venta DEFAULT;
+    END IF;
+
+    IF to_regclass('producto_vendido') IS NULL THEN
+        CREATE TABLE producto_vendido (
+            producto_vendido_id BIGINT NOT NULL,
+            venta_id BIGINT,
+            producto_id BIGINT,
+            fecha DATE NOT NULL,
+            cantidad REAL,
+            precio_unitario REAL,
+            descuento REAL,
+            subtotal REAL
+        ) PARTITION BY RANGE (fecha);
+        CREATE TABLE producto_vendido_default PARTITION OF producto_vendido DEFAULT;
+    END IF;
+
+    IF to_regclass('movimiento_inventario') IS NULL THEN
+        CREATE TABLE movimiento_inventario (
+            movimiento_id BIGINT NOT NULL,
+            producto_id BIGINT,
+            cantidad REAL,
+            tipo_movimiento VARCHAR(255),
+            motivo VARCHAR(255),
+            fecha TIMESTAMP(6) NOT NULL,
+            stock_anterior REAL,
+            stock_nuevo REAL,
+            usuario VARCHAR(255)
+        ) PARTITION BY RANGE (fecha);
+        CREATE TABLE movimiento_inventario_default PARTITION OF movimiento_inventario DEFAULT;
+    END IF;
+
+    -- Llaves e índices en la tabla padre; Postgres los replica en cada partición
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conrelid = 'venta'::regclass AND contype = 'p') THEN
+        ALTER TABLE venta ADD CONSTRAINT venta_pkey PRIMARY KEY (venta_id, fecha);
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conrelid = 'producto_vendido'::regclass AND contype = 'p') THEN
+        ALTER TABLE producto_vendido ADD CONSTRAINT producto_vendido_pkey PRIMARY KEY (producto_vendido_id, fecha);
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conrelid = 'movimiento_inventario'::regclass AND contype = 'p') THEN
+        ALTER TABLE movimiento_inventario ADD CONSTRAINT movimiento_inventario_pkey PRIMARY KEY (movimiento_id, fecha);
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_producto_vendido_venta') THEN
+        ALTER TABLE producto_vendido ADD CONSTRAINT fk_producto_vendido_venta
+            FOREIGN KEY (venta_id, fecha) REFERENCES venta (venta_id, fecha);
+    END IF;
+END $$;
+
+CREATE INDEX IF NOT EXISTS idx_venta_fecha_id ON venta (fecha, venta_id);
+CREATE INDEX IF NOT EXISTS idx_venta_fecha_hora ON venta (fecha_hora);
+CREATE INDEX IF NOT EXISTS idx_venta_usuario ON venta (usuario_id);
+CREATE INDEX IF NOT EXISTS idx_producto_vendido_venta ON producto_vendido (venta_id);
+CREATE INDEX IF NOT EXISTS idx_producto_vendido_producto ON producto_vendido (producto_id);
+CREATE INDEX IF NOT EXISTS idx_movimiento_producto_fecha ON movimiento_inventario (producto_id, fecha);
+
+SELECT crear_particiones_futuras(3);
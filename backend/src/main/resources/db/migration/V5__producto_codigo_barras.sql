@@ -0,0 +1,27 @@
+-- Índice único del código de barras para la búsqueda del escáner.
+-- Los códigos vacíos pasan a NULL (varios productos sin código no chocan con el índice).
+-- Si ya hay códigos repetidos se crea un índice normal con el mismo nombre y se avisa;
+-- al corregir los duplicados basta con borrarlo y volver a crearlo como único.
+
+DO $$
+BEGIN
+    IF to_regclass('producto') IS NULL THEN
+        -- Base nueva: Hibernate crea la tabla con el índice único de la entidad
+        RETURN;
+    END IF;
+
+    UPDATE producto SET codigo_barras = NULL WHERE btrim(codigo_barras) = '';
+    UPDATE producto SET codigo_barras = btrim(codigo_barras) WHERE codigo_barras <> btrim(codigo_barras);
+
+    IF to_regclass('uk_producto_codigo_barras') IS NOT NULL THEN
+        RETURN;
+    END IF;
+
+    IF EXISTS (SELECT codigo_barras FROM producto WHERE codigo_barras IS NOT NULL
+               GROUP BY codigo_barras HAVING count(*) > 1) THEN
+        RAISE WARNING 'Hay códigos de barras repetidos en producto; se crea un índice no único';
+        CREATE INDEX uk_producto_codigo_barras ON producto (codigo_barras);
+    ELSE
+        CREATE UNIQUE INDEX uk_producto_codigo_barras ON producto (codigo_barras);
+    END IF;
+END $$;
@@ -0,0 +1,25 @@
+-- Posición de sincronización (cambio_seq) de productos, categorías y clientes.
+-- Las filas existentes quedan en 0: una terminal que ya sincronizó no las vuelve a
+-- descargar y una nueva las recibe en la carga completa (desde=0).
+-- En una base nueva Hibernate crea las columnas, los índices y registro_eliminado.
+
+DO $$
+BEGIN
+    IF to_regclass('producto') IS NOT NULL THEN
+        ALTER TABLE producto ADD COLUMN IF NOT EXISTS cambio_seq BIGINT;
+        UPDATE producto SET cambio_seq = 0 WHERE cambio_seq IS NULL;
+        CREATE INDEX IF NOT EXISTS idx_producto_cambio_seq ON producto (cambio_seq);
+    END IF;
+
+    IF to_regclass('categoria') IS NOT NULL THEN
+        ALTER TABLE categoria ADD COLUMN IF NOT EXISTS cambio_seq BIGINT;
+        UPDATE categoria SET cambio_seq = 0 WHERE cambio_seq IS NULL;
+        CREATE INDEX IF NOT EXISTS idx_categoria_cambio_seq ON categoria (cambio_seq);
+    END IF;
+
+    IF to_regclass('cliente') IS NOT NULL THEN
+        ALTER TABLE cliente ADD COLUMN IF NOT EXISTS cambio_seq BIGINT;
+        UPDATE cliente SET cambio_seq = 0 WHERE cambio_seq IS NULL;
+        CREATE INDEX IF NOT EXISTS idx_cliente_cambio_seq ON cliente (cambio_seq);
+    END IF;
+END $$;
@@ -0,0 +1,24 @@
+-- Índice único del username: es la llave natural con la que Hibernate guarda a los
+-- usuarios en la caché de segundo nivel.
+-- Si ya hay usernames repetidos se crea un índice normal con el mismo nombre y se avisa;
+-- al corregir los duplicados basta con borrarlo y volver a crearlo como único.
+
+DO $$
+BEGIN
+    IF to_regclass('usuario') IS NULL THEN
+        -- Base nueva: Hibernate crea la tabla con el índice único de la entidad
+        RETURN;
+    END IF;
+
+    IF to_regclass('uk_usuario_username') IS NOT NULL THEN
+        RETURN;
+    END IF;
+
+    IF EXISTS (SELECT username FROM usuario WHERE username IS NOT NULL
+               GROUP BY username HAVING count(*) > 1) THEN
+        RAISE WARNING 'Hay usernames repetidos en usuario; se crea un índice no único';
+        CREATE INDEX uk_usuario_username ON usuario (username);
+    ELSE
+        CREATE UNIQUE INDEX uk_usuario_username ON usuario (username);
+    END IF;
+END $$;
@@ -0,0 +1,12 @@
+-- Bandeja de salida del kardex. Cada venta, anulación o movimiento manual guarda una fila
+-- con todos sus cambios de stock en la misma transacción; la aplicación la convierte en
+-- filas de movimiento_inventario por lotes y la borra.
+CREATE TABLE IF NOT EXISTS movimiento_pendiente (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    fecha_registro TIMESTAMP(6) NOT NULL,
+    motivo VARCHAR(255),
+    usuario VARCHAR(255),
+    lineas TEXT NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_movimiento_pendiente_fecha ON movimiento_pendiente (fecha_registro);
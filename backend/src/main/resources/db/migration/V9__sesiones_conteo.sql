@@ -0,0 +1,15 @@
+-- Sesiones de conteo físico por escáneres. El conteo se acumula en memoria; aquí se guarda
+-- el último punto de control para reanudar la sesión si la aplicación se reinicia.
+CREATE TABLE IF NOT EXISTS sesion_conteo (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    descripcion VARCHAR(255),
+    usuario VARCHAR(255),
+    estado VARCHAR(20) NOT NULL,
+    fecha_apertura TIMESTAMP(6) NOT NULL,
+    fecha_checkpoint TIMESTAMP(6),
+    fecha_cierre TIMESTAMP(6),
+    conteo TEXT NOT NULL,
+    secuencias TEXT NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_sesion_conteo_estado ON sesion_conteo (estado);
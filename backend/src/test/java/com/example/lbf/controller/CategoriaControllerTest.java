@@ -6,6 +6,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 
 import java.util.Arrays;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,10 +16,14 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.ResultActions;
 
 import com.example.lbf.BaseIntegrationTest;
+import com.example.lbf.dto.response.EstadisticasCacheDTO;
 import com.example.lbf.entities.Categoria;
 import com.example.lbf.entities.Producto;
 import com.example.lbf.repository.CategoriaRepository;
+import com.example.lbf.repository.MovimientoInventarioRepository;
 import com.example.lbf.repository.ProductoRepository;
+import com.example.lbf.service.mantenimiento.CacheService;
+import com.example.lbf.service.inventario.LibroInventarioService;
 
 /**
  * Pruebas de integración para el controlador de Categorías.
@@ -36,9 +41,21 @@ public class CategoriaControllerTest extends BaseIntegrationTest {
     @Autowired
     private ProductoRepository productoRepository;
     
+    @Autowired
+    private MovimientoInventarioRepository movimientoInventarioRepository;
+    
+    @Autowired
+    private LibroInventarioService libroInventarioService;
+
+    @Autowired
+    private CacheService cacheService;
+    
     @BeforeEach
     public void setupTestData() {
         // Limpiar la base de datos de prueba
+        // Los movimientos del kardex apuntan a los productos; antes se escribe lo que quede en el libro
+        libroInventarioService.vaciar();
+        movimientoInventarioRepository.deleteAll();
         productoRepository.deleteAll();
         categoriaRepository.deleteAll();
         
@@ -214,4 +231,50 @@ public class CategoriaControllerTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].nombre", is("Camiseta")));
     }
+
+    @Test
+    @DisplayName("Debería leer el listado de categorías desde la caché de consultas")
+    public void shouldCacheCategoryListingUntilCategoryChanges() throws Exception {
+        // Given: El listado leído una vez
+        mockMvc.perform(get("/lbf/categorias")
+                .with(user("test").password("test").roles("ADMIN")))
+                .andExpect(status().isOk());
+        long aciertosAntes = aciertos("listado-categorias");
+
+        // When: Se vuelve a leer
+        mockMvc.perform(get("/lbf/categorias")
+                .with(user("test").password("test").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        // Then: La segunda lectura sale de la caché
+        assert aciertos("listado-categorias") == aciertosAntes + 1;
+
+        // Un cambio confirmado en una categoría invalida el listado guardado
+        Categoria categoria = categoriaRepository.findByNombreContainingIgnoreCase("Ropa").get(0);
+        Map<String, Object> cambios = Map.of("nombre", "Ropa y calzado", "color", "#FF0000");
+        mockMvc.perform(put("/lbf/categorias/{id}", categoria.getCategoriaId())
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(cambios)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/lbf/categorias")
+                .with(user("test").password("test").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].nombre", hasItem("Ropa y calzado")));
+
+        mockMvc.perform(get("/lbf/cache/estadisticas")
+                .with(user("test").password("test").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.tipo == 'HIBERNATE')].nombre", hasItems("categoria", "listado-categorias")));
+    }
+
+    private long aciertos(String region) {
+        return cacheService.getEstadisticas().stream()
+                .filter(estadisticas -> estadisticas.getNombre().equals(region))
+                .mapToLong(EstadisticasCacheDTO::getAciertos)
+                .findFirst()
+                .orElse(0);
+    }
 }
@@ -0,0 +1,344 @@
+package com.example.lbf.controller;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.example.lbf.BaseIntegrationTest;
+import com.example.lbf.dto.request.LecturasConteoRequest;
+import com.example.lbf.dto.response.LecturasConteoResultado;
+import com.example.lbf.entities.Categoria;
+import com.example.lbf.entities.Producto;
+import com.example.lbf.entities.SesionConteo;
+import com.example.lbf.repository.CategoriaRepository;
+import com.example.lbf.repository.MovimientoInventarioRepository;
+import com.example.lbf.repository.ProductoRepository;
+import com.example.lbf.repository.SesionConteoRepository;
+import com.example.lbf.service.inventario.LibroInventarioService;
+import com.example.lbf.service.inventario.SesionConteoService;
+import com.example.lbf.service.inventario.SesionConteoServiceImpl;
+
+/**
+ * Pruebas de integración para las sesiones de conteo físico con escáneres.
+ */
+@DisplayName("Pruebas del Controlador de Conteo de Inventario")
+public class ConteoInventarioControllerTest extends BaseIntegrationTest {
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private MovimientoInventarioRepository movimientoInventarioRepository;
+
+    @Autowired
+    private SesionConteoRepository sesionConteoRepository;
+
+    @Autowired
+    private LibroInventarioService libroInventarioService;
+
+    @Autowired
+    private SesionConteoService sesionConteoService;
+
+    private Producto producto1;
+    private Producto producto2;
+
+    @BeforeEach
+    public void setupTestData() {
+        // Limpiar la base de datos de prueba; antes se escribe lo que quede en el libro
+        libroInventarioService.vaciar();
+        movimientoInventarioRepository.deleteAll();
+        productoRepository.deleteAll();
+        categoriaRepository.deleteAll();
+
+        Categoria categoria = new Categoria();
+        categoria.setNombre("General");
+        categoria.setColor("#FFFFFF");
+        categoriaRepository.save(categoria);
+
+        producto1 = new Producto();
+        producto1.setNombre("Producto 1");
+        producto1.setPrecio(10.0f);
+        producto1.setStock(100.0f);
+        producto1.setCodigoBarras("7503000000201");
+        producto1.setCategoria(categoria);
+
+        producto2 = new Producto();
+        producto2.setNombre("Producto 2");
+        producto2.setPrecio(20.0f);
+        producto2.setStock(50.0f);
+        producto2.setCodigoBarras("7503000000202");
+        producto2.setCategoria(categoria);
+
+        productoRepository.saveAll(Arrays.asList(producto1, producto2));
+    }
+
+    @Test
+    @DisplayName("Debería sumar las lecturas de varios escáneres y conciliar al cerrar la sesión")
+    public void shouldCountWithSeveralScannersAndReconcileOnClose() throws Exception {
+        // Given: Una sesión abierta
+        Long sesionId = abrirSesion();
+
+        // When: Un escáner lee tres piezas por código y una cantidad por ID
+        Map<String, Object> loteA = lote("escaner-a", 1, List.of(
+                Map.of("codigoBarras", "7503000000201"),
+                Map.of("codigoBarras", "7503000000201"),
+                Map.of("codigoBarras", "7503000000201"),
+                Map.of("productoId", producto2.getProductoId(), "cantidad", 40.0)));
+        enviarLecturas(sesionId, loteA)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.duplicado", is(false)))
+                .andExpect(jsonPath("$.lecturasAplicadas", is(4)));
+
+        // Y reenvía el mismo lote tras perder la conexión
+        enviarLecturas(sesionId, loteA)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.duplicado", is(true)))
+                .andExpect(jsonPath("$.ultimaSecuencia", is(1)));
+
+        // Y otro escáner lee dos piezas más y un código desconocido
+        enviarLecturas(sesionId, lote("escaner-b", 1, List.of(
+                Map.of("codigoBarras", "7503000000201", "cantidad", 2.0),
+                Map.of("codigoBarras", "9999999999999"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lecturasAplicadas", is(1)))
+                .andExpect(jsonPath("$.codigosDesconocidos", contains("9999999999999")));
+
+        mockMvc.perform(get("/api/inventario/conteos/{sesionId}", sesionId)
+                .with(user("test").password("test").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productosContados", is(2)))
+                .andExpect(jsonPath("$.unidadesContadas", is(45.0)))
+                .andExpect(jsonPath("$.secuencias.escaner-a", is(1)))
+                .andExpect(jsonPath("$.secuencias.escaner-b", is(1)));
+
+        // Then: Al cerrar se fija el stock contado
+        mockMvc.perform(post("/api/inventario/conteos/{sesionId}/cerrar", sesionId)
+                .with(user("test").password("test").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productosAjustados", is(2)))
+                .andExpect(jsonPath("$.unidadesFaltantes", is(105.0)));
+
+        assertEquals(5.0f, productoRepository.findById(producto1.getProductoId()).orElseThrow().getStock());
+        assertEquals(40.0f, productoRepository.findById(producto2.getProductoId()).orElseThrow().getStock());
+        assertEquals(SesionConteo.CERRADA, sesionConteoRepository.findById(sesionId).orElseThrow().getEstado());
+
+        // Y la sesión ya no acepta lecturas ni un segundo cierre
+        enviarLecturas(sesionId, lote("escaner-a", 2, List.of(Map.of("codigoBarras", "7503000000201"))))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/api/inventario/conteos/{sesionId}/cerrar", sesionId)
+                .with(user("test").password("test").roles("ADMIN")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Debería guardar el conteo y las secuencias en el punto de control")
+    public void shouldCheckpointOpenSession() throws Exception {
+        // Given: Una sesión con lecturas de un escáner
+        Long sesionId = abrirSesion();
+        enviarLecturas(sesionId, lote("escaner-a", 1, List.of(
+                Map.of("productoId", producto1.getProductoId(), "cantidad", 2.5))))
+                .andExpect(status().isOk());
+        enviarLecturas(sesionId, lote("escaner-a", 2, List.of(
+                Map.of("productoId", producto1.getProductoId(), "cantidad", 0.25))))
+                .andExpect(status().isOk());
+
+        // When: Se ejecuta el punto de control
+        sesionConteoService.guardarCheckpoints();
+
+        // Then: La sesión guardada tiene el conteo en milésimas y la última secuencia
+        SesionConteo guardada = sesionConteoRepository.findById(sesionId).orElseThrow();
+        assertNotNull(guardada.getFechaCheckpoint());
+        assertEquals(2750L, guardada.getConteo().get(producto1.getProductoId()));
+        assertEquals(2L, guardada.getSecuencias().get("escaner-a"));
+
+        sesionConteoService.cancelarSesion(sesionId);
+    }
+
+    @Test
+    @DisplayName("Debería rechazar un lote adelantado para que el escáner reenvíe los que faltan")
+    public void shouldRejectBatchThatSkipsSequence() throws Exception {
+        // Given: Un escáner con su primer lote aplicado
+        Long sesionId = abrirSesion();
+        enviarLecturas(sesionId, lote("escaner-a", 1, List.of(Map.of("productoId", producto1.getProductoId()))))
+                .andExpect(status().isOk());
+
+        // When: Llega el lote 3 sin el 2
+        enviarLecturas(sesionId, lote("escaner-a", 3, List.of(Map.of("productoId", producto1.getProductoId()))))
+                // Then: Se rechaza con la última secuencia aplicada y no se suma
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.fueraDeSecuencia", is(true)))
+                .andExpect(jsonPath("$.ultimaSecuencia", is(1)));
+
+        // Un escáner nuevo debe empezar en 1
+        enviarLecturas(sesionId, lote("escaner-b", 2, List.of(Map.of("productoId", producto1.getProductoId()))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.ultimaSecuencia", is(0)));
+
+        // Y al reenviar en orden se aplican los dos
+        enviarLecturas(sesionId, lote("escaner-a", 2, List.of(Map.of("productoId", producto1.getProductoId()))))
+                .andExpect(status().isOk());
+        enviarLecturas(sesionId, lote("escaner-a", 3, List.of(Map.of("productoId", producto1.getProductoId()))))
+                .andExpect(status().isOk());
+        assertEquals(3.0, sesionConteoService.getSesion(sesionId).getUnidadesContadas());
+
+        sesionConteoService.cancelarSesion(sesionId);
+    }
+
+    @Test
+    @DisplayName("Debería retomar una sesión desde su punto de control tras un reinicio")
+    public void shouldResumeSessionFromCheckpointAfterRestart() throws Exception {
+        // Given: Dos lotes guardados en el punto de control y un tercero confirmado después
+        Long sesionId = abrirSesion();
+        for (long secuencia = 1; secuencia <= 2; secuencia++) {
+            enviarLecturas(sesionId, lote("escaner-a", secuencia, List.of(
+                    Map.of("productoId", producto1.getProductoId(), "cantidad", 10.0))))
+                    .andExpect(status().isOk());
+        }
+        sesionConteoService.guardarCheckpoints();
+        enviarLecturas(sesionId, lote("escaner-a", 3, List.of(
+                Map.of("productoId", producto1.getProductoId(), "cantidad", 10.0))))
+                .andExpect(status().isOk());
+
+        // When: La aplicación se reinicia; el servicio nuevo no tiene la sesión en memoria
+        AutowireCapableBeanFactory fabrica = context.getAutowireCapableBeanFactory();
+        SesionConteoService reiniciado = fabrica.createBean(SesionConteoServiceImpl.class);
+        try {
+            // Then: La sesión se retoma con lo guardado en el punto de control
+            assertEquals(2L, reiniciado.getSesion(sesionId).getSecuencias().get("escaner-a"));
+            assertEquals(20.0, reiniciado.getSesion(sesionId).getUnidadesContadas());
+
+            // El escáner sigue con el lote 4 y se le pide reenviar desde el 3
+            LecturasConteoRequest.Lectura lectura = new LecturasConteoRequest.Lectura(
+                    producto1.getProductoId(), null, 10.0f);
+            LecturasConteoResultado adelantado = reiniciado.registrarLecturas(sesionId,
+                    new LecturasConteoRequest("escaner-a", 4L, List.of(lectura)));
+            assertTrue(adelantado.isFueraDeSecuencia());
+            assertEquals(2L, adelantado.getUltimaSecuencia());
+
+            // Reenvía el 3 y el 4, y ninguno se pierde
+            assertFalse(reiniciado.registrarLecturas(sesionId,
+                    new LecturasConteoRequest("escaner-a", 3L, List.of(lectura))).isFueraDeSecuencia());
+            assertFalse(reiniciado.registrarLecturas(sesionId,
+                    new LecturasConteoRequest("escaner-a", 4L, List.of(lectura))).isFueraDeSecuencia());
+            assertTrue(reiniciado.registrarLecturas(sesionId,
+                    new LecturasConteoRequest("escaner-a", 3L, List.of(lectura))).isDuplicado());
+
+            // Al cerrar se concilian las 40 piezas
+            assertNotNull(reiniciado.cerrarSesion(sesionId));
+            assertEquals(40.0f, productoRepository.findById(producto1.getProductoId()).orElseThrow().getStock());
+            assertNull(reiniciado.registrarLecturas(sesionId,
+                    new LecturasConteoRequest("escaner-a", 5L, List.of(lectura))));
+        } finally {
+            fabrica.destroyBean(reiniciado);
+        }
+    }
+
+    @Test
+    @DisplayName("Debería acumular sin pérdidas las lecturas de escáneres concurrentes")
+    public void shouldAccumulateConcurrentScanners() throws Exception {
+        // Given: Una sesión y cuatro escáneres que envían 25 lotes cada uno
+        Long sesionId = abrirSesion();
+        ExecutorService escaneres = Executors.newFixedThreadPool(4);
+        List<Future<?>> envios = new ArrayList<>();
+        for (int e = 0; e < 4; e++) {
+            String dispositivo = "escaner-" + e;
+            envios.add(escaneres.submit(() -> {
+                for (long secuencia = 1; secuencia <= 25; secuencia++) {
+                    LecturasConteoRequest.Lectura lectura = new LecturasConteoRequest.Lectura(
+                            producto1.getProductoId(), null, null);
+                    sesionConteoService.registrarLecturas(sesionId,
+                            new LecturasConteoRequest(dispositivo, secuencia, List.of(lectura)));
+                }
+            }));
+        }
+        for (Future<?> envio : envios) {
+            envio.get();
+        }
+        escaneres.shutdown();
+
+        // When: Se cierra la sesión
+        mockMvc.perform(post("/api/inventario/conteos/{sesionId}/cerrar", sesionId)
+                .with(user("test").password("test").roles("ADMIN")))
+                // Then: Se contaron las 100 piezas y el stock no cambia
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productosSinCambio", is(1)));
+
+        assertEquals(100.0f, productoRepository.findById(producto1.getProductoId()).orElseThrow().getStock());
+    }
+
+    @Test
+    @DisplayName("Debería rechazar el cierre con un conteo negativo y dejar la sesión abierta")
+    public void shouldRejectCloseWithNegativeCount() throws Exception {
+        // Given: Una corrección que deja el conteo de un producto en negativo
+        Long sesionId = abrirSesion();
+        enviarLecturas(sesionId, lote("escaner-a", 1, List.of(
+                Map.of("productoId", producto1.getProductoId(), "cantidad", -1.0))))
+                .andExpect(status().isOk());
+
+        // When: Se intenta cerrar la sesión
+        mockMvc.perform(post("/api/inventario/conteos/{sesionId}/cerrar", sesionId)
+                .with(user("test").password("test").roles("ADMIN")))
+                // Then: Se rechaza sin tocar el stock
+                .andExpect(status().isBadRequest());
+        assertEquals(100.0f, productoRepository.findById(producto1.getProductoId()).orElseThrow().getStock());
+
+        // Y el escáner todavía puede corregir la lectura
+        enviarLecturas(sesionId, lote("escaner-a", 2, List.of(
+                Map.of("productoId", producto1.getProductoId(), "cantidad", 1.0))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.duplicado", is(false)));
+
+        // Un escáner con un identificador inválido se rechaza
+        enviarLecturas(sesionId, lote("escaner;a", 1, List.of()))
+                .andExpect(status().isBadRequest());
+
+        sesionConteoService.cancelarSesion(sesionId);
+    }
+
+    private Long abrirSesion() throws Exception {
+        String respuesta = mockMvc.perform(post("/api/inventario/conteos")
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("descripcion", "Conteo de prueba"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.estado", is(SesionConteo.ABIERTA)))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(respuesta).get("id").asLong();
+    }
+
+    private Map<String, Object> lote(String dispositivo, long secuencia, List<Map<String, Object>> lecturas) {
+        Map<String, Object> lote = new HashMap<>();
+        lote.put("dispositivo", dispositivo);
+        lote.put("secuencia", secuencia);
+        lote.put("lecturas", lecturas);
+        return lote;
+    }
+
+    private ResultActions enviarLecturas(Long sesionId, Map<String, Object> lote) throws Exception {
+        return mockMvc.perform(post("/api/inventario/conteos/{sesionId}/lecturas", sesionId)
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(lote)));
+    }
+}
@@ -7,6 +7,7 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -19,10 +20,12 @@ import org.springframework.test.web.servlet.ResultActions;
 import com.example.lbf.BaseIntegrationTest;
 import com.example.lbf.entities.Categoria;
 import com.example.lbf.entities.MovimientoInventario;
+import com.example.lbf.entities.MovimientoPendiente;
 import com.example.lbf.entities.Producto;
 import com.example.lbf.repository.CategoriaRepository;
 import com.example.lbf.repository.MovimientoInventarioRepository;
 import com.example.lbf.repository.ProductoRepository;
+import com.example.lbf.service.inventario.LibroInventarioService;
 
 /**
  * Pruebas de integración para el controlador de Inventario.
@@ -43,12 +46,16 @@ public class InventarioControllerTest extends BaseIntegrationTest {
     @Autowired
     private MovimientoInventarioRepository movimientoInventarioRepository;
     
+    @Autowired
+    private LibroInventarioService libroInventarioService;
+    
     private Producto producto1;
     private Producto producto2;
     
     @BeforeEach
     public void setupTestData() {
-        // Limpiar la base de datos de prueba
+        // Limpiar la base de datos de prueba; antes se escribe lo que quede en el libro
+        libroInventarioService.vaciar();
         movimientoInventarioRepository.deleteAll();
         productoRepository.deleteAll();
         categoriaRepository.deleteAll();
@@ -97,7 +104,8 @@ public class InventarioControllerTest extends BaseIntegrationTest {
         Producto updated = productoRepository.findById(productoId).orElseThrow();
         assert updated.getStock() == 120.0f; // 100 + 20 = 120
         
-        // Verificar que se ha registrado el movimiento
+        // Verificar que se ha registrado el movimiento; el libro lo escribe después del commit
+        libroInventarioService.vaciar();
         assert movimientoInventarioRepository.findAll().size() > 0;
     }
     
@@ -160,7 +168,8 @@ public class InventarioControllerTest extends BaseIntegrationTest {
         Producto updated = productoRepository.findById(productoId).orElseThrow();
         assert updated.getStock() == 80.0f; // 50 + 30 = 80
         
-        // Verificar que se ha registrado el movimiento
+        // Verificar que se ha registrado el movimiento; el libro lo escribe después del commit
+        libroInventarioService.vaciar();
         MovimientoInventario movimiento = movimientoInventarioRepository.findAll().get(0);
         assert movimiento.getProducto().getProductoId().equals(productoId);
         assert movimiento.getCantidad().equals(cantidad);
@@ -190,7 +199,8 @@ public class InventarioControllerTest extends BaseIntegrationTest {
         Producto updated = productoRepository.findById(productoId).orElseThrow();
         assert updated.getStock() == 40.0f; // 50 - 10 = 40
         
-        // Verificar que se ha registrado el movimiento
+        // Verificar que se ha registrado el movimiento; el libro lo escribe después del commit
+        libroInventarioService.vaciar();
         MovimientoInventario movimiento = movimientoInventarioRepository.findAll().get(0);
         assert movimiento.getProducto().getProductoId().equals(productoId);
         assert movimiento.getCantidad().equals(cantidad);
@@ -237,7 +247,8 @@ public class InventarioControllerTest extends BaseIntegrationTest {
         assert updated1.getStock() == 90.0f;
         assert updated2.getStock() == 55.0f;
         
-        // Verificar que se han registrado los movimientos
+        // Verificar que se han registrado los movimientos; el libro los escribe después del commit
+        libroInventarioService.vaciar();
         assert movimientoInventarioRepository.findAll().size() == 2;
     }
     
@@ -260,6 +271,8 @@ public class InventarioControllerTest extends BaseIntegrationTest {
                 .param("cantidad", "5.0")
                 .param("motivo", "Salida prueba 1"));
         
+        libroInventarioService.vaciar();
+        
         // When: Se realiza una petición GET a /api/inventario/movimientos/{productoId}
         ResultActions response = mockMvc.perform(get("/api/inventario/movimientos/{productoId}", productoId)
                 .with(user("test").password("test").roles("ADMIN")));
@@ -269,4 +282,109 @@ public class InventarioControllerTest extends BaseIntegrationTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$", hasSize(2)));
     }
+
+    @Test
+    @DisplayName("Debería descartar y contar las líneas de un producto eliminado sin detener el libro")
+    public void shouldDropLinesOfDeletedProducts() throws Exception {
+        // Given: Un pendiente con una línea de un producto que se eliminó antes de escribirla
+        long descartadasAntes = libroInventarioService.getMetricas().getLineasDescartadas();
+        Long eliminadoId = producto2.getProductoId();
+        productoRepository.deleteById(eliminadoId);
+        libroInventarioService.registrar(List.of(
+                new MovimientoPendiente.Linea(producto1.getProductoId(), "SALIDA", 2.0f, null, null),
+                new MovimientoPendiente.Linea(eliminadoId, "SALIDA", 1.0f, null, null)), "Venta", "test");
+
+        // When: El libro escribe la bandeja
+        libroInventarioService.vaciar();
+
+        // Then: Se escribe la línea del producto que existe, la otra se cuenta y la bandeja queda vacía
+        List<MovimientoInventario> movimientos = movimientoInventarioRepository.findAll();
+        assert movimientos.size() == 1;
+        assert movimientos.get(0).getProducto().getProductoId().equals(producto1.getProductoId());
+        mockMvc.perform(get("/api/inventario/libro/metricas")
+                .with(user("test").password("test").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pendientesEnBase", is(0)))
+                .andExpect(jsonPath("$.lineasDescartadas", is((int) descartadasAntes + 1)));
+    }
+
+    @Test
+    @DisplayName("Debería obtener el stock de varios productos en una sola petición")
+    public void shouldGetStockForSeveralProducts() throws Exception {
+        // Given: Dos productos existentes y uno inexistente
+        List<Long> productoIds = List.of(producto1.getProductoId(), producto2.getProductoId(), -1L);
+
+        // When: Se realiza una petición POST a /api/inventario/stock/lote
+        ResultActions response = mockMvc.perform(post("/api/inventario/stock/lote")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(productoIds)));
+
+        // Then: Se devuelve el stock de cada uno, 0 para el inexistente
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$['" + producto1.getProductoId() + "']", is(100.0)))
+                .andExpect(jsonPath("$['" + producto2.getProductoId() + "']", is(50.0)))
+                .andExpect(jsonPath("$['-1']", is(0.0)));
+    }
+
+    @Test
+    @DisplayName("Debería conciliar un conteo físico cargado como CSV del escáner")
+    public void shouldReconcilePhysicalCountFromCsv() throws Exception {
+        // Given: Dos productos con código de barras
+        producto1.setCodigoBarras("7502000000101");
+        producto2.setCodigoBarras("7502000000102");
+        productoRepository.saveAll(Arrays.asList(producto1, producto2));
+
+        // Lecturas repetidas, una sin cantidad, un código desconocido y una línea inválida
+        String csv = "codigo,cantidad\n"
+                + "7502000000101,90\n"
+                + "7502000000101;5\n"
+                + "7502000000102\n"
+                + "7502000000102,49\n"
+                + "9999999999999,3\n"
+                + "7502000000102,abc\n";
+
+        // When: Se envía el archivo a /api/inventario/inventario-fisico/csv
+        ResultActions response = mockMvc.perform(post("/api/inventario/inventario-fisico/csv")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType("text/csv")
+                .content(csv));
+
+        // Then: Se fija el stock contado y se resumen las diferencias
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.productosContados", is(2)))
+                .andExpect(jsonPath("$.productosAjustados", is(1)))
+                .andExpect(jsonPath("$.productosSinCambio", is(1)))
+                .andExpect(jsonPath("$.unidadesFaltantes", is(5.0)))
+                .andExpect(jsonPath("$.lineasInvalidas", is(1)))
+                .andExpect(jsonPath("$.codigosDesconocidos", contains("9999999999999")))
+                .andExpect(jsonPath("$.diferencias[0].productoId", is(producto1.getProductoId().intValue())));
+
+        assert productoRepository.findById(producto1.getProductoId()).orElseThrow().getStock() == 95.0f;
+        assert productoRepository.findById(producto2.getProductoId()).orElseThrow().getStock() == 50.0f;
+
+        // El ajuste queda en el kardex
+        libroInventarioService.vaciar();
+        List<MovimientoInventario> movimientos = movimientoInventarioRepository.findAll();
+        assert movimientos.size() == 1;
+        assert "SALIDA".equals(movimientos.get(0).getTipoMovimiento());
+    }
+
+    @Test
+    @DisplayName("Debería rechazar un conteo físico con cantidades negativas")
+    public void shouldRejectNegativePhysicalCount() throws Exception {
+        // Given: Un conteo con una cantidad negativa
+        Map<Long, Float> conteo = Map.of(producto1.getProductoId(), -1.0f);
+
+        // When: Se envía a /api/inventario/inventario-fisico
+        ResultActions response = mockMvc.perform(post("/api/inventario/inventario-fisico")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(conteo)));
+
+        // Then: Se rechaza sin tocar el stock
+        response.andExpect(status().isBadRequest());
+        assert productoRepository.findById(producto1.getProductoId()).orElseThrow().getStock() == 100.0f;
+    }
+
 }
@@ -1,11 +1,15 @@
 package com.example.lbf.controller;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,10 +19,16 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.ResultActions;
 
 import com.example.lbf.BaseIntegrationTest;
+import com.example.lbf.config.CacheConfig;
 import com.example.lbf.entities.Categoria;
 import com.example.lbf.entities.Producto;
 import com.example.lbf.repository.CategoriaRepository;
+import com.example.lbf.repository.MovimientoInventarioRepository;
 import com.example.lbf.repository.ProductoRepository;
+import com.example.lbf.dto.response.EstadisticasCacheDTO;
+import com.example.lbf.service.catalogo.CatalogoSincronizador;
+import com.example.lbf.service.mantenimiento.CacheService;
+import com.example.lbf.service.inventario.LibroInventarioService;
 
 /**
  * Pruebas de integración para el controlador de Productos.
@@ -34,8 +44,20 @@ public class ProductoControllerTest extends BaseIntegrationTest {
     @Autowired
     private ProductoRepository productoRepository;
     
+    @Autowired
+    private MovimientoInventarioRepository movimientoInventarioRepository;
+    
+    @Autowired
+    private LibroInventarioService libroInventarioService;
+    
     @Autowired
     private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private CatalogoSincronizador catalogoSincronizador;
+
+    @Autowired
+    private CacheService cacheService;
     
     private Categoria categoriaBebidas;
     private Categoria categoriaComidas;
@@ -43,6 +65,9 @@ public class ProductoControllerTest extends BaseIntegrationTest {
     @BeforeEach
     public void setupTestData() {
         // Limpiar la base de datos de prueba
+        // Los movimientos del kardex apuntan a los productos; antes se escribe lo que quede en el libro
+        libroInventarioService.vaciar();
+        movimientoInventarioRepository.deleteAll();
         productoRepository.deleteAll();
         categoriaRepository.deleteAll();
         
@@ -95,6 +120,217 @@ public class ProductoControllerTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$[2].nombre", is("Refresco")));
     }
     
+    @Test
+    @DisplayName("Debería listar el catálogo sin el historial de ventas")
+    public void shouldListCatalogWithoutSalesHistory() throws Exception {
+        // When: Se consulta el catálogo y la búsqueda
+        mockMvc.perform(get("/lbf/productos")
+                .with(user("test").password("test").roles("ADMIN")))
+                // Then: Cada producto trae su categoría pero no sus ventas
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].nombre", is("Agua Mineral")))
+                .andExpect(jsonPath("$[0].categoria.nombre", is("Bebidas")))
+                .andExpect(jsonPath("$[0].categoria.color", is("#FF0000")))
+                .andExpect(jsonPath("$[0].productoVentas").doesNotExist());
+        
+        mockMvc.perform(get("/lbf/productos/buscar")
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("criterio", "sand"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].nombre", is("Sandwich")))
+                .andExpect(jsonPath("$[0].categoria.categoriaId", is(categoriaComidas.getCategoriaId().intValue())));
+    }
+    
+    @Test
+    @DisplayName("Debería sugerir productos sin importar acentos, por prefijo, categoría y con errores de dedo")
+    public void shouldSuggestProductsFromSearchIndex() throws Exception {
+        // Given: El índice cargado con los productos de prueba
+        catalogoSincronizador.recargar();
+
+        // When/Then: Prefijo sin acentos ni mayúsculas en varias palabras
+        mockMvc.perform(get("/lbf/productos/sugerencias")
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("q", "ÁGUA min"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].nombre", is("Agua Mineral")));
+
+        // Por categoría, ordenados por relevancia y limitados
+        mockMvc.perform(get("/lbf/productos/sugerencias")
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("q", "bebi"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].nombre", is("Refresco")));
+
+        mockMvc.perform(get("/lbf/productos/sugerencias")
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("q", "bebi")
+                .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        // Con un error de dedo se encuentra por trigramas
+        mockMvc.perform(get("/lbf/productos/sugerencias")
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("q", "refrsco"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].nombre", is("Refresco")));
+
+        // Un producto renombrado se busca por su nuevo nombre
+        Producto sandwich = productoRepository.findByNombreContainingIgnoreCase("Sandwich").get(0);
+        Map<String, Object> cambios = new HashMap<>();
+        cambios.put("nombre", "Torta de jamón");
+        cambios.put("precio", sandwich.getPrecio());
+        cambios.put("stock", sandwich.getStock());
+        cambios.put("categoria", Map.of("categoriaId", categoriaComidas.getCategoriaId()));
+        mockMvc.perform(put("/lbf/productos/{id}", sandwich.getProductoId())
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(cambios)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/lbf/productos/sugerencias")
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("q", "jamon"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].nombre", is("Torta de jamón")));
+
+        mockMvc.perform(get("/lbf/productos/sugerencias")
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("q", "sandw"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    @DisplayName("Debería encontrar un producto por su código de barras y reflejar cambios de stock")
+    public void shouldFindProductByBarcode() throws Exception {
+        // Given: Un producto con código de barras
+        Producto producto = productoRepository.findByNombreContainingIgnoreCase("Sandwich").get(0);
+        producto.setCodigoBarras("7501000000014");
+        productoRepository.save(producto);
+
+        // When: Se escanea el código
+        mockMvc.perform(get("/lbf/productos/codigo/{codigoBarras}", "7501000000014")
+                .with(user("test").password("test").roles("ADMIN")))
+                // Then: Se devuelve el producto
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productoId", is(producto.getProductoId().intValue())))
+                .andExpect(jsonPath("$.stock", is(20.0)));
+
+        // Un cambio de stock confirmado se refleja en la siguiente lectura
+        mockMvc.perform(patch("/lbf/productos/{id}/stock", producto.getProductoId())
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("cantidad", "-5"))
+                .andExpect(status().isOk());
+        // Sin esperar al hilo de fondo
+        catalogoSincronizador.sincronizar();
+
+        mockMvc.perform(get("/lbf/productos/codigo/{codigoBarras}", "7501000000014")
+                .with(user("test").password("test").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock", is(15.0)));
+
+        mockMvc.perform(get("/lbf/productos/codigo/{codigoBarras}", "0000000000000")
+                .with(user("test").password("test").roles("ADMIN")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Debería rechazar con 400 un código de barras que ya tiene otro producto")
+    public void shouldRejectDuplicateBarcode() throws Exception {
+        // Given: Un producto con código de barras
+        Producto sandwich = productoRepository.findByNombreContainingIgnoreCase("Sandwich").get(0);
+        sandwich.setCodigoBarras("7501000000014");
+        productoRepository.save(sandwich);
+
+        // When: Se da de alta otro producto con el mismo código, con espacios
+        Map<String, Object> nuevo = Map.of(
+                "nombre", "Sandwich Doble",
+                "codigoBarras", " 7501000000014 ",
+                "precioVenta", 5.0f,
+                "stock", 10.0f,
+                "categoria", Map.of("categoriaId", categoriaComidas.getCategoriaId()));
+        mockMvc.perform(post("/lbf/productos")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(nuevo)))
+                // Then: Se rechaza como dato inválido y no se guarda
+                .andExpect(status().isBadRequest());
+        assertTrue(productoRepository.findByNombreContainingIgnoreCase("Sandwich Doble").isEmpty());
+
+        // When: Se le asigna el mismo código a otro producto existente
+        Producto agua = productoRepository.findByNombreContainingIgnoreCase("Agua").get(0);
+        Map<String, Object> cambios = Map.of(
+                "nombre", agua.getNombre(),
+                "codigoBarras", "7501000000014",
+                "precio", agua.getPrecio(),
+                "stock", agua.getStock(),
+                "categoria", Map.of("categoriaId", categoriaBebidas.getCategoriaId()));
+        mockMvc.perform(put("/lbf/productos/{id}", agua.getProductoId())
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(cambios)))
+                // Then: También se rechaza
+                .andExpect(status().isBadRequest());
+        assertNull(productoRepository.findById(agua.getProductoId()).orElseThrow().getCodigoBarras());
+    }
+
+    @Test
+    @DisplayName("Debería leer un producto desde la caché y refrescarlo al cambiar su stock")
+    public void shouldCacheProductAndRefreshOnStockChange() throws Exception {
+        // Given: Un producto leído una vez
+        Producto producto = productoRepository.findByNombreContainingIgnoreCase("Agua").get(0);
+        mockMvc.perform(get("/lbf/productos/{id}", producto.getProductoId())
+                .with(user("test").password("test").roles("ADMIN")))
+                .andExpect(status().isOk());
+        long aciertosAntes = aciertos(CacheConfig.PRODUCTOS);
+
+        // When: Se vuelve a leer
+        mockMvc.perform(get("/lbf/productos/{id}", producto.getProductoId())
+                .with(user("test").password("test").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock", is(50.0)));
+
+        // Then: La segunda lectura sale de la caché
+        assert aciertos(CacheConfig.PRODUCTOS) == aciertosAntes + 1;
+
+        // Un cambio de stock confirmado reemplaza la entrada en la caché
+        mockMvc.perform(patch("/lbf/productos/{id}/stock", producto.getProductoId())
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("cantidad", "-45"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/lbf/productos/{id}", producto.getProductoId())
+                .with(user("test").password("test").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock", is(5.0)));
+
+        mockMvc.perform(get("/lbf/productos/{id}/disponibilidad", producto.getProductoId())
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("cantidad", "10"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("false"));
+
+        mockMvc.perform(get("/lbf/cache/estadisticas")
+                .with(user("test").password("test").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].nombre", hasItem(CacheConfig.PRODUCTOS)))
+                .andExpect(jsonPath("$[0].tasaAciertos", notNullValue()));
+    }
+
+    private long aciertos(String cache) {
+        return cacheService.getEstadisticas().stream()
+                .filter(estadisticas -> estadisticas.getNombre().equals(cache))
+                .mapToLong(EstadisticasCacheDTO::getAciertos)
+                .findFirst()
+                .orElse(0);
+    }
+
     @Test
     @DisplayName("Debería obtener un producto por su ID")
     public void shouldGetProductById() throws Exception {
@@ -251,4 +487,29 @@ public class ProductoControllerTest extends BaseIntegrationTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$[0].nombre", is("Sandwich")));
     }
+
+    @Test
+    @DisplayName("Debería verificar la disponibilidad de todo el carrito en una sola petición")
+    public void shouldCheckCartAvailabilityInOneRequest() throws Exception {
+        // Given: Un carrito con un producto suficiente, uno insuficiente y uno inexistente
+        Producto agua = productoRepository.findByNombreContainingIgnoreCase("Agua").get(0);
+        Producto sandwich = productoRepository.findByNombreContainingIgnoreCase("Sandwich").get(0);
+        Map<Long, Float> cantidades = new HashMap<>();
+        cantidades.put(agua.getProductoId(), 10.0f);
+        cantidades.put(sandwich.getProductoId(), 25.0f);
+        cantidades.put(-1L, 1.0f);
+
+        // When: Se verifica el carrito completo
+        ResultActions response = mockMvc.perform(post("/lbf/productos/disponibilidad")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(cantidades)));
+
+        // Then: Cada línea indica si hay stock suficiente
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$['" + agua.getProductoId() + "']", is(true)))
+                .andExpect(jsonPath("$['" + sandwich.getProductoId() + "']", is(false)))
+                .andExpect(jsonPath("$['-1']", is(false)));
+    }
+
 }
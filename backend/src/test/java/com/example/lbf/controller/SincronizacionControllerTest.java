@@ -0,0 +1,211 @@
+package com.example.lbf.controller;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.example.lbf.BaseIntegrationTest;
+import com.example.lbf.entities.Categoria;
+import com.example.lbf.entities.Producto;
+import com.example.lbf.entities.RegistroEliminado;
+import com.example.lbf.entities.RelojCambios;
+import com.example.lbf.repository.CategoriaRepository;
+import com.example.lbf.repository.ProductoRepository;
+import com.example.lbf.repository.RegistroEliminadoRepository;
+import com.example.lbf.service.sync.CatalogoSnapshotService;
+import com.example.lbf.service.sync.SincronizacionService;
+
+/**
+ * Pruebas de integración para la sincronización incremental del catálogo.
+ */
+@DisplayName("Pruebas del Controlador de Sincronización")
+public class SincronizacionControllerTest extends BaseIntegrationTest {
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private CatalogoSnapshotService catalogoSnapshotService;
+
+    @Autowired
+    private SincronizacionService sincronizacionService;
+
+    @Autowired
+    private RegistroEliminadoRepository registroEliminadoRepository;
+
+    private Categoria categoria;
+    private Producto vendido;
+    private Producto descontinuado;
+    private Producto sinCambios;
+
+    @BeforeEach
+    public void setupTestData() {
+        categoria = new Categoria();
+        categoria.setNombre("Abarrotes");
+        categoria.setColor("#0000FF");
+        categoriaRepository.save(categoria);
+
+        vendido = nuevoProducto("Arroz");
+        descontinuado = nuevoProducto("Frijol");
+        sinCambios = nuevoProducto("Azúcar");
+    }
+
+    private Producto nuevoProducto(String nombre) {
+        Producto producto = new Producto();
+        producto.setNombre(nombre);
+        producto.setPrecio(20.0f);
+        producto.setStock(10.0f);
+        producto.setCategoria(categoria);
+        return productoRepository.save(producto);
+    }
+
+    @Test
+    @DisplayName("Debería enviar solo los cambios y eliminados posteriores a la posición de la terminal")
+    public void shouldReturnOnlyChangesSinceCursor() throws Exception {
+        // Given: La primera sincronización trae el catálogo completo
+        mockMvc.perform(get("/lbf/sync/cambios")
+                .with(user("test").password("test").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completo", is(true)))
+                .andExpect(jsonPath("$.hasta", notNullValue()))
+                .andExpect(jsonPath("$.productos[*].productoId", hasItem(sinCambios.getProductoId().intValue())))
+                .andExpect(jsonPath("$.categorias[*].categoriaId", hasItem(categoria.getCategoriaId().intValue())));
+
+        long posicion = RelojCambios.siguiente();
+
+        // When: Se vende un producto y se elimina otro
+        mockMvc.perform(patch("/lbf/productos/{id}/stock", vendido.getProductoId())
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("cantidad", "-1"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/lbf/productos/{id}", descontinuado.getProductoId())
+                .with(user("test").password("test").roles("ADMIN")))
+                .andExpect(status().isNoContent());
+
+        // Then: Solo llegan el producto modificado y el eliminado
+        mockMvc.perform(get("/lbf/sync/cambios")
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("desde", String.valueOf(posicion)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completo", is(false)))
+                .andExpect(jsonPath("$.productos", hasSize(1)))
+                .andExpect(jsonPath("$.productos[0].productoId", is(vendido.getProductoId().intValue())))
+                .andExpect(jsonPath("$.productos[0].stock", is(9.0)))
+                .andExpect(jsonPath("$.categorias", hasSize(0)))
+                .andExpect(jsonPath("$.eliminados", hasSize(1)))
+                .andExpect(jsonPath("$.eliminados[0].entidad", is("PRODUCTO")))
+                .andExpect(jsonPath("$.eliminados[0].id", is(descontinuado.getProductoId().intValue())));
+
+        // When: Se purga un eliminado que ya pasó la retención
+        RegistroEliminado viejo = new RegistroEliminado(RegistroEliminado.CLIENTE, 999L);
+        viejo.setFecha(LocalDateTime.now().minusDays(90));
+        registroEliminadoRepository.save(viejo);
+        long despuesDePurga = RelojCambios.siguiente();
+        assertTrue(sincronizacionService.purgarEliminados() >= 1);
+
+        // Then: Una posición anterior a lo purgado obliga a la carga completa, una posterior no
+        mockMvc.perform(get("/lbf/sync/cambios")
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("desde", String.valueOf(posicion)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completo", is(true)));
+        mockMvc.perform(get("/lbf/sync/cambios")
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("desde", String.valueOf(despuesDePurga)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completo", is(false)));
+    }
+
+    @Test
+    @DisplayName("Debería entregar como \"hasta\" solo posiciones anotadas hace más de la ventana")
+    public void shouldOnlyConfirmPositionsOlderThanWindow() throws Exception {
+        // Given: Una posición anotada (en las pruebas la ventana es cero)
+        sincronizacionService.muestrearPosicion();
+        long anotada = sincronizacionService.getCambios(0L).getHasta();
+
+        // When: Cambia un producto después de anotarla
+        long cambio = RelojCambios.siguiente();
+
+        // Then: "hasta" no pasa de lo anotado hasta la siguiente muestra
+        assertTrue(anotada > 0 && anotada < cambio);
+        assertEquals(anotada, sincronizacionService.getCambios(0L).getHasta());
+        sincronizacionService.muestrearPosicion();
+        assertTrue(sincronizacionService.getCambios(0L).getHasta() > cambio);
+    }
+
+    @Test
+    @DisplayName("Debería publicar el catálogo como archivo inmutable comprimido")
+    public void shouldPublishImmutableCatalogSnapshot() throws Exception {
+        // Given: El catálogo cambió desde la última publicación y hay una posición confirmada
+        sincronizacionService.muestrearPosicion();
+        assertTrue(catalogoSnapshotService.publicarSiCambio());
+        assertFalse(catalogoSnapshotService.publicarSiCambio());
+
+        // When: La terminal consulta el manifiesto
+        MvcResult resultado = mockMvc.perform(get("/lbf/sync/snapshot")
+                .with(user("test").password("test").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.url", startsWith("/lbf/sync/snapshot/archivos/catalogo-")))
+                .andExpect(jsonPath("$.hasta", notNullValue()))
+                .andReturn();
+        String url = objectMapper.readTree(resultado.getResponse().getContentAsString()).get("url").asText();
+
+        // Then: El archivo se sirve ya comprimido y marcado como inmutable
+        mockMvc.perform(get(url)
+                .with(user("test").password("test").roles("ADMIN"))
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")));
+
+        mockMvc.perform(get(url)
+                .with(user("test").password("test").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completo", is(true)))
+                .andExpect(jsonPath("$.productos[*].productoId", hasItem(sinCambios.getProductoId().intValue())));
+    }
+
+    @Test
+    @DisplayName("Debería volver a publicar el catálogo solo cuando cambia algo distinto del stock")
+    public void shouldRepublishSnapshotOnlyOnCatalogChanges() throws Exception {
+        // Given: El catálogo recién publicado
+        sincronizacionService.muestrearPosicion();
+        catalogoSnapshotService.publicarSiCambio();
+        String version = catalogoSnapshotService.getManifiesto().getVersion();
+
+        // When: Se venden productos
+        mockMvc.perform(patch("/lbf/productos/{id}/stock", vendido.getProductoId())
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("cantidad", "-1"))
+                .andExpect(status().isOk());
+
+        // Then: No se genera un archivo nuevo
+        assertFalse(catalogoSnapshotService.publicarSiCambio());
+        assertEquals(version, catalogoSnapshotService.getManifiesto().getVersion());
+
+        // When: Cambia el precio de un producto
+        Producto actualizado = productoRepository.findById(sinCambios.getProductoId()).orElseThrow();
+        actualizado.setPrecio(22.0f);
+        productoRepository.save(actualizado);
+
+        // Then: Se publica un archivo nuevo
+        assertTrue(catalogoSnapshotService.publicarSiCambio());
+        assertNotEquals(version, catalogoSnapshotService.getManifiesto().getVersion());
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.lbf.controller;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
@@ -10,15 +11,21 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import com.jayway.jsonpath.JsonPath;
+
 import com.example.lbf.BaseIntegrationTest;
 import com.example.lbf.entities.Categoria;
 import com.example.lbf.entities.Producto;
@@ -26,9 +33,12 @@ import com.example.lbf.entities.ProductoVendido;
 import com.example.lbf.entities.Usuario;
 import com.example.lbf.entities.Venta;
 import com.example.lbf.repository.CategoriaRepository;
+import com.example.lbf.repository.MovimientoInventarioRepository;
 import com.example.lbf.repository.ProductoRepository;
 import com.example.lbf.repository.UsuarioRepository;
 import com.example.lbf.repository.VentaRepository;
+import com.example.lbf.service.catalogo.TablaPreciosServiceImpl;
+import com.example.lbf.service.inventario.LibroInventarioService;
 
 /**
  * Pruebas de integración para el controlador de Ventas.
@@ -50,8 +60,17 @@ public class VentaControllerTest extends BaseIntegrationTest {
     @Autowired
     private ProductoRepository productoRepository;
     
+    @Autowired
+    private MovimientoInventarioRepository movimientoInventarioRepository;
+    
+    @Autowired
+    private LibroInventarioService libroInventarioService;
+    
     @Autowired
     private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private TablaPreciosServiceImpl tablaPreciosService;
     
     private Usuario vendedor;
     private Producto producto1;
@@ -61,6 +80,9 @@ public class VentaControllerTest extends BaseIntegrationTest {
     public void setupTestData() {
         // Limpiar la base de datos de prueba
         ventaRepository.deleteAll();
+        // Los movimientos del kardex apuntan a los productos; antes se escribe lo que quede en el libro
+        libroInventarioService.vaciar();
+        movimientoInventarioRepository.deleteAll();
         productoRepository.deleteAll();
         categoriaRepository.deleteAll();
         usuarioRepository.deleteAll();
@@ -109,14 +131,14 @@ public class VentaControllerTest extends BaseIntegrationTest {
         pv1.setProducto(producto1);
         pv1.setCantidad(2.0f);
         pv1.setDescuento(0.0f);
-        pv1.setSubtotal(20.0f);
+        pv1.setSubtotal(new BigDecimal("20.0"));
         pv1.setVenta(venta1);
         
         ProductoVendido pv2 = new ProductoVendido();
         pv2.setProducto(producto2);
         pv2.setCantidad(0.5f);
         pv2.setDescuento(0.0f);
-        pv2.setSubtotal(10.0f);
+        pv2.setSubtotal(new BigDecimal("10.0"));
         pv2.setVenta(venta1);
         
         venta1.setProductosVendidos(Arrays.asList(pv1, pv2));
@@ -131,7 +153,7 @@ public class VentaControllerTest extends BaseIntegrationTest {
         pv3.setProducto(producto2);
         pv3.setCantidad(1.0f);
         pv3.setDescuento(0.0f);
-        pv3.setSubtotal(20.0f);
+        pv3.setSubtotal(new BigDecimal("20.0"));
         pv3.setVenta(venta2);
         
         venta2.setProductosVendidos(Arrays.asList(pv3));
@@ -153,7 +175,7 @@ public class VentaControllerTest extends BaseIntegrationTest {
         pv.setProducto(producto1);
         pv.setCantidad(3.0f);
         pv.setDescuento(0.0f);
-        pv.setSubtotal(30.0f);
+        pv.setSubtotal(new BigDecimal("30.0"));
         
         productos.add(pv);
         ventaRequest.setProductos(productos);
@@ -309,6 +331,571 @@ public class VentaControllerTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$", hasSize(greaterThanOrEqualTo(1))));
     }
     
+    @Test
+    @DisplayName("Debería registrar un lote de ventas sin duplicar claves repetidas")
+    public void shouldCreateSalesBatchIgnoringDuplicates() throws Exception {
+        // Given: Dos ventas, una de ellas enviada dos veces con la misma clave
+        Map<String, Object> primera = nuevaVentaLote("0001-terminal-a", 2.0f);
+        Map<String, Object> segunda = nuevaVentaLote("0002-terminal-a", 1.0f);
+        Map<String, Object> reintento = nuevaVentaLote("0001-terminal-a", 2.0f);
+        
+        // When: Se envía el lote a /lbf/ventas/lote
+        ResultActions response = mockMvc.perform(post("/lbf/ventas/lote")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Arrays.asList(primera, segunda, reintento))));
+        
+        // Then: Solo se crean dos ventas y el reintento se reporta como duplicado
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].estado", is("CREADA")))
+                .andExpect(jsonPath("$[1].estado", is("CREADA")))
+                .andExpect(jsonPath("$[2].estado", is("DUPLICADA")));
+        
+        Producto updatedProducto = productoRepository.findById(producto1.getProductoId()).orElseThrow();
+        assertEquals(97.0f, updatedProducto.getStock()); // 100 - 2 - 1 = 97
+        
+        // When: Se reenvía el mismo lote completo
+        mockMvc.perform(post("/lbf/ventas/lote")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Arrays.asList(primera, segunda))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].estado", is("DUPLICADA")))
+                .andExpect(jsonPath("$[1].estado", is("DUPLICADA")));
+        
+        // Then: El stock no vuelve a descontarse
+        updatedProducto = productoRepository.findById(producto1.getProductoId()).orElseThrow();
+        assertEquals(97.0f, updatedProducto.getStock());
+    }
+    
+    @Test
+    @DisplayName("Debería paginar las ventas de monitoreo con un cursor")
+    public void shouldPageMonitoringSalesWithCursor() throws Exception {
+        // Given: Tres ventas más, además de las creadas en la preparación
+        mockMvc.perform(post("/lbf/ventas/lote")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Arrays.asList(
+                        nuevaVentaLote("0001-terminal-b", 1.0f),
+                        nuevaVentaLote("0002-terminal-b", 1.0f),
+                        nuevaVentaLote("0003-terminal-b", 1.0f)))))
+                .andExpect(status().isOk());
+        String fechaInicio = LocalDate.now().minusDays(30).toString();
+        String fechaFin = LocalDate.now().plusDays(1).toString();
+        
+        List<Integer> todas = JsonPath.read(mockMvc.perform(get("/lbf/ventas/rango-monitoreo")
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("fechaInicio", fechaInicio)
+                .param("fechaFin", fechaFin))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), "$[*].venta.ventaId");
+        
+        // When: Se recorre el mismo rango en páginas de dos ventas
+        List<Integer> paginadas = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletResponse pagina = mockMvc.perform(get("/lbf/ventas/rango-monitoreo")
+                    .with(user("test").password("test").roles("ADMIN"))
+                    .param("fechaInicio", fechaInicio)
+                    .param("fechaFin", fechaFin)
+                    .param("limite", "2")
+                    .param("cursor", cursor == null ? "" : cursor))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(lessThanOrEqualTo(2))))
+                    .andExpect(jsonPath("$[*].lineas[0].nombre", everyItem(notNullValue())))
+                    .andReturn().getResponse();
+            paginadas.addAll(JsonPath.read(pagina.getContentAsString(), "$[*].venta.ventaId"));
+            cursor = pagina.getHeader("X-Siguiente-Cursor");
+        } while (cursor != null);
+        
+        // Then: Las páginas traen todas las ventas, en el mismo orden y sin repetir
+        assert todas.size() >= 3;
+        assert paginadas.equals(todas);
+    }
+    
+    @Test
+    @DisplayName("Debería exportar las ventas de un rango en NDJSON y CSV")
+    public void shouldExportSalesAsNdjsonAndCsv() throws Exception {
+        // Given: Dos ventas de una línea registradas por lote
+        mockMvc.perform(post("/lbf/ventas/lote")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Arrays.asList(
+                        nuevaVentaLote("0001-terminal-c", 1.0f),
+                        nuevaVentaLote("0002-terminal-c", 2.0f)))))
+                .andExpect(status().isOk());
+        String fechaInicio = LocalDate.now().minusDays(30).toString();
+        String fechaFin = LocalDate.now().plusDays(1).toString();
+        
+        // When: Se exporta el rango en NDJSON
+        MvcResult ndjson = mockMvc.perform(get("/lbf/ventas/exportar")
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("fechaInicio", fechaInicio)
+                .param("fechaFin", fechaFin))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        // Then: Cada venta es un objeto JSON en su propia línea, con sus líneas anidadas
+        String[] ventas = mockMvc.perform(asyncDispatch(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assert ventas.length >= 2;
+        for (String venta : ventas) {
+            Map<?, ?> leida = objectMapper.readValue(venta, Map.class);
+            assert leida.containsKey("ventaId");
+            assert leida.get("lineas") instanceof List;
+        }
+        
+        // When: Se exporta el mismo rango en CSV
+        MvcResult csv = mockMvc.perform(get("/lbf/ventas/exportar")
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("fechaInicio", fechaInicio)
+                .param("fechaFin", fechaFin)
+                .param("formato", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        // Then: Hay un encabezado y una fila por cada venta de una línea
+        String[] filas = mockMvc.perform(asyncDispatch(csv))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assert filas[0].startsWith("ventaId,fecha");
+        assert filas.length - 1 >= ventas.length;
+    }
+    
+    @Test
+    @DisplayName("Debería mantener el resumen diario al crear y anular ventas")
+    public void shouldKeepDailyRollupOnCreateAndCancel() throws Exception {
+        LocalDate fechaInicio = LocalDate.now().minusDays(30);
+        LocalDate fechaFin = LocalDate.now().plusDays(1);
+        BigDecimal totalInicial = totalDelResumen(fechaInicio, fechaFin);
+        
+        // Given: Dos ventas de 10 y 20 registradas por lote
+        String resultados = mockMvc.perform(post("/lbf/ventas/lote")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Arrays.asList(
+                        nuevaVentaLote("0001-terminal-d", 1.0f),
+                        nuevaVentaLote("0002-terminal-d", 2.0f)))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Integer ventaAnulada = JsonPath.read(resultados, "$[1].ventaId");
+        
+        // Then: El total del resumen sube en 30
+        assert totalDelResumen(fechaInicio, fechaFin).compareTo(totalInicial.add(new BigDecimal("30"))) == 0;
+        
+        // When: Se anula la venta de 20, dos veces
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(delete("/lbf/ventas/{id}", ventaAnulada)
+                    .with(user("test").password("test").roles("ADMIN")))
+                    .andExpect(status().isNoContent());
+        }
+        
+        // Then: Solo se descuenta una vez
+        assert totalDelResumen(fechaInicio, fechaFin).compareTo(totalInicial.add(new BigDecimal("10"))) == 0;
+        
+        // When: Se reconstruye el resumen del rango
+        mockMvc.perform(post("/lbf/reportes/resumen/reconstruir")
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("fechaInicio", fechaInicio.toString())
+                .param("fechaFin", fechaFin.toString()))
+                .andExpect(status().isOk());
+        
+        // Then: Coincide con la suma directa de las ventas no anuladas
+        BigDecimal totalVentas = ventaRepository.calcularTotalVentasPorRango(fechaInicio, fechaFin);
+        assert totalDelResumen(fechaInicio, fechaFin).compareTo(totalVentas) == 0;
+    }
+    
+    @Test
+    @DisplayName("Debería encolar una venta en modo rápido y confirmarla en segundo plano")
+    public void shouldQueueFastSaleAndCommitInBackground() throws Exception {
+        // When: Se registra una venta en modo rápido
+        String acuse = mockMvc.perform(post("/lbf/ventas/rapida")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(nuevaVentaLote("0001-terminal-e", 3.0f))))
+                // Then: Se acepta con el folio provisional
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.claveIdempotencia", is("0001-terminal-e")))
+                .andExpect(jsonPath("$.estado", is("PENDIENTE")))
+                .andReturn().getResponse().getContentAsString();
+        String folio = JsonPath.read(acuse, "$.claveIdempotencia");
+        
+        // Then: El escritor la confirma y descuenta el stock
+        String estado = "PENDIENTE";
+        for (int intento = 0; intento < 50 && "PENDIENTE".equals(estado); intento++) {
+            Thread.sleep(100);
+            estado = JsonPath.read(mockMvc.perform(get("/lbf/ventas/rapida/{folio}", folio)
+                    .with(user("test").password("test").roles("ADMIN")))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(), "$.estado");
+        }
+        assert "CREADA".equals(estado);
+        assert productoRepository.findById(producto1.getProductoId()).orElseThrow().getStock() == 97.0f;
+        
+        mockMvc.perform(get("/lbf/ventas/rapida/metricas")
+                .with(user("test").password("test").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.confirmadas", greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$.enCola", is(0)));
+    }
+    
+    @Test
+    @DisplayName("Debería rechazar en modo rápido una venta sin productos")
+    public void shouldRejectInvalidFastSale() throws Exception {
+        Map<String, Object> venta = Map.of(
+                "usuarioId", vendedor.getId(),
+                "conIva", false,
+                "productos", List.of());
+        
+        mockMvc.perform(post("/lbf/ventas/rapida")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(venta)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.estado", is("ERROR")));
+    }
+    
+    @Test
+    @DisplayName("Debería agrupar las ventas por día de la semana y hora en el mapa de calor")
+    public void shouldReportSalesHeatmapByWeekdayAndHour() throws Exception {
+        // Given: Una venta registrada con su marca de tiempo
+        String resultados = mockMvc.perform(post("/lbf/ventas/lote")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Arrays.asList(nuevaVentaLote("0001-terminal-f", 1.0f)))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Integer ventaId = JsonPath.read(resultados, "$[0].ventaId");
+        LocalDateTime fechaHora = ventaRepository.findById(ventaId.longValue()).orElseThrow().getFechaHora();
+        assert fechaHora != null;
+        
+        // When: Se consulta el mapa de calor del día de la venta
+        MvcResult resultado = mockMvc.perform(get("/lbf/reportes/ventas-por-hora")
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("fechaInicio", fechaHora.toLocalDate().toString())
+                .param("fechaFin", fechaHora.toLocalDate().toString()))
+                .andExpect(status().isOk())
+                .andReturn();
+        
+        // Then: La venta cae en la celda de su día (1 = domingo) y su hora
+        int diaSemana = fechaHora.getDayOfWeek().getValue() % 7 + 1;
+        List<Integer> tickets = JsonPath.read(resultado.getResponse().getContentAsString(),
+                "$[?(@.diaSemana == " + diaSemana + " && @.hora == " + fechaHora.getHour() + ")].tickets");
+        assert tickets.size() == 1 && tickets.get(0) >= 1;
+    }
+    
+    @Test
+    @DisplayName("Debería listar usuarios sin ventas y paginar su historial")
+    public void shouldListUserSummariesAndPageSalesHistory() throws Exception {
+        // Given: Tres ventas del vendedor, una registrada por lote para que llegue al resumen diario
+        mockMvc.perform(post("/lbf/ventas/lote")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Arrays.asList(nuevaVentaLote("0001-terminal-g", 1.0f)))))
+                .andExpect(status().isOk());
+        
+        // When: Se listan los usuarios
+        mockMvc.perform(get("/lbf/usuarios")
+                .with(user("test").password("test").roles("ADMIN")))
+                // Then: Sin contraseña ni ventas, con los tickets del resumen
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.id == " + vendedor.getId() + ")].tickets", contains(1)))
+                .andExpect(jsonPath("$[0].contrasena").doesNotExist())
+                .andExpect(jsonPath("$[0].ventas").doesNotExist());
+        
+        // When: Se recorre el historial del vendedor de dos en dos
+        MvcResult primera = mockMvc.perform(get("/lbf/usuarios/{id}/ventas", vendedor.getId())
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("limite", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(header().exists(VentaController.ENCABEZADO_SIGUIENTE_CURSOR))
+                .andReturn();
+        
+        // Then: La segunda página trae la venta restante y ya no hay cursor
+        mockMvc.perform(get("/lbf/usuarios/{id}/ventas", vendedor.getId())
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("limite", "2")
+                .param("cursor", primera.getResponse().getHeader(VentaController.ENCABEZADO_SIGUIENTE_CURSOR)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist(VentaController.ENCABEZADO_SIGUIENTE_CURSOR));
+    }
+    
+    @Test
+    @DisplayName("Debería cotizar y cobrar un carrito compacto con precios del catálogo")
+    public void shouldQuoteAndChargeCompactCartFromCatalogPrices() throws Exception {
+        // Given: Un producto con dos descuentos y un carrito que solo envía ID, cantidad e índice de descuento
+        Producto conDescuentos = new Producto();
+        conDescuentos.setNombre("Producto con descuentos");
+        conDescuentos.setPrecio(12.5f);
+        conDescuentos.setStock(10.0f);
+        conDescuentos.setDescuentos(Arrays.asList(10.0f, 20.0f));
+        conDescuentos.setCategoria(producto1.getCategoria());
+        productoRepository.save(conDescuentos);
+
+        List<Map<String, Object>> lineas = List.of(
+                Map.of("productoId", conDescuentos.getProductoId(), "cantidad", 3.0f, "descuentoIndice", 1),
+                Map.of("productoId", producto2.getProductoId(), "cantidad", 1.5f));
+        Map<String, Object> carrito = Map.of("conIva", true, "lineas", lineas);
+
+        // When: Se cotiza el carrito
+        mockMvc.perform(post("/lbf/ventas/cotizar")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(carrito)))
+                // Then: Los precios salen del catálogo con el descuento elegido
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lineas[0].precioUnitario", is(12.5)))
+                .andExpect(jsonPath("$.lineas[0].descuento", is(20.0)))
+                .andExpect(jsonPath("$.lineas[0].subtotal", is(30.0)))
+                .andExpect(jsonPath("$.subtotal", is(60.0)))
+                .andExpect(jsonPath("$.iva", is(9.6)))
+                .andExpect(jsonPath("$.total", is(69.6)));
+
+        // When: Se cobra el mismo carrito
+        mockMvc.perform(post("/lbf/ventas")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of(
+                        "usuarioId", vendedor.getId(), "conIva", true, "lineas", lineas))))
+                // Then: La venta guarda el total cotizado y descuenta el stock
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.total", is(69.6)));
+        assert productoRepository.findById(conDescuentos.getProductoId()).orElseThrow().getStock() == 7.0f;
+
+        // When/Then: Un índice de descuento inexistente se rechaza
+        mockMvc.perform(post("/lbf/ventas/cotizar")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("lineas", List.of(
+                        Map.of("productoId", conDescuentos.getProductoId(), "cantidad", 1.0f, "descuentoIndice", 5))))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Debería corregir en la revisión periódica un precio cambiado sin aviso")
+    public void shouldReconcilePriceTableWithCatalogSeq() throws Exception {
+        // Given: Un producto ya cotizado, cuyo precio cambia directo en el repositorio sin publicar el cambio
+        Producto producto = new Producto();
+        producto.setNombre("Producto sin aviso");
+        producto.setPrecio(10.0f);
+        producto.setStock(10.0f);
+        producto.setCategoria(producto1.getCategoria());
+        productoRepository.save(producto);
+        Map<String, Object> carrito = Map.of("lineas", List.of(
+                Map.of("productoId", producto.getProductoId(), "cantidad", 1.0f)));
+        mockMvc.perform(post("/lbf/ventas/cotizar")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(carrito)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(10.0)));
+
+        producto = productoRepository.findById(producto.getProductoId()).orElseThrow();
+        producto.setPrecio(15.0f);
+        productoRepository.save(producto);
+
+        // When: Corre la revisión contra catalogo_seq
+        tablaPreciosService.revisar();
+
+        // Then: La cotización usa el precio nuevo
+        mockMvc.perform(post("/lbf/ventas/cotizar")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(carrito)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(15.0)));
+
+        // Una segunda revisión sin cambios no relee nada nuevo del producto
+        tablaPreciosService.revisar();
+        assertEquals(0, tablaPreciosService.revisar());
+    }
+
+    @Test
+    @DisplayName("Debería aceptar en el formato anterior solo los descuentos configurados del producto")
+    public void shouldOnlyAcceptConfiguredDiscountsInLegacyFormat() throws Exception {
+        // Given: Un producto con descuentos de 10% y 20%
+        Producto conDescuentos = new Producto();
+        conDescuentos.setNombre("Producto con descuentos");
+        conDescuentos.setPrecio(12.5f);
+        conDescuentos.setStock(10.0f);
+        conDescuentos.setDescuentos(Arrays.asList(10.0f, 20.0f));
+        conDescuentos.setCategoria(producto1.getCategoria());
+        productoRepository.save(conDescuentos);
+
+        // When: Se cotiza una línea completa con uno de sus descuentos y un precio alterado
+        mockMvc.perform(post("/lbf/ventas/cotizar")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(lineaCompleta(conDescuentos, 20.0f))))
+                // Then: Se aplica el descuento del catálogo sobre el precio del catálogo
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lineas[0].precioUnitario", is(12.5)))
+                .andExpect(jsonPath("$.lineas[0].descuento", is(20.0)))
+                .andExpect(jsonPath("$.total", is(20.0)));
+
+        // When/Then: Un porcentaje que el producto no tiene se rechaza
+        mockMvc.perform(post("/lbf/ventas/cotizar")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(lineaCompleta(conDescuentos, 90.0f))))
+                .andExpect(status().isBadRequest());
+
+        // Y también al cobrar
+        Map<String, Object> venta = new HashMap<>(lineaCompleta(conDescuentos, 90.0f));
+        venta.put("usuarioId", vendedor.getId());
+        mockMvc.perform(post("/lbf/ventas")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(venta)))
+                .andExpect(status().isBadRequest());
+        assertEquals(10.0f, productoRepository.findById(conDescuentos.getProductoId()).orElseThrow().getStock());
+    }
+
+    @Test
+    @DisplayName("Debería rechazar y revertir una venta que supera el stock disponible")
+    public void shouldRejectSaleExceedingAvailableStock() throws Exception {
+        // Given: Un carrito con un producto disponible y otro que pide más de su stock (50)
+        long ventasAntes = ventaRepository.count();
+        List<Map<String, Object>> lineas = List.of(
+                Map.of("productoId", producto1.getProductoId(), "cantidad", 2.0f),
+                Map.of("productoId", producto2.getProductoId(), "cantidad", 60.0f));
+
+        // When: Se cobra el carrito
+        mockMvc.perform(post("/lbf/ventas")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of(
+                        "usuarioId", vendedor.getId(), "conIva", false, "lineas", lineas))))
+                // Then: Se rechaza la venta
+                .andExpect(status().isBadRequest());
+
+        // Y no queda la venta ni se descuenta el stock de ningún producto
+        assertEquals(ventasAntes, ventaRepository.count());
+        assertEquals(100.0f, productoRepository.findById(producto1.getProductoId()).orElseThrow().getStock());
+        assertEquals(50.0f, productoRepository.findById(producto2.getProductoId()).orElseThrow().getStock());
+        libroInventarioService.vaciar();
+        assertEquals(0, movimientoInventarioRepository.count());
+    }
+
+    @Test
+    @DisplayName("Debería registrar en el kardex las salidas de una venta y las entradas de su anulación")
+    public void shouldRecordSaleAndCancellationInInventoryLedger() throws Exception {
+        // Given: Una venta de dos productos
+        List<Map<String, Object>> lineas = List.of(
+                Map.of("productoId", producto1.getProductoId(), "cantidad", 2.0f),
+                Map.of("productoId", producto2.getProductoId(), "cantidad", 1.0f));
+        String venta = mockMvc.perform(post("/lbf/ventas")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of(
+                        "usuarioId", vendedor.getId(), "conIva", false, "lineas", lineas))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Integer ventaId = JsonPath.read(venta, "$.ventaId");
+
+        // When: Se anula la venta y el libro escribe lo pendiente
+        mockMvc.perform(delete("/lbf/ventas/{id}", ventaId)
+                .with(user("test").password("test").roles("ADMIN")))
+                .andExpect(status().isNoContent());
+        libroInventarioService.vaciar();
+
+        // Then: Cada producto tiene su salida por la venta y su entrada por la anulación
+        mockMvc.perform(get("/api/inventario/movimientos/{productoId}", producto1.getProductoId())
+                .with(user("test").password("test").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[*][1]", containsInAnyOrder("SALIDA", "ENTRADA")))
+                .andExpect(jsonPath("$[*][5]", containsInAnyOrder("Venta " + ventaId, "Anulación de venta " + ventaId)));
+        assert movimientoInventarioRepository.findAll().stream()
+                .filter(m -> m.getMotivo().equals("Venta " + ventaId))
+                .allMatch(m -> "vendedor".equals(m.getUsuario()));
+
+        // Y la bandeja queda vacía
+        mockMvc.perform(get("/api/inventario/libro/metricas")
+                .with(user("test").password("test").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pendientesEnBase", is(0)));
+    }
+
+    @Test
+    @DisplayName("Debería guardar los importes de cada renglón al centavo y sumarlos por mes")
+    public void shouldStoreExactLineAmountsAndSumThemByMonth() throws Exception {
+        // Given: Un producto de 0.35 cuyo triple en float no es 1.05
+        Producto centavos = new Producto();
+        centavos.setNombre("Dulce");
+        centavos.setPrecio(0.35f);
+        centavos.setStock(10.0f);
+        centavos.setCategoria(producto1.getCategoria());
+        productoRepository.save(centavos);
+        int año = LocalDate.now().getYear();
+        int mes = LocalDate.now().getMonthValue();
+
+        // When: Se cobran tres piezas
+        String venta = mockMvc.perform(post("/lbf/ventas")
+                .with(user("test").password("test").roles("ADMIN"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("usuarioId", vendedor.getId(), "conIva", false,
+                        "lineas", List.of(Map.of("productoId", centavos.getProductoId(), "cantidad", 3.0f))))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Integer ventaId = JsonPath.read(venta, "$.ventaId");
+
+        // Then: El renglón guarda el precio y el subtotal exactos
+        ProductoVendido renglon = ventaRepository.findConDetalleByVentaIdIn(List.of(ventaId.longValue()))
+                .get(0).getProductosVendidos().get(0);
+        assertEquals(new BigDecimal("0.35"), renglon.getPrecioUnitario());
+        assertEquals(new BigDecimal("1.05"), renglon.getSubtotal());
+
+        // Y el reporte mensual suma el total del resumen diario en la base
+        mockMvc.perform(get("/lbf/reportes/ventas-mensuales")
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("año", String.valueOf(año)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.mes == " + mes + ")].total", hasItem(
+                        totalDelResumen(LocalDate.of(año, mes, 1), LocalDate.now()).doubleValue())));
+    }
+
+    private BigDecimal totalDelResumen(LocalDate fechaInicio, LocalDate fechaFin) throws Exception {
+        String total = mockMvc.perform(get("/lbf/ventas/total")
+                .with(user("test").password("test").roles("ADMIN"))
+                .param("fechaInicio", fechaInicio.toString())
+                .param("fechaFin", fechaFin.toString()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return new BigDecimal(total);
+    }
+    
+    // Carrito en el formato anterior: el precio enviado es 1.0 y el descuento es un porcentaje
+    private Map<String, Object> lineaCompleta(Producto producto, Float descuento) {
+        Map<String, Object> linea = Map.of(
+                "cantidad", 2.0f,
+                "precioUnitario", 1.0f,
+                "descuento", descuento,
+                "producto", Map.of("productoId", producto.getProductoId()));
+        return Map.of("conIva", false, "productos", List.of(linea));
+    }
+
+    // El producto de cada línea es una referencia inversa en la entidad, así que se arma el JSON a mano
+    private Map<String, Object> nuevaVentaLote(String claveIdempotencia, Float cantidad) {
+        Map<String, Object> producto = Map.of(
+                "productoId", producto1.getProductoId(),
+                "precio", producto1.getPrecio());
+        Map<String, Object> linea = Map.of(
+                "cantidad", cantidad,
+                "descuento", 0.0f,
+                "producto", producto);
+        return Map.of(
+                "usuarioId", vendedor.getId(),
+                "conIva", false,
+                "claveIdempotencia", claveIdempotencia,
+                "productos", List.of(linea));
+    }
+    
     // Clase auxiliar para la creación de ventas en la prueba
     static class VentaRequest {
         private Long usuarioId;
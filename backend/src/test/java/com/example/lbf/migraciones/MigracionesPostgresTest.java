@@ -0,0 +1,247 @@
+package com.example.lbf.migraciones;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Pruebas de las migraciones contra un Postgres real. Las pruebas de integración usan H2 con
+ * el esquema de Hibernate, así que el SQL de las migraciones (particiones, funciones y
+ * llaves) solo se ejecuta aquí.
+ *
+ * Se parte de una base con el esquema anterior a las migraciones y algunos datos, como la
+ * de una tienda que se actualiza, y se aplican todas las migraciones encima.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("Pruebas de las migraciones en Postgres")
+public class MigracionesPostgresTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbc;
+
+    // Hora en milisegundos antes de migrar: la última posición que pudo dar el reloj anterior
+    private static long antesDeMigrar;
+
+    @BeforeAll
+    public static void migrar() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        jdbc = new JdbcTemplate(dataSource);
+
+        // Esquema que Hibernate había creado antes de las migraciones
+        jdbc.execute("CREATE TABLE producto (producto_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "nombre VARCHAR(255), codigo_barras VARCHAR(255), stock REAL)");
+        jdbc.execute("CREATE TABLE venta (venta_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "usuario_id BIGINT, cliente_id BIGINT, total NUMERIC(38, 2), fecha DATE, con_iva BOOLEAN, "
+                + "hora VARCHAR(255), sucursal VARCHAR(255), anulada BOOLEAN)");
+        jdbc.execute("CREATE TABLE producto_vendido (producto_vendido_id BIGINT GENERATED BY DEFAULT AS IDENTITY "
+                + "PRIMARY KEY, venta_id BIGINT REFERENCES venta (venta_id), producto_id BIGINT, cantidad REAL, "
+                + "precio_unitario REAL, descuento REAL, subtotal REAL)");
+        jdbc.execute("CREATE TABLE movimiento_inventario (movimiento_id BIGINT GENERATED BY DEFAULT AS IDENTITY "
+                + "PRIMARY KEY, producto_id BIGINT, cantidad REAL, tipo_movimiento VARCHAR(255), motivo VARCHAR(255), "
+                + "fecha TIMESTAMP(6), stock_anterior REAL, stock_nuevo REAL, usuario VARCHAR(255))");
+
+        jdbc.update("INSERT INTO producto (nombre, codigo_barras, stock) VALUES ('Sandwich', ' 7501 ', 10), "
+                + "('Jugo', '', 5)");
+        jdbc.update("INSERT INTO venta (usuario_id, total, fecha, hora, sucursal, anulada) VALUES "
+                + "(1, 100.00, DATE '2024-05-10', '03:15 PM', 'Centro', false), "
+                + "(1, 50.00, DATE '2024-06-02', '10:00 AM', 'Centro', false)");
+        jdbc.update("INSERT INTO producto_vendido (venta_id, producto_id, cantidad, precio_unitario, subtotal) "
+                + "SELECT venta_id, 1, 2, 50, 100 FROM venta");
+        jdbc.update("INSERT INTO movimiento_inventario (producto_id, cantidad, tipo_movimiento, fecha) "
+                + "VALUES (1, 2, 'SALIDA', TIMESTAMP '2024-05-10 15:15:00')");
+
+        // Misma configuración que application.properties
+        antesDeMigrar = System.currentTimeMillis();
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Debería particionar las tablas existentes conservando sus datos")
+    public void shouldPartitionExistingTablesKeepingData() {
+        assertEquals(2, contar("venta"));
+        assertEquals(2, contar("producto_vendido"));
+        assertEquals(1, contar("movimiento_inventario"));
+
+        // Cada mes con datos tiene su partición y la por defecto queda vacía
+        assertEquals(1, contar("venta_2024_05"));
+        assertEquals(1, contar("producto_vendido_2024_06"));
+        assertEquals(1, contar("movimiento_inventario_2024_05"));
+        assertEquals(0, contar("venta_default"));
+
+        // Los renglones recibieron la fecha de su venta y la llave foránea apunta a (venta_id, fecha)
+        assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM producto_vendido pv "
+                + "LEFT JOIN venta v ON v.venta_id = pv.venta_id AND v.fecha = pv.fecha WHERE v.venta_id IS NULL",
+                Integer.class));
+        assertTrue(existeLlave("fk_producto_vendido_venta"));
+        assertNotNull(jdbc.queryForObject("SELECT fecha_hora FROM venta WHERE fecha = DATE '2024-05-10'",
+                Object.class));
+
+        // Los importes de los renglones pasaron de REAL a NUMERIC en todas las particiones
+        assertEquals(new BigDecimal("100.00"), jdbc.queryForObject(
+                "SELECT subtotal FROM producto_vendido_2024_05", BigDecimal.class));
+        assertEquals("numeric", jdbc.queryForObject("SELECT data_type FROM information_schema.columns "
+                + "WHERE table_name = 'producto_vendido_default' AND column_name = 'precio_unitario'", String.class));
+
+        // Los productos existentes parten con la misma posición de catálogo y de cambios
+        assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM producto "
+                + "WHERE catalogo_seq IS DISTINCT FROM cambio_seq", Integer.class));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Debería mover a su partición las ventas y renglones que cayeron en la partición por defecto")
+    public void shouldMoveDefaultRowsIntoNewMonthPartition() {
+        // Given: Una venta con dos renglones de un mes sin partición
+        Long ventaId = jdbc.queryForObject("INSERT INTO venta (venta_id, total, fecha) "
+                + "VALUES (nextval('venta_seq'), 30.00, DATE '2020-01-15') RETURNING venta_id", Long.class);
+        jdbc.update("INSERT INTO producto_vendido (producto_vendido_id, venta_id, producto_id, fecha, cantidad) "
+                + "VALUES (nextval('producto_vendido_seq'), ?, 1, DATE '2020-01-15', 1), "
+                + "(nextval('producto_vendido_seq'), ?, 2, DATE '2020-01-15', 2)", ventaId, ventaId);
+        jdbc.update("INSERT INTO movimiento_inventario (movimiento_id, producto_id, cantidad, fecha) "
+                + "VALUES (nextval('movimiento_inventario_seq'), 1, 1, TIMESTAMP '2020-01-15 12:00:00')");
+        assertEquals(1, contar("venta_default"));
+        assertEquals(2, contar("producto_vendido_default"));
+
+        // When: Se crean las particiones del mes
+        Integer creadas = jdbc.queryForObject("SELECT crear_particiones_venta_mes(DATE '2020-01-01')", Integer.class);
+        Boolean movimientos = jdbc.queryForObject(
+                "SELECT crear_particion_mensual('movimiento_inventario', 'fecha', DATE '2020-01-01')", Boolean.class);
+
+        // Then: Las filas quedaron en la partición del mes, con la llave foránea validada
+        assertEquals(2, creadas);
+        assertTrue(movimientos);
+        assertEquals(0, contar("venta_default"));
+        assertEquals(0, contar("producto_vendido_default"));
+        assertEquals(0, contar("movimiento_inventario_default"));
+        assertEquals(1, contar("venta_2020_01"));
+        assertEquals(2, contar("producto_vendido_2020_01"));
+        assertEquals(1, contar("movimiento_inventario_2020_01"));
+        assertTrue(esParticion("venta_2020_01"));
+        assertTrue(esParticion("producto_vendido_2020_01"));
+
+        // Y la llave sigue protegiendo los renglones
+        assertThrows(Exception.class, () -> jdbc.update("DELETE FROM venta WHERE venta_id = ?", ventaId));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Debería crear las particiones futuras una sola vez")
+    public void shouldCreateFuturePartitionsOnce() {
+        // Las de los próximos meses ya las creó la migración
+        assertEquals(0, jdbc.queryForObject("SELECT crear_particiones_futuras(3)", Integer.class));
+
+        jdbc.update("INSERT INTO venta (venta_id, total, fecha) VALUES (nextval('venta_seq'), 10.00, current_date)");
+        assertEquals(0, contar("venta_default"));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Debería separar un mes de las tres tablas sin perder sus datos")
+    public void shouldDetachMonthPartitions() {
+        // When: Se separa el mes
+        jdbc.execute("SELECT separar_particiones_mes(DATE '2020-01-01')");
+
+        // Then: Las tablas del mes quedan fuera de las particionadas y conservan sus filas
+        for (String tabla : List.of("venta_2020_01", "producto_vendido_2020_01", "movimiento_inventario_2020_01")) {
+            assertFalse(esParticion(tabla), tabla);
+        }
+        assertEquals(1, contar("venta_2020_01"));
+        assertEquals(2, contar("producto_vendido_2020_01"));
+        assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM venta WHERE fecha = DATE '2020-01-15'",
+                Integer.class));
+        assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM pg_constraint "
+                + "WHERE conrelid = 'producto_vendido_2020_01'::regclass AND contype = 'f'", Integer.class));
+
+        // Los demás meses siguen enlazados por la llave foránea
+        assertTrue(existeLlave("fk_producto_vendido_venta"));
+        assertEquals(2, contar("producto_vendido"));
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("Debería dejar como único o renombrar el índice de código de barras que V5 creó sin unicidad")
+    public void shouldFixNonUniqueBarcodeIndex() throws Exception {
+        String v13 = new ClassPathResource("db/migration/V13__producto_codigo_barras_indice.sql")
+                .getContentAsString(StandardCharsets.UTF_8);
+        assertTrue(esUnico("uk_producto_codigo_barras"));
+
+        // Given: El índice no único que V5 creaba cuando había códigos repetidos
+        jdbc.execute("DROP INDEX uk_producto_codigo_barras");
+        jdbc.execute("CREATE INDEX uk_producto_codigo_barras ON producto (codigo_barras)");
+        jdbc.update("INSERT INTO producto (nombre, codigo_barras, stock) VALUES ('Sandwich doble', '7501', 1)");
+
+        // When: V13 corre con los repetidos todavía en la tabla
+        jdbc.execute(v13);
+
+        // Then: El índice ya no se llama como uno único
+        assertNull(jdbc.queryForObject("SELECT to_regclass('uk_producto_codigo_barras')::text", String.class));
+        assertFalse(esUnico("idx_producto_codigo_barras"));
+
+        // When: Se corrigen los repetidos y se vuelve a aplicar sobre el índice anterior
+        jdbc.update("DELETE FROM producto WHERE nombre = 'Sandwich doble'");
+        jdbc.execute("ALTER INDEX idx_producto_codigo_barras RENAME TO uk_producto_codigo_barras");
+        jdbc.execute(v13);
+
+        // Then: Queda como índice único y rechaza un código repetido
+        assertTrue(esUnico("uk_producto_codigo_barras"));
+        assertThrows(Exception.class, () -> jdbc.update(
+                "INSERT INTO producto (nombre, codigo_barras, stock) VALUES ('Sandwich doble', '7501', 1)"));
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("Debería continuar las posiciones de sincronización desde una secuencia arriba del reloj anterior")
+    public void shouldContinuePositionsFromSequence() {
+        long primera = jdbc.queryForObject("SELECT nextval('cambio_catalogo_seq')", Long.class);
+        long segunda = jdbc.queryForObject("SELECT nextval('cambio_catalogo_seq')", Long.class);
+
+        assertTrue(primera > antesDeMigrar);
+        assertEquals(primera + 1, segunda);
+    }
+
+    private static int contar(String tabla) {
+        return jdbc.queryForObject("SELECT count(*) FROM " + tabla, Integer.class);
+    }
+
+    private static boolean esParticion(String tabla) {
+        return jdbc.queryForObject("SELECT EXISTS (SELECT 1 FROM pg_inherits WHERE inhrelid = to_regclass(?))",
+                Boolean.class, tabla);
+    }
+
+    private static boolean esUnico(String indice) {
+        return jdbc.queryForObject("SELECT indisunique FROM pg_index WHERE indexrelid = to_regclass(?)",
+                Boolean.class, indice);
+    }
+
+    private static boolean existeLlave(String nombre) {
+        return jdbc.queryForObject("SELECT EXISTS (SELECT 1 FROM pg_constraint "
+                + "WHERE conname = ? AND conrelid = 'producto_vendido'::regclass)", Boolean.class, nombre);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.lbf.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Pruebas de la aritmética de dinero en enteros")
+public class DineroTest {
+
+    @Test
+    @DisplayName("Debería convertir importes a centavos redondeando la mitad alejándose de cero")
+    public void shouldConvertToCentsRoundingHalfAwayFromZero() {
+        assertEquals(1999L, Dinero.centavos(19.99f));
+        assertEquals(0L, Dinero.centavos(0.0));
+        // 0.125 y 0.375 son exactos en binario: la mitad de centavo se redondea hacia afuera
+        assertEquals(13L, Dinero.centavos(0.125));
+        assertEquals(-13L, Dinero.centavos(-0.125));
+        assertEquals(38L, Dinero.centavos(0.375));
+        assertEquals(-38L, Dinero.centavos(-0.375));
+        assertEquals(12L, Dinero.centavos(0.1249));
+        assertEquals(-12L, Dinero.centavos(-0.1249));
+
+        assertEquals(1235L, Dinero.centavos(new BigDecimal("12.345")));
+        assertEquals(-1235L, Dinero.centavos(new BigDecimal("-12.345")));
+        assertEquals(1234L, Dinero.centavos(new BigDecimal("12.344")));
+        assertEquals(500L, Dinero.centavos(new BigDecimal("5")));
+        assertEquals(new BigDecimal("-0.05"), Dinero.decimal(-5L));
+        assertEquals(new BigDecimal("123.40"), Dinero.decimal(12340L));
+    }
+
+    @Test
+    @DisplayName("Debería fallar en lugar de desbordarse al convertir a centavos")
+    public void shouldFailInsteadOfOverflowingCents() {
+        assertThrows(ArithmeticException.class, () -> Dinero.centavos(1e17));
+        assertThrows(ArithmeticException.class, () -> Dinero.centavos(-1e17));
+        assertThrows(ArithmeticException.class, () -> Dinero.centavos(Double.NaN));
+        assertThrows(ArithmeticException.class, () -> Dinero.centavos(Double.POSITIVE_INFINITY));
+        assertThrows(ArithmeticException.class, () -> Dinero.centavos(new BigDecimal("1E17")));
+    }
+
+    @Test
+    @DisplayName("Debería convertir cantidades a milésimas y porcentajes a puntos base")
+    public void shouldConvertQuantitiesAndPercentages() {
+        assertEquals(1500L, Dinero.milesimas(1.5f));
+        assertEquals(250L, Dinero.milesimas(0.25f));
+        assertEquals(63L, Dinero.milesimas(0.0625));
+        assertEquals(-63L, Dinero.milesimas(-0.0625));
+        assertEquals(-2000L, Dinero.milesimas(-2.0));
+        assertThrows(ArithmeticException.class, () -> Dinero.milesimas(1e16));
+
+        assertEquals(1250, Dinero.puntosBase(12.5f));
+        assertEquals(10_000, Dinero.puntosBase(100));
+        assertEquals(13, Dinero.puntosBase(0.125));
+        assertEquals(-1250, Dinero.puntosBase(-12.5));
+        // No cabe en int aunque sí en long
+        assertThrows(ArithmeticException.class, () -> Dinero.puntosBase(1e8));
+    }
+
+    @Test
+    @DisplayName("Debería redondear el importe de una línea una sola vez")
+    public void shouldRoundLineAmountOnce() {
+        // 3 × 19.99 con 10% de descuento = 53.973
+        assertEquals(5397L, Dinero.importeLinea(1999L, 1000, 3000L));
+        // 0.333 kg a 10.00 = 3.33; con 50% de descuento = 1.665 → 1.67
+        assertEquals(333L, Dinero.importeLinea(1000L, 0, 333L));
+        assertEquals(167L, Dinero.importeLinea(1000L, 5000, 333L));
+        assertEquals(-167L, Dinero.importeLinea(1000L, 5000, -333L));
+        // Redondear cada paso daría 0.01 × 0.5 = 0.005 → 0.01 por pieza, 1.00 por cien piezas
+        assertEquals(50L, Dinero.importeLinea(1L, 5000, 100_000L));
+        assertEquals(0L, Dinero.importeLinea(1999L, 10_000, 3000L));
+    }
+
+    @Test
+    @DisplayName("Debería fallar en lugar de desbordarse en el importe de una línea")
+    public void shouldFailInsteadOfOverflowingLineAmount() {
+        assertThrows(ArithmeticException.class,
+                () -> Dinero.importeLinea(Long.MAX_VALUE / 10_000, 0, 2L));
+        assertThrows(ArithmeticException.class,
+                () -> Dinero.importeLinea(1_000_000_000L, 0, 1_000_000_000L));
+        assertThrows(ArithmeticException.class, () -> Dinero.porcentaje(Long.MAX_VALUE, 1600));
+    }
+
+    @Test
+    @DisplayName("Debería calcular porcentajes redondeados al centavo")
+    public void shouldComputePercentageRoundedToCent() {
+        assertEquals(1600L, Dinero.porcentaje(10_000L, 1600));
+        // 16% de 0.03 = 0.0048 → 0.00; de 0.04 = 0.0064 → 0.01
+        assertEquals(0L, Dinero.porcentaje(3L, 1600));
+        assertEquals(1L, Dinero.porcentaje(4L, 1600));
+        // 50% de 0.01 = 0.005 → 0.01, y -0.01 para una devolución
+        assertEquals(1L, Dinero.porcentaje(1L, 5000));
+        assertEquals(-1L, Dinero.porcentaje(-1L, 5000));
+        assertEquals(0L, Dinero.porcentaje(0L, 1600));
+    }
+
+    @Test
+    @DisplayName("Debería dividir redondeando la mitad alejándose de cero")
+    public void shouldDivideRoundingHalfAwayFromZero() {
+        assertEquals(3L, Dinero.dividir(5L, 2L));
+        assertEquals(-3L, Dinero.dividir(-5L, 2L));
+        assertEquals(2L, Dinero.dividir(7L, 3L));
+        assertEquals(-2L, Dinero.dividir(-7L, 3L));
+        assertEquals(3L, Dinero.dividir(8L, 3L));
+        assertEquals(-3L, Dinero.dividir(-8L, 3L));
+        assertEquals(0L, Dinero.dividir(4_999L, 10_000L));
+        assertEquals(1L, Dinero.dividir(5_000L, 10_000L));
+        assertEquals(-1L, Dinero.dividir(-5_000L, 10_000L));
+        assertEquals(4L, Dinero.dividir(4L, 1L));
+        assertEquals(0L, Dinero.dividir(0L, 7L));
+        // En los extremos el resto no se desborda
+        assertEquals(Long.MAX_VALUE / 2 + 1, Dinero.dividir(Long.MAX_VALUE, 2L));
+        assertEquals(Long.MIN_VALUE / 2, Dinero.dividir(Long.MIN_VALUE, 2L));
+        assertEquals(-(Long.MAX_VALUE / 2 + 1), Dinero.dividir(-Long.MAX_VALUE, 2L));
+    }
+}
@@ -159,18 +159,8 @@ const CorteCaja = ({ onClose }: CorteCajaProps) => {
 
   
   const findNombreById = (id: number) => {
-    const productoEncontrado = ventaSeleccionada?.productosVendidos.find(producto =>
-      producto.productoVentas.some(venta => venta.productoVendidoId === id)
-    );
-
-    // Mostrar el resultado
-    if (productoEncontrado) {
-      console.log("Producto encontrado:", productoEncontrado.nombre);
-      return productoEncontrado.nombre || "Producto sin nombre";
-    } else {
-      console.log("Producto no encontrado");
-      return null
-    }
+    const linea = ventaSeleccionada?.lineas?.find(l => l.productoVendidoId === id);
+    return linea ? linea.nombre || "Producto sin nombre" : null;
   }
 
   // Renderizar el contenido del modal de detalle de venta
@@ -29,7 +29,7 @@ export const useCarrito = () => {
   const [ventaRealizada, setVentaRealizada] = useState<VentaType | null>(null);
   
   // Hooks relacionados
-  const { verificarDisponibilidad, fetchProductos } = useProducto();
+  const { verificarDisponibilidadLote, fetchProductos } = useProducto();
   const { user } = useUser();
   
   // Cargar carrito desde localStorage al iniciar
@@ -214,17 +214,20 @@ export const useCarrito = () => {
         return null;
       }
       
-      // Verificar stock disponible para todos los productos
+      // Verificar stock disponible para todos los productos en una sola petición
+      const cantidades: Record<number, number> = {};
       for (const item of carritoItems) {
-        const disponible = await verificarDisponibilidad(
-          item.producto.productoId, 
-          item.cantidad
-        );
-        
-        if (!disponible) {
-          setError(`No hay suficiente stock para ${item.producto.nombre}`);
-          return null;
-        }
+        const id = item.producto.productoId;
+        cantidades[id] = (cantidades[id] || 0) + item.cantidad;
+      }
+      const disponibilidad = await verificarDisponibilidadLote(cantidades);
+      if (!disponibilidad) {
+        return null;
+      }
+      const sinStock = carritoItems.find(item => !disponibilidad[item.producto.productoId]);
+      if (sinStock) {
+        setError(`No hay suficiente stock para ${sinStock.producto.nombre}`);
+        return null;
       }
 
       // Preparar request para crear venta
@@ -232,14 +235,15 @@ export const useCarrito = () => {
         sucursal: user.sucursal || 'Sucursal Default', // Usar sucursal del usuario o una por defecto
         usuarioId: user.id,
         clienteId: cliente?.idCliente || null, // Puede ser null si no hay cliente seleccionado
-        productos: carritoItems.map(item => ({
-          productoVendidoId: null, // Placeholder, will be set by backend
-          precioUnitario: item.producto.precio,
-          subtotal: item.producto.precio * item.cantidad,
-          producto: item.producto,
-          cantidad: item.cantidad,
-          descuento: descuenos[item.producto.productoId] || 0 // Aplicar descuento si existe
-        })),
+        // Solo se envía producto, cantidad y descuento elegido; el servidor pone los precios
+        lineas: carritoItems.map(item => {
+          const indice = item.producto.descuentos?.indexOf(descuenos[item.producto.productoId]) ?? -1;
+          return {
+            productoId: item.producto.productoId,
+            cantidad: item.cantidad,
+            descuentoIndice: indice >= 0 ? indice : null
+          };
+        }),
         conIva
       };
       
@@ -264,7 +268,7 @@ export const useCarrito = () => {
     } finally {
       setLoading(false);
     }
-  }, [carritoItems, user, clearCart, verificarDisponibilidad, fetchProductos]);
+  }, [carritoItems, user, clearCart, verificarDisponibilidadLote, fetchProductos]);
 
   /**
    * Anula una venta existente
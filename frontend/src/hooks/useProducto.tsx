@@ -241,6 +241,20 @@ export const useProducto = () => {
     }
   };
 
+  /**
+   * Verifica disponibilidad de stock de varios productos en una sola petición
+   */
+  const verificarDisponibilidadLote = async (cantidades: Record<number, number>): Promise<Record<number, boolean> | null> => {
+    try {
+      return await ProductoService.verificarDisponibilidadLote(cantidades);
+    } catch (error: any) {
+      console.error('Error al verificar disponibilidad:', error);
+      const errorMessage = error.response?.data?.message || 'Error al verificar disponibilidad';
+      alert(errorMessage);
+      return null;
+    }
+  };
+
   /**
    * Filtra productos por nombre en el estado local (sin llamada al backend)
    */
@@ -302,6 +316,7 @@ export const useProducto = () => {
     // Acciones específicas de productos
     actualizarStock,
     verificarDisponibilidad,
+    verificarDisponibilidadLote,
     
     // Búsqueda y filtrado con backend
     buscarProductos,
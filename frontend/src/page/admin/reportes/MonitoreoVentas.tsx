@@ -31,6 +31,9 @@ const MonitoreoVentas = ({ fechaInicio, fechaFin }: MonitoreoVentasProps) => {
   // Añadir nuevos estados para filtrar por hora
   const [filtroHoraInicio, setFiltroHoraInicio] = useState<string>("");
   const [filtroHoraFin, setFiltroHoraFin] = useState<string>("");
+  // Cursor de la siguiente página de ventas (null si ya se cargaron todas)
+  const [siguienteCursor, setSiguienteCursor] = useState<string | null>(null);
+  const [cargandoMas, setCargandoMas] = useState<boolean>(false);
 
   // Usar el hook de modal para gestionar el estado del modal
   const { isOpen, openModal, closeModal } = useModal();
@@ -67,20 +70,16 @@ const MonitoreoVentas = ({ fechaInicio, fechaFin }: MonitoreoVentasProps) => {
     }
   }, [ventasOriginales]);
 
-  // Función para cargar ventas
+  // Función para cargar ventas (primera página)
   const cargarVentas = async () => {
     setLoading(true);
     try {
-      const response = await VentaService.getVentasByRangoDeFechasParaMonitoreo(fechaInicio, fechaFin);
-      // Ordenar por fecha más reciente por defecto
-      const ventasOrdenadas = [...response].sort((a, b) => {
-        const fechaA = new Date(a.venta.fecha + 'T00:00:00');
-        const fechaB = new Date(b.venta.fecha + 'T00:00:00');
-        return fechaB.getTime() - fechaA.getTime();
-      });
+      // El servidor las devuelve ordenadas de la más reciente a la más antigua
+      const pagina = await VentaService.getPaginaVentasParaMonitoreo(fechaInicio, fechaFin, null);
 
-      setVentasOriginales(ventasOrdenadas);
-      setVentasFiltradas(ventasOrdenadas);
+      setVentasOriginales(pagina.ventas);
+      setSiguienteCursor(pagina.siguienteCursor);
+      aplicarFiltros(filtroCliente, filtroHoraInicio, filtroHoraFin, pagina.ventas);
     } catch (error) {
       console.error("Error al cargar ventas:", error);
       toast.error("Error al cargar datos de ventas");
@@ -88,6 +87,25 @@ const MonitoreoVentas = ({ fechaInicio, fechaFin }: MonitoreoVentasProps) => {
       setLoading(false);
     }
   };
+
+  // Función para cargar la siguiente página y agregarla a las ventas ya mostradas
+  const cargarMasVentas = async () => {
+    if (!siguienteCursor) return;
+    setCargandoMas(true);
+    try {
+      const pagina = await VentaService.getPaginaVentasParaMonitoreo(fechaInicio, fechaFin, siguienteCursor);
+      const ventas = [...ventasOriginales, ...pagina.ventas];
+
+      setVentasOriginales(ventas);
+      setSiguienteCursor(pagina.siguienteCursor);
+      aplicarFiltros(filtroCliente, filtroHoraInicio, filtroHoraFin, ventas);
+    } catch (error) {
+      console.error("Error al cargar más ventas:", error);
+      toast.error("Error al cargar más ventas");
+    } finally {
+      setCargandoMas(false);
+    }
+  };
  
   // Función para manejar el cambio de hora de inicio
   const handleFiltroHoraInicioChange = (e: React.ChangeEvent<HTMLInputElement>) => {
@@ -102,8 +120,13 @@ const MonitoreoVentas = ({ fechaInicio, fechaFin }: MonitoreoVentasProps) => {
   };
 
   // Función para aplicar todos los filtros a la vez
-  const aplicarFiltros = (clienteId: string, horaInicio: string, horaFin: string) => {
-    let ventasFiltradas = [...ventasOriginales];
+  const aplicarFiltros = (
+    clienteId: string,
+    horaInicio: string,
+    horaFin: string,
+    ventas: VentaMonitoreoResponse[] = ventasOriginales
+  ) => {
+    let ventasFiltradas = [...ventas];
 
     // Filtrar por cliente si hay uno seleccionado
     if (clienteId !== "") {
@@ -163,18 +186,8 @@ const MonitoreoVentas = ({ fechaInicio, fechaFin }: MonitoreoVentasProps) => {
   };
 
   const findNombreById = (id: number) => {
-    const productoEncontrado = ventaSeleccionada?.productosVendidos.find(producto =>
-      producto.productoVentas.some(venta => venta.productoVendidoId === id)
-    );
-
-    // Mostrar el resultado
-    if (productoEncontrado) {
-      console.log("Producto encontrado:", productoEncontrado.nombre);
-      return productoEncontrado.nombre || "Producto sin nombre";
-    } else {
-      console.log("Producto no encontrado");
-      return null
-    }
+    const linea = ventaSeleccionada?.lineas?.find(l => l.productoVendidoId === id);
+    return linea ? linea.nombre || "Producto sin nombre" : null;
   }
 
   // --- ESTILO DETALLE DE VENTA ---
@@ -463,6 +476,13 @@ const MonitoreoVentas = ({ fechaInicio, fechaFin }: MonitoreoVentasProps) => {
           <div className="ml-auto text-sm text-gray-600 dark:text-gray-300 sm:col-span-2 md:col-span-1">
             Mostrando {ventasFiltradas.length} de {ventasOriginales.length} ventas
           </div>
+
+          {/* Los filtros se aplican en el navegador, solo sobre las páginas ya cargadas */}
+          {siguienteCursor && (
+            <div className="sm:col-span-2 md:col-span-3 text-xs text-amber-700 dark:text-amber-400">
+              Los filtros solo consideran las {ventasOriginales.length} ventas cargadas. Usa "Cargar más ventas" para incluir el resto del rango.
+            </div>
+          )}
         </div>
 
         {loading ? (
@@ -544,6 +564,17 @@ const MonitoreoVentas = ({ fechaInicio, fechaFin }: MonitoreoVentasProps) => {
                 )}
               </tbody>
             </table>
+            {siguienteCursor && (
+              <div className="flex justify-center py-4">
+                <Button
+                  onClick={cargarMasVentas}
+                  disabled={cargandoMas}
+                  className="bg-gray-200 text-gray-700 hover:bg-gray-300 dark:bg-gray-800 dark:text-gray-200 dark:hover:bg-gray-700 rounded-md font-semibold"
+                >
+                  {cargandoMas ? "Cargando..." : "Cargar más ventas"}
+                </Button>
+              </div>
+            )}
           </div>
         )}
       </CardContent>
@@ -3,6 +3,7 @@ import ApiService from './ApiService';
 import IndexedDBService from './IndexedDBService';
 import ConnectionService from './ConnectionService';
 import { type ProductoType } from '../types/ProductoType';
+import { type CambiosCatalogoType, type ManifiestoCatalogoType } from '../types/SyncTypes';
 
 /**
  * Servicio especializado para manejar productos con soporte offline
@@ -12,6 +13,9 @@ class OfflineProductoService {
   private indexedDBService: IndexedDBService;
   private readonly PRODUCTOS_CACHE_KEY = 'productos_cache';
   private readonly PRODUCTOS_CHANGES_KEY = 'productos_cambios';
+  private readonly CATEGORIAS_CACHE_KEY = 'categorias_cache';
+  private readonly CLIENTES_CACHE_KEY = 'clientes_cache';
+  private readonly SYNC_CURSOR_KEY = 'catalogo_sync_cursor';
 
   private constructor() {
     this.indexedDBService = IndexedDBService.getInstance();
@@ -33,12 +37,9 @@ class OfflineProductoService {
   private async initProductosCache(): Promise<void> {
     if (ConnectionService.getStatus()) {
       try {
-        // Cargar todos los productos al inicio
-        const productos = await ApiService.get('/productos');
-        if (productos) {
-          await this.indexedDBService.storeOfflineData(this.PRODUCTOS_CACHE_KEY, productos);
-          console.log('Caché de productos inicializada con', (productos as ProductoType[]).length, 'productos');
-        }
+        // Al inicio solo se descargan los cambios desde la última sincronización
+        const productos = await this.sincronizarCatalogo();
+        console.log('Caché de productos inicializada con', productos.length, 'productos');
       } catch (error) {
         console.error('Error al inicializar caché de productos:', error);
       }
@@ -51,10 +52,8 @@ class OfflineProductoService {
   public async getProductos(): Promise<ProductoType[]> {
     try {
       if (ConnectionService.getStatus()) {
-        // Si estamos online, obtenemos los productos del servidor y actualizamos la caché
-        const productos = await ApiService.get('/productos');
-        await this.indexedDBService.storeOfflineData(this.PRODUCTOS_CACHE_KEY, productos);
-        return productos as ProductoType[];
+        // Si estamos online, aplicamos a la caché los cambios del servidor
+        return await this.sincronizarCatalogo();
       } else {
         // Si estamos offline, usamos la caché
         const productosCache = await this.indexedDBService.getOfflineData(this.PRODUCTOS_CACHE_KEY);
@@ -75,6 +74,64 @@ class OfflineProductoService {
     }
   }
 
+  /**
+   * Descarga los cambios de productos, categorías y clientes posteriores a la última
+   * sincronización y los aplica a la caché local. La primera vez, o si la posición
+   * guardada es demasiado vieja, el servidor envía todo y la caché se reemplaza.
+   */
+  private async sincronizarCatalogo(): Promise<ProductoType[]> {
+    const desde = (await this.indexedDBService.getOfflineData(this.SYNC_CURSOR_KEY)) || 0;
+    const cambios = await this.descargarCambios(desde);
+
+    const eliminados = (entidad: string) => new Set(
+      cambios.eliminados.filter(e => e.entidad === entidad).map(e => e.id)
+    );
+    const actuales = async (clave: string) =>
+      cambios.completo ? [] : (await this.indexedDBService.getOfflineData(clave)) || [];
+
+    const productos = this.aplicarCambios(
+      await actuales(this.PRODUCTOS_CACHE_KEY), cambios.productos, 'productoId', eliminados('PRODUCTO'));
+    const categorias = this.aplicarCambios(
+      await actuales(this.CATEGORIAS_CACHE_KEY), cambios.categorias, 'categoriaId', eliminados('CATEGORIA'));
+    const clientes = this.aplicarCambios(
+      await actuales(this.CLIENTES_CACHE_KEY), cambios.clientes, 'idCliente', eliminados('CLIENTE'));
+
+    await this.indexedDBService.storeOfflineData(this.PRODUCTOS_CACHE_KEY, productos);
+    await this.indexedDBService.storeOfflineData(this.CATEGORIAS_CACHE_KEY, categorias);
+    await this.indexedDBService.storeOfflineData(this.CLIENTES_CACHE_KEY, clientes);
+    // La posición se guarda al final: si algo falla, la siguiente vez se repiten los mismos cambios
+    await this.indexedDBService.storeOfflineData(this.SYNC_CURSOR_KEY, cambios.hasta);
+
+    return productos;
+  }
+
+  /**
+   * En la primera carga descarga el catálogo publicado como archivo estático (lo sirve
+   * nginx ya comprimido); después, o si no hay archivo publicado, solo los cambios.
+   */
+  private async descargarCambios(desde: number): Promise<CambiosCatalogoType> {
+    if (!desde) {
+      try {
+        const manifiesto = await ApiService.get<ManifiestoCatalogoType>('/sync/snapshot');
+        const url = new URL(manifiesto.url, import.meta.env.VITE_API_BASE_URL || window.location.origin);
+        return await ApiService.get<CambiosCatalogoType>(url.toString());
+      } catch (error) {
+        console.warn('No se pudo descargar el catálogo publicado, se usa /sync/cambios:', error);
+      }
+    }
+    return await ApiService.get<CambiosCatalogoType>(`/sync/cambios?desde=${desde}`);
+  }
+
+  /**
+   * Reemplaza por id los elementos que cambiaron y quita los eliminados
+   */
+  private aplicarCambios(actuales: any[], cambios: any[], llave: string, eliminados: Set<number>): any[] {
+    const porId = new Map(actuales.map(item => [item[llave], item]));
+    cambios.forEach(item => porId.set(item[llave], item));
+    eliminados.forEach(id => porId.delete(id));
+    return Array.from(porId.values());
+  }
+
   /**
    * Crea un nuevo producto con soporte offline
    */
@@ -69,6 +69,10 @@ class OfflineVentaService {
    * Guarda una venta en el almacenamiento local
    */
   private async guardarVentaOffline(venta: VentaType): Promise<void> {
+    // La clave se ordena por tiempo y permite al servidor descartar reintentos de la misma venta
+    const claveIdempotencia = venta.claveIdempotencia || this.generarClaveIdempotencia();
+    venta = { ...venta, claveIdempotencia };
+
     // Asignamos un ID temporal para identificarla localmente
     const ventaConIdTemporal = {
       ...venta,
@@ -92,6 +96,15 @@ class OfflineVentaService {
     console.log('Venta guardada localmente:', ventaConIdTemporal);
   }
 
+  /**
+   * Genera una clave única que se ordena cronológicamente
+   */
+  private generarClaveIdempotencia(): string {
+    const marcaTiempo = Date.now().toString(36).padStart(10, '0');
+    const aleatorio = Math.random().toString(36).slice(2, 10);
+    return `${marcaTiempo}-${aleatorio}`;
+  }
+
   /**
    * Obtiene todas las ventas pendientes almacenadas localmente
    */
@@ -130,8 +143,17 @@ class OfflineVentaService {
    * Elimina una venta pendiente específica (por ejemplo, si el usuario decide descartarla)
    */
   public async eliminarVentaPendiente(idTemporal: string): Promise<void> {
+    await this.eliminarVentasPendientes([idTemporal]);
+  }
+
+  /**
+   * Elimina varias ventas pendientes a la vez, identificadas por su clave de idempotencia o ID temporal
+   */
+  public async eliminarVentasPendientes(claves: string[]): Promise<void> {
     const ventasPendientes = await this.getVentasPendientes();
-    const ventasActualizadas = ventasPendientes.filter(v => String(v.ventaId) !== idTemporal);
+    const ventasActualizadas = ventasPendientes.filter(v =>
+      !claves.includes(String(v.claveIdempotencia ?? v.ventaId))
+    );
     
     await this.indexedDBService.storeOfflineData(this.VENTAS_OFFLINE_KEY, ventasActualizadas);
   }
@@ -107,6 +107,16 @@ export const ProductoService = {
   verificarDisponibilidad: async (id: number, cantidad: number): Promise<boolean> => {
     const response = await apiClient.get<boolean>(`${BASE_URL}/${id}/disponibilidad?cantidad=${cantidad}`);
     return response.data;
+  },
+
+  /**
+   * Verifica en una sola petición si hay stock suficiente para varios productos
+   * @param cantidades Cantidad solicitada por ID de producto
+   * @returns Por ID de producto, true si hay suficiente stock
+   */
+  verificarDisponibilidadLote: async (cantidades: Record<number, number>): Promise<Record<number, boolean>> => {
+    const response = await apiClient.post<Record<number, boolean>>(`${BASE_URL}/disponibilidad`, cantidades);
+    return response.data;
   }
 };
 
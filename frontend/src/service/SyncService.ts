@@ -3,6 +3,7 @@ import ConnectionService from './ConnectionService';
 import IndexedDBService from './IndexedDBService';
 import OfflineVentaService from './OfflineVentaService';
 import { toast } from 'react-hot-toast';
+import type { VentaLoteResultado } from '../types/VentaTypes';
 
 class SyncService {
   private static instance: SyncService;
@@ -107,23 +108,26 @@ class SyncService {
       try {
         // Obtener todas las ventas pendientes
         const ventasPendientes = await this.offlineVentaService.getVentasPendientes();
-        let exitosas = 0;
-        let fallidas = 0;
+        const ventasLimpias = ventasPendientes.map(venta => {
+          const ventaLimpia = { ...(venta as any) };
+          delete ventaLimpia._timestamp;
+          delete ventaLimpia._offline;
+          return ventaLimpia;
+        });
         
-        // Procesar cada venta
-        for (const venta of ventasPendientes) {
-          try {
-            // Enviar la venta al servidor (usando el método sendRequest)
-            await this.sendRequest('/ventas', 'POST', venta);
-            
-            // Si se envió correctamente, eliminarla de pendientes
-            await this.offlineVentaService.eliminarVentaPendiente(String(venta.ventaId));
-            exitosas++;
-          } catch (error) {
-            console.error(`Error al sincronizar venta ${venta.ventaId}:`, error);
-            fallidas++;
-          }
-        }
+        // Se envían todas en una sola petición; el servidor descarta las claves ya registradas
+        const resultados: VentaLoteResultado[] = await this.sendRequest('/ventas/lote', 'POST', ventasLimpias);
+        const sincronizadas = resultados
+          .filter(resultado => resultado.estado !== 'ERROR')
+          .map(resultado => resultado.claveIdempotencia);
+        
+        resultados
+          .filter(resultado => resultado.estado === 'ERROR')
+          .forEach(resultado => console.error(`Error al sincronizar venta ${resultado.claveIdempotencia}:`, resultado.mensaje));
+        
+        await this.offlineVentaService.eliminarVentasPendientes(sincronizadas);
+        const exitosas = sincronizadas.length;
+        const fallidas = resultados.length - exitosas;
         
         // Notificar el resultado
         if (exitosas > 0) {
@@ -1,7 +1,8 @@
-import type { VentaMonitoreoResponse, VentaRequest, VentaType } from '../types/VentaTypes';
+import type { CotizacionType, PaginaVentasMonitoreo, VentaMonitoreoResponse, VentaRequest, VentaType } from '../types/VentaTypes';
 import { apiClient } from './apiClient';
 
 const BASE_URL = '/ventas';
+const TAMANO_PAGINA_MONITOREO = 100;
 
 /**
  * Servicio para gestionar las operaciones relacionadas con ventas
@@ -17,6 +18,16 @@ export const VentaService = {
     return response.data;
   },
 
+  /**
+   * Cotiza un carrito con los precios y descuentos del servidor sin registrar la venta
+   * @param ventaRequest Carrito a cotizar
+   * @returns Precio de cada línea, subtotal, IVA y total
+   */
+  cotizarVenta: async (ventaRequest: Omit<VentaRequest, 'sucursal' | 'usuarioId'>): Promise<CotizacionType> => {
+    const response = await apiClient.post<CotizacionType>(`${BASE_URL}/cotizar`, ventaRequest);
+    return response.data;
+  },
+
   /**
    * Obtiene una venta por su ID
    * @param id ID de la venta a buscar
@@ -56,10 +67,17 @@ export const VentaService = {
    * @returns Lista de ventas en el rango de fechas
    */
   getVentasByRangoDeFechas: async (fechaInicio: string, fechaFin: string): Promise<VentaType[]> => {
-    const response = await apiClient.get<VentaType[]>(`${BASE_URL}/rango`, {
-      params: { fechaInicio, fechaFin }
-    });
-    return response.data;
+    // El servidor responde por páginas; se siguen los cursores hasta completar el rango
+    const ventas: VentaType[] = [];
+    let cursor: string | null = null;
+    do {
+      const response = await apiClient.get<VentaType[]>(`${BASE_URL}/rango`, {
+        params: { fechaInicio, fechaFin, ...(cursor ? { cursor } : {}) }
+      });
+      ventas.push(...response.data);
+      cursor = response.headers['x-siguiente-cursor'] ?? null;
+    } while (cursor);
+    return ventas;
   },
 
   /**
@@ -69,10 +87,38 @@ export const VentaService = {
    * @returns Lista de ventas en el rango de fechas
    */
   getVentasByRangoDeFechasParaMonitoreo: async (fechaInicio: string, fechaFin: string): Promise<VentaMonitoreoResponse[]> => {
+    // Se recorre el rango por páginas para no pedir todo en una sola respuesta
+    const ventas: VentaMonitoreoResponse[] = [];
+    let cursor: string | null = null;
+    do {
+      const pagina: PaginaVentasMonitoreo = await VentaService.getPaginaVentasParaMonitoreo(fechaInicio, fechaFin, cursor);
+      ventas.push(...pagina.ventas);
+      cursor = pagina.siguienteCursor;
+    } while (cursor);
+    return ventas;
+  },
+
+  /**
+   * Obtiene una página de ventas para monitoreo, de la más reciente a la más antigua
+   * @param fechaInicio Fecha de inicio en formato 'YYYY-MM-DD'
+   * @param fechaFin Fecha de fin en formato 'YYYY-MM-DD'
+   * @param cursor Cursor devuelto por la página anterior, o null para la primera
+   * @param limite Cantidad máxima de ventas por página
+   * @returns Ventas de la página y cursor de la siguiente
+   */
+  getPaginaVentasParaMonitoreo: async (
+    fechaInicio: string,
+    fechaFin: string,
+    cursor: string | null,
+    limite: number = TAMANO_PAGINA_MONITOREO
+  ): Promise<PaginaVentasMonitoreo> => {
     const response = await apiClient.get<VentaMonitoreoResponse[]>(`${BASE_URL}/rango-monitoreo`, {
-      params: { fechaInicio, fechaFin }
+      params: { fechaInicio, fechaFin, limite, ...(cursor ? { cursor } : {}) }
     });
-    return response.data;
+    return {
+      ventas: response.data,
+      siguienteCursor: response.headers['x-siguiente-cursor'] ?? null
+    };
   },
 
   /**
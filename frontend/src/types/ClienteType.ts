@@ -5,4 +5,6 @@ export type ClienteType ={
     idCliente: number;
     nombre: string;
     ventas?: VentaType[]; // Opcional porque normalmente no necesitamos cargar todas las ventas
+    tickets?: number; // Solo con ?resumen=true
+    ultimaCompra?: string;
 }
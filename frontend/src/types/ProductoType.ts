@@ -16,6 +16,6 @@ export type ProductoType = {
   tipo: string;
   sucursal:string;
   descripcion?: string;
-  productoVentas: ProductoVendidoType[];
+  productoVentas?: ProductoVendidoType[]; // El catálogo no lo incluye
   descuentos?: number[]; // Array de hasta 4 descuentos en porcentaje
 }
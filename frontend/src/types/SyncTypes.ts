@@ -0,0 +1,25 @@
+import type { CategoriaType } from "./CategoriaType";
+import type { ClienteType } from "./ClienteType";
+import type { ProductoType } from "./ProductoType";
+
+// Respuesta de /sync/cambios: altas y cambios posteriores a "desde" más los eliminados
+export type CambiosCatalogoType = {
+  desde: number;
+  hasta: number;
+  completo: boolean; // true: la copia local se reemplaza por completo
+  productos: ProductoType[];
+  categorias: CategoriaType[];
+  clientes: ClienteType[];
+  eliminados: { entidad: 'PRODUCTO' | 'CATEGORIA' | 'CLIENTE'; id: number }[];
+}
+
+// Respuesta de /sync/snapshot: archivo inmutable con el catálogo completo
+export type ManifiestoCatalogoType = {
+  version: string;
+  url: string;
+  hasta: number;
+  generado: string;
+  productos: number;
+  bytes: number;
+  bytesGzip: number;
+}
@@ -9,4 +9,6 @@ export type UsuarioType= {
   activo: boolean;
   ultimoAcceso?: string;
   sucursal?: string; 
+  tickets?: number; // Solo en el listado de usuarios
+  ultimaVenta?: string;
 }
\ No newline at end of file
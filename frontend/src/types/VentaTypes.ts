@@ -15,6 +15,7 @@ export interface VentaType {
   hora: string;
   productosVendidos: ProductoVendidoType[];
   sucursal: string;
+  claveIdempotencia?: string; // Identificador generado en la terminal para evitar duplicados al sincronizar
 }
 
 /**
@@ -29,6 +30,15 @@ export interface ProductoVendidoType {
   descuento?: number|0; // Descuento opcional
 }
 
+/**
+ * Línea compacta de una venta; el servidor toma precio y descuento de su catálogo
+ */
+export interface LineaVentaRequest {
+  productoId: number;
+  cantidad: number;
+  descuentoIndice?: number | null; // Posición en producto.descuentos; sin valor = precio de lista
+}
+
 /**
  * Interfaz para la solicitud de creación de venta
  */
@@ -36,8 +46,46 @@ export interface VentaRequest {
   sucursal: string;
   usuarioId: number;
   clienteId?: number | null;  // Agregar campo para el ID del cliente
-  productos: ProductoVendidoType[];
+  productos?: ProductoVendidoType[]; // Formato anterior, lo sigue usando la cola offline
+  lineas?: LineaVentaRequest[];
   conIva: boolean;
+  claveIdempotencia?: string;
+}
+
+/**
+ * Cotización de un carrito calculada por el servidor
+ */
+export interface CotizacionType {
+  lineas: {
+    productoId: number;
+    nombre: string;
+    cantidad: number;
+    precioUnitario: number;
+    descuento: number;
+    subtotal: number;
+  }[];
+  subtotal: number;
+  iva: number;
+  total: number;
+}
+
+/**
+ * Resultado de cada venta enviada en un lote a /ventas/lote
+ */
+export interface VentaLoteResultado {
+  claveIdempotencia: string;
+  ventaId: number | null;
+  estado: 'CREADA' | 'DUPLICADA' | 'ERROR';
+  mensaje?: string | null;
+}
+
+/**
+ * Línea de una venta con el nombre del producto
+ */
+export interface LineaVentaType {
+  productoVendidoId: number;
+  productoId: number;
+  nombre: string;
 }
 
 export interface VentaMonitoreoResponse {
@@ -45,4 +93,13 @@ export interface VentaMonitoreoResponse {
   venta: VentaType;
   productosVendidos: ProductoType[];
   cliente:ClienteType;
+  lineas: LineaVentaType[];
+}
+
+/**
+ * Página de ventas de monitoreo; siguienteCursor es null cuando ya no hay más
+ */
+export interface PaginaVentasMonitoreo {
+  ventas: VentaMonitoreoResponse[];
+  siguienteCursor: string | null;
 }
\ No newline at end of file